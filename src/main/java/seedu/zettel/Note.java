@@ -4,8 +4,12 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Represents a note in the Zettel system.
@@ -22,19 +26,26 @@ public class Note {
     // Static counter for tracking total notes created
     private static int numberOfNotes = 0;
 
+    // Source of modification generations, shared by all notes so that generations never repeat
+    private static final AtomicLong GENERATION_COUNTER = new AtomicLong();
+
     // Instance fields
     private final String id; // 8-character hash-based unique identifier
     private String title; // Title of the note
     private String filename; // Actual filename on disk
-    private String body; // Body content of the note
+    private String body; // Body content of the note, null while it is only held on disk
+    private Supplier<String> bodyLoader; // Reads the body from storage when it is not held in memory
     private Instant createdAt; // Timestamp when the note was created
     private Instant modifiedAt; // Timestamp when the note was last modified
     private boolean isPinned; // Whether the note is pinned
     private boolean isArchived; // Whether the note has been archived
     private String archiveName; // Name of the archive the note belongs to
+    private String bodyCodec; // Codec the stored body is compressed with, null if it is stored as plain text
+    private String bodyHash; // Content hash the body is stored under, null if it is stored in its own file
     private List<String> tags; // Tags for the note
     private HashSet<String> outgoingLinks; // note IDs that this note links to
     private HashSet<String> incomingLinks; // note IDs of notes that is linked by this note
+    private long generation; // Bumped on every modification, used to tell which notes need saving
 
     /**
      * Constructor for creating a new note by the user.
@@ -61,6 +72,7 @@ public class Note {
         this.tags = new ArrayList<>();
         this.outgoingLinks = new HashSet<>();
         this.incomingLinks = new HashSet<>();
+        this.generation = GENERATION_COUNTER.incrementAndGet();
         numberOfNotes++;
     }
 
@@ -94,6 +106,7 @@ public class Note {
         this.tags = tags != null ? new ArrayList<>(tags) : new ArrayList<>();
         this.outgoingLinks = new HashSet<>();
         this.incomingLinks = new HashSet<>();
+        this.generation = GENERATION_COUNTER.incrementAndGet();
         numberOfNotes++;
     }
 
@@ -128,10 +141,14 @@ public class Note {
 
     /**
      * Gets the body content of this note.
+     * If the body is not held in memory, it is read through the body loader.
      *
      * @return The note body
      */
     public String getBody() {
+        if (body == null && bodyLoader != null) {
+            return bodyLoader.get();
+        }
         return body;
     }
 
@@ -200,6 +217,24 @@ public class Note {
         return archiveName;
     }
 
+    /**
+     * Gets the codec this note's body is compressed with on disk.
+     *
+     * @return The codec name, or null if the body is stored as plain text
+     */
+    public String getBodyCodec() {
+        return bodyCodec;
+    }
+
+    /**
+     * Gets the content hash this note's body is stored under in the repository's content store.
+     *
+     * @return The hash, or null if the body is stored in its own body file
+     */
+    public String getBodyHash() {
+        return bodyHash;
+    }
+
     /**
      * Gets a tag list for this note.
      *
@@ -209,6 +244,26 @@ public class Note {
     public List<String> getTags() {
         return new ArrayList<>(tags);
     }
+    /**
+     * Gets a read-only view of this note's tags, without copying them.
+     *
+     * @return An unmodifiable view of the tag list
+     */
+    public List<String> getTagsView() {
+        return Collections.unmodifiableList(tags);
+    }
+
+    /**
+     * Gets the modification generation of this note.
+     * The generation changes whenever the note is modified, so comparing it against the
+     * generation that was last saved tells whether the note needs to be written again.
+     *
+     * @return The current modification generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
     /**
      * Gets the total number of notes created since the application started.
      *
@@ -238,6 +293,24 @@ public class Note {
         return new HashSet<>(incomingLinks);
     }
 
+    /**
+     * Gets a read-only view of the note IDs this note links to, without copying them.
+     *
+     * @return An unmodifiable view of the outgoing links
+     */
+    public Set<String> getOutgoingLinksView() {
+        return Collections.unmodifiableSet(outgoingLinks);
+    }
+
+    /**
+     * Gets a read-only view of the note IDs linking to this note, without copying them.
+     *
+     * @return An unmodifiable view of the incoming links
+     */
+    public Set<String> getIncomingLinksView() {
+        return Collections.unmodifiableSet(incomingLinks);
+    }
+
     // Setters
 
     /**
@@ -258,6 +331,7 @@ public class Note {
      */
     public void setFilename(String filename) {
         this.filename = filename;
+        markModified();
     }
 
     /**
@@ -300,9 +374,37 @@ public class Note {
         updateModifiedAt();
     }
 
+    /**
+     * Sets the codec this note's body is compressed with on disk.
+     * Does not update the modified timestamp, since the body itself does not change.
+     *
+     * @param bodyCodec The codec name, or null for plain text
+     */
+    public void setBodyCodec(String bodyCodec) {
+        this.bodyCodec = bodyCodec;
+        markModified();
+    }
+
+    /**
+     * Sets the content hash this note's body is stored under.
+     * Does not update the modified timestamp, since moving the body between stores does not change it.
+     *
+     * @param bodyHash The hash, or null if the body is stored in its own body file
+     */
+    public void setBodyHash(String bodyHash) {
+        this.bodyHash = bodyHash;
+        markModified();
+    }
+
 
+    /**
+     * Adds a tag to this note's tags list.
+     *
+     * @param tag The tag to add
+     */
     public void addTag(String tag) {
         this.tags.add(tag);
+        markModified();
     }
 
     /**
@@ -312,6 +414,7 @@ public class Note {
      */
     public void removeTag(String tag) {
         this.tags.remove(tag);
+        markModified();
     }
 
     /**
@@ -322,6 +425,7 @@ public class Note {
     public void addOutgoingLink(String noteId) {
         if (noteId != null && !noteId.trim().isEmpty()) {
             this.outgoingLinks.add(noteId.trim());
+            markModified();
         }
     }
     /**
@@ -332,6 +436,7 @@ public class Note {
     public void addIncomingLink(String noteId) {
         if (noteId != null && !noteId.trim().isEmpty()) {
             this.incomingLinks.add(noteId.trim());
+            markModified();
         }
     }
 
@@ -342,6 +447,7 @@ public class Note {
      */
     public void removeOutgoingLink(String noteId) {
         this.outgoingLinks.remove(noteId);
+        markModified();
     }
 
     /**
@@ -351,6 +457,7 @@ public class Note {
      */
     public void removeIncomingLink(String noteId) {
         this.incomingLinks.remove(noteId);
+        markModified();
     }
 
     /**
@@ -359,6 +466,25 @@ public class Note {
      */
     public void updateModifiedAt() {
         this.modifiedAt = Instant.now();
+        markModified();
+    }
+
+    /**
+     * Sets the modifiedAt timestamp to a given time, e.g. when the body file was changed outside Zettel.
+     *
+     * @param modifiedAt The time the note was last modified
+     */
+    public void setModifiedAt(Instant modifiedAt) {
+        this.modifiedAt = modifiedAt;
+        markModified();
+    }
+
+    /**
+     * Moves this note to a new modification generation.
+     * Called by every method that changes what is persisted for the note.
+     */
+    private void markModified() {
+        this.generation = GENERATION_COUNTER.incrementAndGet();
     }
 
     /**
@@ -370,6 +496,17 @@ public class Note {
         this.body = body;
     }
 
+    /**
+     * Drops the body held in memory and reads it on demand through the given loader instead.
+     * Does not update the modified timestamp.
+     *
+     * @param bodyLoader Supplies the current body content from storage
+     */
+    public void setBodyLoader(Supplier<String> bodyLoader) {
+        this.body = null;
+        this.bodyLoader = bodyLoader;
+    }
+
     /**
      * Returns a formatted string representation of the note for display in lists.
      * Format: FILENAME yyyy-MM-dd NOTEID
@@ -379,7 +516,18 @@ public class Note {
      */
     @Override
     public String toString() {
+        return toString(id);
+    }
+
+    /**
+     * Returns the representation of the note for display in lists, showing the given form of its ID,
+     * such as the shortest prefix that tells it apart from the IDs of the other notes.
+     *
+     * @param shownId The ID, or prefix of it, to show
+     * @return Formatted string with filename, creation date, and the ID shown
+     */
+    public String toString(String shownId) {
         String formattedDate = DATE_FORMATTER.format(createdAt);
-        return String.format("%s %s %s", filename, formattedDate, id);
+        return String.format("%s %s %s", filename, formattedDate, shownId);
     }
 }
@@ -0,0 +1,150 @@
+package seedu.zettel;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from int keys to notes, using open addressing with linear probing over flat arrays.
+ * A note ID of 8 lowercase hex characters is exactly one int, so this finds a note by ID without
+ * boxing keys or allocating an entry per note. Removal shifts later entries of a probe run back,
+ * so no tombstones pile up.
+ */
+class NoteIdMap {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Note[] values;
+    private int size;
+
+    /**
+     * Constructs an empty map.
+     */
+    NoteIdMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Constructs an empty map that holds the given number of notes without growing.
+     *
+     * @param expectedSize the number of notes expected
+     */
+    NoteIdMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        // Kept at most half full, so probe runs stay short
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new Note[capacity];
+    }
+
+    /**
+     * Gets the note stored under a key.
+     *
+     * @param key the key
+     * @return the note, or null if none is stored under the key
+     */
+    Note get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores a note under a key, replacing any note stored under it.
+     *
+     * @param key the key
+     * @param note the note
+     * @return the note replaced, or null if none was stored under the key
+     */
+    Note put(int key, Note note) {
+        assert note != null : "Note should not be null";
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                Note replaced = values[slot];
+                values[slot] = note;
+                return replaced;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = note;
+        size++;
+        if (size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the note stored under a key.
+     *
+     * @param key the key
+     * @return the note removed, or null if none was stored under the key
+     */
+    Note remove(int key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        Note removed = values[slot];
+        if (removed == null) {
+            return null;
+        }
+        // Moves back each later entry of the run that could not sit after the emptied slot
+        int empty = slot;
+        for (int next = (empty + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = slotOf(keys[next], mask);
+            if (((next - home) & mask) >= ((next - empty) & mask)) {
+                keys[empty] = keys[next];
+                values[empty] = values[next];
+                empty = next;
+            }
+        }
+        values[empty] = null;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Gets the number of notes stored.
+     *
+     * @return the number of notes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes every note.
+     */
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Note[] oldValues = values;
+        keys = new int[capacity];
+        values = new Note[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    // IDs are hashes already, but the mix keeps keys that differ only in their high bits apart
+    private static int slotOf(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,458 @@
+package seedu.zettel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import seedu.zettel.exceptions.AmbiguousNoteIdException;
+
+/**
+ * List of the notes of a repository that also indexes them by ID and by filename,
+ * so that a note is found, or a filename checked for, in constant time instead of by a scan.
+ * <p>
+ * IDs of 8 lowercase hex characters, which every generated ID is, are indexed as ints in a {@link NoteIdMap};
+ * any other ID falls back to a hash map. The indexes are kept in step by every method that adds, removes or
+ * replaces notes, including those of iterators. A note's ID and filename are read when it is added, so a
+ * note whose filename changes must be removed and added again.
+ * <p>
+ * The hex IDs are also kept in a sorted {@code int[]}, so that a prefix of an ID is resolved, git-style, by
+ * binary search for the range of IDs starting with it. Values are stored with their sign bit flipped, so that
+ * signed int order is the order of the hex strings.
+ * <p>
+ * Lookups through {@link #findById(List, String)}, {@link #resolveId(List, String)} and
+ * {@link #containsFilename(List, String)} use the indexes when given a NoteList and scan any other list,
+ * so callers need not know which they hold.
+ */
+public class NoteList extends ArrayList<Note> {
+    private static final int ID_LENGTH = 8;
+
+    private NoteIdMap hexIds = new NoteIdMap();
+    private Map<String, Note> otherIds = new HashMap<>();
+    private Map<String, Integer> filenameCounts = new HashMap<>();
+    private int[] sortedIds = new int[0];
+    private int sortedIdCount;
+
+    // Notes added under an ID some other note in the list already has
+    private int duplicateIdCount;
+
+    /**
+     * Constructs an empty list.
+     */
+    public NoteList() {
+        super();
+    }
+
+    /**
+     * Constructs a list holding the given notes, in order.
+     *
+     * @param notes the notes
+     */
+    public NoteList(Collection<? extends Note> notes) {
+        super(notes);
+        rebuildIndexes();
+    }
+
+    /**
+     * Finds the note with an ID in a list of notes, using the indexes if the list is a NoteList.
+     *
+     * @param notes the notes
+     * @param noteId the ID
+     * @return the note, or empty if no note has the ID
+     */
+    public static Optional<Note> findById(List<Note> notes, String noteId) {
+        if (notes instanceof NoteList noteList) {
+            return Optional.ofNullable(noteList.getById(noteId));
+        }
+        return notes.stream().filter(n -> n.getId().equals(noteId)).findFirst();
+    }
+
+    /**
+     * Resolves a note ID, or a prefix of one, to the full ID of the one note whose ID starts with it.
+     * A full ID of a note is returned as it is, even if it is also a prefix of other IDs.
+     *
+     * @param notes the notes
+     * @param idOrPrefix a note ID, or the first characters of one
+     * @return the full ID, or {@code idOrPrefix} itself if no note's ID starts with it
+     * @throws AmbiguousNoteIdException if the IDs of several notes start with it
+     */
+    public static String resolveId(List<Note> notes, String idOrPrefix) throws AmbiguousNoteIdException {
+        if (notes instanceof NoteList noteList) {
+            return noteList.resolveId(idOrPrefix);
+        }
+        if (notes.stream().anyMatch(n -> n.getId().equals(idOrPrefix))) {
+            return idOrPrefix;
+        }
+        List<String> candidates = notes.stream().map(Note::getId).filter(id -> id.startsWith(idOrPrefix))
+                .sorted().toList();
+        if (candidates.size() > 1) {
+            throw new AmbiguousNoteIdException(idOrPrefix, candidates, candidates.size());
+        }
+        return candidates.isEmpty() ? idOrPrefix : candidates.get(0);
+    }
+
+    /**
+     * Gets the number of characters of a note's ID that no other note's ID in a list starts with,
+     * so that the ID can be shown, and typed, that short.
+     *
+     * @param notes the notes
+     * @param noteId the ID of a note in the list
+     * @return the length of the shortest unique prefix of the ID, from 1 to the ID's length
+     */
+    public static int getUniquePrefixLength(List<Note> notes, String noteId) {
+        if (notes instanceof NoteList noteList) {
+            return noteList.getUniquePrefixLength(noteId);
+        }
+        int length = 1;
+        for (Note note : notes) {
+            String otherId = note.getId();
+            if (!otherId.equals(noteId)) {
+                int common = 0;
+                while (common < noteId.length() && common < otherId.length()
+                        && noteId.charAt(common) == otherId.charAt(common)) {
+                    common++;
+                }
+                length = Math.max(length, Math.min(common + 1, noteId.length()));
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Tells whether a note in a list of notes has a filename, using the indexes if the list is a NoteList.
+     *
+     * @param notes the notes
+     * @param filename the filename
+     * @return true if a note has the filename
+     */
+    public static boolean containsFilename(List<Note> notes, String filename) {
+        if (notes instanceof NoteList noteList) {
+            return noteList.filenameCounts.containsKey(filename);
+        }
+        return notes.stream().anyMatch(n -> n.getFilename().equals(filename));
+    }
+
+    /**
+     * Gets the note with an ID.
+     *
+     * @param noteId the ID
+     * @return the note, or null if no note in the list has the ID
+     */
+    public Note getById(String noteId) {
+        return isHexId(noteId) ? hexIds.get(toInt(noteId)) : otherIds.get(noteId);
+    }
+
+    /**
+     * Resolves a note ID, or a prefix of one, to the full ID of the one note whose ID starts with it.
+     *
+     * @param idOrPrefix a note ID, or the first characters of one
+     * @return the full ID, or {@code idOrPrefix} itself if no note's ID starts with it
+     * @throws AmbiguousNoteIdException if the IDs of several notes start with it
+     */
+    public String resolveId(String idOrPrefix) throws AmbiguousNoteIdException {
+        if (getById(idOrPrefix) != null || !isHexPrefix(idOrPrefix)) {
+            return idOrPrefix;
+        }
+        int shift = 4 * (ID_LENGTH - idOrPrefix.length());
+        int low = toInt(idOrPrefix) << shift;
+        int high = low | (int) ((1L << shift) - 1);
+        int from = lowerBound(low ^ Integer.MIN_VALUE);
+        int to = lowerBound(high ^ Integer.MIN_VALUE);
+        if (to < sortedIdCount && sortedIds[to] == (high ^ Integer.MIN_VALUE)) {
+            to++;
+        }
+        if (to - from == 1) {
+            return toHex(sortedIds[from]);
+        }
+        if (to - from > 1) {
+            List<String> candidates = new ArrayList<>();
+            for (int i = from; i < to && candidates.size() < AmbiguousNoteIdException.MAX_CANDIDATES_SHOWN; i++) {
+                candidates.add(toHex(sortedIds[i]));
+            }
+            throw new AmbiguousNoteIdException(idOrPrefix, candidates, to - from);
+        }
+        return idOrPrefix;
+    }
+
+    /**
+     * Gets the number of characters of a note's ID that no other note's ID starts with.
+     * Only the neighbours of the ID in sorted order can share a longer prefix with it, so only they are compared.
+     *
+     * @param noteId the ID of a note in the list
+     * @return the length of the shortest unique prefix of the ID, from 1 to the ID's length
+     */
+    public int getUniquePrefixLength(String noteId) {
+        if (!isHexId(noteId)) {
+            return noteId.length();
+        }
+        int key = toInt(noteId) ^ Integer.MIN_VALUE;
+        int position = lowerBound(key);
+        int commonBits = 0;
+        if (position > 0) {
+            commonBits = Integer.numberOfLeadingZeros(sortedIds[position - 1] ^ key);
+        }
+        int next = position < sortedIdCount && sortedIds[position] == key ? position + 1 : position;
+        if (next < sortedIdCount) {
+            commonBits = Math.max(commonBits, Integer.numberOfLeadingZeros(sortedIds[next] ^ key));
+        }
+        return Math.min(commonBits / 4 + 1, ID_LENGTH);
+    }
+
+    @Override
+    public boolean add(Note note) {
+        super.add(note);
+        index(note);
+        return true;
+    }
+
+    @Override
+    public void add(int position, Note note) {
+        super.add(position, note);
+        index(note);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Note> notes) {
+        Note[] added = notes.toArray(new Note[0]);
+        boolean isChanged = super.addAll(List.of(added));
+        for (Note note : added) {
+            index(note);
+        }
+        return isChanged;
+    }
+
+    @Override
+    public boolean addAll(int position, Collection<? extends Note> notes) {
+        Note[] added = notes.toArray(new Note[0]);
+        boolean isChanged = super.addAll(position, List.of(added));
+        for (Note note : added) {
+            index(note);
+        }
+        return isChanged;
+    }
+
+    @Override
+    public Note set(int position, Note note) {
+        Note replaced = super.set(position, note);
+        unindex(replaced);
+        index(note);
+        return replaced;
+    }
+
+    @Override
+    public Note remove(int position) {
+        Note removed = super.remove(position);
+        unindex(removed);
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object note) {
+        int position = indexOf(note);
+        if (position < 0) {
+            return false;
+        }
+        remove(position);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        // Emptied in place, keeping their capacity for the notes of a reload
+        hexIds.clear();
+        otherIds.clear();
+        filenameCounts.clear();
+        sortedIdCount = 0;
+        duplicateIdCount = 0;
+    }
+
+    // Bulk changes below rebuild the indexes from scratch, which costs no more than the change itself
+
+    @Override
+    public boolean removeIf(Predicate<? super Note> filter) {
+        boolean isChanged = super.removeIf(filter);
+        if (isChanged) {
+            rebuildIndexes();
+        }
+        return isChanged;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> notes) {
+        boolean isChanged = super.removeAll(notes);
+        if (isChanged) {
+            rebuildIndexes();
+        }
+        return isChanged;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> notes) {
+        boolean isChanged = super.retainAll(notes);
+        if (isChanged) {
+            rebuildIndexes();
+        }
+        return isChanged;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Note> operator) {
+        super.replaceAll(operator);
+        rebuildIndexes();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        super.removeRange(fromIndex, toIndex);
+        rebuildIndexes();
+    }
+
+    // Of notes sharing an ID, only the one added first is indexed; the rest are counted for unindex()
+    private void index(Note note) {
+        if (getById(note.getId()) == null) {
+            put(note);
+        } else {
+            duplicateIdCount++;
+        }
+        filenameCounts.merge(note.getFilename(), 1, Integer::sum);
+    }
+
+    private void unindex(Note note) {
+        String noteId = note.getId();
+        if (getById(noteId) == note) {
+            if (isHexId(noteId)) {
+                hexIds.remove(toInt(noteId));
+                removeSortedId(toInt(noteId));
+            } else {
+                otherIds.remove(noteId);
+            }
+            if (duplicateIdCount > 0) {
+                // Another note may share the ID; only then is a scan needed to find it
+                reindexId(noteId);
+            }
+        }
+        filenameCounts.computeIfPresent(note.getFilename(), (filename, count) -> count == 1 ? null : count - 1);
+    }
+
+    private void reindexId(String noteId) {
+        for (Note note : this) {
+            if (note.getId().equals(noteId)) {
+                put(note);
+                duplicateIdCount--;
+                return;
+            }
+        }
+    }
+
+    private void put(Note note) {
+        String noteId = note.getId();
+        if (isHexId(noteId)) {
+            hexIds.put(toInt(noteId), note);
+            insertSortedId(toInt(noteId));
+        } else {
+            otherIds.put(noteId, note);
+        }
+    }
+
+    private void rebuildIndexes() {
+        hexIds = new NoteIdMap(size());
+        otherIds = new HashMap<>();
+        filenameCounts = new HashMap<>();
+        duplicateIdCount = 0;
+        // Filled unsorted and sorted once, rather than kept sorted while every note is indexed
+        sortedIds = new int[size()];
+        sortedIdCount = 0;
+        for (Note note : this) {
+            if (getById(note.getId()) != null) {
+                duplicateIdCount++;
+            } else if (isHexId(note.getId())) {
+                hexIds.put(toInt(note.getId()), note);
+                sortedIds[sortedIdCount++] = toInt(note.getId()) ^ Integer.MIN_VALUE;
+            } else {
+                otherIds.put(note.getId(), note);
+            }
+            filenameCounts.merge(note.getFilename(), 1, Integer::sum);
+        }
+        Arrays.sort(sortedIds, 0, sortedIdCount);
+        assert hexIds.size() == sortedIdCount : "Every hex ID should be in the sorted IDs";
+        assert hexIds.size() + otherIds.size() + duplicateIdCount == size()
+                : "Every note should be indexed by ID or counted as sharing one";
+    }
+
+    private void insertSortedId(int id) {
+        int key = id ^ Integer.MIN_VALUE;
+        int position = lowerBound(key);
+        if (sortedIdCount == sortedIds.length) {
+            sortedIds = Arrays.copyOf(sortedIds, Math.max(16, sortedIds.length * 2));
+        }
+        System.arraycopy(sortedIds, position, sortedIds, position + 1, sortedIdCount - position);
+        sortedIds[position] = key;
+        sortedIdCount++;
+    }
+
+    private void removeSortedId(int id) {
+        int key = id ^ Integer.MIN_VALUE;
+        int position = lowerBound(key);
+        if (position < sortedIdCount && sortedIds[position] == key) {
+            System.arraycopy(sortedIds, position + 1, sortedIds, position, sortedIdCount - position - 1);
+            sortedIdCount--;
+        }
+    }
+
+    // Index of the first sorted ID not less than the key
+    private int lowerBound(int key) {
+        int low = 0;
+        int high = sortedIdCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedIds[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isHexPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty() || prefix.length() >= ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (!isHexDigit(prefix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexId(String noteId) {
+        if (noteId == null || noteId.length() != ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < ID_LENGTH; i++) {
+            if (!isHexDigit(noteId.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+    }
+
+    private static int toInt(String hexId) {
+        return Integer.parseUnsignedInt(hexId, 16);
+    }
+
+    private static String toHex(int sortedId) {
+        return String.format("%08x", sortedId ^ Integer.MIN_VALUE);
+    }
+}
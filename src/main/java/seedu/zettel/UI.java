@@ -1,9 +1,18 @@
 package seedu.zettel;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
+import seedu.zettel.storage.Revision;
+
 /**
  * Handles all user interface interactions for Zettel.
  * The UI class manages input reading and output display,
@@ -13,8 +22,14 @@ public class UI {
     private static final String LINE = "____________________________________________________________";
     private static final String LIST_INCOMING = "incoming";
     private static final String LIST_OUTGOING = "outgoing";
+    private static final DateTimeFormatter REVISION_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
     private final Scanner scanner;
 
+    // System.out as it was when direct output was enabled, and a channel to the same file descriptor
+    private PrintStream processOut;
+    private WritableByteChannel processOutChannel;
+
     /**
      * Constructs a UI object and initializes the Scanner for reading user input.
      */
@@ -22,6 +37,32 @@ public class UI {
         this.scanner = new Scanner(System.in);
     }
 
+    /**
+     * Lets bulk output, such as note bodies, be written straight to the process's standard output
+     * for as long as System.out is not replaced. Called once at startup.
+     */
+    public void enableDirectOutput() {
+        this.processOut = System.out;
+    }
+
+    /**
+     * Gets a channel writing to standard output, for streaming bulk output without building strings.
+     * When direct output is enabled, the channel writes to the process's standard output itself, so a file
+     * can be copied to it by the operating system. Anything printed before is flushed first.
+     *
+     * @return the channel, which must not be closed
+     */
+    public WritableByteChannel getOutputChannel() {
+        System.out.flush();
+        if (processOut == null || System.out != processOut) {
+            return Channels.newChannel(System.out);
+        }
+        if (processOutChannel == null) {
+            processOutChannel = new FileOutputStream(FileDescriptor.out).getChannel();
+        }
+        return processOutChannel;
+    }
+
     /**
      * Reads a command from the user input.
      *
@@ -58,9 +99,12 @@ public class UI {
         System.out.println("   change-repo[sitory] <repo-name> - Switch to another existing repository");
         System.out.println("   current-repo[sitory]            - Show the name of the current repository");
         System.out.println("   list-repos                        - Lists all repositories initialized");
+        System.out.println("   check-repo                        - Verify the current repository on disk");
+        System.out.println("   compress-archive                  - Compress the archived notes of the repository");
+        System.out.println("   repair-index                      - Rebuild a damaged index of the repository");
         System.out.println("   new -t <title> [-b <body>]        - Create a new note");
         System.out.println("   edit <note-id>                    - Edit an existing note");
-        System.out.println("   list [-p] [-a]                    - List notes (pinned and/or archived filters)");
+        System.out.println("   list [-p] [-a] [-s]               - List notes (pinned/archived, short IDs)");
         System.out.println("   delete [-f] <note-id>             - Delete a note by ID");
         System.out.println("   pin <note-id>                     - Pin a note");
         System.out.println("   unpin <note-id>                   - Unpin a note");
@@ -79,7 +123,10 @@ public class UI {
         System.out.println("   rename-tag <old-tag> <new-tag>    - Rename a tag globally");
         System.out.println("   archive <note-id>                 - Moves note to archive folder");
         System.out.println("   unarchive <note-id>               - Moves note out of archive folder");
-        System.out.println("   print-body <note-id>              - Print the body of a note");
+        System.out.println("   print-body <note-id> [-p]         - Print the body of a note (-p: in a pager)");
+        System.out.println("       [-r START-END]                - Print only bytes START to END of the body");
+        System.out.println("   history <note-id>                 - List the saved versions of a note's body");
+        System.out.println("   show-revision <note-id> <n>       - Print a note's body as it was at version n");
         System.out.println("   find-note-by-body <search-terms>  - Search for notes by body content");
         System.out.println("   find-note-by-title <search-terms> - Search for notes by title");
         System.out.println("   help                              - Show this list of commands");
@@ -183,6 +230,19 @@ public class UI {
      * @param isArchived  True if displaying only archived notes; false otherwise.
      */
     public void showNoteList(List<Note> notes, boolean isPinned, boolean isArchived) {
+        showNoteList(notes, notes.stream().map(Note::getId).toList(), isPinned, isArchived);
+    }
+
+    /**
+     * Displays a list of notes, each with the given form of its ID.
+     *
+     * @param notes       The list of notes to display.
+     * @param shownIds    The ID, or prefix of it, to show for each note, in the same order.
+     * @param isPinned    True if displaying only pinned notes; false otherwise.
+     * @param isArchived  True if displaying only archived notes; false otherwise.
+     */
+    public void showNoteList(List<Note> notes, List<String> shownIds, boolean isPinned, boolean isArchived) {
+        assert notes.size() == shownIds.size() : "Every note should have an ID to show";
         // Determine label based on flags
         String label;
         if (isPinned && isArchived) {
@@ -198,7 +258,7 @@ public class UI {
         System.out.println("You have " + notes.size() + " " + label + ":");
 
         for (int idx = 0; idx < notes.size(); idx++) {
-            System.out.println("    " + (idx + 1) + ". " + notes.get(idx));
+            System.out.println("    " + (idx + 1) + ". " + notes.get(idx).toString(shownIds.get(idx)));
         }
     }
 
@@ -366,10 +426,18 @@ public class UI {
     }
 
     public void showNoteBody(String noteId, String body) {
-        System.out.println(" Body of note #" + noteId + ":");
+        showNoteBodyHeader(noteId);
         System.out.println(body);
     }
 
+    public void showNoteBodyHeader(String noteId) {
+        System.out.println(" Body of note #" + noteId + ":");
+    }
+
+    public void showNoteBodyEnd() {
+        System.out.println();
+    }
+
     public void showSuccessfullyRepoChanged(String repoName) {
         System.out.println("Successfully changed to repository: /" + repoName);
 
@@ -379,6 +447,53 @@ public class UI {
         System.out.println("Current repository: /" + repoName);
     }
 
+    public void showRepoChecked(String repoName, int noteFileCount, int archiveFileCount) {
+        System.out.println("Checked repository /" + repoName + ": " + noteFileCount + " note file(s), "
+                + archiveFileCount + " archived file(s).");
+    }
+
+    public void showArchiveCompressed(String repoName, int compressedCount) {
+        System.out.println("Compressed " + compressedCount + " archived note(s) of /" + repoName + ".");
+    }
+
+    public void showDamagedIndexRecords(String repoName, int damagedCount) {
+        System.out.println("Found " + damagedCount + " damaged index record(s) in /" + repoName
+                + "; run 'repair-index' to rebuild them.");
+    }
+
+    public void showIndexRepaired(String repoName, int salvagedCount, int rebuiltCount) {
+        System.out.println("Repaired the index of /" + repoName + ": kept " + salvagedCount
+                + " intact note(s) and rebuilt " + rebuiltCount + " note(s) from their body files.");
+    }
+
+    /**
+     * Lists the recorded revisions of a note's body, oldest first.
+     *
+     * @param noteId the note's ID
+     * @param revisions the revisions
+     */
+    public void showHistory(String noteId, List<Revision> revisions) {
+        if (revisions.isEmpty()) {
+            System.out.println("No revisions recorded for note #" + noteId + ".");
+            return;
+        }
+        System.out.println(" History of note #" + noteId + ":");
+        for (Revision revision : revisions) {
+            System.out.println("   " + revision.getNumber() + ". "
+                    + REVISION_TIME_FORMATTER.format(revision.getRecordedAt()) + " (" + revision.getLineCount()
+                    + " line(s), " + (revision.isKeyframe() ? "stored in full" : "stored as changes") + ")");
+        }
+    }
+
+    public void showRevision(String noteId, int number, String body) {
+        System.out.println(" Revision " + number + " of note #" + noteId + ":");
+        System.out.println(body);
+    }
+
+    public void showExternalChanges(int refreshedCount) {
+        System.out.println("Refreshed " + refreshedCount + " note(s) changed outside Zettel.");
+    }
+
     public void showRepoList(ArrayList<String> repos) {
         System.out.println("You have " + repos.size() + " repositories:");
         for (int idx = 0; idx < repos.size(); idx++) {
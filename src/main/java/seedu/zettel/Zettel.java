@@ -7,6 +7,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
 
 import seedu.zettel.commands.Command;
 import seedu.zettel.exceptions.ZettelException;
@@ -35,10 +36,18 @@ public class Zettel {
      */
     public Zettel() {
         this.ui = new UI();
+        ui.enableDirectOutput();
         this.storage = new Storage(DATA_FILE_PATH);
         storage.init();
+        // Without a console, commands come from a script, so saves are synced together at exit
+        storage.setBatchMode(System.console() == null);
+        Runtime.getRuntime().addShutdownHook(new Thread(storage::flush));
         this.notes = storage.load();
         this.tags = storage.readTagsLine();
+        // Body files edited by other tools while Zettel runs are picked up before the next command
+        storage.startWatching();
+        // Commands return as soon as they are done; what they changed is saved in the background
+        storage.startWriteBehind();
         this.isRunning = true;
     }
 
@@ -80,11 +89,24 @@ public class Zettel {
                     break;
                 }
 
-                // Execute the command
-                command.execute(notes, tags, ui, storage);
-
-                // Save notes after each command (auto-save)
-                storage.save(notes);
+                // Background saves wait until the command is done with the notes, except while it waits on an editor
+                Lock stateLock = storage.getStateLock();
+                stateLock.lock();
+                try {
+                    // Bring notes whose body files changed outside Zettel up to date before the command sees them
+                    int refreshedCount = storage.applyExternalChanges(notes).size();
+                    if (refreshedCount > 0) {
+                        ui.showExternalChanges(refreshedCount);
+                    }
+
+                    // Execute the command
+                    command.execute(notes, tags, ui, storage);
+
+                    // Save whatever the command changed; read-only commands do not touch the disk
+                    storage.saveLater(notes, command.getChanges());
+                } finally {
+                    stateLock.unlock();
+                }
 
                 ui.printLine();
 
@@ -98,6 +120,7 @@ public class Zettel {
         }
 
         executor.shutdownNow();
+        storage.flush();
         ui.close();
     }
 
@@ -1,6 +1,7 @@
 package seedu.zettel.commands;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
 import seedu.zettel.exceptions.InvalidInputException;
 import seedu.zettel.exceptions.NoNoteFoundException;
@@ -47,9 +48,8 @@ public class ArchiveNoteCommand extends Command {
         assert noteId != null : "Note ID should not be null";
 
         // Find the note with matching ID
-        Note targetNote = notes.stream()
-                .filter(n -> n.getId().equals(noteId))
-                .findFirst()
+        String noteId = NoteList.resolveId(notes, this.noteId);
+        Note targetNote = NoteList.findById(notes, noteId)
                 .orElseThrow(() -> new NoNoteFoundException("Note with ID '" + noteId + "' not found."));
 
         // Check if note is already in desired state
@@ -60,17 +60,15 @@ public class ArchiveNoteCommand extends Command {
             throw new InvalidInputException("Note is not archived.");
         }
 
-        String filename = targetNote.getFilename();
-
         // Move the physical file using Storage
-        storage.moveNoteBetweenDirectories(filename, shouldArchive);
+        storage.moveNoteBetweenDirectories(targetNote, shouldArchive);
 
         // Update note metadata
         targetNote.setArchived(shouldArchive);
         targetNote.setArchiveName(shouldArchive ? storage.getArchiveFolderName() : null);
+        markNoteChanged(targetNote);
 
-        // Save changes and show feedback
-        storage.save(notes);
+        // Show feedback
         if (shouldArchive) {
             ui.showArchivedNote(targetNote);
         } else {
@@ -57,12 +57,12 @@ public class ChangeRepoCommand extends Command {
             throw new InvalidRepoException("Already on " + repoName);
         }
 
-        // Change to the new repository
-        storage.changeRepo(repoName);
+        // Change to the new repository, keeping the current one loaded in case we switch back
+        ArrayList<Note> repoNotes = storage.switchRepo(repoName, notes);
 
-        // Clear current notes and reload from new repository
+        // Swap in the new repository's notes; they are only read from disk if it was not kept loaded
         notes.clear();
-        notes.addAll(storage.load());
+        notes.addAll(repoNotes);
 
         // Clear current tags and reload from new repository
         tags.clear();
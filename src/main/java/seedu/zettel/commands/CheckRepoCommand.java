@@ -0,0 +1,40 @@
+package seedu.zettel.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import seedu.zettel.Note;
+import seedu.zettel.UI;
+import seedu.zettel.exceptions.ZettelException;
+import seedu.zettel.storage.RepoManifest;
+import seedu.zettel.storage.Storage;
+
+/**
+ * Command to run a deep verification of the current repository.
+ * Rescans the notes and archive folders against the index, recreating missing
+ * body files and reporting orphan files, which is otherwise only done at startup.
+ * Also checks every index record against its checksum and reports the damaged ones.
+ */
+public class CheckRepoCommand extends Command {
+
+    /**
+     * Executes the command to verify the current repository on disk.
+     *
+     * @param notes   The list of notes (not used in this command).
+     * @param tags    The list of tags (not used in this command).
+     * @param ui      The UI instance for user interaction.
+     * @param storage The storage instance used to verify the repository.
+     * @throws ZettelException If the repository structure is invalid.
+     */
+    @Override
+    public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage)
+            throws ZettelException {
+        RepoManifest manifest = storage.checkRepo();
+        ui.showRepoChecked(storage.readCurrRepo(), manifest.getFilenames(false).size(),
+                manifest.getFilenames(true).size());
+        int damagedCount = storage.verifyIndex();
+        if (damagedCount > 0) {
+            ui.showDamagedIndexRecords(storage.readCurrRepo(), damagedCount);
+        }
+    }
+}
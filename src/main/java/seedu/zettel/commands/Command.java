@@ -1,12 +1,17 @@
 package seedu.zettel.commands;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 import seedu.zettel.Note;
 import seedu.zettel.UI;
+import seedu.zettel.exceptions.EditorNotFoundException;
+import seedu.zettel.exceptions.NoNoteFoundException;
 import seedu.zettel.exceptions.ZettelException;
+import seedu.zettel.storage.ChangeSet;
 import seedu.zettel.storage.Storage;
+import seedu.zettel.util.EditorUtil;
 
 /**
  * Represents an abstract command that can be executed in Zettel.
@@ -15,6 +20,8 @@ import seedu.zettel.storage.Storage;
  */
 public abstract class Command {
 
+    private final ChangeSet changes = new ChangeSet();
+
     /**
      * Executes the command with the given task list, UI, and storage.
      * This method must be implemented by subclasses to define specific command behavior.
@@ -28,6 +35,64 @@ public abstract class Command {
     public abstract void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage)
             throws ZettelException;
 
+    /**
+     * Gets the notes and tags this command changed while executing.
+     * Commands that only read state leave this empty, so nothing is written after them.
+     *
+     * @return The changes made by this command.
+     */
+    public ChangeSet getChanges() {
+        return changes;
+    }
+
+    /**
+     * Records that the given note was created or modified by this command.
+     *
+     * @param note The note that changed.
+     */
+    protected void markNoteChanged(Note note) {
+        changes.addChangedNote(note);
+    }
+
+    /**
+     * Records that the given note was deleted by this command.
+     *
+     * @param note The note that was deleted.
+     */
+    protected void markNoteDeleted(Note note) {
+        changes.addDeletedNote(note);
+    }
+
+    /**
+     * Records that the given tag was changed by this command.
+     *
+     * @param tag The tag that changed.
+     */
+    protected void markTagChanged(String tag) {
+        changes.addChangedTag(tag);
+    }
+
+    /**
+     * Opens a file in the text editor and waits for it to be closed. The storage's state lock is released
+     * meanwhile, so that background saves of earlier commands do not wait on the editor; the notes must not
+     * be changed elsewhere until this returns.
+     *
+     * @param filePath The file to edit.
+     * @param storage  The storage whose state lock to release.
+     * @throws EditorNotFoundException If no text editor can be opened.
+     * @throws InterruptedException    If interrupted while waiting for the editor.
+     * @throws NoNoteFoundException    If the file does not exist.
+     */
+    protected static void openInEditor(Path filePath, Storage storage)
+            throws EditorNotFoundException, InterruptedException, NoNoteFoundException {
+        int holdCount = storage.releaseStateLock();
+        try {
+            EditorUtil.openInEditor(filePath);
+        } finally {
+            storage.reacquireStateLock(holdCount);
+        }
+    }
+
     /**
      * Checks if this command should terminate the application.
      * Returns false by default. Subclasses can override to return true for exit commands.
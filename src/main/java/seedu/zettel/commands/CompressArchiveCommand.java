@@ -0,0 +1,33 @@
+package seedu.zettel.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import seedu.zettel.Note;
+import seedu.zettel.UI;
+import seedu.zettel.exceptions.ZettelException;
+import seedu.zettel.storage.Storage;
+
+/**
+ * Command to compress the archived notes of the current repository.
+ * Trains a compression dictionary on the archived bodies and rewrites them compressed with it;
+ * notes archived afterwards are compressed with the same dictionary as they are archived.
+ */
+public class CompressArchiveCommand extends Command {
+
+    /**
+     * Executes the command to compress the archived notes of the current repository.
+     *
+     * @param notes   The list of notes whose archived bodies are compressed.
+     * @param tags    The list of tags (not used in this command).
+     * @param ui      The UI instance for user interaction.
+     * @param storage The storage instance used to compress the bodies.
+     * @throws ZettelException If the dictionary cannot be saved or a body cannot be rewritten.
+     */
+    @Override
+    public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage)
+            throws ZettelException {
+        int compressedCount = storage.compressArchive(notes);
+        ui.showArchiveCompressed(storage.readCurrRepo(), compressedCount);
+    }
+}
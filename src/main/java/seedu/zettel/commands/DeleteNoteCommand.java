@@ -6,6 +6,7 @@ import java.util.Optional;
 import java.util.Scanner;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
@@ -52,7 +53,8 @@ public class DeleteNoteCommand extends Command {
         }
 
         // Validation 2: Check if note with the given ID exists
-        Optional<Note> maybe = notes.stream().filter(n -> n.getId().equals(noteId)).findFirst();
+        String noteId = NoteList.resolveId(notes, this.noteId);
+        Optional<Note> maybe = NoteList.findById(notes, noteId);
 
         if (maybe.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '" + noteId + "' does not exist.");
@@ -75,10 +77,10 @@ public class DeleteNoteCommand extends Command {
         if (shouldDelete) {
             // Clean up all links and text before deleting the note
             cleanupLinks(note, notes);
-            storage.deleteStorageFile(note.getFilename());
+            storage.deleteStorageFile(note);
 
             notes.remove(note);
-            storage.save(notes);
+            markNoteDeleted(note);
             ui.showNoteDeleted(noteId);
         } else {
             ui.showDeletionCancelled();
@@ -100,19 +102,21 @@ public class DeleteNoteCommand extends Command {
         // Clean up outgoing links: for each note this note links to,
         // remove this note from their incoming links
         for (String targetNoteId : noteToDelete.getOutgoingLinks()) {
-            notes.stream()
-                    .filter(n -> n.getId().equals(targetNoteId))
-                    .findFirst()
-                    .ifPresent(targetNote -> targetNote.removeIncomingLink(deletedNoteId));
+            NoteList.findById(notes, targetNoteId)
+                    .ifPresent(targetNote -> {
+                        targetNote.removeIncomingLink(deletedNoteId);
+                        markNoteChanged(targetNote);
+                    });
         }
 
         // Clean up incoming links: for each note that links to this note,
         // remove this note from their outgoing links
         for (String sourceNoteId : noteToDelete.getIncomingLinks()) {
-            notes.stream()
-                    .filter(n -> n.getId().equals(sourceNoteId))
-                    .findFirst()
-                    .ifPresent(sourceNote -> sourceNote.removeOutgoingLink(deletedNoteId));
+            NoteList.findById(notes, sourceNoteId)
+                    .ifPresent(sourceNote -> {
+                        sourceNote.removeOutgoingLink(deletedNoteId);
+                        markNoteChanged(sourceNote);
+                    });
         }
     }
 }
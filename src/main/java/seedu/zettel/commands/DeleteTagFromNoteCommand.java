@@ -6,7 +6,9 @@ import java.util.Optional;
 import java.util.Scanner;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
+import seedu.zettel.exceptions.AmbiguousNoteIdException;
 import seedu.zettel.exceptions.InvalidInputException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
@@ -36,7 +38,8 @@ public class DeleteTagFromNoteCommand extends Command {
 
     @Override
     public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage) 
-            throws NoNotesException, InvalidNoteIdException, InvalidInputException, TagNotFoundException {
+            throws NoNotesException, InvalidNoteIdException, InvalidInputException, TagNotFoundException,
+            AmbiguousNoteIdException {
 
         // Validation 1: Check if notes list is empty
         if (notes.isEmpty()) {
@@ -44,9 +47,8 @@ public class DeleteTagFromNoteCommand extends Command {
         }
 
         // Validation 2: Try to find the note
-        Optional<Note> note = notes.stream()
-                .filter(n -> n.getId().equals(noteId))
-                .findFirst();
+        String noteId = NoteList.resolveId(notes, this.noteId);
+        Optional<Note> note = NoteList.findById(notes, noteId);
         if (note.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '"+ noteId + "' does not exist.");
         }
@@ -67,6 +69,8 @@ public class DeleteTagFromNoteCommand extends Command {
 
         if (shouldDelete) {
             note.get().removeTag(tag);
+            markNoteChanged(note.get());
+            markTagChanged(tag);
             ui.showSuccessfullyDeletedTagFromNote(noteId, tag);
         } else {
             ui.showDeletionCancelled();
@@ -65,8 +65,10 @@ public class DeleteTagGloballyCommand extends Command {
             for (Note note : notes) {
                 if (note.getTags().contains(tag)) {
                     note.removeTag(tag);
+                    markNoteChanged(note);
                 }
             }
+            markTagChanged(tag);
             storage.updateTags(tags);
             ui.showSuccessfullyDeletedTag(tag);
         } else {
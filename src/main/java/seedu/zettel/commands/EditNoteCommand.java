@@ -3,8 +3,8 @@ package seedu.zettel.commands;
 import seedu.zettel.exceptions.EditorNotFoundException;
 import seedu.zettel.exceptions.NoNoteFoundException;
 import seedu.zettel.exceptions.ZettelException;
-import seedu.zettel.util.EditorUtil;
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.storage.Storage;
 import seedu.zettel.UI;
 
@@ -31,7 +31,8 @@ public class EditNoteCommand extends Command {
     /**
      * Executes the command to edit a note's body in a text editor.
      * Opens the note file in the default editor, waits for it to close,
-     * then refreshes the notes list from storage.
+     * refreshes the notes list from storage, re-reading only body files that changed on disk,
+     * then marks the note changed if its stored body changed, to be saved with the command's changes.
      *
      * @param notes   The list of existing notes
      * @param tags    The list of current tags
@@ -44,29 +45,28 @@ public class EditNoteCommand extends Command {
             throws ZettelException {
 
         // Find the note with matching ID
-        Note targetNote = notes.stream()
-                .filter(n -> n.getId().equals(noteId))
-                .findFirst()
+        String noteId = NoteList.resolveId(notes, this.noteId);
+        Note targetNote = NoteList.findById(notes, noteId)
                 .orElseThrow(() -> new NoNoteFoundException("Note with ID '" + noteId + "' not found."));
 
-        String filename = targetNote.getFilename();
-        Path notePath = storage.getNotePath(filename);
+        Path notePath = storage.checkoutBody(targetNote);
 
         try {
             ui.showOpeningEditor();
 
-            EditorUtil.openInEditor(notePath);
+            openInEditor(notePath, storage);
 
-            // Refresh ArrayList with all notes from Storage, after editing on disk
-            ArrayList<Note> reloadedNotes = storage.load();
+            // Refresh ArrayList from Storage after editing on disk; unchanged notes are kept as they are
+            ArrayList<Note> reloadedNotes = storage.reload(notes);
             notes.clear();
             notes.addAll(reloadedNotes);
 
-            // Find the updated note to show confirmation
-            Note updatedNote = notes.stream()
-                    .filter(n -> n.getId().equals(noteId))
-                    .findFirst()
+            // Find the updated note, which may have been read again, to commit its body and show confirmation
+            Note updatedNote = NoteList.findById(notes, noteId)
                     .orElseThrow(() -> new NoNoteFoundException("Note disappeared after editing"));
+            if (storage.commitBody(updatedNote)) {
+                markNoteChanged(updatedNote);
+            }
 
             ui.showNoteEdited(updatedNote);
 
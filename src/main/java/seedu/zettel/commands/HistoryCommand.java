@@ -0,0 +1,54 @@
+package seedu.zettel.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import seedu.zettel.Note;
+import seedu.zettel.NoteList;
+import seedu.zettel.UI;
+import seedu.zettel.exceptions.InvalidNoteIdException;
+import seedu.zettel.exceptions.NoNotesException;
+import seedu.zettel.exceptions.ZettelException;
+import seedu.zettel.storage.Storage;
+
+/**
+ * Command to list the recorded revisions of a note's body, oldest first.
+ * A revision is recorded each time a note's body is created or changed.
+ */
+public class HistoryCommand extends Command {
+    private final String noteId;
+
+    /**
+     * Constructs a HistoryCommand for the note with the specified ID.
+     *
+     * @param noteId The 8-character hexadecimal note ID
+     */
+    public HistoryCommand(String noteId) {
+        this.noteId = noteId;
+    }
+
+    /**
+     * Executes the command to list the note's revisions.
+     *
+     * @param notes   The list of all notes
+     * @param tags    The list of tags (not used in this command).
+     * @param ui      The UI instance for user interaction
+     * @param storage The storage instance holding the revisions
+     * @throws ZettelException If the note doesn't exist or its revisions cannot be read
+     */
+    @Override
+    public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage) throws ZettelException {
+        if (notes.isEmpty()) {
+            throw new NoNotesException("You have no notes to show the history of.");
+        }
+
+        String noteId = NoteList.resolveId(notes, this.noteId);
+        Optional<Note> maybe = NoteList.findById(notes, noteId);
+        if (maybe.isEmpty()) {
+            throw new InvalidNoteIdException("Note with ID '" + noteId + "' does not exist.");
+        }
+
+        ui.showHistory(noteId, storage.getHistory(maybe.get()));
+    }
+}
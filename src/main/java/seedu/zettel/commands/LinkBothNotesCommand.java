@@ -5,7 +5,9 @@ import java.util.List;
 import java.util.Optional;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
+import seedu.zettel.exceptions.AmbiguousNoteIdException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
 import seedu.zettel.exceptions.NoteSelfLinkException;
@@ -51,11 +53,12 @@ public class LinkBothNotesCommand extends Command {
      * @throws InvalidNoteIdException If either note does not exist.
      * @throws NoteSelfLinkException If attempting to link a note to itself.
      * @throws NotesAlreadyLinkedException If a bidirectional link already exists between the notes.
+     * @throws AmbiguousNoteIdException If either note ID prefix matches several notes.
      */
     @Override
     public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage) throws 
             NoNotesException, InvalidNoteIdException, NotesAlreadyLinkedException,
-            NoteSelfLinkException {
+            NoteSelfLinkException, AmbiguousNoteIdException {
 
         // If no notes at all in the list, throw an exception
         if (notes.isEmpty()) {
@@ -63,16 +66,14 @@ public class LinkBothNotesCommand extends Command {
         }
 
         // Try to find both notes
-        Optional<Note> note1 = notes.stream()
-                .filter(n -> n.getId().equals(noteId1))
-                .findFirst();
+        String noteId1 = NoteList.resolveId(notes, this.noteId1);
+        Optional<Note> note1 = NoteList.findById(notes, noteId1);
         if (note1.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '"+ noteId1 + "' does not exist.");
         }
 
-        Optional<Note> note2 = notes.stream()
-                .filter(n -> n.getId().equals(noteId2))
-                .findFirst();
+        String noteId2 = NoteList.resolveId(notes, this.noteId2);
+        Optional<Note> note2 = NoteList.findById(notes, noteId2);
         if (note2.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '"+ noteId2 + "' does not exist.");
         }
@@ -109,6 +110,9 @@ public class LinkBothNotesCommand extends Command {
             note2.get().addIncomingLink(noteId1);
         }
 
+        markNoteChanged(note1.get());
+        markNoteChanged(note2.get());
+
         ui.showSuccessfullyDoubleLinkedNotes(note1.get().getTitle(), note2.get().getTitle());
     }
 
@@ -5,7 +5,9 @@ import java.util.List;
 import java.util.Optional;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
+import seedu.zettel.exceptions.AmbiguousNoteIdException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
 import seedu.zettel.exceptions.NoteSelfLinkException;
@@ -34,7 +36,7 @@ public class LinkNotesCommand extends Command {
     @Override
     public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage) throws 
             NoNotesException, InvalidNoteIdException, NotesAlreadyLinkedException,
-            NoteSelfLinkException {
+            NoteSelfLinkException, AmbiguousNoteIdException {
 
         // If no notes at all in the list, throw an exception
         if (notes.isEmpty()) {
@@ -42,16 +44,14 @@ public class LinkNotesCommand extends Command {
         }
 
         // Try to find both notes
-        Optional<Note> sourceNote = notes.stream()
-                .filter(n -> n.getId().equals(sourceNoteId))
-                .findFirst();
+        String sourceNoteId = NoteList.resolveId(notes, this.sourceNoteId);
+        Optional<Note> sourceNote = NoteList.findById(notes, sourceNoteId);
         if (sourceNote.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '"+ sourceNoteId + "' does not exist.");
         }
 
-        Optional<Note> targetNote = notes.stream()
-                .filter(n -> n.getId().equals(targetNoteId))
-                .findFirst();
+        String targetNoteId = NoteList.resolveId(notes, this.targetNoteId);
+        Optional<Note> targetNote = NoteList.findById(notes, targetNoteId);
         if (targetNote.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '"+ targetNoteId + "' does not exist.");
         }
@@ -70,6 +70,8 @@ public class LinkNotesCommand extends Command {
         // Create unidirectional link
         sourceNote.get().addOutgoingLink(targetNoteId);
         targetNote.get().addIncomingLink(sourceNoteId);
+        markNoteChanged(sourceNote.get());
+        markNoteChanged(targetNote.get());
         ui.showSuccessfulLinking(sourceNote.get().getTitle(), targetNote.get().getTitle());
     }
 
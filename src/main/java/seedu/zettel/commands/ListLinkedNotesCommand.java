@@ -6,7 +6,9 @@ import java.util.List;
 import java.util.Optional;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
+import seedu.zettel.exceptions.AmbiguousNoteIdException;
 import seedu.zettel.exceptions.InvalidInputException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
@@ -27,7 +29,7 @@ public class ListLinkedNotesCommand extends Command {
 
     @Override
     public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage) 
-            throws NoNotesException, InvalidInputException, InvalidNoteIdException {
+            throws NoNotesException, InvalidInputException, InvalidNoteIdException, AmbiguousNoteIdException {
         
         // Validation 1: Check if notes list is empty
         if (notes.isEmpty()) {
@@ -41,7 +43,8 @@ public class ListLinkedNotesCommand extends Command {
         }
         
         // Validation 3: Check if note with the given ID exists
-        Optional<Note> maybe = notes.stream().filter(n -> n.getId().equals(noteId)).findFirst();
+        String noteId = NoteList.resolveId(notes, this.noteId);
+        Optional<Note> maybe = NoteList.findById(notes, noteId);
         if (maybe.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '" + noteId + "' does not exist.");
         }
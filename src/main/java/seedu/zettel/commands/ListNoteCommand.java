@@ -1,6 +1,7 @@
 package seedu.zettel.commands;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
 import seedu.zettel.exceptions.NoNotesException;
 import seedu.zettel.exceptions.ZettelException;
@@ -17,10 +18,13 @@ import java.util.stream.Collectors;
  * Notes are sorted by creation time in descending order (most recent first).
  * Can optionally filter to display only pinned notes and/or only archived notes.
  * Archived notes are NOT listed by default.
+ * Can also show each note's ID cut to the shortest prefix no other note's ID starts with,
+ * which is all a command needs to be given to find the note.
  */
 public class ListNoteCommand extends Command {
     private final boolean showsPinnedOnly;
     private final boolean showsArchivedOnly;
+    private final boolean showsShortIds;
 
     /**
      * Constructs a ListNoteCommand.
@@ -30,8 +34,21 @@ public class ListNoteCommand extends Command {
      *                          if false, only non-archived notes will be listed.
      */
     public ListNoteCommand(boolean showsPinnedOnly, boolean showsArchivedOnly) {
+        this(showsPinnedOnly, showsArchivedOnly, false);
+    }
+
+    /**
+     * Constructs a ListNoteCommand.
+     *
+     * @param showsPinnedOnly  If true, only pinned notes will be listed.
+     * @param showsArchivedOnly If true, only archived notes will be listed;
+     *                          if false, only non-archived notes will be listed.
+     * @param showsShortIds    If true, each ID is shown as its shortest unique prefix.
+     */
+    public ListNoteCommand(boolean showsPinnedOnly, boolean showsArchivedOnly, boolean showsShortIds) {
         this.showsPinnedOnly = showsPinnedOnly;
         this.showsArchivedOnly = showsArchivedOnly;
+        this.showsShortIds = showsShortIds;
     }
 
     /**
@@ -69,6 +86,15 @@ public class ListNoteCommand extends Command {
             }
         }
 
-        ui.showNoteList(filtered, showsPinnedOnly, showsArchivedOnly);
+        if (!showsShortIds) {
+            ui.showNoteList(filtered, showsPinnedOnly, showsArchivedOnly);
+            return;
+        }
+
+        // Prefixes are unique among all notes, archived or not, as commands resolve them against all notes
+        List<String> shortIds = filtered.stream()
+                .map(n -> n.getId().substring(0, NoteList.getUniquePrefixLength(notes, n.getId())))
+                .collect(Collectors.toList());
+        ui.showNoteList(filtered, shortIds, showsPinnedOnly, showsArchivedOnly);
     }
 }
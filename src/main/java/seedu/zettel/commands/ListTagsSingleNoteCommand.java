@@ -5,7 +5,9 @@ import java.util.List;
 import java.util.Optional;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
+import seedu.zettel.exceptions.AmbiguousNoteIdException;
 import seedu.zettel.exceptions.InvalidInputException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
@@ -21,7 +23,8 @@ public class ListTagsSingleNoteCommand extends Command {
 
     @Override
     public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage) 
-            throws NoNotesException, InvalidInputException, InvalidNoteIdException, NoTagsException {
+            throws NoNotesException, InvalidInputException, InvalidNoteIdException, NoTagsException,
+            AmbiguousNoteIdException {
         
         // Validation 1: Check if notes list is empty
         if (notes.isEmpty()) {
@@ -29,7 +32,8 @@ public class ListTagsSingleNoteCommand extends Command {
         }
 
         // Validation 2: Check if note with the given ID exists
-        Optional<Note> maybe = notes.stream().filter(n -> n.getId().equals(noteId)).findFirst();
+        String noteId = NoteList.resolveId(notes, this.noteId);
+        Optional<Note> maybe = NoteList.findById(notes, noteId);
         if (maybe.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '" + noteId + "' does not exist.");
         }
@@ -2,11 +2,11 @@ package seedu.zettel.commands;
 
 import seedu.zettel.exceptions.EditorNotFoundException;
 import seedu.zettel.exceptions.NoNoteFoundException;
-import seedu.zettel.util.EditorUtil;
 import seedu.zettel.util.IdGenerator;
 import seedu.zettel.exceptions.InvalidInputException;
 import seedu.zettel.exceptions.ZettelException;
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.storage.Storage;
 import seedu.zettel.UI;
 
@@ -41,7 +41,8 @@ public class NewNoteCommand extends Command {
     /**
      * Executes the command to create a new note.
      * Generates a hash-based ID from title and timestamp,
-     * checks for duplicate filenames, and saves the note.
+     * checks for duplicate filenames, and creates the note's body file.
+     * The note is marked changed, to be saved with the command's changes.
      *
      * @param notes   The list of existing notes
      * @param tags    The list of current tags.
@@ -62,8 +63,7 @@ public class NewNoteCommand extends Command {
         String filename = title.replaceAll("\\s+", "_") + ".txt";
 
         // Check if filename already exists
-        boolean filenameExists = notes.stream()
-                .anyMatch(n -> n.getFilename().equals(filename));
+        boolean filenameExists = NoteList.containsFilename(notes, filename);
 
         if (filenameExists) {
             throw new InvalidInputException("Note already exists!");
@@ -78,26 +78,26 @@ public class NewNoteCommand extends Command {
                 now
         );
 
-        // Save note to disk
+        // Write the body to disk; the index entry is saved with the command's changes
         notes.add(newNote);
+        markNoteChanged(newNote);
 
         storage.createStorageFile(newNote);
-        storage.save(notes);
 
         // If no body was provided, open in editor
         if (shouldOpenEditor) {
             try {
-                Path notePath = storage.getNotePath(filename);
+                Path notePath = storage.checkoutBody(newNote);
                 ui.showOpeningEditor();
-                EditorUtil.openInEditor(notePath);
+                openInEditor(notePath, storage);
 
                 // Read the edited content from disk back into Object
                 String editedBody = Files.readString(notePath);
                 newNote.setBody(editedBody);
+                storage.commitBody(newNote);
 
-                // Update the modified timestamp and save again (to update timestamp)
+                // Update the modified timestamp, saved with the command's changes
                 newNote.updateModifiedAt();
-                storage.save(notes);
 
                 ui.showNoteSavedFromEditor();
             } catch (EditorNotFoundException e) {
@@ -47,6 +47,7 @@ public class NewTagCommand extends Command {
         }
 
         tags.add(tag);
+        markTagChanged(tag);
         storage.updateTags(tags);
         ui.showSuccessfullyAddedTag(tag);
     }
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
 import seedu.zettel.exceptions.AlreadyPinnedException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
@@ -48,7 +49,8 @@ public class PinNoteCommand extends Command {
         }
 
         // Validation 2: Check if note with the given ID exists
-        Optional<Note> maybe = notes.stream().filter(n -> n.getId().equals(noteId)).findFirst();
+        String noteId = NoteList.resolveId(notes, this.noteId);
+        Optional<Note> maybe = NoteList.findById(notes, noteId);
         if (maybe.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '" + noteId + "' does not exist.");
         }
@@ -60,7 +62,7 @@ public class PinNoteCommand extends Command {
                     (isPin ? "pinned." : "unpinned."));
         }
         note.setPinned(isPin);
+        markNoteChanged(note);
         ui.showJustPinnedNote(note, noteId);
-        storage.save(notes);
     }
 }
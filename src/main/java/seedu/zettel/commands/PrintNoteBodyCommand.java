@@ -1,30 +1,58 @@
 package seedu.zettel.commands;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
+import seedu.zettel.exceptions.InvalidInputException;
 import seedu.zettel.exceptions.NoteBodyEmptyException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
 import seedu.zettel.exceptions.ZettelException;
 import seedu.zettel.storage.Storage;
+import seedu.zettel.util.PagerUtil;
 
 /**
  * Command to show a note's body by its ID.
+ * Bodies stored as plain files are streamed straight from disk to the output, so even very large
+ * bodies are never held in memory. The body can be shown in a pager, or limited to a range of bytes.
  */
 public class PrintNoteBodyCommand extends Command {
     private final String noteId;
+    private final boolean isPaged;
+    private final long start;
+    private final long end;
 
     /**
-     * Constructs a PrintNoteBodyCommand with the specified note ID.
+     * Constructs a PrintNoteBodyCommand that prints the whole body of the note with the specified ID.
      *
      * @param noteId The 8-character hexadecimal note ID
      */
     public PrintNoteBodyCommand(String noteId) {
+        this(noteId, false, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a PrintNoteBodyCommand that prints a range of bytes of a note's body.
+     *
+     * @param noteId  The 8-character hexadecimal note ID
+     * @param isPaged Whether to show the body in the user's pager
+     * @param start   The offset of the first byte to print
+     * @param end     The offset after the last byte to print; clipped to the body's size
+     */
+    public PrintNoteBodyCommand(String noteId, boolean isPaged, long start, long end) {
+        assert start >= 0 && start < end : "Byte range should be non-empty";
         this.noteId = noteId;
+        this.isPaged = isPaged;
+        this.start = start;
+        this.end = end;
     }
     
     /**
@@ -44,17 +72,57 @@ public class PrintNoteBodyCommand extends Command {
         }
 
         // Validation 2: Check if note with the given ID exists
-        Optional<Note> maybe = notes.stream().filter(n -> n.getId().equals(noteId)).findFirst();
+        String noteId = NoteList.resolveId(notes, this.noteId);
+        Optional<Note> maybe = NoteList.findById(notes, noteId);
         if (maybe.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '" + noteId + "' does not exist.");
         }
 
         Note note = maybe.get();
 
-        // Check if the note body is empty
-        if (note.getBody().isEmpty()) {
+        // Stream the body file if there is one to stream, otherwise print the body held in memory
+        long size = storage.getStreamableBodySize(note);
+        PagerUtil.ChannelWriter writer;
+        if (size >= 0) {
+            writer = channel -> storage.transferBody(note, start, end, channel);
+        } else {
+            byte[] body = note.getBody().getBytes(StandardCharsets.UTF_8);
+            size = body.length;
+            writer = channel -> writeRange(body, channel);
+        }
+
+        // Check if the note body is empty, or the range starts after its end
+        if (size == 0) {
             throw new NoteBodyEmptyException("The body of note with ID '" + noteId + "' is empty.");
         }
-        ui.showNoteBody(noteId, note.getBody());
+        if (start >= size) {
+            throw new InvalidInputException("The body of note with ID '" + noteId + "' has only "
+                    + size + " bytes.");
+        }
+
+        try {
+            if (isPaged && PagerUtil.page(writer)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZettelException("Pager was interrupted: " + e.getMessage());
+        }
+        ui.showNoteBodyHeader(noteId);
+        writer.writeTo(ui.getOutputChannel());
+        ui.showNoteBodyEnd();
+    }
+
+    private void writeRange(byte[] body, WritableByteChannel channel) throws ZettelException {
+        int from = (int) Math.min(start, body.length);
+        int to = (int) Math.min(end, body.length);
+        ByteBuffer buffer = ByteBuffer.wrap(body, from, to - from);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new ZettelException("Failed to print body of note '" + noteId + "': " + e.getMessage());
+        }
     }
 }
@@ -65,8 +65,11 @@ public class RenameTagCommand extends Command {
             if (note.getTags().contains(oldTag)) {
                 note.removeTag(oldTag);
                 note.addTag(newTag);
+                markNoteChanged(note);
             }
         }
+        markTagChanged(oldTag);
+        markTagChanged(newTag);
         storage.updateTags(tags);
         ui.showSuccessfullyRenamedTag(oldTag, newTag);
     }
@@ -0,0 +1,34 @@
+package seedu.zettel.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import seedu.zettel.Note;
+import seedu.zettel.UI;
+import seedu.zettel.exceptions.ZettelException;
+import seedu.zettel.storage.Storage;
+
+/**
+ * Command to repair the index of the current repository.
+ * Keeps every note whose index record is intact, rebuilds notes for the body files no record refers to
+ * any more, and rewrites the index after backing it up.
+ */
+public class RepairIndexCommand extends Command {
+
+    /**
+     * Executes the command to repair the index of the current repository.
+     *
+     * @param notes   The list of notes loaded from the index; rebuilt notes are added to it.
+     * @param tags    The list of tags (not used in this command).
+     * @param ui      The UI instance for user interaction.
+     * @param storage The storage instance used to rebuild and rewrite the index.
+     * @throws ZettelException If the index cannot be backed up or rewritten.
+     */
+    @Override
+    public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage)
+            throws ZettelException {
+        int salvagedCount = notes.size();
+        int rebuiltCount = storage.repairIndex(notes);
+        ui.showIndexRepaired(storage.readCurrRepo(), salvagedCount, rebuiltCount);
+    }
+}
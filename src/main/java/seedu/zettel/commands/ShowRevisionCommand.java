@@ -0,0 +1,58 @@
+package seedu.zettel.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import seedu.zettel.Note;
+import seedu.zettel.NoteList;
+import seedu.zettel.UI;
+import seedu.zettel.exceptions.InvalidNoteIdException;
+import seedu.zettel.exceptions.NoNotesException;
+import seedu.zettel.exceptions.ZettelException;
+import seedu.zettel.storage.Storage;
+
+/**
+ * Command to show a note's body as it was at one of its recorded revisions.
+ * The revision is rebuilt from the nearest full copy before it, so any revision is shown equally fast.
+ */
+public class ShowRevisionCommand extends Command {
+    private final String noteId;
+    private final int number;
+
+    /**
+     * Constructs a ShowRevisionCommand for a revision of the note with the specified ID.
+     *
+     * @param noteId The 8-character hexadecimal note ID
+     * @param number The revision number, from 1, as listed by the history command
+     */
+    public ShowRevisionCommand(String noteId, int number) {
+        assert number > 0 : "Revision number should be positive";
+        this.noteId = noteId;
+        this.number = number;
+    }
+
+    /**
+     * Executes the command to show the note's body at the revision.
+     *
+     * @param notes   The list of all notes
+     * @param tags    The list of tags (not used in this command).
+     * @param ui      The UI instance for user interaction
+     * @param storage The storage instance holding the revisions
+     * @throws ZettelException If the note or the revision doesn't exist, or the revision cannot be read
+     */
+    @Override
+    public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage) throws ZettelException {
+        if (notes.isEmpty()) {
+            throw new NoNotesException("You have no notes to show a revision of.");
+        }
+
+        String noteId = NoteList.resolveId(notes, this.noteId);
+        Optional<Note> maybe = NoteList.findById(notes, noteId);
+        if (maybe.isEmpty()) {
+            throw new InvalidNoteIdException("Note with ID '" + noteId + "' does not exist.");
+        }
+
+        ui.showRevision(noteId, number, storage.readRevision(maybe.get(), number));
+    }
+}
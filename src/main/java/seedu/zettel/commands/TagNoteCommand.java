@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
 import seedu.zettel.exceptions.InvalidFormatException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
@@ -49,9 +50,8 @@ public class TagNoteCommand extends Command {
         validateTag(tag);
 
         // Try to find the note
-        Optional<Note> noteOpt = notes.stream()
-                .filter(n -> n.getId().equals(noteID))
-                .findFirst();
+        String noteID = NoteList.resolveId(notes, this.noteID);
+        Optional<Note> noteOpt = NoteList.findById(notes, noteID);
         if (noteOpt.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '"+ noteID + "' does not exist.");
         }
@@ -73,6 +73,8 @@ public class TagNoteCommand extends Command {
         }
 
         note.addTag(tag);
+        markNoteChanged(note);
+        markTagChanged(tag);
         ui.showSuccessfullyTaggedNote(noteID, tag);
     }
 
@@ -5,7 +5,9 @@ import java.util.List;
 import java.util.Optional;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
+import seedu.zettel.exceptions.AmbiguousNoteIdException;
 import seedu.zettel.exceptions.InvalidInputException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
@@ -49,11 +51,12 @@ public class UnlinkBothNotesCommand extends Command {
      * @throws NoteSelfLinkException If attempting to unlink a note from itself.
      * @throws InvalidNoteIdException If either the source or target note does not exist.
      * @throws NotesAlreadyUnlinkedException If the link does not exist between the notes.
+     * @throws AmbiguousNoteIdException If either note ID prefix matches several notes.
      */
     @Override
     public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage) 
             throws NoNotesException, InvalidNoteIdException, InvalidInputException, NoteSelfLinkException,
-            NotesAlreadyUnlinkedException {
+            NotesAlreadyUnlinkedException, AmbiguousNoteIdException {
 
         // Validation 1: Check if notes list is empty
         if (notes.isEmpty()) {
@@ -61,16 +64,14 @@ public class UnlinkBothNotesCommand extends Command {
         }
 
         // Validation 2: Try to find both notes
-        Optional<Note> note1 = notes.stream()
-                .filter(n -> n.getId().equals(noteId1))
-                .findFirst();
+        String noteId1 = NoteList.resolveId(notes, this.noteId1);
+        Optional<Note> note1 = NoteList.findById(notes, noteId1);
         if (note1.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '"+ noteId1 + "' does not exist.");
         }
 
-        Optional<Note> note2 = notes.stream()
-                .filter(n -> n.getId().equals(noteId2))
-                .findFirst();
+        String noteId2 = NoteList.resolveId(notes, this.noteId2);
+        Optional<Note> note2 = NoteList.findById(notes, noteId2);
         if (note2.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '"+ noteId2 + "' does not exist.");
         }
@@ -104,6 +105,8 @@ public class UnlinkBothNotesCommand extends Command {
         if (secondNote.isLinkedBy(noteId1)) {
             secondNote.removeIncomingLink(noteId1);
         }
+        markNoteChanged(firstNote);
+        markNoteChanged(secondNote);
 
         ui.showSuccessfullyUnlinkedBothNotes(noteId1, noteId2);
     }
@@ -5,7 +5,9 @@ import java.util.List;
 import java.util.Optional;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.UI;
+import seedu.zettel.exceptions.AmbiguousNoteIdException;
 import seedu.zettel.exceptions.InvalidInputException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
@@ -49,11 +51,12 @@ public class UnlinkNotesCommand extends Command {
      * @throws NoteSelfLinkException If attempting to unlink a note from itself.
      * @throws InvalidNoteIdException If either the source or target note does not exist.
      * @throws NotesAlreadyUnlinkedException If the link does not exist between the notes.
+     * @throws AmbiguousNoteIdException If either note ID prefix matches several notes.
      */
     @Override
     public void execute(ArrayList<Note> notes, List<String> tags, UI ui, Storage storage) 
             throws NoNotesException, InvalidNoteIdException, InvalidInputException, NoteSelfLinkException,
-            NotesAlreadyUnlinkedException {
+            NotesAlreadyUnlinkedException, AmbiguousNoteIdException {
 
         // Validation 1: Check if notes list is empty
         if (notes.isEmpty()) {
@@ -61,16 +64,14 @@ public class UnlinkNotesCommand extends Command {
         }
 
         // Validation 2: Try to find both notes
-        Optional<Note> sourceNote = notes.stream()
-                .filter(n -> n.getId().equals(sourceNoteId))
-                .findFirst();
+        String sourceNoteId = NoteList.resolveId(notes, this.sourceNoteId);
+        Optional<Note> sourceNote = NoteList.findById(notes, sourceNoteId);
         if (sourceNote.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '"+ sourceNoteId + "' does not exist.");
         }
 
-        Optional<Note> targetNote = notes.stream()
-                .filter(n -> n.getId().equals(targetNoteId))
-                .findFirst();
+        String targetNoteId = NoteList.resolveId(notes, this.targetNoteId);
+        Optional<Note> targetNote = NoteList.findById(notes, targetNoteId);
         if (targetNote.isEmpty()) {
             throw new InvalidNoteIdException("Note with ID '"+ targetNoteId + "' does not exist.");
         }
@@ -93,6 +94,8 @@ public class UnlinkNotesCommand extends Command {
         // Unlink the notes - use the Note class methods to modify the actual sets
         srcNote.removeOutgoingLink(targetNoteId);
         tgtNote.removeIncomingLink(sourceNoteId);
+        markNoteChanged(srcNote);
+        markNoteChanged(tgtNote);
 
         ui.showSuccessfullyUnlinkedNotes(sourceNoteId, targetNoteId);
     }  
@@ -0,0 +1,25 @@
+package seedu.zettel.exceptions;
+
+import java.util.List;
+
+/**
+ * Exception thrown when a note ID prefix matches the IDs of more than one note.
+ * The message lists the matching IDs, so the user can pick the one meant.
+ */
+public class AmbiguousNoteIdException extends ZettelException {
+    /** The most matching IDs listed in the message; callers need not collect more. */
+    public static final int MAX_CANDIDATES_SHOWN = 10;
+
+    /**
+     * Constructs a new AmbiguousNoteIdException for a prefix and the IDs it matches.
+     *
+     * @param prefix The note ID prefix the user gave.
+     * @param candidates The IDs of the first notes the prefix matches, in order.
+     * @param candidateCount The number of notes the prefix matches, which may exceed the IDs given.
+     */
+    public AmbiguousNoteIdException(String prefix, List<String> candidates, int candidateCount) {
+        super("Note ID prefix '" + prefix + "' is ambiguous; it matches " + candidateCount + " notes: "
+                + String.join(", ", candidates.subList(0, Math.min(candidates.size(), MAX_CANDIDATES_SHOWN)))
+                + (candidateCount > MAX_CANDIDATES_SHOWN ? ", ..." : "") + ". Type more characters of the ID.");
+    }
+}
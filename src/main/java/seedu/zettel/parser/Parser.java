@@ -4,7 +4,9 @@ import java.util.Arrays;
 
 import seedu.zettel.commands.ArchiveNoteCommand;
 import seedu.zettel.commands.ChangeRepoCommand;
+import seedu.zettel.commands.CheckRepoCommand;
 import seedu.zettel.commands.Command;
+import seedu.zettel.commands.CompressArchiveCommand;
 import seedu.zettel.commands.CurrentRepoCommand;
 import seedu.zettel.commands.DeleteNoteCommand;
 import seedu.zettel.commands.DeleteTagFromNoteCommand;
@@ -14,6 +16,7 @@ import seedu.zettel.commands.ExitCommand;
 import seedu.zettel.commands.FindNoteByBodyCommand;
 import seedu.zettel.commands.FindNoteByTitleCommand;
 import seedu.zettel.commands.HelpCommand;
+import seedu.zettel.commands.HistoryCommand;
 import seedu.zettel.commands.InitCommand;
 import seedu.zettel.commands.LinkBothNotesCommand;
 import seedu.zettel.commands.LinkNotesCommand;
@@ -27,6 +30,8 @@ import seedu.zettel.commands.NewTagCommand;
 import seedu.zettel.commands.PinNoteCommand;
 import seedu.zettel.commands.PrintNoteBodyCommand;
 import seedu.zettel.commands.RenameTagCommand;
+import seedu.zettel.commands.RepairIndexCommand;
+import seedu.zettel.commands.ShowRevisionCommand;
 import seedu.zettel.commands.TagNoteCommand;
 import seedu.zettel.commands.UnlinkBothNotesCommand;
 import seedu.zettel.commands.UnlinkNotesCommand;
@@ -42,7 +47,7 @@ import seedu.zettel.exceptions.ZettelException;
 public class Parser {
     // Error messages to be printed when encountering errors
     // Categorised between empty, format and invalid
-    private static final String LIST_FORMAT = "List format should be: list [-p] [-a], where -p and -a can be"
+    private static final String LIST_FORMAT = "List format should be: list [-p] [-a] [-s], where the flags can be"
             + " in any order";
     private static final String PIN_FORMAT = "Pin format should be: pin/unpin <NOTE_ID>";
     private static final String INIT_FORMAT = "Init format should be: init <REPO_NAME>";
@@ -92,8 +97,15 @@ public class Parser {
             "<REPO_NAME>";
     private static final String CHANGE_REPO_EMPTY = "Please specify a repo name to change to!";
     private static final String CURRENT_REPO_FORMAT = "Current repository format should be: current-repo[sitory]";
+    private static final String CHECK_REPO_FORMAT = "Check repository format should be: check-repo";
+    private static final String COMPRESS_ARCHIVE_FORMAT =
+        "Compress archive format should be: compress-archive";
+    private static final String REPAIR_INDEX_FORMAT = "Repair index format should be: repair-index";
+    private static final String HISTORY_FORMAT = "History format should be: history <NOTE_ID>";
+    private static final String SHOW_REVISION_FORMAT =
+        "Show revision format should be: show-revision <NOTE_ID> <REVISION_NUMBER>";
     private static final String PRINT_NOTE_BODY_FORMAT =
-        "Print note body format should be: print-body <NOTE_ID>";
+        "Print note body format should be: print-body <NOTE_ID> [-p] [-r <START>-<END>]";
 
     /**
      * Parses a user command string and returns the corresponding Command object.
@@ -139,6 +151,11 @@ public class Parser {
         case "help" -> parseHelpCommand(inputs);
         case "change-repo", "change-repository" -> parseChangeRepoCommand(inputs);
         case "current-repo", "current-repository"  -> parseCurrentRepoCommand(inputs);
+        case "check-repo" -> parseCheckRepoCommand(inputs);
+        case "compress-archive" -> parseCompressArchiveCommand(inputs);
+        case "repair-index" -> parseRepairIndexCommand(inputs);
+        case "history" -> parseHistoryCommand(inputs);
+        case "show-revision" -> parseShowRevisionCommand(inputs);
         default -> throw new InvalidInputException(command);
         };
     }
@@ -163,6 +180,7 @@ public class Parser {
 
         boolean showPinned = false;
         boolean showArchived = false;
+        boolean showShortIds = false;
 
         // parse flags if present (flags must start with '-' and be known)
         for (int i = 1; i < inputs.length; i++) {
@@ -183,11 +201,17 @@ public class Parser {
                 }
                 showArchived = true;
             }
+            case "-s" -> {
+                if (showShortIds) {
+                    throw new InvalidFormatException(LIST_FORMAT);
+                }
+                showShortIds = true;
+            }
             default -> throw new InvalidFormatException(LIST_FORMAT);
             }
         }
 
-        return new ListNoteCommand(showPinned, showArchived);
+        return new ListNoteCommand(showPinned, showArchived, showShortIds);
     }
 
     /**
@@ -718,20 +742,144 @@ public class Parser {
         return new CurrentRepoCommand();
     }
 
+    /**
+     * Parses a check-repo command to verify the current repository on disk.
+     * Expected format: check-repo
+     *
+     * @param inputs The tokenized user input split by spaces.
+     * @return A CheckRepoCommand object.
+     * @throws ZettelException If the format is invalid.
+     */
+    private static Command parseCheckRepoCommand(String[] inputs) throws ZettelException {
+        if (inputs.length != 1) {
+            throw new InvalidFormatException(CHECK_REPO_FORMAT);
+        }
+        return new CheckRepoCommand();
+    }
+
+    /**
+     * Parses a compress-archive command to compress the archived notes of the current repository.
+     * Expected format: compress-archive
+     *
+     * @param inputs The tokenized user input split by spaces.
+     * @return A CompressArchiveCommand object.
+     * @throws ZettelException If the format is invalid.
+     */
+    private static Command parseCompressArchiveCommand(String[] inputs) throws ZettelException {
+        if (inputs.length != 1) {
+            throw new InvalidFormatException(COMPRESS_ARCHIVE_FORMAT);
+        }
+        return new CompressArchiveCommand();
+    }
+
+    /**
+     * Parses a repair-index command to rebuild the index of the current repository.
+     * Expected format: repair-index
+     *
+     * @param inputs The tokenized user input split by spaces.
+     * @return A RepairIndexCommand object.
+     * @throws ZettelException If the format is invalid.
+     */
+    private static Command parseRepairIndexCommand(String[] inputs) throws ZettelException {
+        if (inputs.length != 1) {
+            throw new InvalidFormatException(REPAIR_INDEX_FORMAT);
+        }
+        return new RepairIndexCommand();
+    }
+
+    /**
+     * Parses a history command to list the recorded revisions of a note's body.
+     * Expected format: history NOTE_ID
+     *
+     * @param inputs The tokenized user input split by spaces.
+     * @return A HistoryCommand object with the note ID.
+     * @throws ZettelException If the format is invalid or note ID is malformed.
+     */
+    private static Command parseHistoryCommand(String[] inputs) throws ZettelException {
+        if (inputs.length != 2) {
+            throw new InvalidFormatException(HISTORY_FORMAT);
+        }
+        String noteId = Validator.validateNoteId(inputs[1], "history");
+        return new HistoryCommand(noteId);
+    }
+
+    /**
+     * Parses a show-revision command to display a note's body as it was at one of its revisions.
+     * Expected format: show-revision NOTE_ID REVISION_NUMBER
+     *
+     * @param inputs The tokenized user input split by spaces.
+     * @return A ShowRevisionCommand object with the note ID and revision number.
+     * @throws ZettelException If the format is invalid, note ID is malformed or the number is not positive.
+     */
+    private static Command parseShowRevisionCommand(String[] inputs) throws ZettelException {
+        if (inputs.length != 3 || !inputs[2].matches("\\d{1,9}")) {
+            throw new InvalidFormatException(SHOW_REVISION_FORMAT);
+        }
+        String noteId = Validator.validateNoteId(inputs[1], "show-revision");
+        int number = Integer.parseInt(inputs[2]);
+        if (number < 1) {
+            throw new InvalidFormatException(SHOW_REVISION_FORMAT);
+        }
+        return new ShowRevisionCommand(noteId, number);
+    }
+
     /**
      * Parses a print-body command to display the body of a specific note.
-     * Expected format: print-body NOTE_ID
+     * Expected format: print-body NOTE_ID [-p] [-r START-END]
+     *   -p  show the body in a pager
+     *   -r  print only bytes START up to (not including) END; either may be left out, e.g. "-r 1000-"
      * 
      * @param inputs The tokenized user input split by spaces.
      * @return A Command object to print the note body.
      * @throws ZettelException If the format is invalid or note ID is malformed.
      */
     private static Command parsePrintNoteBodyCommand(String[] inputs) throws ZettelException {
-        if (inputs.length != 2) {
+        if (inputs.length < 2 || inputs.length > 5) {
             throw new InvalidFormatException(PRINT_NOTE_BODY_FORMAT);
         }
         String noteId = Validator.validateNoteId(inputs[1], "print-body");
-        return new PrintNoteBodyCommand(noteId);
+        if (inputs.length == 2) {
+            return new PrintNoteBodyCommand(noteId);
+        }
+
+        boolean isPaged = false;
+        long[] range = null;
+        for (int i = 2; i < inputs.length; i++) {
+            if ("-p".equals(inputs[i]) && !isPaged) {
+                isPaged = true;
+            } else if ("-r".equals(inputs[i]) && range == null && i + 1 < inputs.length) {
+                range = parseByteRange(inputs[++i]);
+            } else {
+                throw new InvalidFormatException(PRINT_NOTE_BODY_FORMAT);
+            }
+        }
+        return range == null
+                ? new PrintNoteBodyCommand(noteId, isPaged, 0, Long.MAX_VALUE)
+                : new PrintNoteBodyCommand(noteId, isPaged, range[0], range[1]);
+    }
+
+    /**
+     * Parses a byte range of the form START-END, where END is exclusive and either bound may be left out.
+     *
+     * @param range The range token.
+     * @return The start and end offsets; the end is Long.MAX_VALUE if left out.
+     * @throws ZettelException If the range is malformed or empty.
+     */
+    private static long[] parseByteRange(String range) throws ZettelException {
+        int dash = range.indexOf('-');
+        if (dash < 0 || range.length() == 1 || !range.matches("\\d*-\\d*")) {
+            throw new InvalidFormatException(PRINT_NOTE_BODY_FORMAT);
+        }
+        try {
+            long start = dash == 0 ? 0 : Long.parseLong(range.substring(0, dash));
+            long end = dash == range.length() - 1 ? Long.MAX_VALUE : Long.parseLong(range.substring(dash + 1));
+            if (start >= end) {
+                throw new InvalidFormatException(PRINT_NOTE_BODY_FORMAT);
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            throw new InvalidFormatException(PRINT_NOTE_BODY_FORMAT);
+        }
     }
 
     /**
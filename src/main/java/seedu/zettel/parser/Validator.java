@@ -14,11 +14,12 @@ public class Validator {
     private static final int MAX_LENGTH = 3000;
 
     private static final int VALID_NOTE_ID_LENGTH = 8;
-    private static final String VALID_NOTE_ID_REGEX = "^[a-f0-9]{" + VALID_NOTE_ID_LENGTH + "}$";
+    private static final String VALID_NOTE_ID_REGEX = "^[a-f0-9]{1," + VALID_NOTE_ID_LENGTH + "}$";
     private static final String ID_EMPTY = "Please specify a Note ID to ";
-    private static final String ID_INVALID = "Note ID must be exactly 8 hexadecimal characters (0-9, a-f)";
+    private static final String ID_INVALID = "Note ID must be 1 to 8 hexadecimal characters (0-9, a-f): "
+            + "a full ID or a unique prefix of one";
     private static final String INVALID_ID_LENGTH_FORMAT =
-            "Note ID must be exactly " + VALID_NOTE_ID_LENGTH + " characters long.";
+            "Note ID must be at most " + VALID_NOTE_ID_LENGTH + " characters long.";
     private static final String INVALID_CHARS_FORMAT =
             "Input contains invalid characters. Only ASCII characters are allowed;";
     private static final String REPO_TITLE_TAG_INVALID_CHARS_FORMAT =
@@ -32,7 +33,8 @@ public class Validator {
             "Input must be less than " + MAX_LENGTH + " characters.";
     /**
      * Validates a note ID string.
-     * The note ID must be exactly 8 lowercase hexadecimal characters.
+     * The note ID must be 1 to 8 lowercase hexadecimal characters: a full ID, or a prefix of one,
+     * which commands resolve to the one note whose ID starts with it.
      *
      * @param noteId The note ID string to validate
      * @param actionName The name of the action requesting validation (for error messages)
@@ -47,12 +49,12 @@ public class Validator {
         String idString = noteId.trim();
         assert !idString.isEmpty() : "ID string should not be empty after trim";
 
-        // Validate noteId format - must be exactly 8 lowercase hex characters
+        // Validate noteId format - must be 1 to 8 lowercase hex characters
         if (!idString.matches(VALID_NOTE_ID_REGEX)) {
             throw new InvalidFormatException(ID_INVALID);
         }
 
-        if (idString.length() != VALID_NOTE_ID_LENGTH) {
+        if (idString.length() > VALID_NOTE_ID_LENGTH) {
             throw new InvalidFormatException(INVALID_ID_LENGTH_FORMAT);
         }
 
@@ -0,0 +1,434 @@
+package seedu.zettel.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the bodies of archived notes packed into a few large segment files instead of one file per note.
+ * <p>
+ * Bodies are appended to the newest segment in archive/segments/, which is sealed once it reaches the
+ * segment size limit. The offset table archive/pack.index records where each body lives, as a log of
+ * {@code + <id> <segment> <offset> <length>} and {@code - <id>} lines. Bodies are read with positional
+ * reads on a channel kept open per segment. Bodies removed when notes are unarchived or deleted leave
+ * dead bytes behind; a background compactor copies the live bodies out of any segment that is at least
+ * half dead, then deletes it.
+ * <p>
+ * Every append is forced to disk before it returns, because the caller deletes the body's only other copy.
+ * All methods are safe to call from several threads.
+ */
+class ArchivePack {
+    /** Directory inside archive/ holding the segment files. */
+    static final String SEGMENT_DIR = "segments";
+
+    /** File inside archive/ holding the offset table. */
+    static final String TABLE_FILE = "pack.index";
+
+    /** Size at which a segment is sealed and a new one started, when none is given. */
+    static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".pack";
+    private static final String PUT = "+ ";
+    private static final String DELETE = "- ";
+    private static final double COMPACTION_THRESHOLD = 0.5;
+
+    private final Path segmentDir;
+    private final Path tablePath;
+    private final long maxSegmentBytes;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    // Segment number -> bytes written to it, live or dead
+    private final TreeMap<Integer, Long> segmentSizes = new TreeMap<>();
+    private final Map<Integer, FileChannel> channels = new HashMap<>();
+    private int activeSegment = 1;
+
+    private ExecutorService compactor;
+    private boolean isClosed;
+
+    /**
+     * Opens the pack of an archive directory, reading its offset table if there is one.
+     *
+     * @param archiveDir the archive/ directory
+     * @param maxSegmentBytes the size at which a segment is sealed
+     * @throws IOException if the offset table or segment directory cannot be read
+     */
+    ArchivePack(Path archiveDir, long maxSegmentBytes) throws IOException {
+        assert maxSegmentBytes > 0 : "Segment size limit should be positive";
+        this.segmentDir = archiveDir.resolve(SEGMENT_DIR);
+        this.tablePath = archiveDir.resolve(TABLE_FILE);
+        this.maxSegmentBytes = maxSegmentBytes;
+        readSegments();
+        readTable();
+    }
+
+    /**
+     * Checks whether an archive directory holds a pack.
+     *
+     * @param archiveDir the archive/ directory
+     * @return true if the directory has an offset table
+     */
+    static boolean exists(Path archiveDir) {
+        return Files.exists(archiveDir.resolve(TABLE_FILE));
+    }
+
+    private void readSegments() throws IOException {
+        if (Files.notExists(segmentDir)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.list(segmentDir)) {
+            for (Path segmentFile : stream.collect(Collectors.toList())) {
+                String name = segmentFile.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        int segment = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                                name.length() - SEGMENT_SUFFIX.length()));
+                        segmentSizes.put(segment, Files.size(segmentFile));
+                    } catch (NumberFormatException e) {
+                        System.out.println("Warning: ignoring unknown file in archive segments: " + name);
+                    }
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (!segmentSizes.isEmpty()) {
+            activeSegment = segmentSizes.lastKey();
+        }
+    }
+
+    private void readTable() throws IOException {
+        if (Files.notExists(tablePath)) {
+            return;
+        }
+        for (String line : Files.readAllLines(tablePath, StandardCharsets.UTF_8)) {
+            if (line.startsWith(DELETE)) {
+                entries.remove(line.substring(DELETE.length()).trim());
+                continue;
+            }
+            String[] fields = line.startsWith(PUT) ? line.substring(PUT.length()).trim().split(" ") : new String[0];
+            try {
+                Entry entry = new Entry(Integer.parseInt(fields[1]), Long.parseLong(fields[2]),
+                        Integer.parseInt(fields[3]));
+                Long segmentSize = segmentSizes.get(entry.segment);
+                if (fields.length != 4 || segmentSize == null || entry.offset + entry.length > segmentSize) {
+                    throw new IllegalArgumentException("points outside the archive segments");
+                }
+                entries.put(fields[0], entry);
+            } catch (RuntimeException e) {
+                if (!line.isBlank()) {
+                    System.out.println("Skipping malformed archive pack record: " + line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a note's body is in the pack.
+     *
+     * @param noteId the ID of the note
+     * @return true if the body is packed
+     */
+    synchronized boolean contains(String noteId) {
+        return entries.containsKey(noteId);
+    }
+
+    /**
+     * Appends a note's body to the pack, replacing any body already packed for the note.
+     * Returns once the body and its offset table record are on disk.
+     *
+     * @param noteId the ID of the note
+     * @param body the body bytes
+     * @throws IOException if the segment or offset table cannot be written
+     */
+    synchronized void append(String noteId, byte[] body) throws IOException {
+        Entry entry = write(body);
+        channelFor(entry.segment).force(false);
+        appendTableRecord(PUT + noteId + " " + entry.segment + " " + entry.offset + " " + entry.length);
+        entries.put(noteId, entry);
+    }
+
+    /**
+     * Reads a note's body from the pack.
+     *
+     * @param noteId the ID of the note
+     * @return the body bytes
+     * @throws IOException if the body is not packed or cannot be read
+     */
+    synchronized byte[] read(String noteId) throws IOException {
+        Entry entry = entries.get(noteId);
+        if (entry == null) {
+            throw new IOException("No packed archive body for note " + noteId);
+        }
+        return read(entry);
+    }
+
+    /**
+     * Gets the length of a note's packed body.
+     *
+     * @param noteId the ID of the note
+     * @return the body length in bytes, or -1 if the body is not packed
+     */
+    synchronized long getLength(String noteId) {
+        Entry entry = entries.get(noteId);
+        return entry == null ? -1 : entry.length;
+    }
+
+    /**
+     * Copies part of a note's packed body straight from its segment to a channel, without reading it
+     * into the heap. Compaction waits until the copy is done, so the body cannot move meanwhile.
+     *
+     * @param noteId the ID of the note
+     * @param start the offset in the body of the first byte to copy
+     * @param end the offset in the body after the last byte to copy; clipped to the body's length
+     * @param target the channel to copy to
+     * @return the number of bytes copied
+     * @throws IOException if the body is not packed, or cannot be read or copied
+     */
+    synchronized long transferTo(String noteId, long start, long end, WritableByteChannel target)
+            throws IOException {
+        Entry entry = entries.get(noteId);
+        if (entry == null) {
+            throw new IOException("No packed archive body for note " + noteId);
+        }
+        long from = Math.min(start, entry.length);
+        long to = Math.min(end, entry.length);
+        return BodyLocator.transferRange(channelFor(entry.segment), entry.offset + from, to - from, target);
+    }
+
+    /**
+     * Removes a note's body from the pack, e.g. when the note is unarchived or deleted.
+     * The bytes it used are reclaimed by a later compaction.
+     *
+     * @param noteId the ID of the note
+     * @throws IOException if the offset table cannot be written
+     */
+    synchronized void remove(String noteId) throws IOException {
+        if (entries.containsKey(noteId)) {
+            appendTableRecord(DELETE + noteId);
+            entries.remove(noteId);
+        }
+    }
+
+    /**
+     * Gets the IDs of the notes whose bodies are packed.
+     *
+     * @return a copy of the packed note IDs
+     */
+    synchronized List<String> getNoteIds() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * Gets the number of segment files.
+     *
+     * @return the number of segments
+     */
+    synchronized int getSegmentCount() {
+        return segmentSizes.size();
+    }
+
+    /**
+     * Gets the number of bytes in the segments that no packed body uses any more.
+     *
+     * @return the number of dead bytes
+     */
+    synchronized long getDeadBytes() {
+        long liveBytes = entries.values().stream().mapToLong(entry -> entry.length).sum();
+        return segmentSizes.values().stream().mapToLong(Long::longValue).sum() - liveBytes;
+    }
+
+    /**
+     * Starts compacting the pack on a background thread and returns immediately.
+     * Does nothing if a compaction is already waiting to run.
+     */
+    synchronized void scheduleCompaction() {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "archive-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                System.out.println("Warning: failed to compact archive segments: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Copies the live bodies out of every segment that is at least half dead, deletes those segments,
+     * and rewrites the offset table without the records of removed bodies.
+     *
+     * @throws IOException if a segment or the offset table cannot be read or written
+     */
+    synchronized void compact() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        Map<Integer, Long> liveBytes = new HashMap<>();
+        entries.values().forEach(entry -> liveBytes.merge(entry.segment, (long) entry.length, Long::sum));
+
+        List<Integer> wasteful = new ArrayList<>();
+        segmentSizes.forEach((segment, size) -> {
+            long dead = size - liveBytes.getOrDefault(segment, 0L);
+            if (dead > 0 && dead >= size * COMPACTION_THRESHOLD) {
+                wasteful.add(segment);
+            }
+        });
+        if (wasteful.isEmpty()) {
+            return;
+        }
+
+        if (wasteful.contains(activeSegment)) {
+            activeSegment = segmentSizes.lastKey() + 1;
+        }
+        // Copies may roll over into several segments; each is forced before the table points into it
+        Set<Integer> written = new TreeSet<>();
+        for (Map.Entry<String, Entry> packed : entries.entrySet()) {
+            if (wasteful.contains(packed.getValue().segment)) {
+                Entry copy = write(read(packed.getValue()));
+                packed.setValue(copy);
+                written.add(copy.segment);
+            }
+        }
+        for (int segment : written) {
+            channelFor(segment).force(false);
+        }
+        rewriteTable();
+
+        // The rewritten table no longer points into these segments, so they can go
+        for (int segment : wasteful) {
+            FileChannel channel = channels.remove(segment);
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(segmentPath(segment));
+            segmentSizes.remove(segment);
+        }
+    }
+
+    /**
+     * Stops background compaction and closes every segment. A compaction already running finishes first.
+     */
+    synchronized void close() {
+        isClosed = true;
+        if (compactor != null) {
+            compactor.shutdown();
+            compactor = null;
+        }
+        for (FileChannel channel : channels.values()) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing is left to write, so a failed close loses nothing
+            }
+        }
+        channels.clear();
+    }
+
+    /**
+     * Deletes the pack's offset table and segments. Only valid once every body has been removed.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    synchronized void delete() throws IOException {
+        assert entries.isEmpty() : "Only an empty pack should be deleted";
+        close();
+        for (int segment : segmentSizes.keySet()) {
+            Files.deleteIfExists(segmentPath(segment));
+        }
+        segmentSizes.clear();
+        Files.deleteIfExists(segmentDir);
+        Files.deleteIfExists(tablePath);
+    }
+
+    private Entry write(byte[] body) throws IOException {
+        long activeSize = segmentSizes.getOrDefault(activeSegment, 0L);
+        if (activeSize > 0 && activeSize + body.length > maxSegmentBytes) {
+            activeSegment = segmentSizes.lastKey() + 1;
+            activeSize = 0;
+        }
+        FileChannel channel = channelFor(activeSegment);
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        long offset = activeSize;
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+        segmentSizes.put(activeSegment, activeSize + body.length);
+        return new Entry(activeSegment, offset, body.length);
+    }
+
+    private byte[] read(Entry entry) throws IOException {
+        FileChannel channel = channelFor(entry.segment);
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, entry.offset + buffer.position()) < 0) {
+                throw new EOFException("Archive segment " + entry.segment + " ends before the body does");
+            }
+        }
+        return buffer.array();
+    }
+
+    private FileChannel channelFor(int segment) throws IOException {
+        FileChannel channel = channels.get(segment);
+        if (channel == null) {
+            Files.createDirectories(segmentDir);
+            channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channels.put(segment, channel);
+        }
+        return channel;
+    }
+
+    private Path segmentPath(int segment) {
+        return segmentDir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private void appendTableRecord(String record) throws IOException {
+        Files.write(tablePath, List.of(record), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        AtomicFileWriter.force(tablePath);
+    }
+
+    private void rewriteTable() throws IOException {
+        StringBuilder table = new StringBuilder();
+        entries.forEach((noteId, entry) -> table.append(PUT).append(noteId).append(' ').append(entry.segment)
+                .append(' ').append(entry.offset).append(' ').append(entry.length).append('\n'));
+        byte[] content = table.toString().getBytes(StandardCharsets.UTF_8);
+        AtomicFileWriter.write(tablePath, out -> out.write(content));
+    }
+
+    private static class Entry {
+        private final int segment;
+        private final long offset;
+        private final int length;
+
+        private Entry(int segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package seedu.zettel.storage;
+
+/**
+ * Ways of storing the bodies of archived notes.
+ */
+public enum ArchiveStorage {
+    /** One body file per archived note in archive/. */
+    FILES("files"),
+    /** Archived bodies appended to a few large segment files in archive/segments/. */
+    PACKED("packed");
+
+    private final String settingValue;
+
+    ArchiveStorage(String settingValue) {
+        this.settingValue = settingValue;
+    }
+
+    /**
+     * Gets the value used for this kind of storage in a settings file.
+     *
+     * @return the setting value, e.g. "packed"
+     */
+    public String getSettingValue() {
+        return settingValue;
+    }
+
+    /**
+     * Finds the kind of storage named by a setting value.
+     *
+     * @param settingValue the setting value, ignoring case
+     * @return the named storage, or FILES if the value names none
+     */
+    public static ArchiveStorage fromSetting(String settingValue) {
+        for (ArchiveStorage storage : values()) {
+            if (storage.settingValue.equalsIgnoreCase(settingValue)) {
+                return storage;
+            }
+        }
+        System.out.println("Warning: unknown archive storage '" + settingValue + "', using files");
+        return FILES;
+    }
+}
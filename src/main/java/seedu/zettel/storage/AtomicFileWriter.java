@@ -0,0 +1,91 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files so that a crash leaves either the old or the new contents, never a truncated file.
+ * The new contents are written to a temporary file next to the target, forced to disk,
+ * and then renamed over the target in one atomic step.
+ */
+final class AtomicFileWriter {
+    /** Suffix of the temporary file written before it replaces the target. */
+    static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Writes the contents of a file.
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Atomically replaces the target file with the contents written by the given writer.
+     * If the writer fails, the target is left untouched.
+     *
+     * @param target the file to replace
+     * @param contentWriter writes the new contents
+     * @throws IOException if the contents cannot be written or the file cannot be replaced
+     */
+    static void write(Path target, ContentWriter contentWriter) throws IOException {
+        Path tempFile = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                // Not closed separately: closing it would close the channel before it is forced
+                OutputStream out = Channels.newOutputStream(channel);
+                contentWriter.writeTo(out);
+                out.flush();
+                channel.force(true);
+            }
+            move(tempFile, target);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        forceDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces a file's contents to disk.
+     *
+     * @param file the file to force
+     * @throws IOException if the file cannot be opened or forced
+     */
+    static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Makes the rename itself durable; not every platform can open a directory, so failures are ignored
+    private static void forceDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // The rename is still atomic, only its durability is left to the operating system
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package seedu.zettel.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import seedu.zettel.Note;
+
+/**
+ * Reads and writes the binary index format (index.bin).
+ * <p>
+ * Layout, all numbers big-endian:
+ * <pre>
+ * int magic, int version
+ * int tagCount, then tagCount strings         (tag dictionary)
+ * int noteCount, then noteCount records:
+ *     int id, string title, string filename,
+ *     long createdAt, long modifiedAt          (epoch milliseconds)
+ *     byte flags                              (bit 0 pinned, bit 1 archived, bit 2 body deflated)
+ *     string archiveName                      (empty if none)
+ *     string bodyHash                         (empty if none; not in version 1)
+ *     int count, then count int tag indexes   (into the tag dictionary)
+ *     int count, then count int ids           (outgoing links)
+ *     int count, then count int ids           (incoming links)
+ * </pre>
+ * Strings are an int byte length followed by UTF-8 bytes. Note IDs, which are 8 hex
+ * characters, are stored as their 4-byte value.
+ */
+class BinaryIndexCodec {
+    /** First four bytes of every binary index: "ZTIX". */
+    static final int MAGIC = 0x5A544958;
+
+    /** Version of the layout written by this codec. */
+    static final int VERSION = 2;
+
+    // Oldest layout still read; it has no body hashes
+    private static final int MIN_VERSION = 1;
+
+    private static final int ID_LENGTH = 8;
+    private static final int FLAG_PINNED = 1;
+    private static final int FLAG_ARCHIVED = 2;
+    private static final int FLAG_DEFLATE = 4;
+
+    /**
+     * Checks whether every note can be stored in the binary format,
+     * i.e. whether all note and link IDs are 8 hex characters and every body codec has a flag.
+     *
+     * @param notes the notes to check
+     * @return true if the notes can be written
+     */
+    boolean canEncode(List<Note> notes) {
+        for (Note note : notes) {
+            if (!isEncodableId(note.getId())
+                    || (note.getBodyCodec() != null && !note.getBodyCodec().equals(BodyCodec.DEFLATE))
+                    || !note.getOutgoingLinks().stream().allMatch(this::isEncodableId)
+                    || !note.getIncomingLinks().stream().allMatch(this::isEncodableId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the notes in the binary index format.
+     *
+     * @param notes the notes to write, all of which must pass {@link #canEncode}
+     * @param outputStream the stream to write to, which is flushed but not closed
+     * @throws IOException if the stream cannot be written
+     */
+    void write(List<Note> notes, OutputStream outputStream) throws IOException {
+        Map<String, Integer> tagIndexes = new LinkedHashMap<>();
+        for (Note note : notes) {
+            for (String tag : note.getTags()) {
+                if (tag != null && !tag.trim().isEmpty()) {
+                    tagIndexes.putIfAbsent(tag.trim(), tagIndexes.size());
+                }
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeInt(tagIndexes.size());
+        for (String tag : tagIndexes.keySet()) {
+            writeString(out, tag);
+        }
+
+        out.writeInt(notes.size());
+        for (Note note : notes) {
+            writeNote(out, note, tagIndexes);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads the notes stored in a binary index file. Bodies are not loaded.
+     *
+     * @param binaryIndexPath the path to the binary index file
+     * @return the notes, in the order they were written
+     * @throws IOException if the file cannot be read, or is not a binary index of a supported version
+     */
+    List<Note> read(Path binaryIndexPath) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(binaryIndexPath)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a binary index: " + binaryIndexPath);
+            }
+            int version = in.readInt();
+            if (version < MIN_VERSION || version > VERSION) {
+                throw new IOException("Unsupported binary index version " + version + ": " + binaryIndexPath);
+            }
+
+            String[] tags = new String[in.readInt()];
+            for (int i = 0; i < tags.length; i++) {
+                tags[i] = readString(in);
+            }
+
+            int noteCount = in.readInt();
+            List<Note> notes = new ArrayList<>(noteCount);
+            for (int i = 0; i < noteCount; i++) {
+                notes.add(readNote(in, tags, version));
+            }
+            return notes;
+        }
+    }
+
+    private void writeNote(DataOutputStream out, Note note, Map<String, Integer> tagIndexes) throws IOException {
+        out.writeInt(encodeId(note.getId()));
+        writeString(out, note.getTitle());
+        writeString(out, note.getFilename() != null ? note.getFilename() : "");
+        out.writeLong(note.getCreatedAt().toEpochMilli());
+        out.writeLong(note.getModifiedAt().toEpochMilli());
+        out.writeByte((note.isPinned() ? FLAG_PINNED : 0) | (note.isArchived() ? FLAG_ARCHIVED : 0)
+                | (BodyCodec.DEFLATE.equals(note.getBodyCodec()) ? FLAG_DEFLATE : 0));
+        writeString(out, note.getArchiveName() != null ? note.getArchiveName() : "");
+        writeString(out, note.getBodyHash() != null ? note.getBodyHash() : "");
+
+        List<Integer> noteTagIndexes = new ArrayList<>();
+        for (String tag : note.getTags()) {
+            if (tag != null && !tag.trim().isEmpty()) {
+                noteTagIndexes.add(tagIndexes.get(tag.trim()));
+            }
+        }
+        out.writeInt(noteTagIndexes.size());
+        for (int tagIndex : noteTagIndexes) {
+            out.writeInt(tagIndex);
+        }
+
+        writeIds(out, note.getOutgoingLinks());
+        writeIds(out, note.getIncomingLinks());
+    }
+
+    private Note readNote(DataInputStream in, String[] tags, int version) throws IOException {
+        String id = decodeId(in.readInt());
+        String title = readString(in);
+        String filename = readString(in);
+        Instant createdAt = Instant.ofEpochMilli(in.readLong());
+        Instant modifiedAt = Instant.ofEpochMilli(in.readLong());
+        int flags = in.readByte();
+        String archiveName = readString(in);
+        String bodyHash = version >= 2 ? readString(in) : "";
+
+        int tagCount = in.readInt();
+        List<String> noteTags = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            int tagIndex = in.readInt();
+            if (tagIndex < 0 || tagIndex >= tags.length) {
+                throw new IOException("Tag index " + tagIndex + " out of range for note " + id);
+            }
+            noteTags.add(tags[tagIndex]);
+        }
+
+        Note note = new Note(id, title, filename, "", createdAt, modifiedAt,
+                (flags & FLAG_PINNED) != 0, (flags & FLAG_ARCHIVED) != 0,
+                archiveName.isEmpty() ? null : archiveName, noteTags);
+        if ((flags & FLAG_DEFLATE) != 0) {
+            note.setBodyCodec(BodyCodec.DEFLATE);
+        }
+        if (!bodyHash.isEmpty()) {
+            note.setBodyHash(bodyHash);
+        }
+
+        int outgoingCount = in.readInt();
+        for (int i = 0; i < outgoingCount; i++) {
+            note.addOutgoingLink(decodeId(in.readInt()));
+        }
+        int incomingCount = in.readInt();
+        for (int i = 0; i < incomingCount; i++) {
+            note.addIncomingLink(decodeId(in.readInt()));
+        }
+        return note;
+    }
+
+    private void writeIds(DataOutputStream out, Collection<String> ids) throws IOException {
+        out.writeInt(ids.size());
+        for (String id : ids) {
+            out.writeInt(encodeId(id));
+        }
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Negative string length in binary index");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean isEncodableId(String id) {
+        if (id == null || id.length() != ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < ID_LENGTH; i++) {
+            char c = id.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int encodeId(String id) {
+        return Integer.parseUnsignedInt(id, 16);
+    }
+
+    private String decodeId(int value) {
+        String hex = Integer.toHexString(value);
+        return "0".repeat(ID_LENGTH - hex.length()) + hex;
+    }
+}
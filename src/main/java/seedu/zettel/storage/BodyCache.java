@@ -0,0 +1,205 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bounded, least-recently-used cache of note bodies, keyed by body file path.
+ * Bodies are read from disk on first access and evicted, oldest first, once the
+ * total size of the cached bodies exceeds the byte budget.
+ * A body larger than the whole budget is returned but never cached.
+ * Safe to use from several threads: concurrent requests for the same body file share one read.
+ */
+public class BodyCache {
+    /** Byte budget used when none is configured. */
+    public static final long DEFAULT_BUDGET_BYTES = 32L * 1024 * 1024;
+
+    private final long budgetBytes;
+
+    // Access-ordered, so iteration starts at the least recently used body
+    private final LinkedHashMap<Path, CachedBody> bodies = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+
+    // Reads in progress, so that a second request for the same body waits instead of reading again
+    private final Map<Path, CompletableFuture<String>> pendingReads = new HashMap<>();
+
+    /**
+     * Constructs a BodyCache holding at most the given number of body bytes.
+     *
+     * @param budgetBytes the maximum total size of cached bodies, in bytes; 0 disables caching
+     */
+    public BodyCache(long budgetBytes) {
+        assert budgetBytes >= 0 : "Body cache budget should not be negative";
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Gets the body stored in a body file, reading it from disk if it is not cached.
+     * If another thread is already reading the same file, waits for that read instead.
+     *
+     * @param bodyFile the path to the body file
+     * @return the body content
+     * @throws IOException if the body file cannot be read
+     */
+    public String get(Path bodyFile) throws IOException {
+        return get(bodyFile, () -> Files.readAllBytes(bodyFile));
+    }
+
+    /**
+     * Gets the body cached under a body file path, reading it with the given reader if it is not cached.
+     * Used for bodies that are not stored in their own file, such as packed archive bodies.
+     *
+     * @param bodyFile the path the body is cached under
+     * @param reader reads the body bytes from wherever they are stored
+     * @return the body content
+     * @throws IOException if the body cannot be read
+     */
+    public String get(Path bodyFile, BodyReader reader) throws IOException {
+        CompletableFuture<String> pendingRead;
+        boolean isReader = false;
+        synchronized (this) {
+            CachedBody cached = bodies.get(bodyFile);
+            if (cached != null) {
+                return cached.body;
+            }
+            pendingRead = pendingReads.get(bodyFile);
+            if (pendingRead == null) {
+                pendingRead = new CompletableFuture<>();
+                pendingReads.put(bodyFile, pendingRead);
+                isReader = true;
+            }
+        }
+
+        if (isReader) {
+            return read(bodyFile, reader, pendingRead);
+        }
+        return awaitRead(pendingRead);
+    }
+
+    private String read(Path bodyFile, BodyReader reader, CompletableFuture<String> pendingRead)
+            throws IOException {
+        try {
+            byte[] bytes = reader.read();
+            String body = new String(bytes, StandardCharsets.UTF_8);
+            synchronized (this) {
+                // Only cache the body if the file was not invalidated while it was being read
+                if (pendingReads.remove(bodyFile, pendingRead)) {
+                    put(bodyFile, body, bytes.length);
+                }
+            }
+            pendingRead.complete(body);
+            return body;
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                pendingReads.remove(bodyFile, pendingRead);
+            }
+            pendingRead.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private String awaitRead(CompletableFuture<String> pendingRead) throws IOException {
+        try {
+            return pendingRead.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the cached body of a body file, e.g. after the file was edited, moved or deleted.
+     *
+     * @param bodyFile the path to the body file
+     */
+    public synchronized void invalidate(Path bodyFile) {
+        pendingReads.remove(bodyFile);
+        CachedBody removed = bodies.remove(bodyFile);
+        if (removed != null) {
+            residentBytes -= removed.sizeBytes;
+        }
+    }
+
+    /**
+     * Drops every cached body.
+     */
+    public synchronized void clear() {
+        pendingReads.clear();
+        bodies.clear();
+        residentBytes = 0;
+    }
+
+    /**
+     * Checks whether the body of a body file is currently cached.
+     *
+     * @param bodyFile the path to the body file
+     * @return true if the body is cached
+     */
+    public synchronized boolean isCached(Path bodyFile) {
+        return bodies.containsKey(bodyFile);
+    }
+
+    /**
+     * Gets the total size of the cached bodies.
+     *
+     * @return the number of cached body bytes
+     */
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Checks whether the cached bodies have used up the byte budget.
+     *
+     * @return true if no more bodies fit without evicting others
+     */
+    public synchronized boolean isFull() {
+        return residentBytes >= budgetBytes;
+    }
+
+    private void put(Path bodyFile, String body, long sizeBytes) {
+        if (sizeBytes > budgetBytes) {
+            return;
+        }
+
+        CachedBody replaced = bodies.put(bodyFile, new CachedBody(body, sizeBytes));
+        residentBytes += sizeBytes - (replaced != null ? replaced.sizeBytes : 0);
+
+        Iterator<Map.Entry<Path, CachedBody>> eldest = bodies.entrySet().iterator();
+        while (residentBytes > budgetBytes && eldest.hasNext()) {
+            residentBytes -= eldest.next().getValue().sizeBytes;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Reads the bytes of one body.
+     */
+    public interface BodyReader {
+        byte[] read() throws IOException;
+    }
+
+    private static class CachedBody {
+        private final String body;
+        private final long sizeBytes;
+
+        private CachedBody(String body, long sizeBytes) {
+            this.body = body;
+            this.sizeBytes = sizeBytes;
+        }
+    }
+}
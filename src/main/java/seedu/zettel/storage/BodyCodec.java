@@ -0,0 +1,306 @@
+package seedu.zettel.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses note bodies with {@link Deflater}, using a preset dictionary trained on a repository's own bodies.
+ * <p>
+ * Dictionaries are kept in the repository's dictionaries/ folder, each named after its Adler-32 checksum,
+ * which is also the dictionary ID that zlib writes into every stream compressed with it. A body is therefore
+ * always decompressed with the dictionary it was compressed with, even after a newer one has been trained.
+ * New bodies are compressed with the most recently trained dictionary.
+ * <p>
+ * Safe to use from several threads.
+ */
+class BodyCodec {
+    /** Codec name recorded in the index for bodies compressed by this class. */
+    static final String DEFLATE = "deflate";
+
+    /** Largest useful dictionary: deflate cannot refer further back than its 32 KB window. */
+    static final int MAX_DICTIONARY_BYTES = 32 * 1024;
+
+    /** Most sample bytes a dictionary is trained on; more samples are ignored. */
+    static final int MAX_SAMPLE_BYTES = 1024 * 1024;
+
+    private static final String DICTIONARY_SUFFIX = ".dict";
+    private static final int BUFFER_BYTES = 8192;
+    private static final int MAX_PHRASE_WORDS = 3;
+    private static final int MIN_PHRASE_CHARS = 4;
+
+    private final Path dictionaryDir;
+    private final Map<Long, byte[]> dictionaries = new HashMap<>();
+    private byte[] currentDictionary;
+    private boolean isLoaded;
+
+    /**
+     * Constructs a BodyCodec that keeps its dictionaries in the given folder.
+     *
+     * @param dictionaryDir the repository's dictionaries/ folder, which need not exist yet
+     */
+    BodyCodec(Path dictionaryDir) {
+        this.dictionaryDir = dictionaryDir;
+    }
+
+    /**
+     * Checks whether a dictionary has been trained, i.e. whether bodies should be compressed when archived.
+     *
+     * @return true if there is a dictionary to compress with
+     */
+    synchronized boolean hasDictionary() {
+        loadDictionaries();
+        return currentDictionary != null;
+    }
+
+    /**
+     * Compresses a body with the current dictionary.
+     *
+     * @param body the plain body bytes
+     * @return the compressed bytes, a zlib stream
+     */
+    byte[] compress(byte[] body) {
+        byte[] dictionary;
+        synchronized (this) {
+            loadDictionaries();
+            dictionary = currentDictionary;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 2));
+            byte[] buffer = new byte[BUFFER_BYTES];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Turns stored body bytes back into plain body bytes.
+     * Bytes flagged as compressed that are not a zlib stream are returned as they are, and so are
+     * unflagged bytes unless they start a stream compressed with one of this repository's dictionaries.
+     * Either mismatch is what a session that stopped between rewriting a body and saving its flag leaves.
+     *
+     * @param stored the bytes as stored on disk
+     * @param isFlaggedCompressed true if the index records the body as compressed
+     * @return the plain body bytes
+     * @throws IOException if a dictionary the body needs cannot be found
+     */
+    byte[] decode(byte[] stored, boolean isFlaggedCompressed) throws IOException {
+        if (!isFlaggedCompressed && !startsKnownStream(stored)) {
+            return stored;
+        }
+        try {
+            return decompress(stored);
+        } catch (DataFormatException e) {
+            return stored;
+        }
+    }
+
+    private byte[] decompress(byte[] compressed) throws IOException, DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 3);
+            byte[] buffer = new byte[BUFFER_BYTES];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated > 0) {
+                    out.write(buffer, 0, inflated);
+                } else if (inflater.needsDictionary()) {
+                    long dictionaryId = inflater.getAdler() & 0xFFFFFFFFL;
+                    byte[] dictionary = getDictionary(dictionaryId);
+                    if (dictionary == null) {
+                        throw new IOException("Missing compression dictionary " + Long.toHexString(dictionaryId));
+                    }
+                    inflater.setDictionary(dictionary);
+                } else if (inflater.needsInput()) {
+                    throw new DataFormatException("Compressed body is truncated");
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // A zlib header with the preset dictionary flag set, followed by the ID of a dictionary we have
+    private boolean startsKnownStream(byte[] stored) {
+        if (stored.length < 6 || (stored[0] & 0x0F) != 8 || (stored[1] & 0x20) == 0
+                || (((stored[0] & 0xFF) << 8) | (stored[1] & 0xFF)) % 31 != 0) {
+            return false;
+        }
+        long dictionaryId = ((stored[2] & 0xFFL) << 24) | ((stored[3] & 0xFFL) << 16)
+                | ((stored[4] & 0xFFL) << 8) | (stored[5] & 0xFFL);
+        return getDictionary(dictionaryId) != null;
+    }
+
+    private synchronized byte[] getDictionary(long dictionaryId) {
+        loadDictionaries();
+        return dictionaries.get(dictionaryId);
+    }
+
+    /**
+     * Trains a dictionary on sample bodies, saves it, and makes it the one new bodies are compressed with.
+     * The dictionary holds the words and short phrases that save the most bytes across the samples,
+     * with the most valuable ones last, where deflate can refer to them most cheaply. If nothing repeats,
+     * the end of the samples themselves is used instead. Only the first megabyte of samples is read.
+     *
+     * @param samples plain body bytes to train on
+     * @return true if a dictionary was saved, false if there were no samples
+     * @throws IOException if the dictionary cannot be saved
+     */
+    boolean train(List<byte[]> samples) throws IOException {
+        Map<String, Integer> counts = new HashMap<>();
+        ByteArrayOutputStream sampleBytes = new ByteArrayOutputStream();
+        for (byte[] sample : samples) {
+            if (sampleBytes.size() >= MAX_SAMPLE_BYTES) {
+                break;
+            }
+            countPhrases(new String(sample, StandardCharsets.UTF_8), counts);
+            sampleBytes.write(sample);
+        }
+
+        List<Map.Entry<String, Integer>> phrases = counts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .sorted(Comparator.comparingLong((Map.Entry<String, Integer> entry) -> savingOf(entry)).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .collect(Collectors.toList());
+        List<byte[]> chosen = new ArrayList<>();
+        int size = 0;
+        for (Map.Entry<String, Integer> phrase : phrases) {
+            byte[] bytes = phrase.getKey().getBytes(StandardCharsets.UTF_8);
+            if (size + bytes.length <= MAX_DICTIONARY_BYTES) {
+                chosen.add(bytes);
+                size += bytes.length;
+            }
+        }
+
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream(size);
+        for (int i = chosen.size() - 1; i >= 0; i--) {
+            dictionary.write(chosen.get(i));
+        }
+        if (dictionary.size() == 0) {
+            byte[] all = sampleBytes.toByteArray();
+            dictionary.write(all, Math.max(0, all.length - MAX_DICTIONARY_BYTES),
+                    Math.min(all.length, MAX_DICTIONARY_BYTES));
+        }
+        if (dictionary.size() == 0) {
+            return false;
+        }
+        saveDictionary(dictionary.toByteArray());
+        return true;
+    }
+
+    private static long savingOf(Map.Entry<String, Integer> phrase) {
+        return (long) (phrase.getValue() - 1) * phrase.getKey().length();
+    }
+
+    // Counts every run of one to MAX_PHRASE_WORDS words, each with the whitespace that follows it
+    private static void countPhrases(String text, Map<String, Integer> counts) {
+        List<Integer> wordStarts = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i)) && (i == 0 || Character.isWhitespace(text.charAt(i - 1)))) {
+                wordStarts.add(i);
+            }
+        }
+        wordStarts.add(text.length());
+        for (int first = 0; first < wordStarts.size() - 1; first++) {
+            for (int words = 1; words <= MAX_PHRASE_WORDS && first + words < wordStarts.size(); words++) {
+                String phrase = text.substring(wordStarts.get(first), wordStarts.get(first + words));
+                if (phrase.length() >= MIN_PHRASE_CHARS) {
+                    counts.merge(phrase, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private synchronized void saveDictionary(byte[] dictionary) throws IOException {
+        loadDictionaries();
+        long dictionaryId = idOf(dictionary);
+        Files.createDirectories(dictionaryDir);
+        AtomicFileWriter.write(dictionaryDir.resolve(Long.toHexString(dictionaryId) + DICTIONARY_SUFFIX),
+                out -> out.write(dictionary));
+        dictionaries.put(dictionaryId, dictionary);
+        currentDictionary = dictionary;
+    }
+
+    /**
+     * Deletes every dictionary except the current one, once no body needs them any more.
+     */
+    synchronized void deleteOldDictionaries() {
+        loadDictionaries();
+        if (currentDictionary == null) {
+            return;
+        }
+        long currentId = idOf(currentDictionary);
+        for (Long dictionaryId : new ArrayList<>(dictionaries.keySet())) {
+            if (dictionaryId != currentId) {
+                try {
+                    Files.deleteIfExists(dictionaryDir.resolve(Long.toHexString(dictionaryId) + DICTIONARY_SUFFIX));
+                    dictionaries.remove(dictionaryId);
+                } catch (IOException e) {
+                    // An unused dictionary left behind only costs its disk space
+                }
+            }
+        }
+    }
+
+    private void loadDictionaries() {
+        if (isLoaded) {
+            return;
+        }
+        isLoaded = true;
+        if (Files.notExists(dictionaryDir)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.list(dictionaryDir)) {
+            List<Path> files = stream.filter(p -> p.getFileName().toString().endsWith(DICTIONARY_SUFFIX))
+                    .sorted(Comparator.comparing(BodyCodec::lastModified))
+                    .collect(Collectors.toList());
+            for (Path file : files) {
+                byte[] dictionary = Files.readAllBytes(file);
+                dictionaries.put(idOf(dictionary), dictionary);
+                currentDictionary = dictionary;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Warning: failed to read compression dictionaries: " + e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long idOf(byte[] dictionary) {
+        Adler32 adler = new Adler32();
+        adler.update(dictionary);
+        return adler.getValue();
+    }
+}
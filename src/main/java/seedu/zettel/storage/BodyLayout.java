@@ -0,0 +1,98 @@
+package seedu.zettel.storage;
+
+import seedu.zettel.Note;
+
+/**
+ * Ways of arranging body files inside a repository's notes/ and archive/ directories.
+ */
+public enum BodyLayout {
+    /** Body files directly inside notes/ and archive/, named by the note's filename. */
+    FLAT("flat"),
+    /** Body files fanned out by note ID prefix, e.g. notes/ab/cd/abcd1234.txt. */
+    SHARDED("sharded");
+
+    private static final int SHARD_WIDTH = 2;
+    private static final int SHARD_LEVELS = 2;
+
+    private final String settingValue;
+
+    BodyLayout(String settingValue) {
+        this.settingValue = settingValue;
+    }
+
+    /**
+     * Gets the value used for this layout in a settings file.
+     *
+     * @return the setting value, e.g. "sharded"
+     */
+    public String getSettingValue() {
+        return settingValue;
+    }
+
+    /**
+     * Gets the path of a note's body file relative to notes/ or archive/.
+     *
+     * @param note the note
+     * @return the relative path, using '/' between directories
+     */
+    public String getBodyFile(Note note) {
+        return getBodyFile(note.getId(), note.getFilename());
+    }
+
+    /**
+     * Gets the path of a body file relative to notes/ or archive/.
+     * A note whose ID is too short or unsafe to shard keeps its filename, even in the sharded layout.
+     *
+     * @param noteId the ID of the note
+     * @param filename the filename of the note
+     * @return the relative path, using '/' between directories
+     */
+    public String getBodyFile(String noteId, String filename) {
+        if (this == FLAT || !isShardable(noteId)) {
+            return filename;
+        }
+        StringBuilder bodyFile = new StringBuilder();
+        for (int level = 0; level < SHARD_LEVELS; level++) {
+            bodyFile.append(noteId, level * SHARD_WIDTH, (level + 1) * SHARD_WIDTH).append('/');
+        }
+        return bodyFile.append(noteId).append(".txt").toString();
+    }
+
+    /**
+     * Gets how many directory levels below notes/ or archive/ have to be scanned to find every body file.
+     *
+     * @return 1 for the flat layout, or the number of shard levels plus one
+     */
+    int getScanDepth() {
+        return this == FLAT ? 1 : SHARD_LEVELS + 1;
+    }
+
+    private static boolean isShardable(String noteId) {
+        if (noteId == null || noteId.length() < SHARD_WIDTH * SHARD_LEVELS) {
+            return false;
+        }
+        for (int i = 0; i < noteId.length(); i++) {
+            char c = noteId.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the layout named by a setting value.
+     *
+     * @param settingValue the setting value, ignoring case
+     * @return the named layout, or FLAT if the value names no layout
+     */
+    public static BodyLayout fromSetting(String settingValue) {
+        for (BodyLayout layout : values()) {
+            if (layout.settingValue.equalsIgnoreCase(settingValue)) {
+                return layout;
+            }
+        }
+        System.out.println("Warning: unknown body layout '" + settingValue + "', using flat");
+        return FLAT;
+    }
+}
@@ -0,0 +1,159 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import seedu.zettel.Note;
+
+/**
+ * Finds and reads the stored body of a note in one repository: its record in the paged store,
+ * its object in the content store, its body file in notes/ or archive/, placed by the repository's
+ * body layout, or its entry in the pack of archived bodies, decompressed if the body was stored compressed.
+ */
+class BodyLocator {
+    private final Path notesDir;
+    private final Path archiveDir;
+    private final BodyLayout layout;
+    private final ArchivePack archivePack;
+    private final BodyCodec bodyCodec;
+    private final ContentStore contentStore;
+    private final PagedNoteStore pagedStore;
+
+    /**
+     * Constructs a BodyLocator for one repository.
+     *
+     * @param notesDir the notes/ directory
+     * @param archiveDir the archive/ directory
+     * @param layout the layout the body files are arranged in
+     * @param archivePack the pack holding archived bodies, or null if there is none
+     * @param bodyCodec the codec compressed bodies are decompressed with, or null if none are compressed
+     * @param contentStore the store holding bodies by content hash, or null if there is none
+     * @param pagedStore the paged store holding every body, or null if the repository does not use one
+     */
+    BodyLocator(Path notesDir, Path archiveDir, BodyLayout layout, ArchivePack archivePack, BodyCodec bodyCodec,
+                ContentStore contentStore, PagedNoteStore pagedStore) {
+        this.notesDir = notesDir;
+        this.archiveDir = archiveDir;
+        this.layout = layout;
+        this.archivePack = archivePack;
+        this.bodyCodec = bodyCodec;
+        this.contentStore = contentStore;
+        this.pagedStore = pagedStore;
+    }
+
+    /**
+     * Gets the path of a note's body file, which is also the key its body is cached under.
+     * The directory is picked when this is called, so notes archived after loading are still found.
+     *
+     * @param note the note
+     * @return the object in the content store, the body file in notes/ or archive/, or for a body in the
+     *     paged store a path under notes.db that names no file
+     */
+    Path getBodyPath(Note note) {
+        if (pagedStore != null) {
+            return pagedStore.getBodyKey(note);
+        }
+        if (isInContentStore(note)) {
+            return contentStore.getObjectPath(note.getBodyHash());
+        }
+        return (note.isArchived() ? archiveDir : notesDir).resolve(layout.getBodyFile(note));
+    }
+
+    /**
+     * Reads a note's body as plain bytes.
+     *
+     * @param note the note
+     * @return the plain body bytes
+     * @throws IOException if the body cannot be read
+     */
+    byte[] read(Note note) throws IOException {
+        if (pagedStore != null) {
+            return pagedStore.readBody(note.getId());
+        }
+        if (isInContentStore(note)) {
+            return contentStore.read(note.getBodyHash());
+        }
+        byte[] stored = isPacked(note) ? archivePack.read(note.getId()) : Files.readAllBytes(getBodyPath(note));
+        return bodyCodec == null ? stored : bodyCodec.decode(stored, note.getBodyCodec() != null);
+    }
+
+    /**
+     * Gets the size of a note's body as stored, if it can be copied straight from disk without decoding.
+     *
+     * @param note the note
+     * @return the size in bytes, or -1 if the body is compressed, in the paged store or not stored on disk
+     * @throws IOException if the size cannot be read
+     */
+    long getStreamableSize(Note note) throws IOException {
+        if (pagedStore != null || isCompressed(note)) {
+            return -1;
+        }
+        if (isPacked(note)) {
+            return archivePack.getLength(note.getId());
+        }
+        Path bodyPath = getBodyPath(note);
+        return Files.isRegularFile(bodyPath) ? Files.size(bodyPath) : -1;
+    }
+
+    /**
+     * Copies part of a note's stored body straight to a channel with {@link FileChannel#transferTo},
+     * so the body is never read into the heap. Only for bodies {@link #getStreamableSize} gives a size for.
+     *
+     * @param note the note
+     * @param start the offset of the first byte to copy
+     * @param end the offset after the last byte to copy; clipped to the body's size
+     * @param target the channel to copy to
+     * @return the number of bytes copied
+     * @throws IOException if the body cannot be read or the channel cannot be written
+     */
+    long transferTo(Note note, long start, long end, WritableByteChannel target) throws IOException {
+        if (isPacked(note)) {
+            return archivePack.transferTo(note.getId(), start, end, target);
+        }
+        try (FileChannel channel = FileChannel.open(getBodyPath(note), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long from = Math.min(start, size);
+            return transferRange(channel, from, Math.min(end, size) - from, target);
+        }
+    }
+
+    /**
+     * Copies a range of a file channel to another channel, looping until all of it is copied
+     * or the file ends, since a single transfer may copy less than asked.
+     *
+     * @param source the channel to copy from
+     * @param position the offset in the source to start at
+     * @param count the number of bytes to copy
+     * @param target the channel to copy to
+     * @return the number of bytes copied
+     * @throws IOException if either channel fails
+     */
+    static long transferRange(FileChannel source, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long copied = source.transferTo(position + transferred, count - transferred, target);
+            if (copied <= 0) {
+                break;
+            }
+            transferred += copied;
+        }
+        return transferred;
+    }
+
+    private boolean isCompressed(Note note) {
+        return note.getBodyHash() == null && note.getBodyCodec() != null;
+    }
+
+    private boolean isInContentStore(Note note) {
+        return note.getBodyHash() != null && contentStore != null;
+    }
+
+    private boolean isPacked(Note note) {
+        return note.isArchived() && archivePack != null && archivePack.contains(note.getId());
+    }
+}
@@ -0,0 +1,223 @@
+package seedu.zettel.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Size, modification time and content hash of every body file of one repository, kept in a sidecar file
+ * (one {@code path | size | modified | hash} line per file) so that a reload can tell which body files
+ * changed on disk without reading the others.
+ * <p>
+ * A file whose size and modification time are as recorded is taken to be unchanged. A file whose
+ * size or time moved is read and hashed, so a file that was only touched, e.g. saved unchanged by an
+ * editor, still counts as unchanged. The hash of a file first seen on disk is only worked out the next
+ * time its size or time moves, so recording a repository's files never reads them.
+ * <p>
+ * Safe to use from several threads.
+ */
+class BodyManifest {
+    private static final String DELIM = " | ";
+    private static final String NO_HASH = "-";
+
+    private final Path manifestPath;
+    private final Map<String, Entry> entries;
+    private boolean isDirty;
+
+    private BodyManifest(Path manifestPath, Map<String, Entry> entries) {
+        this.manifestPath = manifestPath;
+        this.entries = entries;
+    }
+
+    /**
+     * Reads a body manifest file.
+     *
+     * @param manifestPath the path to the manifest file, which need not exist
+     * @return the manifest, empty if the file is missing or unreadable
+     */
+    static BodyManifest load(Path manifestPath) {
+        Map<String, Entry> entries = new TreeMap<>();
+        if (Files.exists(manifestPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(manifestPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(" \\| ");
+                    if (parts.length != 4) {
+                        continue;
+                    }
+                    try {
+                        entries.put(parts[0], new Entry(Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                                parts[3].equals(NO_HASH) ? null : parts[3]));
+                    } catch (NumberFormatException e) {
+                        // A malformed line only costs that file being checked again
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Warning: failed to read " + manifestPath.getFileName() + ": " + e.getMessage());
+                entries.clear();
+            }
+        }
+        return new BodyManifest(manifestPath, entries);
+    }
+
+    /**
+     * Checks whether a body file still holds what was recorded for it, and records what it holds now.
+     *
+     * @param key the file's path relative to the repository, e.g. notes/abcd1234.txt
+     * @param file the body file
+     * @return true if the file is known to be unchanged; false if it changed, is missing, or was not recorded
+     */
+    synchronized boolean isUnchanged(String key, Path file) {
+        Entry recorded = entries.get(key);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (recorded != null && recorded.size == size && recorded.modified == modified) {
+                return true;
+            }
+            if (recorded == null) {
+                put(key, new Entry(size, modified, null));
+                return false;
+            }
+            String hash = ContentStore.hashOf(Files.readAllBytes(file));
+            put(key, new Entry(size, modified, hash));
+            return hash.equals(recorded.hash);
+        } catch (IOException e) {
+            // Missing or unreadable: whatever is cached for it cannot be trusted
+            remove(key);
+            return false;
+        }
+    }
+
+    /**
+     * Records a body file just written with the given bytes.
+     *
+     * @param key the file's path relative to the repository
+     * @param file the body file
+     * @param body the bytes written to it
+     */
+    synchronized void record(String key, Path file, byte[] body) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            put(key, new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                    ContentStore.hashOf(body)));
+        } catch (IOException e) {
+            remove(key);
+        }
+    }
+
+    /**
+     * Records a body file Zettel just rewrote without knowing its plain content, e.g. compressed,
+     * by its size and modification time alone.
+     *
+     * @param key the file's path relative to the repository
+     * @param file the body file
+     */
+    synchronized void stamp(String key, Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            put(key, new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(), null));
+        } catch (IOException e) {
+            remove(key);
+        }
+    }
+
+    /**
+     * Records that a body file was renamed without being rewritten, e.g. moved into archive/.
+     *
+     * @param fromKey the file's old path relative to the repository
+     * @param toKey the file's new path relative to the repository
+     */
+    synchronized void move(String fromKey, String toKey) {
+        Entry entry = entries.remove(fromKey);
+        if (entry != null) {
+            entries.put(toKey, entry);
+        } else {
+            entries.remove(toKey);
+        }
+        isDirty = true;
+    }
+
+    /**
+     * Forgets a body file, e.g. one that was deleted or rewritten outside the manifest's view.
+     *
+     * @param key the file's path relative to the repository
+     */
+    synchronized void remove(String key) {
+        if (entries.remove(key) != null) {
+            isDirty = true;
+        }
+    }
+
+    /**
+     * Forgets every body file, e.g. after the files were moved into another layout.
+     */
+    synchronized void clear() {
+        if (!entries.isEmpty()) {
+            entries.clear();
+            isDirty = true;
+        }
+    }
+
+    /**
+     * Gets how many body files are recorded.
+     *
+     * @return the number of recorded files
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the manifest back to its file if anything was recorded since it was last written.
+     */
+    synchronized void save() {
+        if (!isDirty) {
+            return;
+        }
+        try {
+            AtomicFileWriter.write(manifestPath, out -> {
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    Entry value = entry.getValue();
+                    writer.write(entry.getKey() + DELIM + value.size + DELIM + value.modified + DELIM
+                            + (value.hash == null ? NO_HASH : value.hash));
+                    writer.newLine();
+                }
+                writer.flush();
+            });
+            isDirty = false;
+        } catch (IOException e) {
+            // Not fatal: files missing from the manifest are only checked again on the next reload
+            System.out.println("Warning: failed to write " + manifestPath.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        entries.put(key, entry);
+        isDirty = true;
+    }
+
+    /**
+     * What was last seen of one body file.
+     */
+    private static class Entry {
+        private final long size;
+        private final long modified;
+        private final String hash;
+
+        private Entry(long size, long modified, String hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads note bodies into the body cache in the background, a bounded number of files at a time,
+ * so that commands which read many bodies find them already in memory.
+ * Prefetching stops once the cache is full, and a command that needs a body that is still
+ * being read waits only for that body.
+ */
+class BodyPrefetcher {
+    /** Number of body files read at the same time when none is configured. */
+    static final int DEFAULT_MAX_CONCURRENT_READS = 8;
+
+    private final BodyCache bodyCache;
+    private final int maxConcurrentReads;
+    private ExecutorService executor;
+
+    /**
+     * Constructs a BodyPrefetcher that fills the given cache.
+     *
+     * @param bodyCache the cache to read bodies into
+     * @param maxConcurrentReads the maximum number of body files read at the same time; 0 disables prefetching
+     */
+    BodyPrefetcher(BodyCache bodyCache, int maxConcurrentReads) {
+        assert maxConcurrentReads >= 0 : "Concurrent read limit should not be negative";
+        this.bodyCache = bodyCache;
+        this.maxConcurrentReads = maxConcurrentReads;
+    }
+
+    /**
+     * Starts reading the given body files in the background and returns immediately.
+     * Any prefetch still running is cancelled first.
+     *
+     * @param bodyFiles the body files to read, in the order they should be read
+     */
+    synchronized void prefetch(List<Path> bodyFiles) {
+        cancel();
+        if (maxConcurrentReads == 0 || bodyFiles.isEmpty()) {
+            return;
+        }
+
+        executor = Executors.newFixedThreadPool(maxConcurrentReads, new PrefetchThreadFactory());
+        for (Path bodyFile : bodyFiles) {
+            executor.execute(() -> prefetchBody(bodyFile));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Cancels the running prefetch, e.g. when switching to another repository.
+     * Bodies already read stay in the cache.
+     */
+    synchronized void cancel() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void prefetchBody(Path bodyFile) {
+        if (Thread.currentThread().isInterrupted() || bodyCache.isFull()) {
+            return;
+        }
+        try {
+            bodyCache.get(bodyFile);
+        } catch (IOException e) {
+            // Not reported here; the command that needs the body reports it when it reads the file itself
+        }
+    }
+
+    /**
+     * Creates daemon threads, so that a prefetch in progress never keeps the application from exiting.
+     */
+    private static class PrefetchThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "body-prefetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
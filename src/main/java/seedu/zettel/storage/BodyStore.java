@@ -0,0 +1,42 @@
+package seedu.zettel.storage;
+
+/**
+ * Ways of storing note bodies in a repository.
+ */
+public enum BodyStore {
+    /** One body file per note in notes/ or archive/, placed by the body layout. */
+    FILES("files"),
+    /** Bodies stored once per distinct content in objects/, named by their content hash. */
+    CONTENT("content");
+
+    private final String settingValue;
+
+    BodyStore(String settingValue) {
+        this.settingValue = settingValue;
+    }
+
+    /**
+     * Gets the value used for this body store in a settings file.
+     *
+     * @return the setting value, e.g. "content"
+     */
+    public String getSettingValue() {
+        return settingValue;
+    }
+
+    /**
+     * Finds the body store named by a setting value.
+     *
+     * @param settingValue the setting value, ignoring case
+     * @return the named body store, or FILES if the value names none
+     */
+    public static BodyStore fromSetting(String settingValue) {
+        for (BodyStore store : values()) {
+            if (store.settingValue.equalsIgnoreCase(settingValue)) {
+                return store;
+            }
+        }
+        System.out.println("Warning: unknown body store '" + settingValue + "', using files");
+        return FILES;
+    }
+}
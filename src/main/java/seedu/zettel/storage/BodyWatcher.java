@@ -0,0 +1,168 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Watches a repository's notes/ and archive/ directories, and their shard folders, for body files
+ * created or changed outside Zettel, e.g. by an editor or a sync client.
+ * <p>
+ * Events are collected on a daemon thread and handed over in batches: a batch is only published once no
+ * event has arrived for {@link #BATCH_DELAY_MS}, so a burst of writes to the same files ends up as one
+ * batch naming each file once. The watcher only records which files changed; the caller decides what
+ * to do about them, on its own thread, so notes are never changed while a command is using them.
+ * Deleted files are not reported, since a note whose body file is missing is repaired by validation.
+ */
+class BodyWatcher implements AutoCloseable {
+    /** Milliseconds without events after which the collected events are published as a batch. */
+    static final long BATCH_DELAY_MS = 100;
+
+    private static final String BODY_SUFFIX = ".txt";
+
+    private final WatchService watchService;
+    private final Set<Path> changedFiles = new HashSet<>();
+    private boolean isOverflowed;
+
+    private BodyWatcher(WatchService watchService) {
+        this.watchService = watchService;
+    }
+
+    /**
+     * Starts watching the given directories, and every folder below them, on a daemon thread.
+     *
+     * @param dirs the directories to watch; those that do not exist are skipped
+     * @return the running watcher
+     * @throws IOException if the file system cannot be watched
+     */
+    static BodyWatcher start(List<Path> dirs) throws IOException {
+        BodyWatcher watcher = new BodyWatcher(dirs.get(0).getFileSystem().newWatchService());
+        for (Path dir : dirs) {
+            if (Files.isDirectory(dir)) {
+                watcher.registerAll(dir);
+            }
+        }
+        Thread thread = new Thread(watcher::watch, "body-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return watcher;
+    }
+
+    /**
+     * Takes the body files changed in every batch published since the last call.
+     *
+     * @return the changed files; empty if none changed
+     */
+    synchronized Set<Path> takeChangedFiles() {
+        Set<Path> taken = new HashSet<>(changedFiles);
+        changedFiles.clear();
+        return taken;
+    }
+
+    /**
+     * Checks whether events were lost since the last call, because too many arrived at once.
+     * If so, any body file may have changed without being reported.
+     *
+     * @return true if events were lost
+     */
+    synchronized boolean takeOverflow() {
+        boolean wasOverflowed = isOverflowed;
+        isOverflowed = false;
+        return wasOverflowed;
+    }
+
+    /**
+     * Stops watching. The watching thread ends shortly after.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // The watching thread ends either way once the service is unusable
+        }
+    }
+
+    private void watch() {
+        Set<Path> batch = new HashSet<>();
+        boolean isBatchOverflowed = false;
+        try {
+            while (true) {
+                // Wait as long as it takes for the first event of a batch, then only until events stop
+                WatchKey key = batch.isEmpty() && !isBatchOverflowed
+                        ? watchService.take()
+                        : watchService.poll(BATCH_DELAY_MS, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    publish(batch, isBatchOverflowed);
+                    batch = new HashSet<>();
+                    isBatchOverflowed = false;
+                    continue;
+                }
+                isBatchOverflowed |= collect(key, batch);
+                key.reset();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed by close(); nothing left to do
+        }
+    }
+
+    // Adds the body files an event key reports to the batch; returns true if events were lost
+    private boolean collect(WatchKey key, Set<Path> batch) {
+        boolean isLost = false;
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                isLost = true;
+                continue;
+            }
+            Path changed = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) {
+                // A new shard folder: watch it, and report the files already moved into it
+                try {
+                    registerAll(changed);
+                    batch.addAll(listBodyFiles(changed));
+                } catch (IOException | UncheckedIOException e) {
+                    isLost = true;
+                }
+            } else if (changed.getFileName().toString().endsWith(BODY_SUFFIX)) {
+                batch.add(changed);
+            }
+        }
+        return isLost;
+    }
+
+    private synchronized void publish(Set<Path> batch, boolean isBatchOverflowed) {
+        changedFiles.addAll(batch);
+        isOverflowed |= isBatchOverflowed;
+    }
+
+    private void registerAll(Path root) throws IOException {
+        try (Stream<Path> stream = Files.walk(root)) {
+            for (Path dir : stream.filter(Files::isDirectory).collect(Collectors.toList())) {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+    }
+
+    private static Set<Path> listBodyFiles(Path root) throws IOException {
+        try (Stream<Path> stream = Files.walk(root)) {
+            return stream.filter(p -> p.getFileName().toString().endsWith(BODY_SUFFIX) && Files.isRegularFile(p))
+                    .collect(Collectors.toSet());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package seedu.zettel.storage;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import seedu.zettel.Note;
+
+/**
+ * Records which notes and tags a command changed, so that storage only writes
+ * what actually changed and skips the disk entirely for read-only commands.
+ */
+public class ChangeSet {
+    private final Set<Note> changedNotes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<String> deletedNoteIds = new LinkedHashSet<>();
+    private final Set<String> changedTags = new LinkedHashSet<>();
+
+    /**
+     * Records that a note was created or modified.
+     *
+     * @param note the note that changed
+     */
+    public void addChangedNote(Note note) {
+        assert note != null : "Changed note should not be null";
+        changedNotes.add(note);
+    }
+
+    /**
+     * Records that a note was deleted.
+     *
+     * @param note the note that was deleted
+     */
+    public void addDeletedNote(Note note) {
+        assert note != null : "Deleted note should not be null";
+        changedNotes.remove(note);
+        deletedNoteIds.add(note.getId());
+    }
+
+    /**
+     * Records that a tag was created, renamed, removed, or added to or removed from a note.
+     *
+     * @param tag the tag that changed
+     */
+    public void addChangedTag(String tag) {
+        changedTags.add(tag);
+    }
+
+    /**
+     * Adds the changes of a later change set to this one. Where both change the same note,
+     * the later change wins, so a note deleted and then created again with the same ID is kept.
+     *
+     * @param later the changes made after the ones already recorded
+     */
+    public void merge(ChangeSet later) {
+        if (!later.deletedNoteIds.isEmpty()) {
+            changedNotes.removeIf(note -> later.deletedNoteIds.contains(note.getId()));
+            deletedNoteIds.addAll(later.deletedNoteIds);
+        }
+        for (Note note : later.changedNotes) {
+            deletedNoteIds.remove(note.getId());
+            changedNotes.add(note);
+        }
+        changedTags.addAll(later.changedTags);
+    }
+
+    /**
+     * Gets the notes that were created or modified.
+     *
+     * @return an unmodifiable view of the changed notes
+     */
+    public Set<Note> getChangedNotes() {
+        return Collections.unmodifiableSet(changedNotes);
+    }
+
+    /**
+     * Gets the IDs of the notes that were deleted.
+     *
+     * @return an unmodifiable view of the deleted note IDs
+     */
+    public Set<String> getDeletedNoteIds() {
+        return Collections.unmodifiableSet(deletedNoteIds);
+    }
+
+    /**
+     * Gets the tags that changed.
+     *
+     * @return an unmodifiable view of the changed tags
+     */
+    public Set<String> getChangedTags() {
+        return Collections.unmodifiableSet(changedTags);
+    }
+
+    /**
+     * Gets the number of notes and tags that changed.
+     *
+     * @return the number of changed and deleted notes plus the number of changed tags
+     */
+    public int size() {
+        return changedNotes.size() + deletedNoteIds.size() + changedTags.size();
+    }
+
+    /**
+     * Checks whether nothing was changed.
+     *
+     * @return true if no notes or tags changed
+     */
+    public boolean isEmpty() {
+        return changedNotes.isEmpty() && deletedNoteIds.isEmpty() && changedTags.isEmpty();
+    }
+}
@@ -0,0 +1,194 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import seedu.zettel.Note;
+
+/**
+ * Reads and writes large text indexes (index.txt) in chunks on all cores.
+ * <p>
+ * Reading splits the file into chunks that end just after a newline, maps each chunk into memory and parses
+ * the chunks in parallel on the common ForkJoin pool, each with its own {@link TextIndexCodec}. A newline byte
+ * never occurs inside a multi-byte UTF-8 character, so every chunk decodes on its own. Writing formats runs of
+ * notes in parallel into byte arrays and writes them in order, a few chunks at a time, so memory stays bounded.
+ * Notes come out, and lines go in, in index order either way.
+ */
+final class ChunkedTextIndex {
+    /** Index size from which the index is read in parallel chunks; smaller indexes are read on one thread. */
+    static final long PARALLEL_THRESHOLD_BYTES = 1024 * 1024;
+
+    /** Number of notes from which the index is formatted in parallel chunks. */
+    static final int PARALLEL_THRESHOLD_NOTES = 4096;
+
+    private static final int MIN_CHUNK_BYTES = 256 * 1024;
+    private static final int NOTES_PER_CHUNK = 2048;
+    private static final int SCAN_BYTES = 4096;
+
+    private ChunkedTextIndex() {
+    }
+
+    /**
+     * Reads every note in a text index, in index order, parsing chunks of a few per core in parallel.
+     *
+     * @param indexPath the path to the text index file
+     * @param damagedCount counts the malformed or damaged lines, which are skipped
+     * @return the notes, without bodies
+     * @throws IOException if the index cannot be read
+     */
+    static List<Note> read(Path indexPath, AtomicInteger damagedCount) throws IOException {
+        int chunkCount = ForkJoinPool.getCommonPoolParallelism() * 4;
+        return read(indexPath, chunkCount, MIN_CHUNK_BYTES, damagedCount);
+    }
+
+    /**
+     * Reads every note in a text index, in index order, in at most the given number of chunks.
+     *
+     * @param indexPath the path to the text index file
+     * @param chunkCount the most chunks to split the index into
+     * @param minChunkBytes the least bytes in a chunk, before it is extended to the end of a line
+     * @param damagedCount counts the malformed or damaged lines, which are skipped
+     * @return the notes, without bodies
+     * @throws IOException if the index cannot be read
+     */
+    static List<Note> read(Path indexPath, int chunkCount, int minChunkBytes, AtomicInteger damagedCount)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            List<Long> bounds = findChunkBounds(channel, chunkCount, minChunkBytes);
+            List<Callable<List<Note>>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.size(); i++) {
+                long start = bounds.get(i);
+                long end = bounds.get(i + 1);
+                tasks.add(() -> parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start),
+                        damagedCount));
+            }
+
+            List<Note> notes = new ArrayList<>();
+            for (List<Note> chunkNotes : invokeInOrder(tasks)) {
+                notes.addAll(chunkNotes);
+            }
+            return notes;
+        }
+    }
+
+    /**
+     * Writes every note as one index line each, in list order, formatting chunks of notes in parallel.
+     *
+     * @param notes the notes to write
+     * @param out the stream to write the index to
+     * @throws IOException if the stream cannot be written
+     */
+    static void write(List<Note> notes, OutputStream out) throws IOException {
+        int chunksPerRound = ForkJoinPool.getCommonPoolParallelism() * 2;
+        for (int roundStart = 0; roundStart < notes.size(); roundStart += chunksPerRound * NOTES_PER_CHUNK) {
+            List<Callable<byte[]>> tasks = new ArrayList<>();
+            int roundEnd = (int) Math.min(notes.size(), (long) roundStart + (long) chunksPerRound * NOTES_PER_CHUNK);
+            for (int start = roundStart; start < roundEnd; start += NOTES_PER_CHUNK) {
+                List<Note> chunk = notes.subList(start, Math.min(roundEnd, start + NOTES_PER_CHUNK));
+                tasks.add(() -> formatChunk(chunk));
+            }
+            for (byte[] formatted : invokeInOrder(tasks)) {
+                out.write(formatted);
+            }
+        }
+    }
+
+    // Splits the file at the first newline after every multiple of the chunk size; the bounds include 0 and the size
+    private static List<Long> findChunkBounds(FileChannel channel, int chunkCount, int minChunkBytes)
+            throws IOException {
+        long size = channel.size();
+        long chunkBytes = Math.max(minChunkBytes, (size + chunkCount - 1) / Math.max(1, chunkCount));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long bound = 0;
+        while (bound < size) {
+            bound = bound + chunkBytes >= size ? size : nextLineStart(channel, bound + chunkBytes, size);
+            bounds.add(bound);
+        }
+        return bounds;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BYTES);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static List<Note> parseChunk(MappedByteBuffer chunk, AtomicInteger damagedCount) {
+        String text = StandardCharsets.UTF_8.decode(chunk).toString();
+        TextIndexCodec codec = new TextIndexCodec();
+        List<Note> notes = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            int next = lineEnd < 0 ? text.length() : lineEnd + 1;
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            if (lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            Note note = codec.parse(text.substring(lineStart, lineEnd));
+            if (note != null) {
+                notes.add(note);
+            }
+            lineStart = next;
+        }
+        damagedCount.addAndGet(codec.getDamagedCount());
+        return notes;
+    }
+
+    private static byte[] formatChunk(List<Note> notes) {
+        TextIndexCodec codec = new TextIndexCodec();
+        StringBuilder text = new StringBuilder(notes.size() * 160);
+        String separator = System.lineSeparator();
+        for (Note note : notes) {
+            text.append(codec.format(note)).append(separator);
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Runs the tasks on the common ForkJoin pool and gets their results in task order
+    private static <T> List<T> invokeInOrder(List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> result : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                results.add(result.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading or writing the index", e);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,204 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import seedu.zettel.Note;
+
+/**
+ * Stores note bodies by content in a repository's objects/ folder, so identical bodies are stored once.
+ * <p>
+ * Each distinct body is one file named after its SHA-256 hash, under a folder named after the hash's first
+ * two characters, e.g. objects/3f/3fa9...c2. Objects are never changed once written. Notes refer to their
+ * body by hash, and the store counts how many notes refer to each object; an object is deleted when its
+ * last reference is released. The counts are rebuilt from the index every time the repository is loaded,
+ * so they cannot drift from it.
+ * <p>
+ * Safe to use from several threads.
+ */
+class ContentStore {
+    private static final int HASH_LENGTH = 64;
+    private static final int FANOUT_WIDTH = 2;
+
+    private final Path objectsDir;
+    private final Map<String, Integer> refCounts = new HashMap<>();
+
+    /**
+     * Constructs a ContentStore that keeps its objects in the given folder.
+     *
+     * @param objectsDir the repository's objects/ folder, which need not exist yet
+     */
+    ContentStore(Path objectsDir) {
+        this.objectsDir = objectsDir;
+    }
+
+    /**
+     * Computes the content hash a body is stored under.
+     *
+     * @param body the plain body bytes
+     * @return the SHA-256 hash of the body, as 64 lowercase hex characters
+     */
+    static String hashOf(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Gets the path of the object a hash refers to, which is also the key its body is cached under.
+     * Notes with the same body therefore share one cache entry.
+     *
+     * @param hash the content hash
+     * @return the path of the object file; a path that never exists if the hash is malformed
+     */
+    Path getObjectPath(String hash) {
+        if (!isValidHash(hash)) {
+            return objectsDir.resolve("invalid");
+        }
+        return objectsDir.resolve(hash.substring(0, FANOUT_WIDTH)).resolve(hash);
+    }
+
+    /**
+     * Sets the reference counts to the number of notes referring to each object.
+     *
+     * @param notes all notes of the repository
+     */
+    synchronized void recount(List<Note> notes) {
+        refCounts.clear();
+        for (Note note : notes) {
+            if (note.getBodyHash() != null) {
+                refCounts.merge(note.getBodyHash(), 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Stores a body, writing its object only if no identical body is stored yet, and adds a reference to it.
+     *
+     * @param body the plain body bytes
+     * @return the content hash the body is stored under
+     * @throws IOException if the object cannot be written
+     */
+    synchronized String put(byte[] body) throws IOException {
+        String hash = hashOf(body);
+        Path objectPath = getObjectPath(hash);
+        if (Files.notExists(objectPath)) {
+            Files.createDirectories(objectPath.getParent());
+            AtomicFileWriter.write(objectPath, out -> out.write(body));
+        }
+        refCounts.merge(hash, 1, Integer::sum);
+        return hash;
+    }
+
+    /**
+     * Reads the body stored under a hash.
+     *
+     * @param hash the content hash
+     * @return the plain body bytes
+     * @throws IOException if the object cannot be read
+     */
+    byte[] read(String hash) throws IOException {
+        return Files.readAllBytes(getObjectPath(hash));
+    }
+
+    /**
+     * Drops one reference to an object, deleting the object once nothing refers to it.
+     *
+     * @param hash the content hash
+     * @throws IOException if the object cannot be deleted
+     */
+    synchronized void release(String hash) throws IOException {
+        Integer count = refCounts.get(hash);
+        if (count != null && count > 1) {
+            refCounts.put(hash, count - 1);
+            return;
+        }
+        refCounts.remove(hash);
+        Path objectPath = getObjectPath(hash);
+        Files.deleteIfExists(objectPath);
+        deleteIfEmpty(objectPath.getParent());
+    }
+
+    /**
+     * Gets how many notes refer to an object.
+     *
+     * @param hash the content hash
+     * @return the number of references, 0 if the object is not referred to
+     */
+    synchronized int getReferenceCount(String hash) {
+        return refCounts.getOrDefault(hash, 0);
+    }
+
+    /**
+     * Gets how many distinct bodies are referred to.
+     *
+     * @return the number of referenced objects
+     */
+    synchronized int getObjectCount() {
+        return refCounts.size();
+    }
+
+    /**
+     * Deletes every object nothing refers to, such as one written by a session that stopped
+     * before saving the note referring to it.
+     *
+     * @return the number of objects deleted
+     */
+    synchronized int deleteUnreferenced() {
+        if (Files.notExists(objectsDir)) {
+            return 0;
+        }
+        int deletedCount = 0;
+        try (Stream<Path> stream = Files.walk(objectsDir, 2)) {
+            List<Path> files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+            for (Path file : files) {
+                if (!refCounts.containsKey(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                    deleteIfEmpty(file.getParent());
+                    deletedCount++;
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Warning: failed to clean up unused bodies: " + e.getMessage());
+        }
+        return deletedCount;
+    }
+
+    private void deleteIfEmpty(Path dir) {
+        if (dir.equals(objectsDir)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(dir)) {
+            if (entries.findAny().isEmpty()) {
+                Files.deleteIfExists(dir);
+            }
+        } catch (IOException e) {
+            // An empty folder left behind is harmless
+        }
+    }
+
+    private static boolean isValidHash(String hash) {
+        if (hash == null || hash.length() != HASH_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package seedu.zettel.storage;
+
+/**
+ * When journal appends are forced to disk.
+ */
+public enum Durability {
+    /** Every save is forced before the next command runs; in batch mode, once at exit. */
+    ALWAYS("always"),
+    /** Saves are forced together at most once per configured interval. */
+    INTERVAL("interval-ms"),
+    /** Saves are forced once, when Zettel exits. */
+    ON_EXIT("on-exit");
+
+    private final String settingValue;
+
+    Durability(String settingValue) {
+        this.settingValue = settingValue;
+    }
+
+    /**
+     * Gets the value used for this policy in a settings file.
+     *
+     * @return the setting value, e.g. "on-exit"
+     */
+    public String getSettingValue() {
+        return settingValue;
+    }
+
+    /**
+     * Finds the policy named by a setting value.
+     *
+     * @param settingValue the setting value, ignoring case
+     * @return the named policy, or ALWAYS if the value names no policy
+     */
+    public static Durability fromSetting(String settingValue) {
+        for (Durability durability : values()) {
+            if (durability.settingValue.equalsIgnoreCase(settingValue)) {
+                return durability;
+            }
+        }
+        System.out.println("Warning: unknown durability '" + settingValue + "', using always");
+        return ALWAYS;
+    }
+}
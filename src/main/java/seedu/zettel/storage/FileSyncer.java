@@ -0,0 +1,102 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forces appended files to disk according to a {@link Durability} policy.
+ * Files that are not forced straight away are remembered as dirty and forced together,
+ * so that many saves share one fsync per file.
+ */
+class FileSyncer {
+    /** Interval between group syncs under the interval policy when none is configured. */
+    static final long DEFAULT_INTERVAL_MS = 1000;
+
+    private final Durability durability;
+    private final long intervalMs;
+    private final Set<Path> dirtyFiles = new LinkedHashSet<>();
+    private boolean isBatchMode;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a FileSyncer with the given policy.
+     *
+     * @param durability when written files are forced to disk
+     * @param intervalMs the time between group syncs under the interval policy
+     */
+    FileSyncer(Durability durability, long intervalMs) {
+        this.durability = durability;
+        this.intervalMs = Math.max(1, intervalMs);
+    }
+
+    /**
+     * Sets whether commands are being run in batch, e.g. from a script. In batch mode the
+     * always policy forces files once, at exit, instead of after every save.
+     *
+     * @param isBatchMode true if commands are not being typed interactively
+     */
+    synchronized void setBatchMode(boolean isBatchMode) {
+        this.isBatchMode = isBatchMode;
+    }
+
+    /**
+     * Records that a file was written, forcing it to disk now or later depending on the policy.
+     *
+     * @param file the file that was written
+     * @throws IOException if the policy forces the file now and that fails
+     */
+    synchronized void written(Path file) throws IOException {
+        if (durability == Durability.ALWAYS && !isBatchMode) {
+            AtomicFileWriter.force(file);
+            return;
+        }
+
+        dirtyFiles.add(file);
+        if (durability == Durability.INTERVAL && scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "file-syncer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::syncAll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Forces every file written since the last sync to disk.
+     * Files that no longer exist, e.g. a journal removed by compaction, are skipped.
+     */
+    void syncAll() {
+        List<Path> files;
+        synchronized (this) {
+            files = new ArrayList<>(dirtyFiles);
+            dirtyFiles.clear();
+        }
+        for (Path file : files) {
+            try {
+                AtomicFileWriter.force(file);
+            } catch (NoSuchFileException e) {
+                // Already replaced or removed, and whatever replaced it was forced then
+            } catch (IOException e) {
+                System.out.println("Warning: failed to sync " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of files waiting to be forced to disk.
+     *
+     * @return the number of dirty files
+     */
+    synchronized int getDirtyFileCount() {
+        return dirtyFiles.size();
+    }
+}
@@ -1,15 +1,20 @@
 package seedu.zettel.storage;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import seedu.zettel.exceptions.FailedMoveNoteException;
 import seedu.zettel.exceptions.InvalidRepoException;
@@ -24,6 +29,9 @@ public class FileSystemManager {
     /** Configuration file name for storing repository settings. */
     static final String CONFIG_FILE = ".zettelConfig";
 
+    /** Settings file name for optional tuning settings such as cache sizes. */
+    static final String SETTINGS_FILE = ".zettelSettings";
+
     /** File name for storing all tags globally. */
     static final String TAGS_FILE = "tags.txt";
 
@@ -36,6 +44,42 @@ public class FileSystemManager {
     /** File name for the repository index that stores note metadata. */
     static final String REPO_INDEX = "index.txt";
 
+    /** File name for the repository index when it is stored in the binary format. */
+    static final String REPO_BINARY_INDEX = "index.bin";
+
+    /** File name for the per-repository summary of how many notes carry each tag. */
+    static final String REPO_TAG_SUMMARY = "tags.summary";
+
+    /** File name for the marker recording the generation at which a repository was last validated. */
+    static final String REPO_VALIDATION_MARKER = ".validated";
+
+    /** File name for per-repository settings such as the index format. */
+    static final String REPO_SETTINGS = ".repoSettings";
+
+    /** File name for the append-only journal of index mutations since the last compaction. */
+    static final String REPO_JOURNAL = "index.journal";
+
+    /** File name recording the layout the repository's body files are arranged in; missing means flat. */
+    static final String REPO_BODY_LAYOUT = ".bodyLayout";
+
+    /** Directory name for the dictionaries archived bodies are compressed with within a repository. */
+    static final String REPO_DICTIONARIES = "dictionaries";
+
+    /** Directory name for note bodies stored by content hash within a repository. */
+    static final String REPO_OBJECTS = "objects";
+
+    /** File name for the size, modification time and hash of every body file within a repository. */
+    static final String REPO_BODY_MANIFEST = "bodies.manifest";
+
+    /** File name for the single paged file holding every note of a repository that uses the paged engine. */
+    static final String REPO_PAGED_STORE = "notes.db";
+
+    /** Directory name for the per-note logs of earlier body versions within a repository. */
+    static final String REPO_HISTORY = "history";
+
+    /** Suffix of the copies a repository's index files are backed up to before the index is repaired. */
+    static final String BACKUP_SUFFIX = ".bak";
+
     private final Path rootPath;
 
     /**
@@ -135,7 +179,8 @@ public class FileSystemManager {
 
     /**
      * Checks if a directory is a valid Zettel repository.
-     * A valid repository must have a notes/ directory, archive/ directory, and index.txt file.
+     * A valid repository must have a notes/ directory, archive/ directory, and index.txt, index.bin
+     * or notes.db file.
      *
      * @param repoPath the path to check
      * @return true if the directory is a valid repository
@@ -147,7 +192,8 @@ public class FileSystemManager {
 
         return Files.isDirectory(notesDir) &&
                 Files.isDirectory(archiveDir) &&
-                Files.isRegularFile(indexFile);
+                (Files.isRegularFile(indexFile) || Files.isRegularFile(repoPath.resolve(REPO_BINARY_INDEX))
+                        || Files.isRegularFile(repoPath.resolve(REPO_PAGED_STORE)));
     }
 
 
@@ -177,8 +223,9 @@ public class FileSystemManager {
 
     /**
      * Creates a note file with the specified content in the given repository.
+     * Any shard directories the file belongs in are created first.
      *
-     * @param noteFilename the name of the note file to create
+     * @param noteFilename the path of the note file relative to notes/, as given by the body layout
      * @param noteBody the content to write to the note file
      * @param repoName the repository where the note file should be created
      */
@@ -189,6 +236,7 @@ public class FileSystemManager {
         try {
             Path noteFile = notesDir.resolve(noteFilename);
             if (Files.notExists(noteFile)) {
+                Files.createDirectories(noteFile.getParent());
                 Files.createFile(noteFile);
             } else {
                 System.out.println("Note file already exists. Overwriting... " + noteFile);
@@ -204,12 +252,31 @@ public class FileSystemManager {
 
     /**
      * Validates the structure of a repository and creates missing components.
+     * The notes and archive directories are scanned once into a manifest, which is then used
+     * to find missing body files and orphans without touching the disk for each note.
      *
      * @param repoName the name of the repository to validate
      * @param expectedFilesMap map of expected filenames -> isArchived flag
+     * @return the manifest of body files present after validation
      * @throws ZettelException if the repository structure is invalid
      */
-    public void validateRepoStructure(String repoName, Map<String, Boolean> expectedFilesMap) throws ZettelException {
+    public RepoManifest validateRepoStructure(String repoName, Map<String, Boolean> expectedFilesMap)
+            throws ZettelException {
+        return validateRepoStructure(repoName, expectedFilesMap, BodyLayout.FLAT);
+    }
+
+    /**
+     * Validates the structure of a repository whose body files are arranged in the given layout,
+     * and creates missing components.
+     *
+     * @param repoName the name of the repository to validate
+     * @param expectedFilesMap map of expected body files, relative to notes/ or archive/ -> isArchived flag
+     * @param layout the layout the body files are arranged in
+     * @return the manifest of body files present after validation
+     * @throws ZettelException if the repository structure is invalid
+     */
+    public RepoManifest validateRepoStructure(String repoName, Map<String, Boolean> expectedFilesMap,
+                                              BodyLayout layout) throws ZettelException {
         Path repoPath = rootPath.resolve(repoName);
         Path notesDir = repoPath.resolve(REPO_NOTES);
         Path archiveDir = repoPath.resolve(REPO_ARCHIVE);
@@ -223,34 +290,44 @@ public class FileSystemManager {
         createIfMissing(repoPath, "repository folder: " + repoName, true);
         createIfMissing(notesDir, "notes/ for repo: " + repoName, true);
         createIfMissing(archiveDir, "archive/ for repo: " + repoName, true);
-        createIfMissing(indexFile, "index.txt for repo: " + repoName, false);
+        if (Files.notExists(repoPath.resolve(REPO_BINARY_INDEX))) {
+            createIfMissing(indexFile, "index.txt for repo: " + repoName, false);
+        }
+
+        RepoManifest manifest = RepoManifest.scan(notesDir, archiveDir, layout);
 
         // Create missing body files in the correct directory (notes/ or archive/)
         for (Map.Entry<String, Boolean> entry : expectedFilesMap.entrySet()) {
             String fileName = entry.getKey();
             boolean isArchived = entry.getValue();
+            if (manifest.contains(fileName, isArchived)) {
+                continue;
+            }
             Path bodyFile = isArchived ? archiveDir.resolve(fileName) : notesDir.resolve(fileName);
             try {
                 createIfMissing(bodyFile, (isArchived ? "archive body file: " : "body file: ") + fileName, false);
+                manifest.add(fileName, isArchived);
             } catch (ZettelException e) {
                 System.out.println("Warning: " + e.getMessage());
             }
         }
 
-        // Build expected lists per directory for orphan detection
-        List<String> expectedInNotes = expectedFilesMap.entrySet().stream()
+        // Build expected sets per directory for orphan detection
+        Set<String> expectedInNotes = expectedFilesMap.entrySet().stream()
                 .filter(e -> !e.getValue())
                 .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+                .collect(Collectors.toSet());
 
-        List<String> expectedInArchive = expectedFilesMap.entrySet().stream()
+        Set<String> expectedInArchive = expectedFilesMap.entrySet().stream()
                 .filter(Map.Entry::getValue)
                 .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+                .collect(Collectors.toSet());
 
         // Detect orphans in both directories
-        detectOrphans(notesDir, expectedInNotes, repoName);
-        detectOrphans(archiveDir, expectedInArchive, repoName);
+        detectOrphans(manifest.getFilenames(false), expectedInNotes, repoName);
+        detectOrphans(manifest.getFilenames(true), expectedInArchive, repoName);
+
+        return manifest;
     }
     //@@author
 
@@ -289,6 +366,7 @@ public class FileSystemManager {
                 if (isDirectory) {
                     Files.createDirectories(path);
                 } else {
+                    Files.createDirectories(path.getParent());
                     Files.createFile(path);
                 }
                 System.out.println("Created missing " + description);
@@ -299,28 +377,23 @@ public class FileSystemManager {
     }
 
     /**
-     * Detects orphan files (files not referenced in the index) in the notes directory.
+     * Detects orphan files (files not referenced in the index) in a notes or archive directory.
      *
-     * @param notesDir the notes directory to scan
-     * @param expectedFiles the list of expected files from the index
+     * @param presentFiles the body files present in the directory
+     * @param expectedFiles the set of expected files from the index
      * @param repoName the name of the repository being scanned
-     * @throws ZettelException if scanning the directory fails
-     */
-    private void detectOrphans(Path notesDir, List<String> expectedFiles, String repoName) throws ZettelException {
-        try (DirectoryStream<Path> notesStream = Files.newDirectoryStream(notesDir, "*.txt")) {
-            List<String> orphans = new ArrayList<>();
-            for (Path p : notesStream) {
-                if (!expectedFiles.contains(p.getFileName().toString())) {
-                    orphans.add(p.getFileName().toString());
-                }
-            }
-            if (!orphans.isEmpty()) {
-                System.out.println("Notice: Found " + orphans.size() +
-                        " orphan note file(s) in repo '" + repoName + "':");
-                orphans.forEach(f -> System.out.println("  - " + f));
+     */
+    private void detectOrphans(Set<String> presentFiles, Set<String> expectedFiles, String repoName) {
+        List<String> orphans = new ArrayList<>();
+        for (String filename : presentFiles) {
+            if (!expectedFiles.contains(filename)) {
+                orphans.add(filename);
             }
-        } catch (IOException e) {
-            System.out.println("Failed to scan notes directory for orphans: " + e.getMessage());
+        }
+        if (!orphans.isEmpty()) {
+            System.out.println("Notice: Found " + orphans.size() +
+                    " orphan note file(s) in repo '" + repoName + "':");
+            orphans.forEach(f -> System.out.println("  - " + f));
         }
     }
     //@@author
@@ -335,6 +408,16 @@ public class FileSystemManager {
         return rootPath.resolve(repoName).resolve(REPO_INDEX);
     }
 
+    /**
+     * Gets the path to the index journal file for the specified repository.
+     *
+     * @param repoName the repository name
+     * @return the path to the repository's index journal
+     */
+    public Path getJournalPath(String repoName) {
+        return rootPath.resolve(repoName).resolve(REPO_JOURNAL);
+    }
+
     /**
      * Gets the path to the notes directory for the specified repository.
      *
@@ -355,6 +438,95 @@ public class FileSystemManager {
         return rootPath.resolve(repoName).resolve(REPO_ARCHIVE);
     }
 
+    /**
+     * Gets the path to the folder of a repository.
+     *
+     * @param repoName the repository name
+     * @return the path to the repository folder
+     */
+    public Path getRepoPath(String repoName) {
+        return rootPath.resolve(repoName);
+    }
+
+    /**
+     * Gets the path to the tag summary of a repository.
+     *
+     * @param repoName the repository name
+     * @return the path to the repository's tag summary file
+     */
+    public Path getTagSummaryPath(String repoName) {
+        return rootPath.resolve(repoName).resolve(REPO_TAG_SUMMARY);
+    }
+
+    /**
+     * Gets the path to the folder of compression dictionaries of a repository.
+     *
+     * @param repoName the repository name
+     * @return the path to the repository's dictionaries folder
+     */
+    public Path getDictionariesPath(String repoName) {
+        return rootPath.resolve(repoName).resolve(REPO_DICTIONARIES);
+    }
+
+    /**
+     * Gets the path to the content store of a repository.
+     *
+     * @param repoName the repository name
+     * @return the path to the repository's objects folder
+     */
+    public Path getObjectsPath(String repoName) {
+        return rootPath.resolve(repoName).resolve(REPO_OBJECTS);
+    }
+
+    /**
+     * Gets the path to the body manifest of a repository.
+     *
+     * @param repoName the repository name
+     * @return the path to the repository's body manifest file
+     */
+    public Path getBodyManifestPath(String repoName) {
+        return rootPath.resolve(repoName).resolve(REPO_BODY_MANIFEST);
+    }
+
+    /**
+     * Gets the path to the history directory of a repository.
+     *
+     * @param repoName the repository name
+     * @return the path to the repository's history directory
+     */
+    public Path getHistoryPath(String repoName) {
+        return rootPath.resolve(repoName).resolve(REPO_HISTORY);
+    }
+
+    /**
+     * Gets the path to the paged store of a repository.
+     *
+     * @param repoName the repository name
+     * @return the path to the repository's notes.db file
+     */
+    public Path getPagedStorePath(String repoName) {
+        return rootPath.resolve(repoName).resolve(REPO_PAGED_STORE);
+    }
+
+    /**
+     * Gets the path to the settings file of a repository.
+     *
+     * @param repoName the repository name
+     * @return the path to the repository's settings file
+     */
+    public Path getRepoSettingsPath(String repoName) {
+        return rootPath.resolve(repoName).resolve(REPO_SETTINGS);
+    }
+
+    /**
+     * Gets the path to the global settings file.
+     *
+     * @return the path to the settings file
+     */
+    public Path getSettingsPath() {
+        return rootPath.resolve(SETTINGS_FILE);
+    }
+
     /**
      * Gets the path to the configuration file.
      *
@@ -364,10 +536,108 @@ public class FileSystemManager {
         return rootPath.resolve(CONFIG_FILE);
     }
 
+    /**
+     * Reads the layout the body files of a repository are arranged in.
+     *
+     * @param repoName the repository name
+     * @return the recorded layout, or FLAT if none is recorded
+     */
+    public BodyLayout readBodyLayout(String repoName) {
+        Path layoutFile = rootPath.resolve(repoName).resolve(REPO_BODY_LAYOUT);
+        if (Files.notExists(layoutFile)) {
+            return BodyLayout.FLAT;
+        }
+        try {
+            return BodyLayout.fromSetting(Files.readString(layoutFile, StandardCharsets.UTF_8).trim());
+        } catch (IOException e) {
+            System.out.println("Warning: failed to read body layout of /" + repoName + ", assuming flat");
+            return BodyLayout.FLAT;
+        }
+    }
+
+    /**
+     * Records the layout the body files of a repository are arranged in.
+     *
+     * @param repoName the repository name
+     * @param layout the layout the body files are now in
+     * @throws ZettelException if the layout file cannot be written
+     */
+    public void writeBodyLayout(String repoName, BodyLayout layout) throws ZettelException {
+        Path layoutFile = rootPath.resolve(repoName).resolve(REPO_BODY_LAYOUT);
+        try {
+            if (layout == BodyLayout.FLAT) {
+                Files.deleteIfExists(layoutFile);
+            } else {
+                byte[] content = layout.getSettingValue().getBytes(StandardCharsets.UTF_8);
+                AtomicFileWriter.write(layoutFile, out -> out.write(content));
+            }
+        } catch (IOException e) {
+            throw new ZettelException("Failed to record body layout of /" + repoName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves a body file to where another layout puts it, within notes/ or archive/.
+     * A file that is already at its new place is left alone, so an interrupted migration can simply be run again.
+     *
+     * @param dir the notes/ or archive/ directory holding the file
+     * @param fromFile the path of the file relative to dir in the old layout
+     * @param toFile the path of the file relative to dir in the new layout
+     * @throws ZettelException if the file cannot be moved
+     */
+    public void relocateBodyFile(Path dir, String fromFile, String toFile) throws ZettelException {
+        if (fromFile.equals(toFile)) {
+            return;
+        }
+        Path sourcePath = dir.resolve(fromFile);
+        Path destPath = dir.resolve(toFile);
+        try {
+            if (Files.notExists(sourcePath)) {
+                return;
+            }
+            // An empty file left in the old place, e.g. recreated by validation, must not overwrite the moved body
+            if (Files.exists(destPath) && Files.size(sourcePath) == 0 && Files.size(destPath) > 0) {
+                Files.delete(sourcePath);
+                return;
+            }
+            Files.createDirectories(destPath.getParent());
+            Files.move(sourcePath, destPath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new FailedMoveNoteException("Failed to move body file '" + fromFile + "' to '" + toFile + "': "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the empty shard directories left inside notes/ or archive/ after body files were moved out.
+     *
+     * @param dir the notes/ or archive/ directory
+     */
+    public void removeEmptyShardDirectories(Path dir) {
+        List<Path> subdirectories;
+        try (Stream<Path> stream = Files.walk(dir, BodyLayout.SHARDED.getScanDepth() - 1)) {
+            subdirectories = stream.filter(p -> !p.equals(dir) && Files.isDirectory(p))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            return;
+        }
+        // Deepest directories come first, so a shard emptied of its sub-shards is deleted too
+        for (Path subdirectory : subdirectories) {
+            try (Stream<Path> entries = Files.list(subdirectory)) {
+                if (entries.findAny().isEmpty()) {
+                    Files.delete(subdirectory);
+                }
+            } catch (IOException e) {
+                // Leave a directory that cannot be listed or deleted where it is
+            }
+        }
+    }
+
     /**
      * Moves a note file between the notes and archive directories.
      *
-     * @param filename the name of the note file to move
+     * @param filename the path of the note file relative to notes/ or archive/, as given by the body layout
      * @param repoName the name of the repository containing the note
      * @param toArchive true to move to archive, false to move to notes
      * @throws ZettelException if the file move operation fails
@@ -382,6 +652,7 @@ public class FileSystemManager {
                 : getNotesPath(repoName).resolve(filename);
 
         try {
+            Files.createDirectories(destPath.getParent());
             Files.move(sourcePath, destPath, StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
             String action = toArchive ? "archive" : "unarchive";
@@ -0,0 +1,42 @@
+package seedu.zettel.storage;
+
+/**
+ * On-disk formats of a repository's index.
+ */
+public enum IndexFormat {
+    /** Pipe-delimited lines in index.txt. */
+    TEXT("text"),
+    /** Versioned binary records in index.bin. */
+    BINARY("binary");
+
+    private final String settingValue;
+
+    IndexFormat(String settingValue) {
+        this.settingValue = settingValue;
+    }
+
+    /**
+     * Gets the value used for this format in a settings file.
+     *
+     * @return the setting value, e.g. "binary"
+     */
+    public String getSettingValue() {
+        return settingValue;
+    }
+
+    /**
+     * Finds the format named by a setting value.
+     *
+     * @param settingValue the setting value, ignoring case
+     * @return the named format, or TEXT if the value names no format
+     */
+    public static IndexFormat fromSetting(String settingValue) {
+        for (IndexFormat format : values()) {
+            if (format.settingValue.equalsIgnoreCase(settingValue)) {
+                return format;
+            }
+        }
+        System.out.println("Warning: unknown index format '" + settingValue + "', using text");
+        return TEXT;
+    }
+}
@@ -0,0 +1,165 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import seedu.zettel.Note;
+
+/**
+ * Persists changes to a repository's index as small journal records instead of
+ * rewriting index.txt on every save.
+ * Remembers the generation of each note as it was last written, appends a record only for
+ * notes that were added, changed or removed since, and folds the journal back into
+ * index.txt once it grows past {@link #COMPACTION_THRESHOLD_BYTES}.
+ */
+class IndexJournal {
+    /** Journal size after which the journal is compacted into index.txt. */
+    static final long COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
+
+    private final NoteSerializer noteSerializer;
+    private IndexFormat format = IndexFormat.TEXT;
+
+    // Note ID -> generation of the note when it was last written; null until the journal knows the repo's state
+    private Map<String, Long> persistedGenerations;
+
+    /**
+     * Constructs an IndexJournal that formats records with the given serializer.
+     *
+     * @param noteSerializer the serializer used to format index records
+     */
+    IndexJournal(NoteSerializer noteSerializer) {
+        this.noteSerializer = noteSerializer;
+    }
+
+    /**
+     * Records the notes just loaded from disk as the persisted state of the repository.
+     *
+     * @param notes the notes as they are on disk
+     */
+    void prime(List<Note> notes) {
+        persistedGenerations = toGenerations(notes);
+    }
+
+    /**
+     * Sets the format the index is written in when the journal is compacted.
+     *
+     * @param format the index format of the current repository
+     */
+    void setFormat(IndexFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Forgets the persisted state, e.g. when switching to another repository.
+     * The next save rewrites the index in full.
+     */
+    void reset() {
+        persistedGenerations = null;
+    }
+
+    /**
+     * Saves the notes by appending journal records for every note whose generation moved
+     * since the last save, and for every note that is no longer in the list.
+     * Rewrites the index in full if the persisted state is unknown or the journal has grown too large.
+     *
+     * @param notes the notes to save
+     * @param indexPath the path to the repository's index file
+     * @throws IOException if the index or journal cannot be written
+     */
+    void save(List<Note> notes, Path indexPath) throws IOException {
+        if (persistedGenerations == null) {
+            compact(notes, indexPath);
+            return;
+        }
+
+        List<String> journalRecords = new ArrayList<>();
+        Set<String> currentIds = new HashSet<>();
+        for (Note note : notes) {
+            currentIds.add(note.getId());
+            addPutIfChanged(note, journalRecords);
+        }
+        for (String noteId : new ArrayList<>(persistedGenerations.keySet())) {
+            if (!currentIds.contains(noteId)) {
+                journalRecords.add(noteSerializer.toDeleteRecord(noteId));
+                persistedGenerations.remove(noteId);
+            }
+        }
+
+        append(journalRecords, notes, indexPath);
+    }
+
+    /**
+     * Saves only the notes recorded in the change set.
+     * Notes whose generation has not moved since they were last written are skipped.
+     *
+     * @param notes all notes in the repository, used if the index has to be rewritten in full
+     * @param changes the notes that were changed or deleted
+     * @param indexPath the path to the repository's index file
+     * @throws IOException if the index or journal cannot be written
+     */
+    void save(List<Note> notes, ChangeSet changes, Path indexPath) throws IOException {
+        if (persistedGenerations == null) {
+            compact(notes, indexPath);
+            return;
+        }
+
+        List<String> journalRecords = new ArrayList<>();
+        for (Note note : changes.getChangedNotes()) {
+            addPutIfChanged(note, journalRecords);
+        }
+        for (String noteId : changes.getDeletedNoteIds()) {
+            if (persistedGenerations.remove(noteId) != null) {
+                journalRecords.add(noteSerializer.toDeleteRecord(noteId));
+            }
+        }
+
+        append(journalRecords, notes, indexPath);
+    }
+
+    /**
+     * Rewrites the index with every note, in the configured format, and clears the journal.
+     *
+     * @param notes the notes to write
+     * @param indexPath the path to the repository's index file
+     * @throws IOException if the index cannot be written
+     */
+    void compact(List<Note> notes, Path indexPath) throws IOException {
+        noteSerializer.saveNotes(notes, indexPath, format);
+        persistedGenerations = toGenerations(notes);
+    }
+
+    private void addPutIfChanged(Note note, List<String> journalRecords) {
+        Long persistedGeneration = persistedGenerations.get(note.getId());
+        if (persistedGeneration == null || persistedGeneration != note.getGeneration()) {
+            journalRecords.add(noteSerializer.toPutRecord(noteSerializer.toIndexFormat(note)));
+            persistedGenerations.put(note.getId(), note.getGeneration());
+        }
+    }
+
+    private void append(List<String> journalRecords, List<Note> notes, Path indexPath) throws IOException {
+        if (journalRecords.isEmpty()) {
+            return;
+        }
+
+        noteSerializer.appendJournal(journalRecords, indexPath);
+
+        if (Files.size(noteSerializer.getJournalPath(indexPath)) > COMPACTION_THRESHOLD_BYTES) {
+            compact(notes, indexPath);
+        }
+    }
+
+    private Map<String, Long> toGenerations(List<Note> notes) {
+        Map<String, Long> generations = new HashMap<>();
+        for (Note note : notes) {
+            generations.put(note.getId(), note.getGeneration());
+        }
+        return generations;
+    }
+}
@@ -0,0 +1,239 @@
+package seedu.zettel.storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes and applies line-level differences between two versions of a text, using Myers' O(ND) algorithm.
+ * <p>
+ * A difference is a list of runs read against the old lines in order: copy the next lines, skip the next
+ * lines, or insert new lines. Lines common to the start and end of both versions are matched before the
+ * algorithm runs, so an edit in one place of a long body costs little. Lines are compared as small integers,
+ * one per distinct line, so each comparison is a single int compare.
+ */
+final class LineDiff {
+    /** Copies the next lines of the old version. */
+    static final byte COPY = 0;
+    /** Skips the next lines of the old version. */
+    static final byte DELETE = 1;
+    /** Inserts new lines. */
+    static final byte INSERT = 2;
+
+    private LineDiff() {
+    }
+
+    /**
+     * One run of a difference: a number of lines copied or skipped, or the lines inserted.
+     */
+    static final class Run {
+        final byte kind;
+        final int count;
+        final List<String> lines;
+
+        Run(byte kind, int count, List<String> lines) {
+            this.kind = kind;
+            this.count = count;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Splits a text into lines. Joining the lines with {@code '\n'} gives back the same text.
+     *
+     * @param text the text
+     * @return the lines, including an empty last line if the text ends with a line feed
+     */
+    static List<String> toLines(String text) {
+        return List.of(text.split("\n", -1));
+    }
+
+    /**
+     * Joins lines back into a text.
+     *
+     * @param lines the lines
+     * @return the lines joined with {@code '\n'}
+     */
+    static String toText(List<String> lines) {
+        return String.join("\n", lines);
+    }
+
+    /**
+     * Computes the shortest runs that turn the old lines into the new lines.
+     *
+     * @param oldLines the lines of the old version
+     * @param newLines the lines of the new version
+     * @param maxEdits the most lines that may be inserted or deleted
+     * @return the runs, or null if more than {@code maxEdits} lines would have to be inserted or deleted
+     */
+    static List<Run> diff(List<String> oldLines, List<String> newLines, int maxEdits) {
+        Map<String, Integer> lineIds = new HashMap<>();
+        int[] a = toIds(oldLines, lineIds);
+        int[] b = toIds(newLines, lineIds);
+        int prefix = 0;
+        while (prefix < a.length && prefix < b.length && a[prefix] == b[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < a.length - prefix && suffix < b.length - prefix
+                && a[a.length - 1 - suffix] == b[b.length - 1 - suffix]) {
+            suffix++;
+        }
+
+        byte[] edits = shortestEdits(a, b, prefix, a.length - suffix, prefix, b.length - suffix, maxEdits);
+        if (edits == null) {
+            return null;
+        }
+        RunBuilder runs = new RunBuilder(newLines);
+        runs.add(COPY, prefix);
+        for (byte edit : edits) {
+            runs.add(edit, 1);
+        }
+        runs.add(COPY, suffix);
+        return runs.finish();
+    }
+
+    /**
+     * Applies runs to the old lines.
+     *
+     * @param oldLines the lines of the old version
+     * @param runs the runs computed against the old version
+     * @return the lines of the new version
+     * @throws IllegalArgumentException if the runs do not fit the old lines
+     */
+    static List<String> apply(List<String> oldLines, List<Run> runs) {
+        List<String> newLines = new ArrayList<>(oldLines.size());
+        int position = 0;
+        for (Run run : runs) {
+            if (run.kind == INSERT) {
+                newLines.addAll(run.lines);
+                continue;
+            }
+            if (position + run.count > oldLines.size()) {
+                throw new IllegalArgumentException("difference runs past the end of the old version");
+            }
+            if (run.kind == COPY) {
+                newLines.addAll(oldLines.subList(position, position + run.count));
+            }
+            position += run.count;
+        }
+        if (position != oldLines.size()) {
+            throw new IllegalArgumentException("difference does not cover the old version");
+        }
+        return newLines;
+    }
+
+    private static int[] toIds(List<String> lines, Map<String, Integer> lineIds) {
+        int[] ids = new int[lines.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = lineIds.computeIfAbsent(lines.get(i), line -> lineIds.size());
+        }
+        return ids;
+    }
+
+    // Myers' greedy search, keeping the furthest x of each diagonal k before every step d to trace the path back.
+    // Returns one COPY, DELETE or INSERT per line of a[aStart, aEnd) and b[bStart, bEnd), in order.
+    private static byte[] shortestEdits(int[] a, int[] b, int aStart, int aEnd, int bStart, int bEnd,
+                                        int maxEdits) {
+        int n = aEnd - aStart;
+        int m = bEnd - bStart;
+        int max = Math.min(n + m, maxEdits);
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= max; d++) {
+            // Only diagonals -d..d can be reached before step d, so only they are kept
+            int[] before = new int[2 * d + 1];
+            System.arraycopy(v, offset - d, before, 0, before.length);
+            trace.add(before);
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[aStart + x] == b[bStart + y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return backtrack(trace, n, m, d);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static byte[] backtrack(List<int[]> trace, int n, int m, int editCount) {
+        // Each copy moves along both versions at once, so the path has (n + m - d) / 2 copies and d edits
+        byte[] edits = new byte[(n + m + editCount) / 2];
+        int index = edits.length;
+        int x = n;
+        int y = m;
+        for (int d = editCount; d > 0; d--) {
+            int[] v = trace.get(d);
+            int k = x - y;
+            boolean isInsert = k == -d || (k != d && v[k - 1 + d] < v[k + 1 + d]);
+            int previousK = isInsert ? k + 1 : k - 1;
+            int previousX = v[previousK + d];
+            int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                edits[--index] = COPY;
+                x--;
+                y--;
+            }
+            edits[--index] = isInsert ? INSERT : DELETE;
+            x = previousX;
+            y = previousY;
+        }
+        while (index > 0) {
+            edits[--index] = COPY;
+        }
+        return edits;
+    }
+
+    // Merges single-line edits into runs, taking inserted lines from the new version in order
+    private static final class RunBuilder {
+        private final List<String> newLines;
+        private final List<Run> runs = new ArrayList<>();
+        private int newPosition;
+        private byte kind = -1;
+        private int count;
+
+        RunBuilder(List<String> newLines) {
+            this.newLines = newLines;
+        }
+
+        void add(byte editKind, int editCount) {
+            if (editCount == 0) {
+                return;
+            }
+            if (editKind != kind) {
+                flush();
+                kind = editKind;
+            }
+            count += editCount;
+        }
+
+        List<Run> finish() {
+            flush();
+            return runs;
+        }
+
+        private void flush() {
+            if (count == 0) {
+                return;
+            }
+            List<String> inserted = null;
+            if (kind == INSERT) {
+                inserted = new ArrayList<>(newLines.subList(newPosition, newPosition + count));
+            }
+            if (kind != DELETE) {
+                newPosition += count;
+            }
+            runs.add(new Run(kind, count, inserted));
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import seedu.zettel.Note;
+import seedu.zettel.exceptions.ZettelException;
+
+/**
+ * Keeps the revisions of each note's body in its repository's {@link RevisionLog}. A note's log is started at
+ * its first change, with the body it had before as revision 1, so a note that is never changed has no log.
+ * A failure to record a revision is reported but does not stop the body from being stored.
+ */
+class NoteHistory {
+    private final FileSystemManager fileSystemManager;
+    private final FileSyncer fileSyncer;
+
+    // Bodies as they were when checked out for editing, by note ID
+    private final Map<String, CheckedOut> checkedOutBodies = new HashMap<>();
+
+    /**
+     * Constructs a NoteHistory.
+     *
+     * @param fileSystemManager locates the history directory of each repository
+     * @param fileSyncer syncs the revision logs as the configured durability requires
+     */
+    NoteHistory(FileSystemManager fileSystemManager, FileSyncer fileSyncer) {
+        this.fileSystemManager = fileSystemManager;
+        this.fileSyncer = fileSyncer;
+    }
+
+    /**
+     * Keeps a note's body as it is before editing, to be recorded as its first revision if the edit changes it.
+     *
+     * @param note the note about to be edited
+     */
+    void checkOut(Note note) {
+        checkedOutBodies.put(note.getId(), new CheckedOut(note.getBody(), note.getModifiedAt()));
+    }
+
+    /**
+     * Records an edited body as a note's next revision, after the body it was checked out with if the note
+     * has no revisions yet. A body the edit did not change records nothing.
+     *
+     * @param repo the repository of the note
+     * @param note the note that was edited
+     * @param editedBody the body after editing; null if it could not be read
+     */
+    void recordEdit(RepoSnapshot repo, Note note, String editedBody) {
+        CheckedOut checkedOut = checkedOutBodies.remove(note.getId());
+        String checkedOutBody = checkedOut == null ? null : checkedOut.body;
+        if (editedBody == null || editedBody.equals(checkedOutBody)) {
+            return;
+        }
+        if (checkedOut != null) {
+            recordPrevious(repo, note, checkedOut.body, checkedOut.modifiedAt);
+        }
+        record(repo, note, editedBody, Instant.now());
+    }
+
+    /**
+     * Records the body a note had before its first change as revision 1, unless it already has revisions.
+     *
+     * @param repo the repository of the note
+     * @param note the note
+     * @param body the body before the change; nothing is recorded if null
+     * @param recordedAt the time to record the revision at
+     */
+    void recordPrevious(RepoSnapshot repo, Note note, String body, Instant recordedAt) {
+        if (body == null) {
+            return;
+        }
+        try {
+            RevisionLog revisionLog = getRevisionLog(repo);
+            if (!revisionLog.hasHistory(note.getId())) {
+                revisionLog.append(note.getId(), body, recordedAt);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            warnNotRecorded(note, e);
+        }
+    }
+
+    /**
+     * Records a body as a note's next revision, unless it is the same as the last one recorded.
+     *
+     * @param repo the repository of the note
+     * @param note the note
+     * @param body the body; nothing is recorded if null
+     * @param recordedAt the time to record the revision at
+     */
+    void record(RepoSnapshot repo, Note note, String body, Instant recordedAt) {
+        if (body == null) {
+            return;
+        }
+        try {
+            getRevisionLog(repo).append(note.getId(), body, recordedAt);
+        } catch (IOException | UncheckedIOException e) {
+            warnNotRecorded(note, e);
+        }
+    }
+
+    /**
+     * Lists the recorded revisions of a note's body, oldest first.
+     *
+     * @param repo the repository of the note
+     * @param note the note
+     * @return the revisions; empty if none is recorded
+     * @throws ZettelException if the note's revision log cannot be read
+     */
+    List<Revision> list(RepoSnapshot repo, Note note) throws ZettelException {
+        try {
+            return getRevisionLog(repo).list(note.getId());
+        } catch (IOException e) {
+            throw new ZettelException("Failed to read history of note '" + note.getId() + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds a note's body as it was at one of its recorded revisions.
+     *
+     * @param repo the repository of the note
+     * @param note the note
+     * @param number the revision number, from 1
+     * @return the body at that revision
+     * @throws ZettelException if the note has no such revision, or its revision log cannot be read
+     */
+    String read(RepoSnapshot repo, Note note, int number) throws ZettelException {
+        String body;
+        try {
+            body = getRevisionLog(repo).read(note.getId(), number);
+        } catch (IOException e) {
+            throw new ZettelException("Failed to read revision " + number + " of note '" + note.getId() + "': "
+                    + e.getMessage());
+        }
+        if (body == null) {
+            throw new ZettelException("Note '" + note.getId() + "' has no revision " + number + ".");
+        }
+        return body;
+    }
+
+    /**
+     * Deletes every recorded revision of a note.
+     *
+     * @param repo the repository of the note
+     * @param note the note
+     * @throws ZettelException if the note's revision log cannot be deleted
+     */
+    void delete(RepoSnapshot repo, Note note) throws ZettelException {
+        checkedOutBodies.remove(note.getId());
+        try {
+            getRevisionLog(repo).delete(note.getId());
+        } catch (IOException e) {
+            throw new ZettelException("Error while deleting history of note '" + note.getId() + "': "
+                    + e.getMessage());
+        }
+    }
+
+    private RevisionLog getRevisionLog(RepoSnapshot repo) {
+        return new RevisionLog(fileSystemManager.getHistoryPath(repo.repoName), fileSyncer);
+    }
+
+    private static void warnNotRecorded(Note note, Exception e) {
+        System.out.println("Warning: cannot record a revision of note '" + note.getId() + "': " + e.getMessage());
+    }
+
+    private static final class CheckedOut {
+        final String body;
+        final Instant modifiedAt;
+
+        CheckedOut(String body, Instant modifiedAt) {
+            this.body = body;
+            this.modifiedAt = modifiedAt;
+        }
+    }
+}
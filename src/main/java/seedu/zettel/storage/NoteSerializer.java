@@ -1,18 +1,19 @@
 package seedu.zettel.storage;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.Instant;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import seedu.zettel.Note;
 
@@ -23,9 +24,40 @@ import seedu.zettel.Note;
 public class NoteSerializer {
 
     static final String LIST_DELIM = ";;";
+    static final String JOURNAL_PUT = "+ ";
+    static final String JOURNAL_DELETE = "- ";
+
+    private final BodyCache bodyCache;
+    private final FileSyncer fileSyncer;
+    private final BinaryIndexCodec binaryIndexCodec = new BinaryIndexCodec();
+    private final TextIndexCodec textIndexCodec = new TextIndexCodec();
+    private int damagedRecordCount;
+    private int malformedJournalRecordCount;
+
+    /**
+     * Constructs a NoteSerializer that caches bodies within the default byte budget
+     * and forces every journal append to disk.
+     */
+    public NoteSerializer() {
+        this(new BodyCache(BodyCache.DEFAULT_BUDGET_BYTES),
+                new FileSyncer(Durability.ALWAYS, FileSyncer.DEFAULT_INTERVAL_MS));
+    }
+
+    /**
+     * Constructs a NoteSerializer that reads bodies through the given cache.
+     *
+     * @param bodyCache the cache that loaded bodies are kept in
+     * @param fileSyncer decides when journal appends are forced to disk
+     */
+    NoteSerializer(BodyCache bodyCache, FileSyncer fileSyncer) {
+        this.bodyCache = bodyCache;
+        this.fileSyncer = fileSyncer;
+    }
 
     /**
-     * Loads notes from the index file and their corresponding body files.
+     * Loads notes from the index file.
+     * Any records in the index journal are replayed on top of the index.
+     * Body files are not read here; each note reads its body through the body cache on first access.
      *
      * @param indexPath the path to the index file containing note metadata
      * @param notesDir the directory containing note body files (notes/)
@@ -33,33 +65,327 @@ public class NoteSerializer {
      * @return an ArrayList of loaded notes
      */
     public ArrayList<Note> loadNotes(Path indexPath, Path notesDir, Path archiveDir) {
-        try (Stream<String> lines = Files.lines(indexPath)) {
-            return lines.map(this::parseIndex)
-                    .filter(Objects::nonNull)
-                    .map(note -> loadNoteBody(note, notesDir, archiveDir))
-                    .collect(Collectors.toCollection(ArrayList::new));
+        return loadNotes(indexPath, notesDir, archiveDir, BodyLayout.FLAT);
+    }
+
+    /**
+     * Loads notes from the index file, for a repository whose body files are arranged in the given layout.
+     *
+     * @param indexPath the path to the index file containing note metadata
+     * @param notesDir the directory containing note body files (notes/)
+     * @param archiveDir the directory containing archived note body files (archive/)
+     * @param layout the layout the body files are arranged in
+     * @return an ArrayList of loaded notes
+     */
+    public ArrayList<Note> loadNotes(Path indexPath, Path notesDir, Path archiveDir, BodyLayout layout) {
+        return loadNotes(indexPath, new BodyLocator(notesDir, archiveDir, layout, null, null, null, null));
+    }
+
+    /**
+     * Loads notes from the index file, reading bodies through the given locator,
+     * e.g. for a repository whose archived bodies are packed or compressed.
+     *
+     * @param indexPath the path to the index file containing note metadata
+     * @param bodyLocator finds and reads the stored bodies of the repository's notes
+     * @return an ArrayList of loaded notes
+     */
+    ArrayList<Note> loadNotes(Path indexPath, BodyLocator bodyLocator) {
+        try {
+            return readNotes(indexPath, bodyLocator);
         } catch (IOException e) {
             System.out.println("Error loading file: " + indexPath);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Loads notes from the index file like {@link #loadNotes(Path, BodyLocator)}, but fails instead of
+     * returning no notes if the index cannot be read, e.g. before the notes are moved elsewhere.
+     *
+     * @param indexPath the path to the index file containing note metadata
+     * @param bodyLocator finds and reads the stored bodies of the repository's notes
+     * @return an ArrayList of loaded notes
+     * @throws IOException if the index cannot be read
+     */
+    ArrayList<Note> readNotes(Path indexPath, BodyLocator bodyLocator) throws IOException {
+        ArrayList<Note> notes = new ArrayList<>(readIndex(indexPath));
+        for (Note note : notes) {
+            attachBodyLoader(note, bodyLocator);
+        }
+        return notes;
+    }
+
+    /**
+     * Writes every note to the index file and discards the journal, since the
+     * index now holds everything the journal recorded.
+     *
+     * @param notes the notes to write
+     * @param indexPath the path to the index file
+     * @throws IOException if the index cannot be written
+     */
     public void saveNotes(List<Note> notes, Path indexPath) throws IOException {
-        List<String> lines = notes.stream()
-                .map(this::toIndexFormat)
-                .collect(Collectors.toList());
+        saveNotes(notes, indexPath, IndexFormat.TEXT);
+    }
+
+    /**
+     * Writes every note to the index in the given format, removes the index stored in the
+     * other format, and discards the journal.
+     * The index is replaced atomically, so a crash leaves either the old or the new index.
+     * Falls back to the text format if some note IDs cannot be stored in the binary format.
+     * A text index of many notes is formatted in parallel chunks, see {@link ChunkedTextIndex}.
+     *
+     * @param notes the notes to write
+     * @param indexPath the path to the text index file; the binary index is stored next to it
+     * @param format the format to write
+     * @throws IOException if the index cannot be written
+     */
+    public void saveNotes(List<Note> notes, Path indexPath, IndexFormat format) throws IOException {
+        if (format == IndexFormat.BINARY && !binaryIndexCodec.canEncode(notes)) {
+            System.out.println("Warning: some note IDs cannot be stored in index.bin, keeping index.txt");
+            format = IndexFormat.TEXT;
+        }
+
+        if (format == IndexFormat.BINARY) {
+            AtomicFileWriter.write(getBinaryIndexPath(indexPath), out -> binaryIndexCodec.write(notes, out));
+            Files.deleteIfExists(indexPath);
+        } else if (notes.size() >= ChunkedTextIndex.PARALLEL_THRESHOLD_NOTES) {
+            AtomicFileWriter.write(indexPath, out -> ChunkedTextIndex.write(notes, out));
+            Files.deleteIfExists(getBinaryIndexPath(indexPath));
+        } else {
+            AtomicFileWriter.write(indexPath, out -> {
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                for (Note note : notes) {
+                    writer.write(textIndexCodec.format(note));
+                    writer.newLine();
+                }
+                writer.flush();
+            });
+            Files.deleteIfExists(getBinaryIndexPath(indexPath));
+        }
+        Files.deleteIfExists(getJournalPath(indexPath));
+    }
+
+    /**
+     * Gets the format the index next to the given path is currently stored in.
+     * If both index files exist, e.g. after an interrupted migration, the newer one is used.
+     *
+     * @param indexPath the path to the text index file
+     * @return the stored format, TEXT if there is no index yet
+     */
+    public IndexFormat getStoredFormat(Path indexPath) {
+        Path binaryIndexPath = getBinaryIndexPath(indexPath);
+        if (Files.notExists(binaryIndexPath)) {
+            return IndexFormat.TEXT;
+        }
+        if (Files.notExists(indexPath)) {
+            return IndexFormat.BINARY;
+        }
+        try {
+            boolean isBinaryNewer = Files.getLastModifiedTime(binaryIndexPath)
+                    .compareTo(Files.getLastModifiedTime(indexPath)) >= 0;
+            return isBinaryNewer ? IndexFormat.BINARY : IndexFormat.TEXT;
+        } catch (IOException e) {
+            return IndexFormat.TEXT;
+        }
+    }
 
-        Files.write(indexPath, lines);
+    /**
+     * Gets the path of the binary index that belongs next to the given text index file.
+     *
+     * @param indexPath the path to the text index file
+     * @return the path to index.bin next to it
+     */
+    public Path getBinaryIndexPath(Path indexPath) {
+        return indexPath.resolveSibling(FileSystemManager.REPO_BINARY_INDEX);
+    }
+
+    /**
+     * Appends journal records to the journal that belongs to the given index file.
+     * The journal is forced to disk now or later, depending on the durability policy.
+     *
+     * @param records the journal records, as built by {@link #toPutRecord} and {@link #toDeleteRecord}
+     * @param indexPath the path to the index file the journal belongs to
+     * @throws IOException if the journal cannot be written
+     */
+    public void appendJournal(List<String> records, Path indexPath) throws IOException {
+        Path journalPath = getJournalPath(indexPath);
+        Files.write(journalPath, records, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        fileSyncer.written(journalPath);
+    }
+
+    /**
+     * Gets the path of the journal that belongs to the given index file.
+     *
+     * @param indexPath the path to the index file
+     * @return the path to the journal next to it
+     */
+    public Path getJournalPath(Path indexPath) {
+        return indexPath.resolveSibling(FileSystemManager.REPO_JOURNAL);
+    }
+
+    /**
+     * Gets the number of malformed or damaged records skipped when the index and journal were last read.
+     *
+     * @return the number of skipped records
+     */
+    int getDamagedRecordCount() {
+        return damagedRecordCount;
+    }
+
+    /**
+     * Tells whether any record was skipped when the index and journal were last read, either damaged
+     * or a journal record of no known kind, so that notes may be missing from what was read.
+     *
+     * @return true if a record was skipped
+     */
+    boolean hasSkippedRecords() {
+        return damagedRecordCount > 0 || malformedJournalRecordCount > 0;
+    }
+
+    /**
+     * Checks every record of a text index and its journal against its checksum, streaming the files
+     * line by line without parsing them. A binary index is not checked.
+     *
+     * @param indexPath the path to the text index file
+     * @return the number of records that fail their checksum
+     * @throws IOException if the index or journal cannot be read
+     */
+    int verifyIndex(Path indexPath) throws IOException {
+        if (getStoredFormat(indexPath) == IndexFormat.BINARY) {
+            return 0;
+        }
+        textIndexCodec.resetDamagedCount();
+        int damagedCount = countDamagedLines(indexPath, "");
+        Path journalPath = getJournalPath(indexPath);
+        if (Files.exists(journalPath)) {
+            damagedCount += countDamagedLines(journalPath, JOURNAL_PUT);
+        }
+        return damagedCount;
+    }
+
+    /**
+     * Reads the records of a text index and its journal that are malformed or fail their checksum,
+     * so that what is left of them can be used to rebuild their notes.
+     *
+     * @param indexPath the path to the text index file
+     * @return the damaged records, without the journal's record prefix
+     * @throws IOException if the index or journal cannot be read
+     */
+    List<String> readDamagedRecords(Path indexPath) throws IOException {
+        List<String> damagedRecords = new ArrayList<>();
+        if (getStoredFormat(indexPath) == IndexFormat.BINARY) {
+            return damagedRecords;
+        }
+        TextIndexCodec codec = new TextIndexCodec();
+        for (String line : Files.readAllLines(indexPath, StandardCharsets.UTF_8)) {
+            if (!line.isBlank() && codec.parse(line) == null) {
+                damagedRecords.add(line);
+            }
+        }
+        Path journalPath = getJournalPath(indexPath);
+        if (Files.exists(journalPath)) {
+            for (String record : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+                if (record.startsWith(JOURNAL_PUT) && codec.parse(record.substring(JOURNAL_PUT.length())) == null) {
+                    damagedRecords.add(record.substring(JOURNAL_PUT.length()));
+                }
+            }
+        }
+        return damagedRecords;
+    }
+
+    private int countDamagedLines(Path path, String recordPrefix) throws IOException {
+        int damagedCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(recordPrefix) && !textIndexCodec.isIntact(line.substring(recordPrefix.length()))) {
+                    damagedCount++;
+                }
+            }
+        }
+        return damagedCount;
+    }
+
+    String toPutRecord(String indexLine) {
+        return JOURNAL_PUT + indexLine;
+    }
+
+    String toDeleteRecord(String noteId) {
+        return JOURNAL_DELETE + noteId;
+    }
+
+    /**
+     * Reads note metadata from the index, in whichever format it is stored, and replays the journal over it.
+     * A large text index is memory-mapped and parsed in parallel chunks, see {@link ChunkedTextIndex}.
+     * Records that are malformed or fail their checksum are skipped and counted, see
+     * {@link #getDamagedRecordCount()}. Bodies are not loaded.
+     *
+     * @param indexPath the path to the text index file
+     * @return the notes described by the index and journal, in index order
+     * @throws IOException if the index file cannot be read
+     */
+    private List<Note> readIndex(Path indexPath) throws IOException {
+        List<Note> notes;
+        AtomicInteger damagedCount = new AtomicInteger();
+        damagedRecordCount = 0;
+        malformedJournalRecordCount = 0;
+        textIndexCodec.resetDamagedCount();
+        if (getStoredFormat(indexPath) == IndexFormat.BINARY) {
+            notes = binaryIndexCodec.read(getBinaryIndexPath(indexPath));
+        } else if (Files.size(indexPath) >= ChunkedTextIndex.PARALLEL_THRESHOLD_BYTES) {
+            notes = ChunkedTextIndex.read(indexPath, damagedCount);
+        } else {
+            notes = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(indexPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Note note = textIndexCodec.parse(line);
+                    if (note != null) {
+                        notes.add(note);
+                    }
+                }
+            }
+        }
+
+        Path journalPath = getJournalPath(indexPath);
+        if (Files.notExists(journalPath)) {
+            damagedRecordCount = damagedCount.get() + textIndexCodec.getDamagedCount();
+            return notes;
+        }
+
+        // Later records win; LinkedHashMap keeps index order for notes that were updated in place
+        Map<String, Note> byId = new LinkedHashMap<>();
+        notes.forEach(note -> byId.put(note.getId(), note));
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String record;
+            while ((record = reader.readLine()) != null) {
+                replayRecord(record, byId);
+            }
+        }
+        damagedRecordCount = damagedCount.get() + textIndexCodec.getDamagedCount();
+        return new ArrayList<>(byId.values());
+    }
+
+    private void replayRecord(String record, Map<String, Note> byId) {
+        if (record.startsWith(JOURNAL_PUT)) {
+            Note note = textIndexCodec.parse(record.substring(JOURNAL_PUT.length()));
+            if (note != null) {
+                byId.put(note.getId(), note);
+            }
+        } else if (record.startsWith(JOURNAL_DELETE)) {
+            byId.remove(record.substring(JOURNAL_DELETE.length()).trim());
+        } else if (!record.isBlank()) {
+            malformedJournalRecordCount++;
+            System.out.println("Skipping malformed journal record: " + record);
+        }
     }
 
     //@@author gordonajajar
     public List<String> getExpectedFilenames(Path indexPath) {
         List<String> expectedFiles = new ArrayList<>();
 
-        try (Stream<String> lines = Files.lines(indexPath)) {
-            lines.map(this::parseIndex)
-                    .filter(Objects::nonNull)
-                    .forEach(note -> expectedFiles.add(note.getFilename()));
+        try {
+            readIndex(indexPath).forEach(note -> expectedFiles.add(note.getFilename()));
         } catch (IOException e) {
             System.out.println("Warning: Could not read index file for validation: " + e.getMessage());
         }
@@ -76,10 +402,8 @@ public class NoteSerializer {
      */
     public Map<String, Boolean> getExpectedFilenamesWithArchiveFlag(Path indexPath) {
         Map<String, Boolean> map = new HashMap<>();
-        try (Stream<String> lines = Files.lines(indexPath)) {
-            lines.map(this::parseIndex)
-                    .filter(Objects::nonNull)
-                    .forEach(note -> map.put(note.getFilename(), note.isArchived()));
+        try {
+            readIndex(indexPath).forEach(note -> map.put(note.getFilename(), note.isArchived()));
         } catch (IOException e) {
             System.out.println("Warning: Could not read index file for validation: " + e.getMessage());
         }
@@ -87,133 +411,53 @@ public class NoteSerializer {
     }
 
     /**
-     * Loads the body content for a note from its corresponding body file in notes/ or archive/.
+     * Makes a note read its body from its body file in notes/ or archive/ when the body is first needed,
+     * dropping any body it holds in memory.
      *
      * @param note the note to load the body for
-     * @param notesDir the notes directory
-     * @param archiveDir the archive directory
-     * @return the note with its body loaded
+     * @param bodyLocator finds and reads the note's stored body
      */
-    private Note loadNoteBody(Note note, Path notesDir, Path archiveDir) {
-        Path bodyFile = (note.isArchived() ? archiveDir : notesDir).resolve(note.getFilename());
+    void attachBodyLoader(Note note, BodyLocator bodyLocator) {
+        note.setBodyLoader(() -> loadNoteBody(note, bodyLocator));
+    }
+
+    /**
+     * Loads the body content for a note from where it is stored, through the body cache.
+     * The directory is picked when the body is read, so notes archived after loading are still found.
+     * Packed archived bodies are read from the pack, and compressed bodies are decompressed.
+     *
+     * @param note the note to load the body for
+     * @param bodyLocator finds and reads the note's stored body
+     * @return the body content, or an empty string if the body file cannot be read
+     */
+    private String loadNoteBody(Note note, BodyLocator bodyLocator) {
         try {
-            String body = Files.readString(bodyFile);
-            note.loadBody(body);
+            return bodyCache.get(bodyLocator.getBodyPath(note), () -> bodyLocator.read(note));
         } catch (IOException e) {
             System.out.println("Warning: cannot read body file for '" +
                     note.getTitle() + "': " + e.getMessage());
-            note.loadBody("");
+            return "";
         }
-        return note;
     }
     //@@author
 
-    private String toIndexFormat(Note note) {
-        // Filter and clean tags - remove null/empty entries
-        String tagsStr = note.getTags().stream()
-                .filter(Objects::nonNull)
-                .filter(s -> !s.trim().isEmpty())
-                .collect(Collectors.joining(LIST_DELIM));
-
-        String filename = note.getFilename() != null ? note.getFilename() : "";
-        String archiveName = note.getArchiveName() != null ? note.getArchiveName() : "";
-
-        HashSet<String> outgoingLinks = note.getOutgoingLinks();
-        String outgoingLinksStr = "";
-        if (outgoingLinks != null && !outgoingLinks.isEmpty()) {
-            outgoingLinksStr = outgoingLinks.stream()
-                    .filter(Objects::nonNull)
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.joining(LIST_DELIM));
-        }
-
-        HashSet<String> incomingLinks = note.getIncomingLinks();
-        String incomingLinksStr = "";
-        if (incomingLinks != null && !incomingLinks.isEmpty()) {
-            incomingLinksStr = incomingLinks.stream()
-                    .filter(Objects::nonNull)
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.joining(LIST_DELIM));
-        }
-
-        return String.format("%s | %s | %s | %s | %s | %s | %s | %s | %s | %s | %s",
-                note.getId(),
-                note.getTitle(),
-                filename,
-                note.getCreatedAt().toString(),
-                note.getModifiedAt().toString(),
-                note.isPinned() ? "1" : "0",
-                note.isArchived() ? "1" : "0",
-                archiveName,
-                tagsStr,
-                outgoingLinksStr,
-                incomingLinksStr
-        );
-    }
-
-    private Note parseIndex(String line) {
-        if (line == null || line.isBlank()) {
-            return null;
-        }
-
-        String[] fields = line.split(" \\| ", 11);
-        if (fields.length < 11) {
-            System.out.println("Skipping malformed line (expected 11 fields, got " + fields.length + "): " + line);
-            return null;
-        }
-
-        try {
-            String id = fields[0].trim();
-            String title = fields[1];
-            String filename = fields[2];
-            String body = "";
-            Instant createdAt = Instant.parse(fields[3]);
-            Instant modifiedAt = Instant.parse(fields[4]);
-            boolean pinned = fields[5].equals("1");
-            boolean archived = fields[6].equals("1");
-            String archiveName = fields[7].isEmpty() ? null : fields[7];
-
-            List<String> tags = new ArrayList<>();
-            if (!fields[8].trim().isEmpty()) {
-                tags = Arrays.stream(fields[8].split(LIST_DELIM))
-                        .map(String::trim)
-                        .filter(s -> !s.isEmpty())
-                        .collect(Collectors.toList());
-            }
-
-            HashSet<String> outgoingLinks = new HashSet<>();
-            if (!fields[9].trim().isEmpty()) {
-                outgoingLinks = Arrays.stream(fields[9].split(LIST_DELIM))
-                        .map(String::trim)
-                        .filter(s -> !s.isEmpty())
-                        .collect(Collectors.toCollection(HashSet::new));
-            }
-
-            HashSet<String> incomingLinks = new HashSet<>();
-            if (!fields[10].trim().isEmpty()) {
-                incomingLinks = Arrays.stream(fields[10].split(LIST_DELIM))
-                        .map(String::trim)
-                        .filter(s -> !s.isEmpty())
-                        .collect(Collectors.toCollection(HashSet::new));
-            }
-
-            Note note = new Note(id, title, filename, body, createdAt, modifiedAt,
-                    pinned, archived, archiveName, tags);
-
-            for (String linkId : outgoingLinks) {
-                note.addOutgoingLink(linkId);
-            }
-            for (String linkId : incomingLinks) {
-                note.addIncomingLink(linkId);
-            }
+    /**
+     * Formats a note as one line of the text index.
+     *
+     * @param note the note to format
+     * @return the index line
+     */
+    String toIndexFormat(Note note) {
+        return textIndexCodec.format(note);
+    }
 
-            return note;
-        } catch (Exception e) {
-            System.out.println("Skipping corrupted line: " + line + " (Error: " + e.getMessage() + ")");
-            e.printStackTrace();
-            return null;
-        }
+    /**
+     * Parses one line of the text index, e.g. as stored for a note in a paged store.
+     *
+     * @param line the index line
+     * @return the note, without a body loader, or null if the line is malformed
+     */
+    Note parseIndexLine(String line) {
+        return textIndexCodec.parse(line);
     }
 }
@@ -0,0 +1,319 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import seedu.zettel.Note;
+
+/**
+ * Keeps every note of a repository in one {@link PagedStore}: the metadata of each note as its line of the
+ * text index, under {@code m/<id>}, and its plain body under {@code b/<id>}.
+ * <p>
+ * Like {@link IndexJournal}, remembers the generation of each note as it was last written and writes only
+ * notes that changed since. Bodies put or deleted between saves are committed together with the next save,
+ * so a note's body and metadata always change on disk at the same time.
+ */
+class PagedNoteStore implements AutoCloseable {
+    /** Number of notes imported per commit when a repository is moved into the store. */
+    static final int IMPORT_BATCH_SIZE = 10_000;
+
+    private static final String META_PREFIX = "m/";
+    private static final String BODY_PREFIX = "b/";
+    private static final String IMPORTED_KEY = "~imported";
+    private static final char ORDER_DELIM = '\n';
+
+    private final PagedStore store;
+    private final Path storePath;
+    private final NoteSerializer noteSerializer;
+
+    // Note ID -> generation of the note when it was last written; null until the store knows the repo's state
+    private Map<String, Long> persistedGenerations;
+
+    // Note ID -> position of the note in the repository's list, so notes load in the order they were added
+    private final Map<String, Long> positions = new HashMap<>();
+    private long nextPosition;
+
+    private PagedNoteStore(PagedStore store, Path storePath, NoteSerializer noteSerializer) {
+        this.store = store;
+        this.storePath = storePath;
+        this.noteSerializer = noteSerializer;
+    }
+
+    /**
+     * Opens the paged store of a repository, creating it if it does not exist.
+     *
+     * @param storePath the path to the repository's notes.db file
+     * @param cachePages the most decoded pages to keep in memory
+     * @param noteSerializer formats and parses the notes' index lines
+     * @return the opened store
+     * @throws IOException if the store cannot be opened
+     */
+    static PagedNoteStore open(Path storePath, int cachePages, NoteSerializer noteSerializer) throws IOException {
+        return new PagedNoteStore(PagedStore.open(storePath, cachePages), storePath, noteSerializer);
+    }
+
+    /**
+     * Checks whether a repository's notes have been moved into the store in full.
+     *
+     * @return true if an import was completed
+     * @throws IOException if the store cannot be read
+     */
+    boolean isImported() throws IOException {
+        return store.get(IMPORTED_KEY) != null;
+    }
+
+    /**
+     * Moves notes into the store with their bodies, committing every {@link #IMPORT_BATCH_SIZE} notes.
+     * The store is only marked as imported by the last commit, so an interrupted import is started again.
+     * The notes are changed to say their bodies are stored plain and not in a content store.
+     *
+     * @param notes the notes of the repository, in order
+     * @param source finds and reads the notes' bodies where they are stored now
+     * @throws IOException if a body cannot be read or the store cannot be written
+     */
+    void importNotes(List<Note> notes, BodyLocator source) throws IOException {
+        try {
+            int batchCount = 0;
+            for (Note note : notes) {
+                byte[] body = source.read(note);
+                note.setBodyCodec(null);
+                note.setBodyHash(null);
+                putNote(note);
+                store.put(BODY_PREFIX + note.getId(), body);
+                if (++batchCount == IMPORT_BATCH_SIZE) {
+                    store.commit();
+                    batchCount = 0;
+                }
+            }
+            store.put(IMPORTED_KEY, new byte[0]);
+            store.commit();
+        } catch (IOException e) {
+            store.rollback();
+            throw e;
+        }
+        prime(notes);
+    }
+
+    /**
+     * Reads the metadata of every note in the store, in the order the notes were added.
+     * Bodies are not read.
+     *
+     * @return the notes, without body loaders
+     * @throws IOException if the store cannot be read
+     */
+    ArrayList<Note> readNotes() throws IOException {
+        Map<Note, Long> notePositions = new HashMap<>();
+        List<String> malformedIds = new ArrayList<>();
+        positions.clear();
+        store.scan(META_PREFIX, (key, value) -> {
+            String record = new String(value, StandardCharsets.UTF_8);
+            int delim = record.indexOf(ORDER_DELIM);
+            Note note = delim < 0 ? null : noteSerializer.parseIndexLine(record.substring(delim + 1));
+            if (note == null) {
+                malformedIds.add(key.substring(META_PREFIX.length()));
+                return;
+            }
+            long position = Long.parseLong(record.substring(0, delim));
+            notePositions.put(note, position);
+            positions.put(note.getId(), position);
+        });
+        for (String noteId : malformedIds) {
+            System.out.println("Skipping malformed note record in the paged store: " + noteId);
+        }
+        nextPosition = positions.values().stream().mapToLong(Long::longValue).max().orElse(-1) + 1;
+
+        ArrayList<Note> notes = new ArrayList<>(notePositions.keySet());
+        notes.sort(Comparator.comparingLong(notePositions::get));
+        prime(notes);
+        return notes;
+    }
+
+    /**
+     * Reads a note's body.
+     *
+     * @param noteId the note's ID
+     * @return the plain body bytes
+     * @throws IOException if the store cannot be read or holds no body for the note
+     */
+    byte[] readBody(String noteId) throws IOException {
+        byte[] body = store.get(BODY_PREFIX + noteId);
+        if (body == null) {
+            throw new IOException("no body stored for note " + noteId);
+        }
+        return body;
+    }
+
+    /**
+     * Stores a note's body, to be committed by the next save.
+     *
+     * @param noteId the note's ID
+     * @param body the plain body bytes
+     * @throws IOException if the store cannot be read
+     */
+    void putBody(String noteId, byte[] body) throws IOException {
+        store.put(BODY_PREFIX + noteId, body);
+    }
+
+    /**
+     * Deletes a note's body, to be committed by the next save.
+     *
+     * @param noteId the note's ID
+     * @throws IOException if the store cannot be read
+     */
+    void deleteBody(String noteId) throws IOException {
+        store.delete(BODY_PREFIX + noteId);
+    }
+
+    /**
+     * Writes every note whose generation moved since the last save, removes notes no longer in the list,
+     * and commits them together with any bodies put or deleted since.
+     *
+     * @param notes all notes in the repository
+     * @throws IOException if the store cannot be written; nothing is committed then
+     */
+    void save(List<Note> notes) throws IOException {
+        try {
+            if (persistedGenerations == null) {
+                rewrite(notes);
+            } else {
+                Set<String> currentIds = new HashSet<>();
+                for (Note note : notes) {
+                    currentIds.add(note.getId());
+                    putIfChanged(note);
+                }
+                for (String noteId : new ArrayList<>(persistedGenerations.keySet())) {
+                    if (!currentIds.contains(noteId)) {
+                        deleteNote(noteId);
+                    }
+                }
+            }
+            store.commit();
+        } catch (IOException e) {
+            abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes only the notes recorded in the change set, and commits them together with any bodies
+     * put or deleted since the last save.
+     *
+     * @param notes all notes in the repository, used if every note has to be written
+     * @param changes the notes that were changed or deleted
+     * @throws IOException if the store cannot be written; nothing is committed then
+     */
+    void save(List<Note> notes, ChangeSet changes) throws IOException {
+        try {
+            if (persistedGenerations == null) {
+                rewrite(notes);
+            } else {
+                for (Note note : changes.getChangedNotes()) {
+                    putIfChanged(note);
+                }
+                for (String noteId : changes.getDeletedNoteIds()) {
+                    deleteNote(noteId);
+                }
+            }
+            store.commit();
+        } catch (IOException e) {
+            abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the path a note's body is cached under. It names no file; it only has to differ
+     * from every other cached body's.
+     *
+     * @param note the note
+     * @return the cache key of the note's body
+     */
+    Path getBodyKey(Note note) {
+        return storePath.resolve(note.getId());
+    }
+
+    /**
+     * Gets the number of pages in the store's file.
+     *
+     * @return the page count
+     */
+    long getPageCount() {
+        return store.getPageCount();
+    }
+
+    /**
+     * Discards anything not saved and closes the store's file.
+     */
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    private void prime(List<Note> notes) {
+        persistedGenerations = new HashMap<>();
+        for (Note note : notes) {
+            persistedGenerations.put(note.getId(), note.getGeneration());
+        }
+    }
+
+    // Writes every note and removes every other note record, e.g. after a failed save
+    private void rewrite(List<Note> notes) throws IOException {
+        List<String> storedIds = new ArrayList<>();
+        store.scan(META_PREFIX, (key, value) -> storedIds.add(key.substring(META_PREFIX.length())));
+        persistedGenerations = new HashMap<>();
+        Set<String> currentIds = new HashSet<>();
+        for (Note note : notes) {
+            currentIds.add(note.getId());
+            putNote(note);
+        }
+        for (String noteId : storedIds) {
+            if (!currentIds.contains(noteId)) {
+                store.delete(META_PREFIX + noteId);
+                store.delete(BODY_PREFIX + noteId);
+                positions.remove(noteId);
+            }
+        }
+    }
+
+    private void putIfChanged(Note note) throws IOException {
+        Long persistedGeneration = persistedGenerations.get(note.getId());
+        if (persistedGeneration == null || persistedGeneration != note.getGeneration()) {
+            putNote(note);
+        }
+    }
+
+    private void putNote(Note note) throws IOException {
+        Long position = positions.get(note.getId());
+        if (position == null) {
+            position = nextPosition++;
+            positions.put(note.getId(), position);
+        }
+        store.put(META_PREFIX + note.getId(), (position + String.valueOf(ORDER_DELIM)
+                + noteSerializer.toIndexFormat(note)).getBytes(StandardCharsets.UTF_8));
+        if (persistedGenerations != null) {
+            persistedGenerations.put(note.getId(), note.getGeneration());
+        }
+    }
+
+    private void deleteNote(String noteId) throws IOException {
+        if (persistedGenerations.remove(noteId) != null) {
+            store.delete(META_PREFIX + noteId);
+            store.delete(BODY_PREFIX + noteId);
+            positions.remove(noteId);
+        }
+    }
+
+    // What was not committed is gone, so the next save writes every note again
+    private void abort() {
+        store.rollback();
+        persistedGenerations = null;
+    }
+}
@@ -0,0 +1,880 @@
+package seedu.zettel.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * A key-value store kept in one file of fixed-size pages, holding a B+tree ordered by key.
+ * <p>
+ * Pages 0 and 1 hold two copies of the header, each naming the tree's root page, the file's page count and
+ * the list of free pages, with a transaction number and a checksum. Every other page is a tree node, part of
+ * a value too large to keep in its leaf, or part of the free list. Changes are made copy-on-write: a node is
+ * never changed in place once committed, but copied to a free page along with every node on its path to the
+ * root. {@link #commit()} writes the new pages, forces them to disk, and only then writes the header into the
+ * slot not used by the last commit. A commit cut short leaves the previous header, and every page it names,
+ * as it was, so the store opens at the last complete commit. Pages a commit stops using can be reused once
+ * that commit is on disk. The free list is written into pages that were already free at the last commit, and
+ * free pages at the end of the file are cut off, so a store that is changed and committed many times stays
+ * about the size of what it holds.
+ * <p>
+ * Decoded nodes are kept in a least-recently-used page cache. Nodes are never merged when entries are deleted;
+ * an empty node is removed from its parent. All methods are safe to call from several threads.
+ */
+class PagedStore implements AutoCloseable {
+    /** Size of every page in bytes. */
+    static final int PAGE_SIZE = 4096;
+
+    /** Number of decoded pages kept in the page cache when none is configured. */
+    static final int DEFAULT_CACHE_PAGES = 2048;
+
+    /** Longest key, in bytes. */
+    static final int MAX_KEY_BYTES = 255;
+
+    /** Longest value kept inside its leaf; longer values are stored in pages of their own. */
+    static final int MAX_INLINE_VALUE_BYTES = 1024;
+
+    private static final int MAGIC = 0x5A545047; // "ZTPG"
+    private static final int VERSION = 1;
+    private static final long HEADER_PAGES = 2;
+    private static final long NO_PAGE = -1;
+    private static final byte LEAF = 1;
+    private static final byte BRANCH = 2;
+    private static final byte INLINE = 0;
+    private static final byte OVERFLOW = 1;
+    private static final int CHECKSUM_BYTES = 4;
+    private static final int FREE_IDS_PER_PAGE = PAGE_SIZE / Long.BYTES;
+
+    private final FileChannel channel;
+    private final int cachePages;
+    private final LinkedHashMap<Long, Node> pageCache;
+
+    // State as of the last commit
+    private long txnId;
+    private long rootPage = NO_PAGE;
+    private long pageCount = HEADER_PAGES;
+    private long freeListStart = NO_PAGE;
+    private int freeListPages;
+    private TreeSet<Long> freePages = new TreeSet<>();
+
+    // Changes since the last commit: new pages, and pages that become free once the changes are committed
+    private final Map<Long, Node> dirtyNodes = new HashMap<>();
+    private final Map<Long, byte[]> dirtyValues = new HashMap<>();
+    private final Set<Long> txnPages = new HashSet<>();
+    private final List<Long> releasedPages = new ArrayList<>();
+    private TreeSet<Long> txnFreePages;
+    private long txnRoot;
+    private long txnPageCount;
+
+    private PagedStore(FileChannel channel, int cachePages) {
+        this.channel = channel;
+        this.cachePages = cachePages;
+        this.pageCache = new LinkedHashMap<>(Math.min(cachePages, 1024), 0.75f, true);
+    }
+
+    /**
+     * Opens a store, creating an empty one if the file does not exist.
+     *
+     * @param file the store's file
+     * @param cachePages the most decoded pages to keep in memory
+     * @return the opened store
+     * @throws IOException if the file cannot be opened or neither header is intact
+     */
+    static PagedStore open(Path file, int cachePages) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        PagedStore store = new PagedStore(channel, Math.max(1, cachePages));
+        try {
+            if (channel.size() == 0) {
+                store.writeHeader(0, 0);
+                store.writeHeader(1, 0);
+                channel.force(true);
+            }
+            store.readHeaders();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Gets the value stored under a key, including changes not committed yet.
+     *
+     * @param key the key
+     * @return the value, or null if the key is not stored
+     * @throws IOException if a page cannot be read
+     */
+    synchronized byte[] get(String key) throws IOException {
+        byte[] keyBytes = toKeyBytes(key);
+        long page = currentRoot();
+        while (page != NO_PAGE) {
+            Node node = readNode(page);
+            if (node.isLeaf) {
+                int index = search(node.keys, keyBytes);
+                return index >= 0 ? readValue(node.values.get(index)) : null;
+            }
+            page = node.children.get(childIndexFor(node.keys, keyBytes));
+        }
+        return null;
+    }
+
+    /**
+     * Stores a value under a key, replacing any value already stored. Takes effect on disk at the next commit.
+     *
+     * @param key the key, at most {@link #MAX_KEY_BYTES} bytes of UTF-8
+     * @param value the value
+     * @throws IOException if a page cannot be read
+     */
+    synchronized void put(String key, byte[] value) throws IOException {
+        byte[] keyBytes = toKeyBytes(key);
+        beginIfNeeded();
+        Value stored = storeValue(value);
+        if (txnRoot == NO_PAGE) {
+            Node leaf = Node.leaf();
+            leaf.keys.add(keyBytes);
+            leaf.values.add(stored);
+            txnRoot = allocateNode(leaf);
+            return;
+        }
+        Split split = insert(txnRoot, keyBytes, stored);
+        txnRoot = split.page;
+        if (split.separator != null) {
+            Node root = Node.branch();
+            root.keys.add(split.separator);
+            root.children.add(split.page);
+            root.children.add(split.rightPage);
+            txnRoot = allocateNode(root);
+        }
+    }
+
+    /**
+     * Removes a key and its value. Takes effect on disk at the next commit.
+     *
+     * @param key the key
+     * @return true if the key was stored
+     * @throws IOException if a page cannot be read
+     */
+    synchronized boolean delete(String key) throws IOException {
+        if (get(key) == null) {
+            return false;
+        }
+        beginIfNeeded();
+        txnRoot = remove(txnRoot, toKeyBytes(key));
+        // A root branch left with one child is replaced by that child
+        while (txnRoot != NO_PAGE) {
+            Node root = readNode(txnRoot);
+            if (root.isLeaf || root.children.size() > 1) {
+                break;
+            }
+            release(txnRoot);
+            txnRoot = root.children.get(0);
+        }
+        return true;
+    }
+
+    /**
+     * Calls the consumer with every key starting with a prefix, and its value, in key order,
+     * including changes not committed yet.
+     *
+     * @param prefix the prefix keys must start with; empty for every key
+     * @param consumer receives each key and value
+     * @throws IOException if a page cannot be read
+     */
+    synchronized void scan(String prefix, BiConsumer<String, byte[]> consumer) throws IOException {
+        scan(currentRoot(), prefix.getBytes(StandardCharsets.UTF_8), consumer);
+    }
+
+    /**
+     * Writes every change made since the last commit and forces it to disk, then switches the header to it.
+     *
+     * @throws IOException if the changes cannot be written; they are then discarded
+     */
+    synchronized void commit() throws IOException {
+        if (txnFreePages == null) {
+            return;
+        }
+        try {
+            TreeSet<Long> nextFreePages = new TreeSet<>(txnFreePages);
+            nextFreePages.addAll(releasedPages);
+            for (long i = 0; i < freeListPages; i++) {
+                nextFreePages.add(freeListStart + i);
+            }
+            // Free pages at the end of the file are cut off rather than listed
+            long nextPageCount = txnPageCount;
+            while (nextPageCount > HEADER_PAGES && nextFreePages.contains(nextPageCount - 1)) {
+                nextFreePages.remove(--nextPageCount);
+                txnFreePages.remove(nextPageCount);
+            }
+            // The new free list goes in pages already free at the last commit, which no header names,
+            // and only extends the file if they hold no run long enough
+            int nextFreeListPages = (nextFreePages.size() + FREE_IDS_PER_PAGE - 1) / FREE_IDS_PER_PAGE;
+            long nextFreeListStart = NO_PAGE;
+            if (nextFreeListPages > 0) {
+                nextFreeListStart = findRun(txnFreePages, nextFreeListPages);
+                if (nextFreeListStart == NO_PAGE) {
+                    nextFreeListStart = nextPageCount;
+                    nextPageCount += nextFreeListPages;
+                }
+                for (long i = 0; i < nextFreeListPages; i++) {
+                    nextFreePages.remove(nextFreeListStart + i);
+                }
+            }
+
+            for (Map.Entry<Long, Node> entry : dirtyNodes.entrySet()) {
+                writeFully(encode(entry.getValue()), entry.getKey() * PAGE_SIZE);
+            }
+            for (Map.Entry<Long, byte[]> entry : dirtyValues.entrySet()) {
+                writeFully(ByteBuffer.wrap(entry.getValue()), entry.getKey() * PAGE_SIZE);
+            }
+            writeFreeList(nextFreePages, nextFreeListStart);
+            channel.force(true);
+
+            long nextTxnId = txnId + 1;
+            long previousRoot = rootPage;
+            long previousPageCount = pageCount;
+            long previousFreeListStart = freeListStart;
+            int previousFreeListPages = freeListPages;
+            rootPage = txnRoot;
+            pageCount = nextPageCount;
+            freeListStart = nextFreeListStart;
+            freeListPages = nextFreeListPages;
+            try {
+                writeHeader(nextTxnId, nextFreePages.size());
+                channel.force(true);
+            } catch (IOException e) {
+                rootPage = previousRoot;
+                pageCount = previousPageCount;
+                freeListStart = previousFreeListStart;
+                freeListPages = previousFreeListPages;
+                throw e;
+            }
+            txnId = nextTxnId;
+            freePages = nextFreePages;
+            if (channel.size() > pageCount * PAGE_SIZE) {
+                channel.truncate(pageCount * PAGE_SIZE);
+            }
+            for (long page : releasedPages) {
+                pageCache.remove(page);
+            }
+            for (Map.Entry<Long, Node> entry : dirtyNodes.entrySet()) {
+                cachePage(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            clearTransaction();
+        }
+    }
+
+    /**
+     * Discards every change made since the last commit.
+     */
+    synchronized void rollback() {
+        clearTransaction();
+    }
+
+    /**
+     * Gets the number of pages in the file as of the last commit.
+     *
+     * @return the page count, including the two header pages
+     */
+    synchronized long getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Gets the number of pages free for reuse as of the last commit.
+     *
+     * @return the free page count
+     */
+    synchronized int getFreePageCount() {
+        return freePages.size();
+    }
+
+    /**
+     * Gets the number of decoded pages held in the page cache.
+     *
+     * @return the cached page count
+     */
+    synchronized int getCachedPageCount() {
+        return pageCache.size();
+    }
+
+    /**
+     * Discards uncommitted changes and closes the file.
+     */
+    @Override
+    public synchronized void close() {
+        clearTransaction();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing uncommitted is lost by a failed close
+        }
+    }
+
+    // ---- Tree operations ----
+
+    private Split insert(long page, byte[] key, Value value) throws IOException {
+        long writablePage = makeWritable(page);
+        Node node = dirtyNodes.get(writablePage);
+        if (node.isLeaf) {
+            int index = search(node.keys, key);
+            if (index >= 0) {
+                releaseValue(node.values.get(index));
+                node.values.set(index, value);
+            } else {
+                node.keys.add(-index - 1, key);
+                node.values.add(-index - 1, value);
+            }
+        } else {
+            int childIndex = childIndexFor(node.keys, key);
+            Split split = insert(node.children.get(childIndex), key, value);
+            node.children.set(childIndex, split.page);
+            if (split.separator != null) {
+                node.keys.add(childIndex, split.separator);
+                node.children.add(childIndex + 1, split.rightPage);
+            }
+        }
+        if (encodedSize(node) <= PAGE_SIZE) {
+            return new Split(writablePage, null, NO_PAGE);
+        }
+        return node.isLeaf ? splitLeaf(writablePage, node) : splitBranch(writablePage, node);
+    }
+
+    private Split splitLeaf(long page, Node node) {
+        int half = encodedSize(node) / 2;
+        int size = 3;
+        int splitIndex = node.keys.size() - 1;
+        for (int i = 0; i < node.keys.size() - 1; i++) {
+            size += entrySize(node.keys.get(i), node.values.get(i));
+            if (size >= half) {
+                splitIndex = i + 1;
+                break;
+            }
+        }
+        Node right = Node.leaf();
+        right.keys.addAll(node.keys.subList(splitIndex, node.keys.size()));
+        right.values.addAll(node.values.subList(splitIndex, node.values.size()));
+        node.keys.subList(splitIndex, node.keys.size()).clear();
+        node.values.subList(splitIndex, node.values.size()).clear();
+        return new Split(page, right.keys.get(0), allocateNode(right));
+    }
+
+    private Split splitBranch(long page, Node node) {
+        int middle = node.keys.size() / 2;
+        byte[] separator = node.keys.get(middle);
+        Node right = Node.branch();
+        right.keys.addAll(node.keys.subList(middle + 1, node.keys.size()));
+        right.children.addAll(node.children.subList(middle + 1, node.children.size()));
+        node.keys.subList(middle, node.keys.size()).clear();
+        node.children.subList(middle + 1, node.children.size()).clear();
+        return new Split(page, separator, allocateNode(right));
+    }
+
+    // Removes a key known to be stored below the page; returns the page's new number, or NO_PAGE if it emptied
+    private long remove(long page, byte[] key) throws IOException {
+        long writablePage = makeWritable(page);
+        Node node = dirtyNodes.get(writablePage);
+        if (node.isLeaf) {
+            int index = search(node.keys, key);
+            releaseValue(node.values.get(index));
+            node.keys.remove(index);
+            node.values.remove(index);
+        } else {
+            int childIndex = childIndexFor(node.keys, key);
+            long child = remove(node.children.get(childIndex), key);
+            if (child != NO_PAGE) {
+                node.children.set(childIndex, child);
+            } else {
+                node.children.remove(childIndex);
+                if (!node.keys.isEmpty()) {
+                    node.keys.remove(Math.max(0, childIndex - 1));
+                }
+            }
+        }
+        if (node.isLeaf ? node.keys.isEmpty() : node.children.isEmpty()) {
+            release(writablePage);
+            return NO_PAGE;
+        }
+        return writablePage;
+    }
+
+    private void scan(long page, byte[] prefix, BiConsumer<String, byte[]> consumer) throws IOException {
+        if (page == NO_PAGE) {
+            return;
+        }
+        Node node = readNode(page);
+        if (node.isLeaf) {
+            for (int i = 0; i < node.keys.size(); i++) {
+                if (startsWith(node.keys.get(i), prefix)) {
+                    consumer.accept(new String(node.keys.get(i), StandardCharsets.UTF_8),
+                            readValue(node.values.get(i)));
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < node.children.size(); i++) {
+            // Keys below child i are less than keys[i], and at least keys[i - 1]
+            if (i < node.keys.size() && Arrays.compareUnsigned(node.keys.get(i), prefix) <= 0) {
+                continue;
+            }
+            if (i > 0 && Arrays.compareUnsigned(node.keys.get(i - 1), prefix) > 0
+                    && !startsWith(node.keys.get(i - 1), prefix)) {
+                return;
+            }
+            scan(node.children.get(i), prefix, consumer);
+        }
+    }
+
+    // ---- Transactions and page allocation ----
+
+    private void beginIfNeeded() {
+        if (txnFreePages == null) {
+            txnFreePages = new TreeSet<>(freePages);
+            txnRoot = rootPage;
+            txnPageCount = pageCount;
+        }
+    }
+
+    private void clearTransaction() {
+        dirtyNodes.clear();
+        dirtyValues.clear();
+        txnPages.clear();
+        releasedPages.clear();
+        txnFreePages = null;
+    }
+
+    private long currentRoot() {
+        return txnFreePages == null ? rootPage : txnRoot;
+    }
+
+    // Gets a copy of a page that may be changed in this transaction, copying a committed page to a new one
+    private long makeWritable(long page) throws IOException {
+        if (txnPages.contains(page)) {
+            return page;
+        }
+        Node copy = readNode(page).copy();
+        release(page);
+        return allocateNode(copy);
+    }
+
+    private long allocateNode(Node node) {
+        long page = allocate(1);
+        dirtyNodes.put(page, node);
+        return page;
+    }
+
+    // Finds a run of free pages, or extends the file
+    private long allocate(int count) {
+        long start = findRun(txnFreePages, count);
+        if (start != NO_PAGE) {
+            for (long i = 0; i < count; i++) {
+                txnFreePages.remove(start + i);
+            }
+        } else {
+            start = txnPageCount;
+            txnPageCount += count;
+        }
+        for (long i = 0; i < count; i++) {
+            txnPages.add(start + i);
+        }
+        return start;
+    }
+
+    // Gets the first page of the lowest run of consecutive pages in the set, or NO_PAGE if none is long enough
+    private static long findRun(TreeSet<Long> pages, int count) {
+        long runStart = NO_PAGE;
+        long runLength = 0;
+        long previous = NO_PAGE;
+        for (long page : pages) {
+            if (previous != NO_PAGE && page == previous + 1) {
+                runLength++;
+            } else {
+                runStart = page;
+                runLength = 1;
+            }
+            previous = page;
+            if (runLength == count) {
+                return runStart;
+            }
+        }
+        return NO_PAGE;
+    }
+
+    // Frees a page: at once if this transaction allocated it, otherwise once this transaction is committed
+    private void release(long page) {
+        if (txnPages.remove(page)) {
+            dirtyNodes.remove(page);
+            dirtyValues.remove(page);
+            txnFreePages.add(page);
+        } else {
+            releasedPages.add(page);
+        }
+    }
+
+    private Value storeValue(byte[] value) {
+        if (value.length <= MAX_INLINE_VALUE_BYTES) {
+            return Value.inline(value);
+        }
+        int pages = (value.length + PAGE_SIZE - 1) / PAGE_SIZE;
+        long start = allocate(pages);
+        dirtyValues.put(start, value);
+        return Value.overflow(start, value.length);
+    }
+
+    private void releaseValue(Value value) {
+        if (value.inline != null) {
+            return;
+        }
+        long pages = (value.length + PAGE_SIZE - 1) / PAGE_SIZE;
+        for (long i = 0; i < pages; i++) {
+            release(value.start + i);
+        }
+    }
+
+    // ---- Reading and writing pages ----
+
+    private Node readNode(long page) throws IOException {
+        Node node = dirtyNodes.get(page);
+        if (node != null) {
+            return node;
+        }
+        node = pageCache.get(page);
+        if (node != null) {
+            return node;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        readFully(buffer, page * PAGE_SIZE);
+        node = decode(buffer, page);
+        cachePage(page, node);
+        return node;
+    }
+
+    private void cachePage(long page, Node node) {
+        pageCache.put(page, node);
+        Iterator<Long> eldest = pageCache.keySet().iterator();
+        while (pageCache.size() > cachePages && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private byte[] readValue(Value value) throws IOException {
+        if (value.inline != null) {
+            return value.inline;
+        }
+        byte[] dirty = dirtyValues.get(value.start);
+        if (dirty != null) {
+            return dirty;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(value.length);
+        readFully(buffer, value.start * PAGE_SIZE);
+        return buffer.array();
+    }
+
+    private static ByteBuffer encode(Node node) {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        buffer.put(node.isLeaf ? LEAF : BRANCH);
+        buffer.putShort((short) node.keys.size());
+        if (node.isLeaf) {
+            for (int i = 0; i < node.keys.size(); i++) {
+                putKey(buffer, node.keys.get(i));
+                Value value = node.values.get(i);
+                if (value.inline != null) {
+                    buffer.put(INLINE).putInt(value.inline.length).put(value.inline);
+                } else {
+                    buffer.put(OVERFLOW).putLong(value.start).putInt(value.length);
+                }
+            }
+        } else {
+            buffer.putLong(node.children.get(0));
+            for (int i = 0; i < node.keys.size(); i++) {
+                putKey(buffer, node.keys.get(i));
+                buffer.putLong(node.children.get(i + 1));
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, PAGE_SIZE - CHECKSUM_BYTES);
+        buffer.putInt(PAGE_SIZE - CHECKSUM_BYTES, (int) crc.getValue());
+        buffer.rewind();
+        return buffer;
+    }
+
+    private static Node decode(ByteBuffer buffer, long page) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, PAGE_SIZE - CHECKSUM_BYTES);
+        if (buffer.getInt(PAGE_SIZE - CHECKSUM_BYTES) != (int) crc.getValue()) {
+            throw new IOException("Page " + page + " of the paged store is corrupt");
+        }
+        buffer.rewind();
+        byte type = buffer.get();
+        int count = Short.toUnsignedInt(buffer.getShort());
+        if (type == LEAF) {
+            Node node = Node.leaf();
+            for (int i = 0; i < count; i++) {
+                node.keys.add(getKey(buffer));
+                if (buffer.get() == INLINE) {
+                    byte[] inline = new byte[buffer.getInt()];
+                    buffer.get(inline);
+                    node.values.add(Value.inline(inline));
+                } else {
+                    node.values.add(Value.overflow(buffer.getLong(), buffer.getInt()));
+                }
+            }
+            return node;
+        }
+        if (type == BRANCH) {
+            Node node = Node.branch();
+            node.children.add(buffer.getLong());
+            for (int i = 0; i < count; i++) {
+                node.keys.add(getKey(buffer));
+                node.children.add(buffer.getLong());
+            }
+            return node;
+        }
+        throw new IOException("Page " + page + " of the paged store is not a tree page");
+    }
+
+    private static void putKey(ByteBuffer buffer, byte[] key) {
+        buffer.put((byte) key.length).put(key);
+    }
+
+    private static byte[] getKey(ByteBuffer buffer) {
+        byte[] key = new byte[Byte.toUnsignedInt(buffer.get())];
+        buffer.get(key);
+        return key;
+    }
+
+    private static int encodedSize(Node node) {
+        int size = 3 + CHECKSUM_BYTES;
+        if (node.isLeaf) {
+            for (int i = 0; i < node.keys.size(); i++) {
+                size += entrySize(node.keys.get(i), node.values.get(i));
+            }
+        } else {
+            size += Long.BYTES;
+            for (byte[] key : node.keys) {
+                size += 1 + key.length + Long.BYTES;
+            }
+        }
+        return size;
+    }
+
+    private static int entrySize(byte[] key, Value value) {
+        return 1 + key.length + 1 + (value.inline != null ? Integer.BYTES + value.inline.length
+                : Long.BYTES + Integer.BYTES);
+    }
+
+    private void writeFreeList(TreeSet<Long> pages, long start) throws IOException {
+        if (start == NO_PAGE) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(((pages.size() + FREE_IDS_PER_PAGE - 1) / FREE_IDS_PER_PAGE)
+                * PAGE_SIZE);
+        for (long page : pages) {
+            buffer.putLong(page);
+        }
+        buffer.rewind();
+        writeFully(buffer, start * PAGE_SIZE);
+    }
+
+    private void writeHeader(long nextTxnId, int freeCount) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(PAGE_SIZE).putLong(nextTxnId).putLong(rootPage)
+                .putLong(pageCount).putLong(freeListStart).putInt(freeListPages).putInt(freeCount);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.rewind();
+        writeFully(buffer, (nextTxnId % HEADER_PAGES) * PAGE_SIZE);
+    }
+
+    // Adopts the intact header with the highest transaction number
+    private void readHeaders() throws IOException {
+        ByteBuffer best = null;
+        long bestTxnId = -1;
+        for (long slot = 0; slot < HEADER_PAGES; slot++) {
+            ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+            try {
+                readFully(buffer, slot * PAGE_SIZE);
+            } catch (EOFException e) {
+                continue;
+            }
+            buffer.rewind();
+            int headerBytes = 3 * Integer.BYTES + 4 * Long.BYTES + 2 * Integer.BYTES;
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.array(), 0, headerBytes);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(headerBytes) != (int) crc.getValue()
+                    || buffer.getInt(Integer.BYTES) != VERSION || buffer.getInt(2 * Integer.BYTES) != PAGE_SIZE) {
+                continue;
+            }
+            long slotTxnId = buffer.getLong(3 * Integer.BYTES);
+            if (slotTxnId > bestTxnId) {
+                best = buffer;
+                bestTxnId = slotTxnId;
+            }
+        }
+        if (best == null) {
+            throw new IOException("The paged store has no intact header");
+        }
+        best.position(3 * Integer.BYTES);
+        txnId = best.getLong();
+        rootPage = best.getLong();
+        pageCount = best.getLong();
+        freeListStart = best.getLong();
+        freeListPages = best.getInt();
+        int freeCount = best.getInt();
+
+        freePages = new TreeSet<>();
+        if (freeListStart != NO_PAGE && freeCount > 0) {
+            ByteBuffer buffer = ByteBuffer.allocate(freeCount * Long.BYTES);
+            readFully(buffer, freeListStart * PAGE_SIZE);
+            buffer.rewind();
+            for (int i = 0; i < freeCount; i++) {
+                freePages.add(buffer.getLong());
+            }
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("The paged store ends early at byte " + (position + buffer.position()));
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+    }
+
+    // ---- Keys ----
+
+    private static byte[] toKeyBytes(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0 || bytes.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Key must be 1 to " + MAX_KEY_BYTES + " bytes: " + key);
+        }
+        return bytes;
+    }
+
+    private static int search(List<byte[]> keys, byte[] key) {
+        int low = 0;
+        int high = keys.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = Arrays.compareUnsigned(keys.get(middle), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int childIndexFor(List<byte[]> keys, byte[] key) {
+        int index = search(keys, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        return key.length >= prefix.length
+                && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * A decoded tree page: a leaf of keys and values, or a branch of separator keys and child pages.
+     * Nodes in the page cache are shared and never changed; a node is copied before it is changed.
+     */
+    private static class Node {
+        private final boolean isLeaf;
+        private final List<byte[]> keys = new ArrayList<>();
+        private final List<Value> values;
+        private final List<Long> children;
+
+        private Node(boolean isLeaf) {
+            this.isLeaf = isLeaf;
+            this.values = isLeaf ? new ArrayList<>() : null;
+            this.children = isLeaf ? null : new ArrayList<>();
+        }
+
+        private static Node leaf() {
+            return new Node(true);
+        }
+
+        private static Node branch() {
+            return new Node(false);
+        }
+
+        private Node copy() {
+            Node copy = new Node(isLeaf);
+            copy.keys.addAll(keys);
+            if (isLeaf) {
+                copy.values.addAll(values);
+            } else {
+                copy.children.addAll(children);
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * A value as held in a leaf: its bytes, or where its own pages start and how long it is.
+     */
+    private static class Value {
+        private final byte[] inline;
+        private final long start;
+        private final int length;
+
+        private Value(byte[] inline, long start, int length) {
+            this.inline = inline;
+            this.start = start;
+            this.length = length;
+        }
+
+        private static Value inline(byte[] bytes) {
+            return new Value(bytes, NO_PAGE, bytes.length);
+        }
+
+        private static Value overflow(long start, int length) {
+            return new Value(null, start, length);
+        }
+    }
+
+    /**
+     * The outcome of inserting below a page: the page's new number, and the new right sibling if it split.
+     */
+    private static class Split {
+        private final long page;
+        private final byte[] separator;
+        private final long rightPage;
+
+        private Split(long page, byte[] separator, long rightPage) {
+            this.page = page;
+            this.separator = separator;
+            this.rightPage = rightPage;
+        }
+    }
+}
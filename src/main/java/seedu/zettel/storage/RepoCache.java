@@ -0,0 +1,82 @@
+package seedu.zettel.storage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Keeps the repositories switched away from loaded in memory, least recently used first out,
+ * within a byte budget, so that switching back to one does not load it again.
+ * Only the notes' metadata counts towards the budget; bodies are kept in the body cache, which has its own.
+ */
+class RepoCache {
+    /** Byte budget used when none is configured. */
+    static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private final long budgetBytes;
+    private final LinkedHashMap<String, RepoSnapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+
+    /**
+     * Constructs a RepoCache with the given budget.
+     *
+     * @param budgetBytes the most bytes of notes to keep; 0 keeps no repository
+     */
+    RepoCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Keeps a repository, evicting the least recently used ones until the budget is met again.
+     * A repository larger than the whole budget is not kept at all.
+     *
+     * @param snapshot the repository to keep, replacing any kept under the same name
+     * @return the snapshots dropped to make room, possibly including the one given; the caller closes them
+     */
+    List<RepoSnapshot> put(RepoSnapshot snapshot) {
+        List<RepoSnapshot> evicted = new ArrayList<>();
+        if (snapshot.getEstimatedBytes() > budgetBytes) {
+            evicted.add(snapshot);
+            return evicted;
+        }
+        RepoSnapshot replaced = take(snapshot.repoName);
+        if (replaced != null) {
+            evicted.add(replaced);
+        }
+        snapshots.put(snapshot.repoName, snapshot);
+        residentBytes += snapshot.getEstimatedBytes();
+
+        Iterator<RepoSnapshot> eldest = snapshots.values().iterator();
+        while (residentBytes > budgetBytes && eldest.hasNext()) {
+            RepoSnapshot dropped = eldest.next();
+            eldest.remove();
+            residentBytes -= dropped.getEstimatedBytes();
+            evicted.add(dropped);
+        }
+        return evicted;
+    }
+
+    /**
+     * Removes and returns a kept repository.
+     *
+     * @param repoName the repository name
+     * @return the repository's snapshot, or null if it is not kept
+     */
+    RepoSnapshot take(String repoName) {
+        RepoSnapshot snapshot = snapshots.remove(repoName);
+        if (snapshot != null) {
+            residentBytes -= snapshot.getEstimatedBytes();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets the estimated bytes of all kept repositories.
+     *
+     * @return the resident bytes
+     */
+    long getResidentBytes() {
+        return residentBytes;
+    }
+}
@@ -0,0 +1,132 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * In-memory record of the body files present in a repository's notes/ and archive/ directories.
+ * Built from one directory scan when the repository is validated, then kept up to date as
+ * body files are created, moved and deleted, so that the directories do not have to be scanned again.
+ */
+public class RepoManifest {
+    private final Set<String> noteFiles;
+    private final Set<String> archiveFiles;
+
+    private RepoManifest(Set<String> noteFiles, Set<String> archiveFiles) {
+        this.noteFiles = noteFiles;
+        this.archiveFiles = archiveFiles;
+    }
+
+    /**
+     * Builds a manifest by listing the body files in the notes and archive directories.
+     * Files are recorded by their path relative to the directory, as given by the layout.
+     *
+     * @param notesDir the notes/ directory
+     * @param archiveDir the archive/ directory
+     * @param layout the layout the body files are arranged in
+     * @return the manifest of both directories
+     */
+    static RepoManifest scan(Path notesDir, Path archiveDir, BodyLayout layout) {
+        return new RepoManifest(listBodyFiles(notesDir, layout), listBodyFiles(archiveDir, layout));
+    }
+
+    /**
+     * Builds a manifest from the body files the index expects, without touching the disk.
+     * Only valid for a repository that has not changed since it was last validated.
+     *
+     * @param expectedFilesMap map of expected filenames -> isArchived flag
+     * @return the manifest of the expected files
+     */
+    static RepoManifest fromExpected(Map<String, Boolean> expectedFilesMap) {
+        Set<String> noteFiles = new HashSet<>();
+        Set<String> archiveFiles = new HashSet<>();
+        expectedFilesMap.forEach((filename, isArchived) -> (isArchived ? archiveFiles : noteFiles).add(filename));
+        return new RepoManifest(noteFiles, archiveFiles);
+    }
+
+    private static Set<String> listBodyFiles(Path dir, BodyLayout layout) {
+        Set<String> filenames = new HashSet<>();
+        try (Stream<Path> stream = Files.walk(dir, layout.getScanDepth())) {
+            stream.filter(p -> p.getFileName().toString().endsWith(".txt") && Files.isRegularFile(p))
+                    .forEach(p -> filenames.add(dir.relativize(p).toString().replace('\\', '/')));
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Failed to scan " + dir + ": " + e.getMessage());
+        }
+        return filenames;
+    }
+
+    /**
+     * Checks whether a body file is present.
+     *
+     * @param filename the body file name
+     * @param isArchived true to look in archive/, false to look in notes/
+     * @return true if the file is recorded as present
+     */
+    public boolean contains(String filename, boolean isArchived) {
+        return filesIn(isArchived).contains(filename);
+    }
+
+    /**
+     * Records that a body file was created.
+     *
+     * @param filename the body file name
+     * @param isArchived true if it was created in archive/, false for notes/
+     */
+    void add(String filename, boolean isArchived) {
+        filesIn(isArchived).add(filename);
+    }
+
+    /**
+     * Records that a body file was deleted.
+     *
+     * @param filename the body file name
+     * @param isArchived true if it was deleted from archive/, false for notes/
+     */
+    void remove(String filename, boolean isArchived) {
+        filesIn(isArchived).remove(filename);
+    }
+
+    /**
+     * Records that a body file was moved between notes/ and archive/.
+     *
+     * @param filename the body file name
+     * @param toArchive true if it moved into archive/, false if it moved into notes/
+     */
+    void move(String filename, boolean toArchive) {
+        filesIn(!toArchive).remove(filename);
+        filesIn(toArchive).add(filename);
+    }
+
+    /**
+     * Gets the body files recorded in one directory.
+     *
+     * @param isArchived true for archive/, false for notes/
+     * @return an unmodifiable view of the file names
+     */
+    public Set<String> getFilenames(boolean isArchived) {
+        return Collections.unmodifiableSet(filesIn(isArchived));
+    }
+
+    /**
+     * Checks whether another manifest records exactly the same body files. Comparing the manifest kept
+     * up to date since validation with a fresh scan finds any body file that went missing, or appeared
+     * as an orphan, without Zettel knowing.
+     *
+     * @param other the manifest to compare with
+     * @return true if both record the same files in notes/ and in archive/
+     */
+    boolean matches(RepoManifest other) {
+        return noteFiles.equals(other.noteFiles) && archiveFiles.equals(other.archiveFiles);
+    }
+
+    private Set<String> filesIn(boolean isArchived) {
+        return isArchived ? archiveFiles : noteFiles;
+    }
+}
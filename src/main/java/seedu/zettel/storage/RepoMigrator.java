@@ -0,0 +1,420 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import seedu.zettel.Note;
+import seedu.zettel.exceptions.ZettelException;
+
+/**
+ * Brings the stored notes of a repository in line with its settings file when the repository is loaded:
+ * moves them into or out of the paged store, moves body files into another layout, packs or unpacks
+ * archived bodies, rewrites the index in another format, and moves bodies into or out of the content store.
+ * Every migration writes the new copy before it removes the old one, so an interrupted migration is
+ * finished on the next load.
+ */
+class RepoMigrator {
+    private final FileSystemManager fileSystemManager;
+    private final NoteSerializer noteSerializer;
+    private final BodyCache bodyCache;
+    private final FileSyncer fileSyncer;
+    private final int pagedCachePages;
+
+    /**
+     * Constructs a RepoMigrator.
+     *
+     * @param fileSystemManager locates the files of each repository
+     * @param noteSerializer reads and writes indexes
+     * @param bodyCache the body cache, cleared when bodies move
+     * @param fileSyncer forces migrated files to disk before their old copies are removed
+     * @param pagedCachePages the number of pages a paged store keeps cached
+     */
+    RepoMigrator(FileSystemManager fileSystemManager, NoteSerializer noteSerializer, BodyCache bodyCache,
+                 FileSyncer fileSyncer, int pagedCachePages) {
+        this.fileSystemManager = fileSystemManager;
+        this.noteSerializer = noteSerializer;
+        this.bodyCache = bodyCache;
+        this.fileSyncer = fileSyncer;
+        this.pagedCachePages = pagedCachePages;
+    }
+
+    /**
+     * Opens the paged store of a repository and reads its notes, moving them into the store first if they
+     * are still in an index and body files. Every note is written to the store, and the store committed,
+     * before the index, body files, pack and objects are deleted, so an interrupted move is finished
+     * on the next load. Bodies are stored plain, whatever the repository's other settings ask.
+     *
+     * @param repo the repository
+     * @param repoSettings the settings of the repository
+     * @return the notes of the repository
+     * @throws IOException if the paged store cannot be opened, read or written
+     */
+    ArrayList<Note> migrateIntoPagedStore(RepoSnapshot repo, Settings repoSettings) throws IOException {
+        Path indexPath = fileSystemManager.getIndexPath(repo.repoName);
+        if (repo.pagedStore == null) {
+            repo.pagedStore = PagedNoteStore.open(fileSystemManager.getPagedStorePath(repo.repoName),
+                    pagedCachePages, noteSerializer);
+        }
+        ArrayList<Note> notes = repo.pagedStore.isImported()
+                ? repo.pagedStore.readNotes()
+                : importIntoPagedStore(repo, repoSettings, indexPath);
+        if (Files.exists(indexPath) || Files.exists(noteSerializer.getBinaryIndexPath(indexPath))) {
+            deleteFileStorage(repo, indexPath);
+        }
+        return notes;
+    }
+
+    // Reads the notes and bodies where the files engine keeps them and writes them all to the paged store
+    private ArrayList<Note> importIntoPagedStore(RepoSnapshot repo, Settings repoSettings, Path indexPath)
+            throws IOException {
+        if (Files.notExists(indexPath) && Files.notExists(noteSerializer.getBinaryIndexPath(indexPath))) {
+            repo.pagedStore.importNotes(List.of(), null);
+            return new ArrayList<>();
+        }
+        repo.layout = fileSystemManager.readBodyLayout(repo.repoName);
+        repo.openArchivePack(repoSettings);
+        BodyLocator source = new BodyLocator(repo.notesDir, repo.archiveDir, repo.layout, repo.archivePack,
+                new BodyCodec(fileSystemManager.getDictionariesPath(repo.repoName)),
+                new ContentStore(fileSystemManager.getObjectsPath(repo.repoName)), null);
+        ArrayList<Note> notes = noteSerializer.readNotes(indexPath, source);
+        repo.pagedStore.importNotes(notes, source);
+        System.out.println("Moved " + notes.size() + " notes of /" + repo.repoName + " into "
+                + FileSystemManager.REPO_PAGED_STORE + ".");
+        return notes;
+    }
+
+    // Deletes what the files engine kept once the notes are committed to the paged store, the index last
+    private void deleteFileStorage(RepoSnapshot repo, Path indexPath) throws IOException {
+        if (repo.archivePack != null) {
+            repo.archivePack.close();
+            repo.archivePack = null;
+        }
+        deleteContents(repo.notesDir);
+        deleteContents(repo.archiveDir);
+        deleteContents(fileSystemManager.getObjectsPath(repo.repoName));
+        Files.deleteIfExists(fileSystemManager.getObjectsPath(repo.repoName));
+        Files.deleteIfExists(fileSystemManager.getBodyManifestPath(repo.repoName));
+        Files.deleteIfExists(noteSerializer.getJournalPath(indexPath));
+        Files.deleteIfExists(noteSerializer.getBinaryIndexPath(indexPath));
+        Files.deleteIfExists(indexPath);
+    }
+
+    // Deletes everything inside a directory, keeping the directory itself
+    private static void deleteContents(Path dir) throws IOException {
+        if (Files.notExists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted((a, b) -> b.getNameCount() - a.getNameCount())
+                    .collect(Collectors.toList())) {
+                if (!path.equals(dir)) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the notes of a repository out of its paged store, if it has one, into an index and
+     * body files. The index and every body file are written before the paged store is deleted, so an
+     * interrupted move is started again on the next load.
+     *
+     * @param repo the repository
+     * @return true if the repository has no paged store left; false if its notes could not be moved out
+     */
+    boolean migrateOutOfPagedStore(RepoSnapshot repo) {
+        Path storePath = fileSystemManager.getPagedStorePath(repo.repoName);
+        if (repo.pagedStore != null) {
+            repo.pagedStore.close();
+            repo.pagedStore = null;
+        }
+        if (Files.notExists(storePath)) {
+            return true;
+        }
+        repo.layout = fileSystemManager.readBodyLayout(repo.repoName);
+        int movedCount;
+        try {
+            try (PagedNoteStore store = PagedNoteStore.open(storePath, pagedCachePages, noteSerializer)) {
+                ArrayList<Note> notes = store.readNotes();
+                for (Note note : notes) {
+                    writeBodyFile(repo, note, store.readBody(note.getId()));
+                }
+                repo.indexJournal.compact(notes, fileSystemManager.getIndexPath(repo.repoName));
+                fileSyncer.syncAll();
+                movedCount = notes.size();
+            }
+            // The store is closed by now, so it can be deleted on every platform
+            Files.delete(storePath);
+        } catch (IOException e) {
+            System.out.println("Error moving notes of /" + repo.repoName + " out of "
+                    + FileSystemManager.REPO_PAGED_STORE + ", keeping it: " + e.getMessage());
+            return false;
+        }
+        // The body files just written have not been validated
+        repo.manifest = null;
+        System.out.println("Moved " + movedCount + " notes of /" + repo.repoName + " out of "
+                + FileSystemManager.REPO_PAGED_STORE + ".");
+        return true;
+    }
+
+    /**
+     * Moves the body files of a repository into the layout set in its settings file,
+     * if they are arranged in another layout. Files are moved one by one and the new layout is recorded
+     * only once all of them have moved, so an interrupted migration is finished on the next load.
+     *
+     * @param repo the repository
+     * @param repoSettings the settings of the repository
+     */
+    void migrateBodyLayout(RepoSnapshot repo, Settings repoSettings) {
+        repo.layout = fileSystemManager.readBodyLayout(repo.repoName);
+        BodyLayout wantedLayout = BodyLayout.fromSetting(repoSettings.getString(
+                Settings.BODY_LAYOUT, repo.layout.getSettingValue()));
+        if (wantedLayout == repo.layout) {
+            return;
+        }
+
+        Path notesDir = repo.notesDir;
+        Path archiveDir = repo.archiveDir;
+        List<Note> notes = noteSerializer.loadNotes(fileSystemManager.getIndexPath(repo.repoName), notesDir,
+                archiveDir, repo.layout);
+        // An empty list may mean the index could not be read, so only switch if there are no body files to lose
+        if (notes.isEmpty()) {
+            RepoManifest present = RepoManifest.scan(notesDir, archiveDir, repo.layout);
+            if (!present.getFilenames(false).isEmpty() || !present.getFilenames(true).isEmpty()) {
+                return;
+            }
+        }
+        try {
+            for (Note note : notes) {
+                fileSystemManager.relocateBodyFile(note.isArchived() ? archiveDir : notesDir,
+                        repo.layout.getBodyFile(note), wantedLayout.getBodyFile(note));
+            }
+            fileSystemManager.writeBodyLayout(repo.repoName, wantedLayout);
+        } catch (ZettelException e) {
+            System.out.println("Error migrating body files of /" + repo.repoName + ": " + e.getMessage());
+            return;
+        }
+        fileSystemManager.removeEmptyShardDirectories(notesDir);
+        fileSystemManager.removeEmptyShardDirectories(archiveDir);
+
+        repo.layout = wantedLayout;
+        bodyCache.clear();
+        repo.manifest = null;
+        if (repo.bodyManifest != null) {
+            repo.bodyManifest.clear();
+        }
+        System.out.println("Migrated body files of /" + repo.repoName + " to " + wantedLayout.getSettingValue()
+                + " layout.");
+    }
+
+    /**
+     * Packs the archived body files of a repository into its segments, or unpacks them into
+     * body files again, to match its archive storage setting. Each body is on disk in its new place
+     * before its old copy is removed, so an interrupted migration is finished on the next load.
+     *
+     * @param repo the repository, with its pack opened
+     * @param notes the notes just loaded from the index
+     */
+    void migrateArchiveStorage(RepoSnapshot repo, List<Note> notes) {
+        if (repo.archivePack == null) {
+            return;
+        }
+        boolean shouldPack = repo.archiveStorage == ArchiveStorage.PACKED;
+        int migratedCount = 0;
+        try {
+            for (Note note : notes) {
+                if (!note.isArchived()) {
+                    continue;
+                }
+                String bodyFile = repo.layout.getBodyFile(note);
+                Path bodyPath = repo.archiveDir.resolve(bodyFile);
+                if (shouldPack && Files.exists(bodyPath)) {
+                    // An empty file next to a packed body is a placeholder, not a newer body
+                    if (!repo.archivePack.contains(note.getId()) || Files.size(bodyPath) > 0) {
+                        repo.archivePack.append(note.getId(), Files.readAllBytes(bodyPath));
+                    }
+                    Files.delete(bodyPath);
+                } else if (!shouldPack && repo.archivePack.contains(note.getId())) {
+                    byte[] body = repo.archivePack.read(note.getId());
+                    Files.createDirectories(bodyPath.getParent());
+                    AtomicFileWriter.write(bodyPath, out -> out.write(body));
+                    repo.archivePack.remove(note.getId());
+                } else {
+                    continue;
+                }
+                migratedCount++;
+                repo.bodyManifest.stamp(repo.getBodyManifestKey(note, true), bodyPath);
+                if (repo.manifest != null) {
+                    if (shouldPack) {
+                        repo.manifest.remove(bodyFile, true);
+                    } else {
+                        repo.manifest.add(bodyFile, true);
+                    }
+                }
+            }
+            if (!shouldPack && repo.archivePack.getNoteIds().isEmpty()) {
+                repo.archivePack.delete();
+                repo.archivePack = null;
+            } else if (migratedCount > 0) {
+                repo.archivePack.scheduleCompaction();
+            }
+        } catch (IOException e) {
+            System.out.println("Error " + (shouldPack ? "packing" : "unpacking") + " archived notes of /"
+                    + repo.repoName + ": " + e.getMessage());
+            return;
+        }
+        if (migratedCount > 0) {
+            System.out.println((shouldPack ? "Packed " : "Unpacked ") + migratedCount
+                    + " archived note(s) of /" + repo.repoName + ".");
+        }
+    }
+
+    /**
+     * Rewrites the index of a repository in the format set in its settings file, moves its bodies into or
+     * out of its content store as its body store setting asks, and then deletes the objects no note refers to,
+     * unless the index could not be read in full.
+     *
+     * @param repo the repository, with its content store and body locator opened
+     * @param repoSettings the settings of the repository
+     * @param notes the notes just loaded from the index
+     */
+    void migrateIndexAndBodies(RepoSnapshot repo, Settings repoSettings, List<Note> notes) {
+        Path indexPath = fileSystemManager.getIndexPath(repo.repoName);
+        boolean hasSkippedRecords = noteSerializer.hasSkippedRecords();
+        migrateIndexFormat(repo, repoSettings, notes, indexPath);
+        migrateBodyStore(repo, notes, indexPath);
+        // An empty list may mean the index could not be read, and a skipped record may refer to an object
+        // the notes read do not; a content-store body cannot be rebuilt, so keep every object then
+        if (!notes.isEmpty() && !hasSkippedRecords) {
+            repo.contentStore.deleteUnreferenced();
+        }
+    }
+
+    private void migrateIndexFormat(RepoSnapshot repo, Settings repoSettings, List<Note> notes, Path indexPath) {
+        IndexFormat format = IndexFormat.fromSetting(repoSettings.getString(
+                Settings.INDEX_FORMAT, IndexFormat.TEXT.getSettingValue()));
+        repo.indexJournal.setFormat(format);
+
+        // An empty list may mean the index could not be read, so never migrate it over the stored index
+        if (notes.isEmpty() || noteSerializer.getStoredFormat(indexPath) == format) {
+            return;
+        }
+        try {
+            repo.indexJournal.compact(notes, indexPath);
+            if (noteSerializer.getStoredFormat(indexPath) == format) {
+                System.out.println("Migrated index of /" + repo.repoName + " to " + format.getSettingValue()
+                        + " format.");
+            }
+        } catch (IOException e) {
+            repo.indexJournal.reset();
+            System.out.println("Error migrating index of /" + repo.repoName + ": " + e.getMessage());
+        }
+    }
+
+    private void migrateBodyStore(RepoSnapshot repo, List<Note> notes, Path indexPath) {
+        boolean toContent = repo.bodyStore == BodyStore.CONTENT;
+        List<Note> movingNotes = notes.stream()
+                .filter(note -> (note.getBodyHash() == null) == toContent)
+                .collect(Collectors.toList());
+        if (movingNotes.isEmpty()) {
+            return;
+        }
+
+        Map<Note, String> oldHashes = new HashMap<>();
+        Map<Note, String> newHashes = new HashMap<>();
+        try {
+            for (Note note : movingNotes) {
+                if (toContent) {
+                    newHashes.put(note, repo.contentStore.put(repo.bodyLocator.read(note)));
+                } else {
+                    writeBodyFile(repo, note, repo.contentStore.read(note.getBodyHash()));
+                    oldHashes.put(note, note.getBodyHash());
+                }
+            }
+        } catch (IOException e) {
+            // Objects written so far are deleted as unreferenced; body files written so far are rewritten next time
+            repo.contentStore.recount(notes);
+            System.out.println("Error moving note bodies of /" + repo.repoName + ": " + e.getMessage());
+            return;
+        }
+
+        Map<Note, String> oldCodecs = new HashMap<>();
+        for (Note note : movingNotes) {
+            oldCodecs.put(note, note.getBodyCodec());
+            note.setBodyCodec(null);
+            note.setBodyHash(newHashes.get(note));
+        }
+        try {
+            repo.indexJournal.save(notes, indexPath);
+            fileSyncer.syncAll();
+        } catch (IOException e) {
+            repo.indexJournal.reset();
+            for (Note note : movingNotes) {
+                note.setBodyCodec(oldCodecs.get(note));
+                note.setBodyHash(oldHashes.get(note));
+            }
+            repo.contentStore.recount(notes);
+            System.out.println("Error moving note bodies of /" + repo.repoName + ": " + e.getMessage());
+            return;
+        }
+
+        for (Note note : movingNotes) {
+            try {
+                if (toContent) {
+                    deleteBodyFile(repo, note);
+                } else {
+                    repo.contentStore.release(oldHashes.get(note));
+                }
+            } catch (IOException e) {
+                System.out.println("Warning: failed to remove old copy of note body " + note.getId()
+                        + ": " + e.getMessage());
+            }
+        }
+        bodyCache.clear();
+        System.out.println("Moved " + movingNotes.size() + " note bodies of /" + repo.repoName
+                + (toContent ? " into the content store (" + repo.contentStore.getObjectCount() + " distinct)."
+                        : " out of the content store."));
+    }
+
+    // Writes a plain body to the file, or pack entry, it belongs in when bodies are stored as files
+    private static void writeBodyFile(RepoSnapshot repo, Note note, byte[] body) throws IOException {
+        String bodyFile = repo.layout.getBodyFile(note);
+        if (note.isArchived() && repo.archivePack != null && repo.archiveStorage == ArchiveStorage.PACKED) {
+            repo.archivePack.append(note.getId(), body);
+            return;
+        }
+        Path bodyPath = note.isArchived() ? repo.getArchivePath(note) : repo.getNotePath(note);
+        Files.createDirectories(bodyPath.getParent());
+        AtomicFileWriter.write(bodyPath, out -> out.write(body));
+        if (repo.manifest != null) {
+            repo.manifest.add(bodyFile, note.isArchived());
+        }
+        if (repo.bodyManifest != null) {
+            repo.bodyManifest.record(repo.getBodyManifestKey(note, note.isArchived()), bodyPath, body);
+        }
+    }
+
+    // Removes a body file, or pack entry, whose body has moved into the content store
+    private static void deleteBodyFile(RepoSnapshot repo, Note note) throws IOException {
+        if (note.isArchived() && repo.archivePack != null && repo.archivePack.contains(note.getId())) {
+            repo.archivePack.remove(note.getId());
+            repo.archivePack.scheduleCompaction();
+            return;
+        }
+        String bodyFile = repo.layout.getBodyFile(note);
+        Files.deleteIfExists(note.isArchived() ? repo.getArchivePath(note) : repo.getNotePath(note));
+        if (repo.manifest != null) {
+            repo.manifest.remove(bodyFile, note.isArchived());
+        }
+        if (repo.bodyManifest != null) {
+            repo.bodyManifest.remove(repo.getBodyManifestKey(note, note.isArchived()));
+        }
+    }
+}
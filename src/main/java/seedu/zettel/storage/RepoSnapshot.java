@@ -0,0 +1,205 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import seedu.zettel.Note;
+
+/**
+ * Everything {@link Storage} holds about one repository: the objects that read and write its notes,
+ * filled in as it is loaded, and its notes once it is switched away from. Kept in the repository cache
+ * then, so that switching back only has to make it current again instead of loading the repository again.
+ */
+class RepoSnapshot {
+    // Rough heap cost of a Note and its collections, before counting the characters of its strings
+    private static final long NOTE_OVERHEAD_BYTES = 256;
+    private static final long LINK_BYTES = 64;
+
+    final String repoName;
+    final Path notesDir;
+    final Path archiveDir;
+
+    // Layout the body files are arranged in
+    BodyLayout layout;
+
+    // How archived bodies are stored, and the pack if there is one
+    ArchiveStorage archiveStorage = ArchiveStorage.FILES;
+    ArchivePack archivePack;
+
+    // Compresses archived bodies, and finds and reads stored bodies
+    BodyCodec bodyCodec;
+    BodyLocator bodyLocator;
+
+    // Where bodies are stored, and the store of bodies by content hash
+    BodyStore bodyStore = BodyStore.FILES;
+    ContentStore contentStore;
+
+    // Body files, kept in step with file operations after validation; null until validated
+    RepoManifest manifest;
+
+    // Size, modification time and hash of the body files, and the index when last read or saved
+    BodyManifest bodyManifest;
+    String indexGeneration;
+
+    // Saves the index changes
+    final IndexJournal indexJournal;
+
+    // The paged store, if the repository uses the paged engine
+    PagedNoteStore pagedStore;
+
+    // Tag counts last written to the tag summary; null if not known
+    Map<String, Integer> tagCounts;
+
+    // The notes, while the repository is kept in the repository cache
+    ArrayList<Note> notes = new ArrayList<>();
+    private long estimatedBytes;
+
+    /**
+     * Constructs the state of a repository that is not loaded yet.
+     *
+     * @param repoName the repository name
+     * @param notesDir the repository's notes directory
+     * @param archiveDir the repository's archive directory
+     * @param layout the layout its body files are arranged in
+     * @param indexJournal the journal its index changes are saved through
+     */
+    RepoSnapshot(String repoName, Path notesDir, Path archiveDir, BodyLayout layout, IndexJournal indexJournal) {
+        this.repoName = repoName;
+        this.notesDir = notesDir;
+        this.archiveDir = archiveDir;
+        this.layout = layout;
+        this.indexJournal = indexJournal;
+    }
+
+    /**
+     * Takes the repository's notes as they are when switching away from it, to be kept in the repository cache.
+     *
+     * @param notes the repository's notes; the list is copied, the notes are not
+     */
+    void keep(List<Note> notes) {
+        this.notes = new ArrayList<>(notes);
+        this.estimatedBytes = estimateBytes(this.notes);
+    }
+
+    /**
+     * Gets roughly how much heap the kept notes take, not counting bodies, which live in the body cache.
+     *
+     * @return the estimated size in bytes
+     */
+    long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Opens the pack of archived bodies, if the repository's settings ask for packing
+     * or a pack is left over from when they did.
+     *
+     * @param repoSettings the settings of the repository
+     */
+    void openArchivePack(Settings repoSettings) {
+        archiveStorage = ArchiveStorage.fromSetting(repoSettings.getString(
+                Settings.ARCHIVE_STORAGE, ArchiveStorage.FILES.getSettingValue()));
+        if (archivePack != null || (archiveStorage == ArchiveStorage.FILES && !ArchivePack.exists(archiveDir))) {
+            return;
+        }
+        try {
+            archivePack = new ArchivePack(archiveDir, ArchivePack.DEFAULT_SEGMENT_BYTES);
+        } catch (IOException e) {
+            archiveStorage = ArchiveStorage.FILES;
+            System.out.println("Error opening archive segments of /" + repoName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the path to a note's body file in the notes folder, as placed by the layout.
+     *
+     * @param note the note
+     * @return the path to the note's body file in the notes folder
+     */
+    Path getNotePath(Note note) {
+        return notesDir.resolve(layout.getBodyFile(note));
+    }
+
+    /**
+     * Gets the path to a note's body file in the archive folder, as placed by the layout.
+     *
+     * @param note the note
+     * @return the path to the note's body file in the archive folder
+     */
+    Path getArchivePath(Note note) {
+        return archiveDir.resolve(layout.getBodyFile(note));
+    }
+
+    // Path of a note's body file relative to the repository; null if its body is in the content store or pack
+    String getBodyManifestKey(Note note) {
+        if (note.getBodyHash() != null && contentStore != null) {
+            return null;
+        }
+        if (note.isArchived() && archivePack != null && archivePack.contains(note.getId())) {
+            return null;
+        }
+        return getBodyManifestKey(note, note.isArchived());
+    }
+
+    String getBodyManifestKey(Note note, boolean isArchived) {
+        return (isArchived ? FileSystemManager.REPO_ARCHIVE : FileSystemManager.REPO_NOTES) + "/"
+                + layout.getBodyFile(note);
+    }
+
+    /**
+     * Lists the body files the given notes should have in notes/ and archive/.
+     * Bodies held in the content store or the pack have no body file, so they are left out.
+     *
+     * @param notes the notes of the repository
+     * @return map of body files, relative to notes/ or archive/ -> isArchived flag
+     */
+    Map<String, Boolean> getExpectedBodyFiles(List<Note> notes) {
+        Map<String, Boolean> expectedFilesMap = new HashMap<>();
+        for (Note note : notes) {
+            if (note.getBodyHash() != null) {
+                continue;
+            }
+            if (!note.isArchived() || archivePack == null || !archivePack.contains(note.getId())) {
+                expectedFilesMap.put(layout.getBodyFile(note), note.isArchived());
+            }
+        }
+        return expectedFilesMap;
+    }
+
+    /**
+     * Releases what the repository holds open, once it is dropped.
+     */
+    void close() {
+        if (bodyManifest != null) {
+            bodyManifest.save();
+        }
+        if (archivePack != null) {
+            archivePack.close();
+        }
+        if (pagedStore != null) {
+            pagedStore.close();
+        }
+    }
+
+    private static long estimateBytes(List<Note> notes) {
+        long bytes = 0;
+        for (Note note : notes) {
+            bytes += NOTE_OVERHEAD_BYTES + charBytes(note.getId()) + charBytes(note.getTitle())
+                    + charBytes(note.getFilename()) + charBytes(note.getArchiveName())
+                    + charBytes(note.getBodyCodec()) + charBytes(note.getBodyHash());
+            for (String tag : note.getTagsView()) {
+                bytes += charBytes(tag);
+            }
+            bytes += LINK_BYTES * (note.getOutgoingLinksView().size() + note.getIncomingLinksView().size());
+        }
+        return bytes;
+    }
+
+    private static long charBytes(String text) {
+        return text == null ? 0 : 2L * text.length();
+    }
+}
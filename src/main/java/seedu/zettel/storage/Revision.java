@@ -0,0 +1,42 @@
+package seedu.zettel.storage;
+
+import java.time.Instant;
+
+/**
+ * One recorded version of a note's body, as listed by {@link Storage#getHistory(seedu.zettel.Note)}.
+ * Revisions of a note are numbered from 1, oldest first.
+ */
+public class Revision {
+    private final int number;
+    private final Instant recordedAt;
+    private final int lineCount;
+    private final boolean isKeyframe;
+
+    Revision(int number, Instant recordedAt, int lineCount, boolean isKeyframe) {
+        this.number = number;
+        this.recordedAt = recordedAt;
+        this.lineCount = lineCount;
+        this.isKeyframe = isKeyframe;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Tells whether the revision is stored as the full body rather than as changes to the revision before it.
+     *
+     * @return true if the revision is stored in full
+     */
+    public boolean isKeyframe() {
+        return isKeyframe;
+    }
+}
@@ -0,0 +1,325 @@
+package seedu.zettel.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of every version of each note's body, kept as one file per note in a repository's
+ * history/ directory.
+ * <p>
+ * A version is stored as the line-level difference from the version before it, computed by {@link LineDiff},
+ * except every {@link #KEYFRAME_INTERVAL}th version, which is stored in full as a keyframe. Any version is
+ * therefore rebuilt from the nearest keyframe before it with fewer than {@code KEYFRAME_INTERVAL} differences
+ * applied. A version is also stored in full when its difference would be no smaller, or when too many lines
+ * changed for the difference to be worth computing.
+ * <p>
+ * Each record is its revision number, time, kind, line count and payload length, then the payload and a
+ * CRC32C of all of it. A record cut short by a crash is ignored when reading and cut off before the next append.
+ */
+final class RevisionLog {
+    /** Number of versions from one keyframe to the next, bounding the differences applied to rebuild a version. */
+    static final int KEYFRAME_INTERVAL = 16;
+
+    /** Most inserted and deleted lines a difference is computed for; past it the version is stored in full. */
+    static final int MAX_DIFF_EDITS = 1000;
+
+    private static final String LOG_SUFFIX = ".log";
+    private static final byte KEYFRAME = 0;
+    private static final byte DELTA = 1;
+
+    // revision (int), time (long), kind (byte), line count (int), payload length (int)
+    private static final int HEADER_BYTES = 21;
+    private static final int CHECKSUM_BYTES = 4;
+
+    private final Path historyDir;
+    private final FileSyncer fileSyncer;
+
+    /**
+     * Constructs a log over a repository's history directory, which is created on the first append.
+     *
+     * @param historyDir the repository's history/ directory
+     * @param fileSyncer syncs the log files as the configured durability requires
+     */
+    RevisionLog(Path historyDir, FileSyncer fileSyncer) {
+        this.historyDir = historyDir;
+        this.fileSyncer = fileSyncer;
+    }
+
+    /**
+     * Tells whether any version of a note is recorded.
+     *
+     * @param noteId the note's ID
+     * @return true if the note has a log with at least one version
+     * @throws IOException if the log cannot be read
+     */
+    boolean hasHistory(String noteId) throws IOException {
+        Path logPath = getLogPath(noteId);
+        return Files.exists(logPath) && !scan(logPath).entries.isEmpty();
+    }
+
+    /**
+     * Records a version of a note's body, unless it is the same as the last version recorded.
+     *
+     * @param noteId the note's ID
+     * @param body the body
+     * @param recordedAt the time to record the version at
+     * @return true if a version was appended
+     * @throws IOException if the log cannot be read or written
+     */
+    boolean append(String noteId, String body, Instant recordedAt) throws IOException {
+        Path logPath = getLogPath(noteId);
+        Files.createDirectories(historyDir);
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            Scan scan = scan(channel);
+            List<String> lines = LineDiff.toLines(body);
+            int number = scan.entries.size() + 1;
+            byte kind = KEYFRAME;
+            byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+            if (!scan.entries.isEmpty()) {
+                List<String> lastLines = rebuild(channel, scan.entries, scan.entries.size() - 1);
+                if (lastLines.equals(lines)) {
+                    return false;
+                }
+                if (number - 1 - scan.lastKeyframeIndex() < KEYFRAME_INTERVAL) {
+                    List<LineDiff.Run> runs = LineDiff.diff(lastLines, lines, MAX_DIFF_EDITS);
+                    byte[] delta = runs == null ? null : encodeDelta(runs);
+                    if (delta != null && delta.length < payload.length) {
+                        kind = DELTA;
+                        payload = delta;
+                    }
+                }
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length + CHECKSUM_BYTES);
+            record.putInt(number).putLong(recordedAt.toEpochMilli()).put(kind).putInt(lines.size())
+                    .putInt(payload.length).put(payload);
+            record.putInt(checksum(record.array(), HEADER_BYTES + payload.length));
+            record.flip();
+            channel.truncate(scan.validEnd);
+            channel.position(scan.validEnd);
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        }
+        fileSyncer.written(logPath);
+        return true;
+    }
+
+    /**
+     * Lists the recorded versions of a note, oldest first.
+     *
+     * @param noteId the note's ID
+     * @return the versions; empty if none is recorded
+     * @throws IOException if the log cannot be read
+     */
+    List<Revision> list(String noteId) throws IOException {
+        Path logPath = getLogPath(noteId);
+        if (Files.notExists(logPath)) {
+            return List.of();
+        }
+        List<Revision> revisions = new ArrayList<>();
+        for (Entry entry : scan(logPath).entries) {
+            revisions.add(entry.revision);
+        }
+        return revisions;
+    }
+
+    /**
+     * Rebuilds one version of a note's body, applying fewer than {@link #KEYFRAME_INTERVAL} differences.
+     *
+     * @param noteId the note's ID
+     * @param number the revision number, from 1
+     * @return the body as it was at that version, or null if no such version is recorded
+     * @throws IOException if the log cannot be read, or a record needed is damaged
+     */
+    String read(String noteId, int number) throws IOException {
+        Path logPath = getLogPath(noteId);
+        if (number < 1 || Files.notExists(logPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            Scan scan = scan(channel);
+            if (number > scan.entries.size()) {
+                return null;
+            }
+            return LineDiff.toText(rebuild(channel, scan.entries, number - 1));
+        }
+    }
+
+    /**
+     * Deletes every recorded version of a note.
+     *
+     * @param noteId the note's ID
+     * @throws IOException if the log cannot be deleted
+     */
+    void delete(String noteId) throws IOException {
+        Files.deleteIfExists(getLogPath(noteId));
+    }
+
+    Path getLogPath(String noteId) {
+        return historyDir.resolve(noteId + LOG_SUFFIX);
+    }
+
+    private static Scan scan(Path logPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            return scan(channel);
+        }
+    }
+
+    // Reads every record's header, skipping payloads, up to the end of the last whole record
+    private static Scan scan(FileChannel channel) throws IOException {
+        Scan scan = new Scan();
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (scan.validEnd + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, scan.validEnd);
+            header.flip();
+            int number = header.getInt();
+            long epochMillis = header.getLong();
+            byte kind = header.get();
+            int lineCount = header.getInt();
+            int payloadLength = header.getInt();
+            long end = scan.validEnd + HEADER_BYTES + payloadLength + CHECKSUM_BYTES;
+            boolean isWellFormed = number == scan.entries.size() + 1 && (kind == KEYFRAME || kind == DELTA)
+                    && (kind == KEYFRAME || !scan.entries.isEmpty()) && lineCount >= 0 && payloadLength >= 0;
+            if (!isWellFormed || end > size) {
+                break;
+            }
+            Revision revision = new Revision(number, Instant.ofEpochMilli(epochMillis), lineCount, kind == KEYFRAME);
+            scan.entries.add(new Entry(revision, scan.validEnd, payloadLength));
+            scan.validEnd = end;
+        }
+        return scan;
+    }
+
+    // Starts from the nearest keyframe at or before the index and applies the differences after it in order
+    private static List<String> rebuild(FileChannel channel, List<Entry> entries, int index) throws IOException {
+        int keyframeIndex = index;
+        while (!entries.get(keyframeIndex).revision.isKeyframe()) {
+            keyframeIndex--;
+        }
+        byte[] keyframe = readPayload(channel, entries.get(keyframeIndex));
+        List<String> lines = LineDiff.toLines(new String(keyframe, StandardCharsets.UTF_8));
+        for (int i = keyframeIndex + 1; i <= index; i++) {
+            Entry entry = entries.get(i);
+            try {
+                lines = LineDiff.apply(lines, decodeDelta(readPayload(channel, entry)));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("revision " + entry.revision.getNumber() + " does not apply: "
+                        + e.getMessage());
+            }
+        }
+        return lines;
+    }
+
+    private static byte[] readPayload(FileChannel channel, Entry entry) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + entry.payloadLength + CHECKSUM_BYTES);
+        readFully(channel, record, entry.position);
+        byte[] bytes = record.array();
+        int checksum = ByteBuffer.wrap(bytes, HEADER_BYTES + entry.payloadLength, CHECKSUM_BYTES).getInt();
+        if (checksum != checksum(bytes, HEADER_BYTES + entry.payloadLength)) {
+            throw new IOException("revision " + entry.revision.getNumber() + " is damaged");
+        }
+        byte[] payload = new byte[entry.payloadLength];
+        System.arraycopy(bytes, HEADER_BYTES, payload, 0, payload.length);
+        return payload;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("revision log ends unexpectedly");
+            }
+            offset += read;
+        }
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    // Run count, then per run its kind and line count, followed by the lines of an insert
+    private static byte[] encodeDelta(List<LineDiff.Run> runs) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(runs.size());
+        for (LineDiff.Run run : runs) {
+            out.writeByte(run.kind);
+            out.writeInt(run.count);
+            if (run.kind == LineDiff.INSERT) {
+                for (String line : run.lines) {
+                    byte[] lineBytes = line.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(lineBytes.length);
+                    out.write(lineBytes);
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<LineDiff.Run> decodeDelta(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int runCount = in.readInt();
+        List<LineDiff.Run> runs = new ArrayList<>(runCount);
+        for (int i = 0; i < runCount; i++) {
+            byte kind = in.readByte();
+            int count = in.readInt();
+            List<String> lines = null;
+            if (kind == LineDiff.INSERT) {
+                lines = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    byte[] lineBytes = new byte[in.readInt()];
+                    in.readFully(lineBytes);
+                    lines.add(new String(lineBytes, StandardCharsets.UTF_8));
+                }
+            }
+            runs.add(new LineDiff.Run(kind, count, lines));
+        }
+        return runs;
+    }
+
+    private static final class Entry {
+        final Revision revision;
+        final long position;
+        final int payloadLength;
+
+        Entry(Revision revision, long position, int payloadLength) {
+            this.revision = revision;
+            this.position = position;
+            this.payloadLength = payloadLength;
+        }
+    }
+
+    private static final class Scan {
+        final List<Entry> entries = new ArrayList<>();
+        long validEnd;
+
+        int lastKeyframeIndex() {
+            int index = entries.size() - 1;
+            while (!entries.get(index).revision.isKeyframe()) {
+                index--;
+            }
+            return index;
+        }
+    }
+}
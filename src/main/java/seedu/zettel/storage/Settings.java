@@ -0,0 +1,132 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Optional tuning settings stored as {@code key=value} lines in a settings file.
+ * A missing file, missing key or unparsable value falls back to the given default,
+ * so settings never have to exist for Zettel to work.
+ */
+public class Settings {
+    /** Maximum total size, in bytes, of note bodies kept in memory. */
+    public static final String BODY_CACHE_BYTES = "body-cache-bytes";
+
+    /** Number of body files read at the same time when prefetching bodies in the background; 0 disables it. */
+    public static final String PREFETCH_THREADS = "prefetch-threads";
+
+    /** When journal appends are forced to disk: "always", "interval-ms" or "on-exit". */
+    public static final String DURABILITY = "durability";
+
+    /** Milliseconds between group syncs under the "interval-ms" durability policy. */
+    public static final String DURABILITY_INTERVAL_MS = "durability-interval-ms";
+
+    /** Per-repository format of the index: "text" or "binary". */
+    public static final String INDEX_FORMAT = "index-format";
+
+    /** Per-repository arrangement of body files: "flat" or "sharded". */
+    public static final String BODY_LAYOUT = "body-layout";
+
+    /** Per-repository storage of archived bodies: "files" or "packed". */
+    public static final String ARCHIVE_STORAGE = "archive-storage";
+
+    /** Maximum total size, in bytes, of the notes of repositories kept loaded after switching away; 0 disables it. */
+    public static final String REPO_CACHE_BYTES = "repo-cache-bytes";
+
+    /** Per-repository storage of note bodies: "files" or "content". */
+    public static final String BODY_STORE = "body-store";
+
+    /** Per-repository storage engine: "files" or "paged". */
+    public static final String STORAGE_ENGINE = "storage-engine";
+
+    /** Number of decoded pages of a paged repository kept in memory. */
+    public static final String PAGED_CACHE_PAGES = "paged-cache-pages";
+
+    /** Milliseconds without a new change after which changes are saved in the background; 0 saves at once. */
+    public static final String WRITE_BEHIND_QUIET_MS = "write-behind-quiet-ms";
+
+    /** Number of unsaved changes at which they are saved in the background without waiting any longer. */
+    public static final String WRITE_BEHIND_MAX_PENDING = "write-behind-max-pending";
+
+    private final Path settingsPath;
+    private final Properties properties;
+
+    private Settings(Path settingsPath, Properties properties) {
+        this.settingsPath = settingsPath;
+        this.properties = properties;
+    }
+
+    /**
+     * Loads the settings stored in a settings file.
+     *
+     * @param settingsPath the path to the settings file, which need not exist
+     * @return the loaded settings, empty if the file is missing or unreadable
+     */
+    public static Settings load(Path settingsPath) {
+        Properties properties = new Properties();
+        if (Files.exists(settingsPath)) {
+            try (Reader reader = Files.newBufferedReader(settingsPath, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Warning: failed to read " + settingsPath.getFileName()
+                        + ", using defaults: " + e.getMessage());
+            }
+        }
+        return new Settings(settingsPath, properties);
+    }
+
+    /**
+     * Gets a setting as a string.
+     *
+     * @param key the setting name
+     * @param defaultValue the value to use if the setting is not set
+     * @return the setting value, trimmed, or the default
+     */
+    public String getString(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * Gets a setting as a non-negative number.
+     *
+     * @param key the setting name
+     * @param defaultValue the value to use if the setting is not set or not a non-negative number
+     * @return the setting value, or the default
+     */
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the warning below
+        }
+        System.out.println("Warning: ignoring invalid value for " + key + ": " + value);
+        return defaultValue;
+    }
+
+    /**
+     * Changes a setting and writes all settings back to the settings file.
+     *
+     * @param key the setting name
+     * @param value the new value
+     * @throws IOException if the settings file cannot be written
+     */
+    public void set(String key, String value) throws IOException {
+        properties.setProperty(key, value);
+        try (Writer writer = Files.newBufferedWriter(settingsPath, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+    }
+}
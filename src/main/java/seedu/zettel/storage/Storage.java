@@ -1,19 +1,36 @@
 package seedu.zettel.storage;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
+import seedu.zettel.exceptions.FailedMoveNoteException;
 import seedu.zettel.exceptions.ZettelException;
+import seedu.zettel.util.IdGenerator;
 
 /**
  * Orchestrates storage operations for Zettel repositories.
@@ -25,10 +42,30 @@ public class Storage {
 
     private final FileSystemManager fileSystemManager;
     private final NoteSerializer noteSerializer;
+    private final RepoCache repoCache;
+    private final BodyCache bodyCache;
+    private final BodyPrefetcher bodyPrefetcher;
+    private final FileSyncer fileSyncer;
+    private final RepoMigrator repoMigrator;
+    private final NoteHistory noteHistory;
+    private final long writeBehindQuietMs;
+    private final int writeBehindMaxPending;
+
+    // Held by commands while they run and by every background save, so saves never see notes half changed
+    private final ReentrantLock stateLock = new ReentrantLock();
+
+    // Saves changes in the background once write-behind is started; null saves them at once
+    private WriteBehindPersister writeBehindPersister;
 
-    private String repoName = DEFAULT_REPO;
     private ArrayList<String> repoList = new ArrayList<>();
 
+    // The current repository and the objects that read and write its notes
+    private RepoSnapshot repo;
+
+    // Watches the current repository's body files for changes made outside Zettel, once watching is started
+    private BodyWatcher bodyWatcher;
+    private boolean isWatching;
+
     /**
      * Constructs a Storage instance with the specified root path.
      *
@@ -37,12 +74,36 @@ public class Storage {
     public Storage(String rootPath) {
         assert rootPath != null : "Root path should not be null";
         this.fileSystemManager = new FileSystemManager(rootPath);
-        this.noteSerializer = new NoteSerializer();
+        Settings settings = Settings.load(fileSystemManager.getSettingsPath());
+        this.bodyCache = new BodyCache(
+                settings.getLong(Settings.BODY_CACHE_BYTES, BodyCache.DEFAULT_BUDGET_BYTES));
+        this.bodyPrefetcher = new BodyPrefetcher(bodyCache, (int) Math.min(Integer.MAX_VALUE,
+                settings.getLong(Settings.PREFETCH_THREADS, BodyPrefetcher.DEFAULT_MAX_CONCURRENT_READS)));
+        this.fileSyncer = new FileSyncer(
+                Durability.fromSetting(settings.getString(Settings.DURABILITY, Durability.ALWAYS.getSettingValue())),
+                settings.getLong(Settings.DURABILITY_INTERVAL_MS, FileSyncer.DEFAULT_INTERVAL_MS));
+        this.noteSerializer = new NoteSerializer(bodyCache, fileSyncer);
+        this.repoCache = new RepoCache(settings.getLong(Settings.REPO_CACHE_BYTES, RepoCache.DEFAULT_BUDGET_BYTES));
+        this.repoMigrator = new RepoMigrator(fileSystemManager, noteSerializer, bodyCache, fileSyncer,
+                (int) Math.min(Integer.MAX_VALUE,
+                        settings.getLong(Settings.PAGED_CACHE_PAGES, PagedStore.DEFAULT_CACHE_PAGES)));
+        this.noteHistory = new NoteHistory(fileSystemManager, fileSyncer);
+        this.writeBehindQuietMs = settings.getLong(Settings.WRITE_BEHIND_QUIET_MS,
+                WriteBehindPersister.DEFAULT_QUIET_MS);
+        this.writeBehindMaxPending = (int) Math.min(Integer.MAX_VALUE, settings.getLong(
+                Settings.WRITE_BEHIND_MAX_PENDING, WriteBehindPersister.DEFAULT_MAX_PENDING_CHANGES));
+        this.repo = newRepoState(DEFAULT_REPO, BodyLayout.FLAT);
+    }
+
+    private RepoSnapshot newRepoState(String repoName, BodyLayout layout) {
+        return new RepoSnapshot(repoName, fileSystemManager.getNotesPath(repoName),
+                fileSystemManager.getArchivePath(repoName), layout, new IndexJournal(noteSerializer));
     }
 
     /**
      * Initializes the storage system by creating necessary directories and files.
-     * Loads configuration and validates all repositories.
+     * Loads configuration and collects the tags of all repositories.
+     * Repositories are not validated here; each is validated the first time it is loaded.
      */
     public void init() {
         fileSystemManager.createRootFolder();
@@ -63,9 +124,7 @@ public class Storage {
             String checkedOutRepo = readCurrRepo();
             changeRepo(checkedOutRepo);
 
-            for (String repo : repoList) {
-                validateRepo(repo);
-            }
+            // Repositories are validated when they are first loaded, so repos that are not opened cost nothing
             updateTagsOnInit();
         } catch (ZettelException e) {
             System.out.println("Error during init: " + e.getMessage());
@@ -116,11 +175,39 @@ public class Storage {
 
     /**
      * Creates a storage file for the specified note in the current repository.
+     * No revision is recorded until the body is first changed, so a note that is never edited has no history.
      *
      * @param note the note to create a storage file for
      */
     public void createStorageFile(Note note) {
-        fileSystemManager.createNoteFile(note.getFilename(), note.getBody(), repoName);
+        storeNewBody(note);
+    }
+
+    private void storeNewBody(Note note) {
+        if (repo.pagedStore != null) {
+            try {
+                repo.pagedStore.putBody(note.getId(), toBytes(note.getBody()));
+            } catch (IOException e) {
+                System.out.println("Error storing note body: " + e.getMessage());
+            }
+            return;
+        }
+        if (repo.bodyStore == BodyStore.CONTENT && repo.contentStore != null) {
+            try {
+                note.setBodyHash(repo.contentStore.put(toBytes(note.getBody())));
+            } catch (IOException e) {
+                System.out.println("Error storing note body: " + e.getMessage());
+            }
+            return;
+        }
+        String bodyFile = repo.layout.getBodyFile(note);
+        fileSystemManager.createNoteFile(bodyFile, note.getBody(), repo.repoName);
+        if (repo.manifest != null) {
+            repo.manifest.add(bodyFile, false);
+        }
+        if (repo.bodyManifest != null) {
+            repo.bodyManifest.record(repo.getBodyManifestKey(note, false), getNotePath(note), toBytes(note.getBody()));
+        }
     }
 
     /**
@@ -194,7 +281,7 @@ public class Storage {
      * <p>
      * - Ensures tags.txt exists (creates if missing).<br>
      * - Preserves existing tags.<br>
-     * - Adds any missing tags found in notes across all repositories.<br>
+     * - Adds any missing tags found in the tag summaries of all repositories.<br>
      * - Writes one tag per line (duplicates automatically removed).
      *
      * @throws ZettelException if tags file cannot be created or read
@@ -218,15 +305,9 @@ public class Storage {
             throw new ZettelException("Failed to read existing tags: " + e.getMessage());
         }
 
+        // Each repository's tag summary lists its tags, so no index has to be read
         for (String repoName: repoList) {
-            Path indexPath = fileSystemManager.getIndexPath(repoName);
-            Path notesDir = fileSystemManager.getNotesPath(repoName);
-            Path archiveDir = fileSystemManager.getArchivePath(repoName);
-
-            List<Note> repoNotes = noteSerializer.loadNotes(indexPath, notesDir, archiveDir);
-            for (Note note: repoNotes) {
-                tags.addAll(note.getTags());
-            }
+            tags.addAll(readOrBuildTagSummary(repoName).keySet());
         }
 
         List<String> tagsList = new ArrayList<String>(tags);
@@ -237,36 +318,517 @@ public class Storage {
         }
     }
 
+    /**
+     * Reads the tag summary of a repository, building it from the repository's index if it does not exist yet.
+     *
+     * @param repoName the repository to summarise
+     * @return tag -> number of notes in the repository carrying it
+     */
+    private Map<String, Integer> readOrBuildTagSummary(String repoName) {
+        Path summaryPath = fileSystemManager.getTagSummaryPath(repoName);
+        Path indexPath = fileSystemManager.getIndexPath(repoName);
+        boolean isPaged = Files.exists(fileSystemManager.getPagedStorePath(repoName));
+        if (!isPaged && Files.notExists(indexPath) && Files.notExists(noteSerializer.getBinaryIndexPath(indexPath))) {
+            return new TreeMap<>();
+        }
+        if (Files.exists(summaryPath)) {
+            try {
+                return TagSummary.read(summaryPath);
+            } catch (IOException e) {
+                System.out.println("Warning: failed to read tag summary of /" + repoName + ", rebuilding it");
+            }
+        }
+        if (isPaged) {
+            // Rebuilt from the notes when the repository is next loaded
+            return new TreeMap<>();
+        }
+
+        List<Note> repoNotes = noteSerializer.loadNotes(indexPath,
+                fileSystemManager.getNotesPath(repoName), fileSystemManager.getArchivePath(repoName));
+        Map<String, Integer> counts = TagSummary.count(repoNotes);
+        try {
+            Files.createDirectories(summaryPath.getParent());
+            TagSummary.write(counts, summaryPath);
+        } catch (IOException e) {
+            System.out.println("Warning: failed to write tag summary of /" + repoName + ": " + e.getMessage());
+        }
+        return counts;
+    }
+
+    /**
+     * Rewrites the current repository's tag summary if the tag counts of the notes differ from it.
+     *
+     * @param notes all notes in the current repository
+     */
+    private void updateTagSummary(List<Note> notes) {
+        Map<String, Integer> counts = TagSummary.count(notes);
+        if (counts.equals(repo.tagCounts)) {
+            return;
+        }
+        try {
+            TagSummary.write(counts, fileSystemManager.getTagSummaryPath(repo.repoName));
+            repo.tagCounts = counts;
+        } catch (IOException e) {
+            repo.tagCounts = null;
+            System.out.println("Warning: failed to update tag summary: " + e.getMessage());
+        }
+    }
+
     /**
      * Loads all notes from the current repository.
+     * Only the index is read; bodies are read through the body cache when they are first needed,
+     * and bodies of notes that are not archived are prefetched into the cache in the background.
+     * The repository is validated the first time it is loaded in a session, unless it has not changed since
+     * it was last validated; after that its manifest is kept up to date.
+     * If the repository's settings ask for a different body layout, the body files are moved first,
+     * and archived bodies are packed into or unpacked from segments as its archive storage setting asks.
+     * Compressed bodies are decompressed when they are read. Bodies are moved into or out of the content store
+     * as the repository's body store setting asks, and objects no note refers to are deleted.
+     * Cached bodies whose files changed on disk since they were last seen, according to the repository's
+     * body manifest, are dropped from the cache; the others are kept.
+     * A repository whose storage engine setting is "paged" is loaded from its paged store instead,
+     * and its notes are moved into or out of the paged store as the setting asks.
      *
-     * @return an ArrayList of notes loaded from the repository
+     * @return the notes loaded from the repository, indexed by ID and filename
      */
     public ArrayList<Note> load() {
-        Path indexPath = fileSystemManager.getIndexPath(repoName);
-        Path notesDir = fileSystemManager.getNotesPath(repoName);
-        Path archiveDir = fileSystemManager.getArchivePath(repoName);
+        return new NoteList(loadNotes());
+    }
+
+    private ArrayList<Note> loadNotes() {
+        Path indexPath = fileSystemManager.getIndexPath(repo.repoName);
+        Settings repoSettings = Settings.load(fileSystemManager.getRepoSettingsPath(repo.repoName));
+        StorageEngine storageEngine = StorageEngine.fromSetting(repoSettings.getString(
+                Settings.STORAGE_ENGINE, StorageEngine.FILES.getSettingValue()));
+        if (storageEngine == StorageEngine.PAGED || !repoMigrator.migrateOutOfPagedStore(repo)) {
+            return loadPaged(repoSettings);
+        }
+        if (repo.bodyManifest == null) {
+            repo.bodyManifest = BodyManifest.load(fileSystemManager.getBodyManifestPath(repo.repoName));
+        }
+
+        repoMigrator.migrateBodyLayout(repo, repoSettings);
+        repo.openArchivePack(repoSettings);
+        if (repo.bodyCodec == null) {
+            repo.bodyCodec = new BodyCodec(fileSystemManager.getDictionariesPath(repo.repoName));
+        }
+        if (repo.contentStore == null) {
+            repo.contentStore = new ContentStore(fileSystemManager.getObjectsPath(repo.repoName));
+        }
+        repo.bodyStore = BodyStore.fromSetting(repoSettings.getString(
+                Settings.BODY_STORE, BodyStore.FILES.getSettingValue()));
+        repo.bodyLocator = new BodyLocator(repo.notesDir, repo.archiveDir, repo.layout, repo.archivePack,
+                repo.bodyCodec, repo.contentStore, null);
+        ArrayList<Note> notes = noteSerializer.loadNotes(indexPath, repo.bodyLocator);
+        int damagedCount = noteSerializer.getDamagedRecordCount();
+        if (damagedCount > 0) {
+            System.out.println("Warning: skipped " + damagedCount + " damaged index record(s) of /" + repo.repoName
+                    + "; run 'repair-index' to rebuild them.");
+        }
+        repo.contentStore.recount(notes);
+        repoMigrator.migrateArchiveStorage(repo, notes);
 
+        if (repo.manifest == null) {
+            // Bodies are not read yet, so the index just loaded can drive validation
+            Map<String, Boolean> expectedFilesMap = repo.getExpectedBodyFiles(notes);
+            Path repoPath = fileSystemManager.getRepoPath(repo.repoName);
+            if (ValidationMarker.isCurrent(repoPath, repo.layout)) {
+                repo.manifest = RepoManifest.fromExpected(expectedFilesMap);
+            } else {
+                try {
+                    repo.manifest = fileSystemManager.validateRepoStructure(repo.repoName, expectedFilesMap,
+                            repo.layout);
+                    ValidationMarker.record(repoPath, repo.layout);
+                } catch (ZettelException e) {
+                    System.out.println("Error validating repo: " + e.getMessage());
+                    return new ArrayList<>();
+                }
+            }
+        }
+
+        repo.indexJournal.prime(notes);
+        repoMigrator.migrateIndexAndBodies(repo, repoSettings, notes);
+        // Repairs the summary if a previous session stopped between saving the index and the summary
+        repo.tagCounts = readOrBuildTagSummary(repo.repoName);
+        updateTagSummary(notes);
+        refreshChangedBodies(notes);
+        recordIndexGeneration();
+        if (isWatching && bodyWatcher == null && repo.pagedStore == null) {
+            openBodyWatcher();
+        }
+        bodyPrefetcher.prefetch(notes.stream()
+                .filter(note -> !note.isArchived())
+                .map(repo.bodyLocator::getBodyPath)
+                .collect(Collectors.toList()));
+        return notes;
+    }
+
+    /**
+     * Loads the current repository from its paged store, moving its notes into the store first if they are
+     * still in an index and body files.
+     *
+     * @param repoSettings the settings of the current repository
+     * @return the notes of the repository
+     */
+    private ArrayList<Note> loadPaged(Settings repoSettings) {
+        ArrayList<Note> notes;
         try {
-            validateRepo(repoName);
-        } catch (ZettelException e) {
-            System.out.println("Error validating repo: " + e.getMessage());
+            notes = repoMigrator.migrateIntoPagedStore(repo, repoSettings);
+        } catch (IOException e) {
+            System.out.println("Error loading /" + repo.repoName + " from " + FileSystemManager.REPO_PAGED_STORE
+                    + ": " + e.getMessage());
             return new ArrayList<>();
         }
 
-        return noteSerializer.loadNotes(indexPath, notesDir, archiveDir);
+        repo.layout = fileSystemManager.readBodyLayout(repo.repoName);
+        repo.archivePack = null;
+        repo.bodyCodec = null;
+        repo.contentStore = null;
+        repo.bodyManifest = null;
+        repo.bodyLocator = new BodyLocator(repo.notesDir, repo.archiveDir, repo.layout, null, null, null,
+                repo.pagedStore);
+        for (Note note : notes) {
+            noteSerializer.attachBodyLoader(note, repo.bodyLocator);
+        }
+        // Bodies are not files, so there are no body files to validate
+        repo.manifest = RepoManifest.fromExpected(Map.of());
+        repo.tagCounts = readOrBuildTagSummary(repo.repoName);
+        updateTagSummary(notes);
+        recordIndexGeneration();
+        return notes;
+    }
+
+    /**
+     * Brings the notes of the current repository up to date with the disk after body files may have been
+     * changed outside Zettel, e.g. in a text editor. If the index has not been written since it was last
+     * read or saved, the given notes are still current and are kept as they are: only body files whose
+     * size or modification time changed are hashed, and only those whose content changed are dropped from
+     * the cache. Otherwise the repository is loaded again in full.
+     *
+     * @param notes the notes of the current repository, as last loaded or saved
+     * @return the notes of the repository, the same Note objects if the index did not change
+     */
+    public ArrayList<Note> reload(List<Note> notes) {
+        if (repo.pagedStore != null) {
+            // Every change to a paged store goes through Zettel, so the notes are current
+            return new NoteList(notes);
+        }
+        if (repo.bodyLocator == null || repo.bodyManifest == null || !isIndexUnchanged()) {
+            return load();
+        }
+        refreshChangedBodies(notes);
+        return new NoteList(notes);
+    }
+
+    // Drops the cached bodies of notes whose body files changed on disk, and records what the files hold now
+    private int refreshChangedBodies(List<Note> notes) {
+        if (repo.bodyManifest == null) {
+            return 0;
+        }
+        int changedCount = 0;
+        for (Note note : notes) {
+            String key = repo.getBodyManifestKey(note);
+            if (key == null) {
+                continue;
+            }
+            Path bodyPath = repo.bodyLocator.getBodyPath(note);
+            if (!repo.bodyManifest.isUnchanged(key, bodyPath)) {
+                bodyCache.invalidate(bodyPath);
+                noteSerializer.attachBodyLoader(note, repo.bodyLocator);
+                changedCount++;
+            }
+        }
+        repo.bodyManifest.save();
+        return changedCount;
+    }
+
+    /**
+     * Starts watching the current repository's notes/ and archive/ directories for body files changed
+     * outside Zettel, and keeps watching whichever repository is current from then on.
+     * Changes are picked up by {@link #applyExternalChanges(List)}.
+     */
+    public void startWatching() {
+        isWatching = true;
+        if (bodyWatcher == null && repo.bodyLocator != null && repo.pagedStore == null) {
+            openBodyWatcher();
+        }
+    }
+
+    private void openBodyWatcher() {
+        try {
+            bodyWatcher = BodyWatcher.start(List.of(fileSystemManager.getNotesPath(repo.repoName),
+                    fileSystemManager.getArchivePath(repo.repoName)));
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Warning: cannot watch /" + repo.repoName + " for outside changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Refreshes, in place, the notes whose body files were changed outside Zettel since the last call,
+     * as reported by the watcher started with {@link #startWatching()}. A refreshed note reads its body
+     * from disk again and takes the body file's modification time as its modified time, and the refreshed
+     * notes are saved like a command's changes, in the background once write-behind is started.
+     * Files whose content did not change, including every file Zettel wrote itself, are left alone.
+     * If the watcher lost events, every body file is checked.
+     *
+     * @param notes the notes of the current repository
+     * @return the notes that were refreshed; empty if none were
+     */
+    public List<Note> applyExternalChanges(List<Note> notes) {
+        if (bodyWatcher == null || repo.bodyLocator == null || repo.bodyManifest == null) {
+            return List.of();
+        }
+        boolean isOverflowed = bodyWatcher.takeOverflow();
+        Set<Path> changedFiles = bodyWatcher.takeChangedFiles();
+        if (changedFiles.isEmpty() && !isOverflowed) {
+            return List.of();
+        }
+
+        List<Note> refreshedNotes = new ArrayList<>();
+        for (Note note : notes) {
+            String key = repo.getBodyManifestKey(note);
+            if (key == null) {
+                continue;
+            }
+            Path bodyPath = repo.bodyLocator.getBodyPath(note);
+            if ((isOverflowed || changedFiles.contains(bodyPath)) && !repo.bodyManifest.isUnchanged(key, bodyPath)) {
+                // The body from before the change is only known while it is still cached
+                if (bodyCache.isCached(bodyPath)) {
+                    noteHistory.recordPrevious(repo, note, note.getBody(), note.getModifiedAt());
+                }
+                bodyCache.invalidate(bodyPath);
+                noteSerializer.attachBodyLoader(note, repo.bodyLocator);
+                try {
+                    note.setModifiedAt(Files.getLastModifiedTime(bodyPath).toInstant());
+                } catch (IOException e) {
+                    note.updateModifiedAt();
+                }
+                refreshedNotes.add(note);
+            }
+        }
+        repo.bodyManifest.save();
+        for (Note note : refreshedNotes) {
+            noteHistory.record(repo, note, note.getBody(), note.getModifiedAt());
+        }
+        if (!refreshedNotes.isEmpty()) {
+            ChangeSet changes = new ChangeSet();
+            refreshedNotes.forEach(changes::addChangedNote);
+            saveLater(notes, changes);
+        }
+        return refreshedNotes;
+    }
+
+    private void recordIndexGeneration() {
+        try {
+            repo.indexGeneration = ValidationMarker.indexGenerationOf(fileSystemManager.getRepoPath(repo.repoName));
+        } catch (IOException e) {
+            repo.indexGeneration = null;
+        }
+    }
+
+    private boolean isIndexUnchanged() {
+        try {
+            Path repoPath = fileSystemManager.getRepoPath(repo.repoName);
+            return repo.indexGeneration != null
+                    && repo.indexGeneration.equals(ValidationMarker.indexGenerationOf(repoPath));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Drops the cached body of a note in the current repository, so that the
+     * next access reads it from disk again. Used after a body file is edited outside Zettel.
+     *
+     * @param note the note whose body file changed
+     */
+    public void invalidateBody(Note note) {
+        if (repo.bodyLocator != null) {
+            bodyCache.invalidate(repo.bodyLocator.getBodyPath(note));
+        }
+        bodyCache.invalidate(getNotePath(note));
+        bodyCache.invalidate(getArchivePath(note));
+    }
+
+    /**
+     * Runs a deep verification of the current repository against the disk.
+     * Rescans notes/ and archive/, recreates missing files, reports orphans and rebuilds the manifest.
+     * A repository kept in a paged store has no body files, so its empty manifest is returned as it is.
+     *
+     * @return the rebuilt manifest of the current repository
+     * @throws ZettelException if the repository structure is invalid
+     */
+    public RepoManifest checkRepo() throws ZettelException {
+        flushPendingSaves();
+        if (repo.pagedStore != null) {
+            return repo.manifest;
+        }
+        repo.manifest = validateRepo(repo.repoName);
+        ValidationMarker.record(fileSystemManager.getRepoPath(repo.repoName), repo.layout);
+        return repo.manifest;
+    }
+
+    /**
+     * Checks every record of the current repository's text index and journal against its checksum.
+     * Only the checksums are compared, in one streaming pass, so this is much cheaper than loading.
+     *
+     * @return the number of records that fail their checksum; 0 for a binary index or a paged store
+     * @throws ZettelException if the index cannot be read
+     */
+    public int verifyIndex() throws ZettelException {
+        flushPendingSaves();
+        Path indexPath = fileSystemManager.getIndexPath(repo.repoName);
+        if (repo.pagedStore != null || Files.notExists(indexPath)) {
+            return 0;
+        }
+        try {
+            return noteSerializer.verifyIndex(indexPath);
+        } catch (IOException e) {
+            throw new ZettelException("Failed to read index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the index of the current repository from the notes that loaded and the body files on disk.
+     * The index and journal are copied to backups first. Every note that loaded is kept. A body file in notes/
+     * or archive/, or a packed archived body, that no note refers to gets a note rebuilt for it, with its
+     * timestamps taken from the file. A damaged record that still names the file gives the note its ID, title
+     * and pin; otherwise the title comes from the filename. The index is then rewritten in full.
+     * Bodies held in the content store are named by their content alone, so their notes cannot be rebuilt.
+     * A repository kept in a paged store has checksummed pages instead, so nothing is done for it.
+     *
+     * @param notes all notes loaded from the current repository; the rebuilt notes are added to it
+     * @return the number of notes rebuilt
+     * @throws ZettelException if the index cannot be backed up or rewritten
+     */
+    public int repairIndex(List<Note> notes) throws ZettelException {
+        flushPendingSaves();
+        if (repo.pagedStore != null || repo.bodyLocator == null) {
+            return 0;
+        }
+        Path indexPath = fileSystemManager.getIndexPath(repo.repoName);
+        Path notesDir = fileSystemManager.getNotesPath(repo.repoName);
+        Path archiveDir = fileSystemManager.getArchivePath(repo.repoName);
+        try {
+            Map<String, String[]> damagedById = new HashMap<>();
+            Map<String, String[]> damagedByBodyFile = new HashMap<>();
+            for (String record : noteSerializer.readDamagedRecords(indexPath)) {
+                // A separator is never escaped, so splitting on it finds the fields that are left
+                String[] fields = record.split(" \\| ", -1);
+                if (fields.length > 2 && !fields[0].isBlank()) {
+                    damagedById.put(fields[0].trim(), fields);
+                    damagedByBodyFile.put(repo.layout.getBodyFile(fields[0].trim(), fields[2]), fields);
+                }
+            }
+
+            Set<String> usedIds = notes.stream().map(Note::getId).collect(Collectors.toCollection(HashSet::new));
+            Set<String> referencedFiles = repo.getExpectedBodyFiles(notes).keySet();
+            RepoManifest onDisk = RepoManifest.scan(notesDir, archiveDir, repo.layout);
+            List<Note> rebuiltNotes = new ArrayList<>();
+            for (boolean isArchived : new boolean[] {false, true}) {
+                Path dir = isArchived ? archiveDir : notesDir;
+                List<String> bodyFiles = new ArrayList<>(onDisk.getFilenames(isArchived));
+                bodyFiles.sort(null);
+                for (String bodyFile : bodyFiles) {
+                    if (!referencedFiles.contains(bodyFile)) {
+                        rebuiltNotes.add(rebuildNote(bodyFile, isArchived, dir, damagedByBodyFile, usedIds));
+                    }
+                }
+            }
+            if (repo.archivePack != null) {
+                for (String noteId : repo.archivePack.getNoteIds()) {
+                    if (usedIds.add(noteId)) {
+                        String[] fields = damagedById.get(noteId);
+                        String title = fields != null && !fields[1].isBlank() ? fields[1] : noteId;
+                        Instant now = Instant.now();
+                        rebuiltNotes.add(new Note(noteId, title, noteId + ".txt", "", now, now,
+                                fields != null && fields.length > 5 && fields[5].equals("1"), true, null,
+                                new ArrayList<>()));
+                    }
+                }
+            }
+
+            backUpIndexFiles(indexPath);
+            for (Note note : rebuiltNotes) {
+                noteSerializer.attachBodyLoader(note, repo.bodyLocator);
+            }
+            if (repo.manifest != null) {
+                repo.getExpectedBodyFiles(rebuiltNotes).forEach(repo.manifest::add);
+            }
+            notes.addAll(rebuiltNotes);
+            repo.indexJournal.compact(notes, indexPath);
+            updateTagSummary(notes);
+            recordIndexGeneration();
+            return rebuiltNotes.size();
+        } catch (IOException e) {
+            repo.indexJournal.reset();
+            throw new ZettelException("Failed to repair index: " + e.getMessage());
+        }
+    }
+
+    // Rebuilds the note of a body file no note refers to, moving the file to where the layout expects it
+    private Note rebuildNote(String bodyFile, boolean isArchived, Path dir, Map<String, String[]> damagedByBodyFile,
+                             Set<String> usedIds) throws IOException {
+        Path path = dir.resolve(bodyFile);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Instant createdAt = attributes.creationTime().toInstant();
+        Instant modifiedAt = attributes.lastModifiedTime().toInstant();
+        String fileName = path.getFileName().toString();
+        String baseName = fileName.substring(0, fileName.length() - ".txt".length());
+
+        String[] fields = damagedByBodyFile.get(bodyFile);
+        boolean isFromRecord = fields != null && usedIds.add(fields[0].trim());
+        String noteId;
+        String title;
+        String filename;
+        if (isFromRecord) {
+            noteId = fields[0].trim();
+            title = fields[1].isBlank() ? baseName.replace('_', ' ') : fields[1];
+            filename = fields[2];
+        } else {
+            title = baseName.replace('_', ' ');
+            filename = fileName;
+            // A sharded body file is named by its note's ID
+            noteId = bodyFile.indexOf('/') >= 0 ? baseName : IdGenerator.generateId(title + createdAt);
+            for (int attempt = 1; !usedIds.add(noteId); attempt++) {
+                noteId = IdGenerator.generateId(title + createdAt + attempt);
+            }
+        }
+
+        String layoutFile = repo.layout.getBodyFile(noteId, filename);
+        if (!layoutFile.equals(bodyFile)) {
+            Path target = dir.resolve(layoutFile);
+            Files.createDirectories(target.getParent());
+            Files.move(path, target);
+        }
+        boolean isPinned = isFromRecord && fields.length > 5 && fields[5].equals("1");
+        return new Note(noteId, title, filename, "", createdAt, modifiedAt, isPinned, isArchived, null,
+                new ArrayList<>());
+    }
+
+    // Copies the index files to backups next to them, replacing older backups
+    private void backUpIndexFiles(Path indexPath) throws IOException {
+        for (Path path : List.of(indexPath, noteSerializer.getBinaryIndexPath(indexPath),
+                noteSerializer.getJournalPath(indexPath))) {
+            if (Files.exists(path)) {
+                Files.copy(path, path.resolveSibling(path.getFileName() + FileSystemManager.BACKUP_SUFFIX),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
     }
 
     /**
      * Validates the structure of the specified repository.
      *
      * @param repoName the name of the repository to validate
+     * @return the manifest of body files present in the repository
      * @throws ZettelException if the repository structure is invalid
      */
-    private void validateRepo(String repoName) throws ZettelException {
-        Path indexPath = fileSystemManager.getIndexPath(repoName);
-        Map<String, Boolean> expectedFilesMap = noteSerializer.getExpectedFilenamesWithArchiveFlag(indexPath);
-        fileSystemManager.validateRepoStructure(repoName, expectedFilesMap);
+    private RepoManifest validateRepo(String repoName) throws ZettelException {
+        Map<String, Boolean> expectedFilesMap = repo.getExpectedBodyFiles(noteSerializer.loadNotes(
+                fileSystemManager.getIndexPath(repoName), fileSystemManager.getNotesPath(repoName),
+                fileSystemManager.getArchivePath(repoName)));
+        return fileSystemManager.validateRepoStructure(repoName, expectedFilesMap, repo.layout);
     }
 
     /**
@@ -315,76 +877,573 @@ public class Storage {
 
     /**
      * Changes the current repository to the specified repository.
+     * The repository is loaded by the next {@link #load()}; whatever was loaded of the current one is dropped.
      *
      * @param newRepo the name of the repository to switch to
      */
     public void changeRepo(String newRepo) {
+        switchTo(newRepo, null);
+    }
+
+    /**
+     * Changes the current repository to the specified repository and gets its notes.
+     * The current repository's notes are kept in memory, within the repository cache budget,
+     * so switching back to it only puts them back, unless its index was written outside Zettel in the meantime.
+     * Repositories that no longer fit are flushed and dropped, least recently used first.
+     *
+     * @param newRepo the name of the repository to switch to
+     * @param notes the notes of the current repository, as they are now
+     * @return the notes of the repository switched to
+     */
+    public ArrayList<Note> switchRepo(String newRepo, List<Note> notes) {
+        RepoSnapshot restored = switchTo(newRepo, notes);
+        if (restored == null) {
+            return load();
+        }
+        // Body files may still have been edited while the repository was not current
+        refreshChangedBodies(restored.notes);
+        if (isWatching && repo.pagedStore == null) {
+            openBodyWatcher();
+        }
+        return new NoteList(restored.notes);
+    }
+
+    // Leaves the current repository, keeping it in the repository cache if its notes are given,
+    // and puts back the new one if it is kept and unchanged; returns its snapshot then, or null if it must be loaded
+    private RepoSnapshot switchTo(String newRepo, List<Note> currentNotes) {
+        flushPendingSaves();
         if (!repoList.contains(newRepo)) {
             System.out.println("Repo '" + newRepo + "' does not exist. Falling back to 'main'.");
             newRepo = "main";
         }
 
-        this.repoName = newRepo;
+        if (repo.bodyManifest != null) {
+            repo.bodyManifest.save();
+        }
+        recordValidation();
+        if (bodyWatcher != null) {
+            bodyWatcher.close();
+            bodyWatcher = null;
+        }
+        bodyPrefetcher.cancel();
+        if (currentNotes != null && repo.bodyLocator != null && !newRepo.equals(repo.repoName)) {
+            repo.keep(currentNotes);
+            closeEvicted(repoCache.put(repo));
+        } else {
+            repo.close();
+        }
+
+        RepoSnapshot restored = repoCache.take(newRepo);
+        if (restored != null && !isCurrent(restored)) {
+            closeEvicted(List.of(restored));
+            restored = null;
+        }
+        repo = restored != null ? restored : newRepoState(newRepo, fileSystemManager.readBodyLayout(newRepo));
 
         try {
             updateConfig(newRepo);
         } catch (ZettelException e) {
             System.out.println("Error switching repo: " + e.getMessage());
         }
+        return restored;
+    }
+
+    // A kept repository is only still current if nothing else wrote its index or changed its layout since
+    private boolean isCurrent(RepoSnapshot snapshot) {
+        try {
+            Path repoPath = fileSystemManager.getRepoPath(snapshot.repoName);
+            return snapshot.indexGeneration != null
+                    && snapshot.layout == fileSystemManager.readBodyLayout(snapshot.repoName)
+                    && snapshot.indexGeneration.equals(ValidationMarker.indexGenerationOf(repoPath));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Every save was already written through; this forces it to disk and releases what the repositories hold open
+    private void closeEvicted(List<RepoSnapshot> evicted) {
+        if (evicted.isEmpty()) {
+            return;
+        }
+        fileSyncer.syncAll();
+        for (RepoSnapshot snapshot : evicted) {
+            snapshot.close();
+        }
     }
 
     /**
      * Saves the list of notes to the current repository.
+     * Only notes that changed since the last save are written, as records appended to the index journal,
+     * or to the paged store if the repository uses one, and the tag summary is rewritten if the tag counts changed.
      *
      * @param notes the list of notes to save
      */
     public void save(List<Note> notes) {
-        Path indexPath = fileSystemManager.getIndexPath(repoName);
+        if (repo.pagedStore != null) {
+            savePaged(notes, null);
+            return;
+        }
+        Path indexPath = fileSystemManager.getIndexPath(repo.repoName);
 
         try {
             Files.createDirectories(indexPath.getParent());
-            noteSerializer.saveNotes(notes, indexPath);
-            validateRepo(repoName);
+            repo.indexJournal.save(notes, indexPath);
+            updateTagSummary(notes);
+            recordIndexGeneration();
         } catch (IOException e) {
+            repo.indexJournal.reset();
             System.out.println("Error writing to index file: " + e.getMessage());
-        } catch (ZettelException e) {
-            System.out.println("Error while validating repo: " + e.getMessage());
         }
     }
 
-    public Path getNotePath(String filename) {
-        return fileSystemManager.getNotesPath(repoName).resolve(filename);
+    /**
+     * Saves the notes a command changed to the current repository, and its tag summary if tags
+     * changed or notes were deleted. Does nothing at all when the command changed nothing.
+     *
+     * @param notes the list of all notes, used if the index has to be rewritten in full
+     * @param changes the notes and tags changed by the command
+     */
+    public void save(List<Note> notes, ChangeSet changes) {
+        if (repo.pagedStore != null) {
+            // Bodies put since the last save are committed even when no note changed
+            savePaged(notes, changes);
+            return;
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Path indexPath = fileSystemManager.getIndexPath(repo.repoName);
+
+        try {
+            Files.createDirectories(indexPath.getParent());
+            repo.indexJournal.save(notes, changes, indexPath);
+            // Tag counts only move when tags change or notes carrying them are deleted
+            if (!changes.getChangedTags().isEmpty() || !changes.getDeletedNoteIds().isEmpty()) {
+                updateTagSummary(notes);
+            }
+            recordIndexGeneration();
+        } catch (IOException e) {
+            repo.indexJournal.reset();
+            System.out.println("Error writing to index file: " + e.getMessage());
+        }
+    }
+
+    // Commits the changed notes, and any bodies put or deleted since the last save, to the paged store
+    private void savePaged(List<Note> notes, ChangeSet changes) {
+        try {
+            if (changes == null) {
+                repo.pagedStore.save(notes);
+            } else {
+                repo.pagedStore.save(notes, changes);
+            }
+            if (changes == null || !changes.getChangedTags().isEmpty() || !changes.getDeletedNoteIds().isEmpty()) {
+                updateTagSummary(notes);
+            }
+            recordIndexGeneration();
+        } catch (IOException e) {
+            System.out.println("Error writing to " + FileSystemManager.REPO_PAGED_STORE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the notes a command changed like {@link #save(List, ChangeSet)}, but in the background once
+     * write-behind is started: the changes are merged with others still waiting and saved after a quiet
+     * period, or sooner if many are waiting. Without write-behind they are saved at once.
+     *
+     * @param notes the list of all notes, used if the index has to be rewritten in full
+     * @param changes the notes and tags changed by the command
+     */
+    public void saveLater(List<Note> notes, ChangeSet changes) {
+        // A paged store commits bodies put since the last save even when no note changed
+        if (writeBehindPersister == null || (changes.isEmpty() && repo.pagedStore == null)) {
+            save(notes, changes);
+            return;
+        }
+        writeBehindPersister.enqueue(notes, changes);
+    }
+
+    /**
+     * Starts saving the changes passed to {@link #saveLater} on a background thread, with the quiet period
+     * and pending limit set in the settings file. A quiet period of 0 keeps saving them at once.
+     */
+    public void startWriteBehind() {
+        if (writeBehindPersister == null && writeBehindQuietMs > 0) {
+            writeBehindPersister = new WriteBehindPersister(stateLock, this::save, writeBehindQuietMs,
+                    writeBehindMaxPending);
+        }
+    }
+
+    /**
+     * Gets the lock that commands hold while they run. Background saves are made holding it,
+     * so they never see notes a command is still changing.
+     *
+     * @return the state lock
+     */
+    public Lock getStateLock() {
+        return stateLock;
+    }
+
+    /**
+     * Releases the state lock, if the calling thread holds it, while that thread waits on something outside
+     * Zettel such as a text editor, so that background saves of earlier commands are not held up meanwhile.
+     * The notes must not be changed until {@link #reacquireStateLock(int)} is called with the returned count.
+     *
+     * @return the number of holds released; 0 if the calling thread did not hold the lock
+     */
+    public int releaseStateLock() {
+        int holdCount = stateLock.getHoldCount();
+        for (int i = 0; i < holdCount; i++) {
+            stateLock.unlock();
+        }
+        return holdCount;
+    }
+
+    /**
+     * Takes back the holds on the state lock released by {@link #releaseStateLock()},
+     * waiting for a background save in progress to finish.
+     *
+     * @param holdCount the number of holds released
+     */
+    public void reacquireStateLock(int holdCount) {
+        for (int i = 0; i < holdCount; i++) {
+            stateLock.lock();
+        }
+    }
+
+    /**
+     * Gets the number of notes and tags whose changes are waiting to be saved in the background.
+     *
+     * @return the number of pending changes; 0 without write-behind
+     */
+    public int getPendingSaveCount() {
+        return writeBehindPersister == null ? 0 : writeBehindPersister.getQueueDepth();
+    }
+
+    /**
+     * Gets how long the last background save took.
+     *
+     * @return the duration of the last background save; zero without write-behind or if none was made
+     */
+    public Duration getLastSaveLatency() {
+        return writeBehindPersister == null ? Duration.ZERO : writeBehindPersister.getLastFlushLatency();
+    }
+
+    /**
+     * Gets how long the slowest background save took.
+     *
+     * @return the duration of the slowest background save; zero without write-behind or if none was made
+     */
+    public Duration getMaxSaveLatency() {
+        return writeBehindPersister == null ? Duration.ZERO : writeBehindPersister.getMaxFlushLatency();
+    }
+
+    // Saves what is still waiting and stops the background thread; changes passed to saveLater after this
+    // are saved at once
+    private void stopWriteBehind() {
+        WriteBehindPersister persister = writeBehindPersister;
+        if (persister != null) {
+            writeBehindPersister = null;
+            persister.close();
+        }
+    }
+
+    // Changes waiting in the background are saved before the index is read back or the repository switched
+    private void flushPendingSaves() {
+        if (writeBehindPersister != null) {
+            writeBehindPersister.flush();
+        }
     }
 
     /**
-     * Gets the path to a note file in the archive folder.
+     * Sets whether commands are being run in batch, e.g. from a script rather than typed at a prompt.
+     * In batch mode, saves are forced to disk together by {@link #flush()} instead of one by one.
      *
-     * @param filename the name of the note file
-     * @return the path to the note in the archive folder
+     * @param isBatchMode true if commands are not being typed interactively
+     */
+    public void setBatchMode(boolean isBatchMode) {
+        fileSyncer.setBatchMode(isBatchMode);
+    }
+
+    /**
+     * Saves any changes still waiting to be saved in the background and stops saving in the background,
+     * and forces every save that has not been forced to disk yet. Called when Zettel exits.
+     * If the repository changed since it was validated, it is recorded as validated at its new generation
+     * only if its body files on disk are still the ones its manifest lists; otherwise it is validated again
+     * when it is next loaded.
      */
-    public Path getArchivePath(String filename) {
-        return fileSystemManager.getArchivePath(repoName).resolve(filename);
+    public void flush() {
+        stopWriteBehind();
+        fileSyncer.syncAll();
+        if (repo.bodyManifest != null) {
+            repo.bodyManifest.save();
+        }
+        recordValidation();
+    }
+
+    // The manifest has followed every body file Zettel created, moved or deleted since validation, so if a scan
+    // finds exactly those files, and only Zettel wrote the index, nothing is missing or orphaned
+    private void recordValidation() {
+        if (repo.manifest == null || repo.pagedStore != null || !isIndexUnchanged()) {
+            return;
+        }
+        Path repoPath = fileSystemManager.getRepoPath(repo.repoName);
+        if (ValidationMarker.isCurrent(repoPath, repo.layout)) {
+            return;
+        }
+        try {
+            String generation = ValidationMarker.generationOf(repoPath, repo.layout);
+            if (repo.manifest.matches(RepoManifest.scan(repo.notesDir, repo.archiveDir, repo.layout))) {
+                ValidationMarker.record(repoPath, generation);
+            }
+        } catch (IOException e) {
+            System.out.println("Warning: failed to record validation of /" + repo.repoName + ": " + e.getMessage());
+        }
     }
 
     /**
-     * Deletes note's body text from the current repository.
+     * Gets the size of a note's body in the current repository, if it can be streamed straight from disk
+     * with {@link #transferBody}. Compressed bodies, and bodies of notes not stored yet, cannot.
      *
-     * @param filename the name of the note of body text to delete
+     * @param note the note
+     * @return the body size in bytes, or -1 if the body cannot be streamed
+     * @throws ZettelException if the size cannot be read
+     */
+    public long getStreamableBodySize(Note note) throws ZettelException {
+        if (repo.bodyLocator == null) {
+            return -1;
+        }
+        try {
+            return repo.bodyLocator.getStreamableSize(note);
+        } catch (IOException e) {
+            throw new ZettelException("Failed to read body of note '" + note.getId() + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copies bytes of a note's body straight from disk to a channel, without building a string,
+     * using {@link java.nio.channels.FileChannel#transferTo} so the operating system can do the copy.
+     *
+     * @param note the note, whose body {@link #getStreamableBodySize} gives a size for
+     * @param start the offset of the first byte to copy
+     * @param end the offset after the last byte to copy; clipped to the body's size
+     * @param target the channel to copy to
+     * @return the number of bytes copied
+     * @throws ZettelException if the body cannot be read or the channel cannot be written
+     */
+    public long transferBody(Note note, long start, long end, WritableByteChannel target) throws ZettelException {
+        try {
+            return repo.bodyLocator.transferTo(note, start, end, target);
+        } catch (IOException e) {
+            throw new ZettelException("Failed to print body of note '" + note.getId() + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets a file holding a note's body that can be edited in place, e.g. in a text editor.
+     * A body held in the content store or the paged store is copied out to the note's body file in the notes
+     * folder, to be stored again by {@link #commitBody(Note)} once editing is done.
+     * The current body is kept, to be recorded as the note's first revision if the edit changes it
+     * and the note has no recorded revisions yet.
+     *
+     * @param note the note to edit
+     * @return the file to edit
+     * @throws ZettelException if the body cannot be copied out of the content store or paged store
+     */
+    public Path checkoutBody(Note note) throws ZettelException {
+        noteHistory.checkOut(note);
+        Path notePath = getNotePath(note);
+        if (repo.pagedStore == null && (note.getBodyHash() == null || repo.contentStore == null)) {
+            return notePath;
+        }
+        try {
+            byte[] body = repo.pagedStore != null ? repo.pagedStore.readBody(note.getId())
+                    : repo.contentStore.read(note.getBodyHash());
+            Files.createDirectories(notePath.getParent());
+            AtomicFileWriter.write(notePath, out -> out.write(body));
+            return notePath;
+        } catch (IOException e) {
+            throw new ZettelException("Failed to prepare body of note '" + note.getId() + "' for editing: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Takes in the edits made to the file returned by {@link #checkoutBody(Note)}.
+     * For a body held in the content store, the edited file is hashed and stored only if its hash differs
+     * from the note's, so an unchanged body costs no write; the edited file is then removed.
+     * The old object is kept until the repository is next loaded, when it is deleted if the saved index
+     * no longer refers to it. For a body held in the paged store, a changed body is put in the store,
+     * to be committed by the next save, and the edited file is removed.
+     * A changed body is recorded as the note's next revision, after the body it was checked out with
+     * if the note has no recorded revisions yet; an unchanged body records nothing.
+     *
+     * @param note the note that was edited
+     * @return true if the note now refers to a different stored body, or its changed body has to be committed,
+     *     and it has to be saved
+     * @throws ZettelException if the edited body cannot be read or stored
+     */
+    public boolean commitBody(Note note) throws ZettelException {
+        Path notePath = getNotePath(note);
+        String editedBody = readEditedBody(notePath);
+        boolean isChanged = commitEditedBody(note, notePath);
+        noteHistory.recordEdit(repo, note, editedBody);
+        return isChanged;
+    }
+
+    private boolean commitEditedBody(Note note, Path notePath) throws ZettelException {
+        if (repo.pagedStore != null) {
+            return commitPagedBody(note, notePath);
+        }
+        if (note.getBodyHash() == null || repo.contentStore == null) {
+            if (repo.bodyManifest == null
+                    || !repo.bodyManifest.isUnchanged(repo.getBodyManifestKey(note, false), notePath)) {
+                invalidateBody(note);
+            }
+            return false;
+        }
+        try {
+            byte[] body = Files.readAllBytes(notePath);
+            boolean isChanged = !ContentStore.hashOf(body).equals(note.getBodyHash());
+            if (isChanged) {
+                note.setBodyHash(repo.contentStore.put(body));
+            }
+            Files.deleteIfExists(notePath);
+            return isChanged;
+        } catch (IOException e) {
+            throw new ZettelException("Failed to store edited body of note '" + note.getId() + "': "
+                    + e.getMessage());
+        }
+    }
+
+    private boolean commitPagedBody(Note note, Path notePath) throws ZettelException {
+        try {
+            byte[] body = Files.readAllBytes(notePath);
+            boolean isChanged = !Arrays.equals(body, repo.pagedStore.readBody(note.getId()));
+            if (isChanged) {
+                repo.pagedStore.putBody(note.getId(), body);
+                bodyCache.invalidate(repo.bodyLocator.getBodyPath(note));
+                noteSerializer.attachBodyLoader(note, repo.bodyLocator);
+            }
+            Files.deleteIfExists(notePath);
+            return isChanged;
+        } catch (IOException e) {
+            throw new ZettelException("Failed to store edited body of note '" + note.getId() + "': "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the path to a note's body file in the notes folder, as placed by the current repository's layout.
+     *
+     * @param note the note
+     * @return the path to the note's body file in the notes folder
+     */
+    public Path getNotePath(Note note) {
+        return repo.getNotePath(note);
+    }
+
+    /**
+     * Gets the path to a note's body file in the archive folder, as placed by the current repository's layout.
+     *
+     * @param note the note
+     * @return the path to the note's body file in the archive folder
+     */
+    public Path getArchivePath(Note note) {
+        return repo.getArchivePath(note);
+    }
+
+    // Null if the edited file cannot be read; committing it reports the error
+    private static String readEditedBody(Path notePath) {
+        try {
+            return Files.readString(notePath, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lists the recorded revisions of a note's body in the current repository, oldest first.
+     *
+     * @param note the note
+     * @return the revisions; empty if none is recorded
+     * @throws ZettelException if the note's revision log cannot be read
+     */
+    public List<Revision> getHistory(Note note) throws ZettelException {
+        return noteHistory.list(repo, note);
+    }
+
+    /**
+     * Rebuilds a note's body as it was at one of its recorded revisions.
+     *
+     * @param note the note
+     * @param number the revision number, from 1
+     * @return the body at that revision
+     * @throws ZettelException if the note has no such revision, or its revision log cannot be read
+     */
+    public String readRevision(Note note, int number) throws ZettelException {
+        return noteHistory.read(repo, note, number);
+    }
+
+    /**
+     * Deletes note's body text and its recorded revisions from the current repository.
+     *
+     * @param note the note whose body text to delete
      * @throws ZettelException if there's an error deleting the file
      */
-    public void deleteStorageFile(String filename) throws ZettelException {
-        Path notesDir = fileSystemManager.getNotesPath(repoName);
-        Path noteFile = notesDir.resolve(filename);
+    public void deleteStorageFile(Note note) throws ZettelException {
+        deleteBody(note);
+        noteHistory.delete(repo, note);
+    }
+
+    private void deleteBody(Note note) throws ZettelException {
+        if (repo.pagedStore != null) {
+            try {
+                repo.pagedStore.deleteBody(note.getId());
+                bodyCache.invalidate(repo.bodyLocator.getBodyPath(note));
+            } catch (IOException e) {
+                throw new ZettelException("Error while deleting body of note '" + note.getId() + "': "
+                        + e.getMessage());
+            }
+            return;
+        }
+        if (note.getBodyHash() != null && repo.contentStore != null) {
+            try {
+                repo.contentStore.release(note.getBodyHash());
+            } catch (IOException e) {
+                throw new ZettelException("Error while deleting body of note '" + note.getId() + "': "
+                        + e.getMessage());
+            }
+            return;
+        }
+        String bodyFile = repo.layout.getBodyFile(note);
+        Path noteFile = fileSystemManager.getNotesPath(repo.repoName).resolve(bodyFile);
         try {
             if (Files.exists(noteFile)) {
                 Files.delete(noteFile);
             }
+            if (repo.manifest != null) {
+                repo.manifest.remove(bodyFile, false);
+            }
+            if (repo.bodyManifest != null) {
+                repo.bodyManifest.remove(repo.getBodyManifestKey(note, false));
+            }
+            bodyCache.invalidate(noteFile);
+            if (repo.archivePack != null && repo.archivePack.contains(note.getId())) {
+                repo.archivePack.remove(note.getId());
+                bodyCache.invalidate(getArchivePath(note));
+                repo.archivePack.scheduleCompaction();
+            }
 
         } catch (IOException e) {
-            throw new ZettelException("Error while deleting body file '" + filename + "': " + e.getMessage());
+            throw new ZettelException("Error while deleting body file '" + bodyFile + "': " + e.getMessage());
         }
     }
 
+    public BodyLayout getBodyLayout() {
+        return repo.layout;
+    }
+
     /**
      * Gets the list of all available repositories.
      *
@@ -403,13 +1462,178 @@ public class Storage {
     }
 
     /**
-     * Moves a note file between the notes and archive directories in the current repository.
+     * Moves a note's body file between the notes and archive directories in the current repository.
+     * If the repository packs archived bodies, archiving appends the body to the pack instead,
+     * and unarchiving a packed body writes it back out to notes/. Once a compression dictionary has been
+     * trained, archived bodies are compressed with it, and unarchiving decompresses them again.
+     * Bodies held in the content store or the paged store stay where they are.
      *
-     * @param filename the name of the note file to move
+     * @param note the note whose body file to move
      * @param toArchive true to move to archive, false to move to notes
      * @throws ZettelException if the file move operation fails
      */
-    public void moveNoteBetweenDirectories(String filename, boolean toArchive) throws ZettelException {
-        fileSystemManager.moveNoteBetweenDirectories(filename, repoName, toArchive);
+    public void moveNoteBetweenDirectories(Note note, boolean toArchive) throws ZettelException {
+        if (note.getBodyHash() != null || repo.pagedStore != null) {
+            return;
+        }
+        String bodyFile = repo.layout.getBodyFile(note);
+        boolean isPacking = toArchive && repo.archivePack != null && repo.archiveStorage == ArchiveStorage.PACKED;
+        boolean isUnpacking = !toArchive && repo.archivePack != null && repo.archivePack.contains(note.getId());
+        boolean isCompressing = toArchive && repo.bodyCodec != null && repo.bodyCodec.hasDictionary();
+        boolean isDecompressing = !toArchive && note.getBodyCodec() != null;
+        String fromKey = repo.getBodyManifestKey(note, !toArchive);
+        String toKey = repo.getBodyManifestKey(note, toArchive);
+        if (isPacking || isUnpacking || isCompressing || isDecompressing) {
+            moveBodyTransformed(note, toArchive, isPacking, isUnpacking, isCompressing);
+            if (repo.bodyManifest != null) {
+                repo.bodyManifest.remove(fromKey);
+                repo.bodyManifest.stamp(toKey, toArchive ? getArchivePath(note) : getNotePath(note));
+            }
+        } else {
+            fileSystemManager.moveNoteBetweenDirectories(bodyFile, repo.repoName, toArchive);
+            if (repo.bodyManifest != null) {
+                repo.bodyManifest.move(fromKey, toKey);
+            }
+        }
+        invalidateBody(note);
+        if (repo.manifest != null) {
+            repo.manifest.remove(bodyFile, !toArchive);
+            if (!isPacking) {
+                repo.manifest.add(bodyFile, toArchive);
+            }
+        }
+    }
+
+    // Writes the body in its new place, packed or compressed as needed, before removing the old copy
+    private void moveBodyTransformed(Note note, boolean toArchive, boolean isPacking, boolean isUnpacking,
+                                     boolean isCompressing) throws ZettelException {
+        Path notePath = getNotePath(note);
+        Path archivePath = getArchivePath(note);
+        try {
+            if (toArchive) {
+                byte[] body = Files.readAllBytes(notePath);
+                byte[] stored = isCompressing ? repo.bodyCodec.compress(body) : body;
+                if (isPacking) {
+                    repo.archivePack.append(note.getId(), stored);
+                } else {
+                    Files.createDirectories(archivePath.getParent());
+                    AtomicFileWriter.write(archivePath, out -> out.write(stored));
+                }
+                Files.delete(notePath);
+                note.setBodyCodec(isCompressing ? BodyCodec.DEFLATE : null);
+            } else {
+                byte[] stored = isUnpacking ? repo.archivePack.read(note.getId()) : Files.readAllBytes(archivePath);
+                byte[] body = repo.bodyCodec != null
+                        ? repo.bodyCodec.decode(stored, note.getBodyCodec() != null) : stored;
+                Files.createDirectories(notePath.getParent());
+                AtomicFileWriter.write(notePath, out -> out.write(body));
+                if (isUnpacking) {
+                    repo.archivePack.remove(note.getId());
+                    repo.archivePack.scheduleCompaction();
+                } else {
+                    Files.delete(archivePath);
+                }
+                note.setBodyCodec(null);
+            }
+        } catch (IOException e) {
+            String action = toArchive ? "archive" : "unarchive";
+            throw new FailedMoveNoteException("Failed to " + action + " note file '" + notePath.getFileName()
+                    + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compresses every archived body of the current repository with a dictionary freshly trained on them.
+     * Bodies held in the content store or the paged store are left as they are.
+     * The index records the bodies as compressed before any is rewritten, and bodies are compressed
+     * in parallel; reading still works whichever of the two a stopped session left behind.
+     * Dictionaries no body needs any more are deleted once every body has been rewritten.
+     *
+     * @param notes all notes in the current repository
+     * @return the number of archived bodies compressed
+     * @throws ZettelException if the dictionary cannot be saved or a body cannot be rewritten
+     */
+    public int compressArchive(List<Note> notes) throws ZettelException {
+        List<Note> archivedNotes = notes.stream()
+                .filter(note -> note.isArchived() && note.getBodyHash() == null)
+                .collect(Collectors.toList());
+        if (archivedNotes.isEmpty() || repo.bodyLocator == null || repo.pagedStore != null) {
+            return 0;
+        }
+
+        try {
+            List<byte[]> samples = new ArrayList<>();
+            long sampleBytes = 0;
+            for (Note note : archivedNotes) {
+                if (sampleBytes >= BodyCodec.MAX_SAMPLE_BYTES) {
+                    break;
+                }
+                byte[] body = repo.bodyLocator.read(note);
+                samples.add(body);
+                sampleBytes += body.length;
+            }
+            if (!repo.bodyCodec.train(samples)) {
+                return 0;
+            }
+        } catch (IOException e) {
+            throw new ZettelException("Failed to train compression dictionary: " + e.getMessage());
+        }
+
+        // Flag first: a flagged plain body still reads as plain, but an unflagged compressed one might not
+        for (Note note : archivedNotes) {
+            note.setBodyCodec(BodyCodec.DEFLATE);
+        }
+        save(notes);
+        fileSyncer.syncAll();
+
+        int threadCount = Math.max(1, Math.min(archivedNotes.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "archive-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Note note : archivedNotes) {
+                results.add(executor.submit(() -> {
+                    compressArchivedBody(note);
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            throw new ZettelException("Failed to compress archived note: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZettelException("Interrupted while compressing archived notes");
+        } finally {
+            executor.shutdown();
+        }
+
+        repo.bodyCodec.deleteOldDictionaries();
+        if (repo.archivePack != null) {
+            repo.archivePack.scheduleCompaction();
+        }
+        return archivedNotes.size();
+    }
+
+    private static byte[] toBytes(String body) {
+        return (body != null ? body : "").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void compressArchivedBody(Note note) throws IOException {
+        byte[] stored = repo.bodyCodec.compress(repo.bodyLocator.read(note));
+        Path archivePath = getArchivePath(note);
+        if (repo.archivePack != null && repo.archivePack.contains(note.getId())) {
+            repo.archivePack.append(note.getId(), stored);
+        } else {
+            AtomicFileWriter.write(archivePath, out -> out.write(stored));
+        }
+        bodyCache.invalidate(archivePath);
+        if (repo.bodyManifest != null) {
+            repo.bodyManifest.stamp(repo.getBodyManifestKey(note, true), archivePath);
+        }
     }
 }
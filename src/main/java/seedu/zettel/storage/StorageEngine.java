@@ -0,0 +1,42 @@
+package seedu.zettel.storage;
+
+/**
+ * Ways of storing the notes of a repository.
+ */
+public enum StorageEngine {
+    /** An index file with its journal, and bodies stored as set by the other repository settings. */
+    FILES("files"),
+    /** Metadata and bodies of every note together in one paged file, notes.db. */
+    PAGED("paged");
+
+    private final String settingValue;
+
+    StorageEngine(String settingValue) {
+        this.settingValue = settingValue;
+    }
+
+    /**
+     * Gets the value used for this storage engine in a settings file.
+     *
+     * @return the setting value, e.g. "paged"
+     */
+    public String getSettingValue() {
+        return settingValue;
+    }
+
+    /**
+     * Finds the storage engine named by a setting value.
+     *
+     * @param settingValue the setting value, ignoring case
+     * @return the named storage engine, or FILES if the value names none
+     */
+    public static StorageEngine fromSetting(String settingValue) {
+        for (StorageEngine engine : values()) {
+            if (engine.settingValue.equalsIgnoreCase(settingValue)) {
+                return engine;
+            }
+        }
+        System.out.println("Warning: unknown storage engine '" + settingValue + "', using files");
+        return FILES;
+    }
+}
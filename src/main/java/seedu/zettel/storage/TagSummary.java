@@ -0,0 +1,91 @@
+package seedu.zettel.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import seedu.zettel.Note;
+
+/**
+ * Number of notes carrying each tag in one repository, kept in a small sidecar file
+ * (one {@code tag | count} line per tag) so that the tags of every repository can be
+ * collected at startup without reading each repository's index.
+ */
+class TagSummary {
+    private static final String DELIM = " | ";
+
+    private TagSummary() {
+    }
+
+    /**
+     * Counts the notes carrying each tag.
+     *
+     * @param notes the notes of a repository
+     * @return tag -> number of notes with that tag, sorted by tag
+     */
+    static Map<String, Integer> count(List<Note> notes) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Note note : notes) {
+            for (String tag : note.getTagsView()) {
+                if (tag != null && !tag.trim().isEmpty()) {
+                    counts.merge(tag.trim(), 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Reads a tag summary file.
+     *
+     * @param summaryPath the path to the summary file
+     * @return tag -> count, as stored
+     * @throws IOException if the file cannot be read
+     */
+    static Map<String, Integer> read(Path summaryPath) throws IOException {
+        Map<String, Integer> counts = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(summaryPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int delimIndex = line.lastIndexOf(DELIM);
+                if (delimIndex <= 0) {
+                    continue;
+                }
+                try {
+                    int count = Integer.parseInt(line.substring(delimIndex + DELIM.length()).trim());
+                    if (count > 0) {
+                        counts.put(line.substring(0, delimIndex), count);
+                    }
+                } catch (NumberFormatException e) {
+                    System.out.println("Skipping malformed tag summary line: " + line);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Replaces a tag summary file with the given counts.
+     *
+     * @param counts tag -> count
+     * @param summaryPath the path to the summary file
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Map<String, Integer> counts, Path summaryPath) throws IOException {
+        AtomicFileWriter.write(summaryPath, out -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                writer.write(entry.getKey() + DELIM + entry.getValue());
+                writer.newLine();
+            }
+            writer.flush();
+        });
+    }
+}
@@ -0,0 +1,330 @@
+package seedu.zettel.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import seedu.zettel.Note;
+
+/**
+ * Formats and parses the lines of the text index (index.txt) in a single pass over the characters.
+ * <p>
+ * Fields are separated by {@code " | "} and list items by {@code ";;"}. Characters that could be
+ * mistaken for a separator are escaped with a backslash: {@code \\}, {@code \|}, {@code \;},
+ * {@code \n} and {@code \r}. Any other backslash sequence is read literally, so lines written
+ * before escaping was introduced still parse the same way.
+ * <p>
+ * Two optional fields follow: the codec a note's body is compressed with, and the content hash it is stored
+ * under. They are written only when needed (the codec field empty if only the hash is set), so the lines of
+ * other notes are the same as before the fields were introduced.
+ * <p>
+ * Every line ends with the CRC32C of the rest of the line, as {@code " | #"} and eight hex digits, so a damaged
+ * record is recognised and skipped on its own instead of being read as a wrong note. No other field starts with
+ * {@code #} after its separator, so a line ending in a field that does, but not in exactly eight hex digits, is a
+ * checksum cut short and is rejected too. Lines written before checksums were introduced have no checksum and
+ * are read unchecked, but only until a line with a checksum is read: a line without one after that is a record
+ * cut short. Rejected lines are counted, not printed, so that the caller can report them once.
+ * <p>
+ * Reuses one buffer for every line, so an instance must not be shared between threads.
+ */
+class TextIndexCodec {
+    static final String FIELD_DELIM = " | ";
+    static final int FIELD_COUNT = 11;
+
+    private static final int TAGS_FIELD = 8;
+    private static final int OUTGOING_FIELD = 9;
+    private static final int CODEC_FIELD = 11;
+    private static final int HASH_FIELD = 12;
+    private static final String CHECKSUM_DELIM = " | #";
+    private static final int CHECKSUM_DIGITS = 8;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int NO_CHECKSUM = -1;
+    private static final int BAD_CHECKSUM = -2;
+
+    private final StringBuilder buffer = new StringBuilder(256);
+    private final CRC32C crc = new CRC32C();
+    private int damagedCount;
+    // Set once a line with a checksum is read, after which every line must have one
+    private boolean isChecksummed;
+
+    /**
+     * Formats a note as one index line.
+     *
+     * @param note the note to format
+     * @return the index line, without a line terminator
+     */
+    String format(Note note) {
+        buffer.setLength(0);
+        appendEscaped(note.getId());
+        buffer.append(FIELD_DELIM);
+        appendEscaped(note.getTitle());
+        buffer.append(FIELD_DELIM);
+        appendEscaped(note.getFilename());
+        buffer.append(FIELD_DELIM);
+        buffer.append(note.getCreatedAt());
+        buffer.append(FIELD_DELIM);
+        buffer.append(note.getModifiedAt());
+        buffer.append(FIELD_DELIM);
+        buffer.append(note.isPinned() ? '1' : '0');
+        buffer.append(FIELD_DELIM);
+        buffer.append(note.isArchived() ? '1' : '0');
+        buffer.append(FIELD_DELIM);
+        appendEscaped(note.getArchiveName());
+        buffer.append(FIELD_DELIM);
+        appendList(note.getTagsView());
+        buffer.append(FIELD_DELIM);
+        appendList(note.getOutgoingLinksView());
+        buffer.append(FIELD_DELIM);
+        appendList(note.getIncomingLinksView());
+        if (note.getBodyCodec() != null || note.getBodyHash() != null) {
+            buffer.append(FIELD_DELIM);
+            appendEscaped(note.getBodyCodec());
+        }
+        if (note.getBodyHash() != null) {
+            buffer.append(FIELD_DELIM);
+            appendEscaped(note.getBodyHash());
+        }
+        long checksum = checksumOf(buffer.toString());
+        buffer.append(CHECKSUM_DELIM);
+        for (int shift = (CHECKSUM_DIGITS - 1) * 4; shift >= 0; shift -= 4) {
+            buffer.append(HEX_DIGITS[(int) (checksum >>> shift) & 0xf]);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Checks a line against its checksum without parsing it.
+     *
+     * @param line the index line
+     * @return false if the line's checksum is cut short or does not match it, or it has none after lines
+     *     with a checksum were read, true otherwise
+     */
+    boolean isIntact(String line) {
+        return findChecksum(line) != BAD_CHECKSUM;
+    }
+
+    /**
+     * Gets the number of non-blank lines rejected as malformed or damaged since this codec was created
+     * or the count was last reset.
+     *
+     * @return the number of rejected lines
+     */
+    int getDamagedCount() {
+        return damagedCount;
+    }
+
+    /**
+     * Resets the number of rejected lines to zero and forgets whether lines with a checksum were read,
+     * e.g. before reading another index.
+     */
+    void resetDamagedCount() {
+        damagedCount = 0;
+        isChecksummed = false;
+    }
+
+    /**
+     * Parses one index line into a note without a body.
+     *
+     * @param line the index line
+     * @return the parsed note, or null if the line is blank, malformed or fails its checksum
+     */
+    Note parse(String line) {
+        if (line == null || line.isBlank()) {
+            return null;
+        }
+        int checksumStart = findChecksum(line);
+        if (checksumStart == BAD_CHECKSUM) {
+            damagedCount++;
+            return null;
+        }
+        if (checksumStart >= 0) {
+            line = line.substring(0, checksumStart);
+        }
+
+        String[] fields = new String[HASH_FIELD + 1];
+        List<String> tags = new ArrayList<>();
+        List<String> outgoingLinks = new ArrayList<>();
+        List<String> incomingLinks = new ArrayList<>();
+
+        buffer.setLength(0);
+        int fieldIndex = 0;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < length) {
+                i++;
+                appendUnescaped(line.charAt(i));
+            } else if (c == ' ' && fieldIndex < HASH_FIELD && i + 2 < length
+                    && line.charAt(i + 1) == '|' && line.charAt(i + 2) == ' ') {
+                endField(fieldIndex, fields, tags, outgoingLinks, incomingLinks);
+                fieldIndex++;
+                i += 2;
+            } else if (c == ';' && isListField(fieldIndex) && i + 1 < length && line.charAt(i + 1) == ';') {
+                addItem(listFor(fieldIndex, tags, outgoingLinks, incomingLinks));
+                i++;
+            } else {
+                buffer.append(c);
+            }
+        }
+        endField(fieldIndex, fields, tags, outgoingLinks, incomingLinks);
+
+        if (fieldIndex < FIELD_COUNT - 1) {
+            damagedCount++;
+            return null;
+        }
+
+        try {
+            Note note = new Note(fields[0].trim(), fields[1], fields[2], "",
+                    Instant.parse(fields[3]), Instant.parse(fields[4]),
+                    fields[5].equals("1"), fields[6].equals("1"),
+                    fields[7].isEmpty() ? null : fields[7], tags);
+            for (String linkId : outgoingLinks) {
+                note.addOutgoingLink(linkId);
+            }
+            for (String linkId : incomingLinks) {
+                note.addIncomingLink(linkId);
+            }
+            if (fields[CODEC_FIELD] != null && !fields[CODEC_FIELD].isBlank()) {
+                String bodyCodec = fields[CODEC_FIELD].trim();
+                if (!bodyCodec.equals(BodyCodec.DEFLATE)) {
+                    damagedCount++;
+                    return null;
+                }
+                note.setBodyCodec(bodyCodec);
+            }
+            if (fields[HASH_FIELD] != null && !fields[HASH_FIELD].isBlank()) {
+                note.setBodyHash(fields[HASH_FIELD].trim());
+            }
+            return note;
+        } catch (RuntimeException e) {
+            damagedCount++;
+            return null;
+        }
+    }
+
+    // A field separator is never escaped, so a last field starting with "#" can only be the checksum.
+    // Gives where the checksum starts, NO_CHECKSUM for a line read unchecked, or BAD_CHECKSUM
+    private int findChecksum(String line) {
+        int checksumStart = line.lastIndexOf(CHECKSUM_DELIM);
+        if (checksumStart < 0 || line.indexOf(FIELD_DELIM, checksumStart + 1) >= 0) {
+            return isChecksummed ? BAD_CHECKSUM : NO_CHECKSUM;
+        }
+        isChecksummed = true;
+        int digitsStart = checksumStart + CHECKSUM_DELIM.length();
+        if (line.length() - digitsStart != CHECKSUM_DIGITS) {
+            return BAD_CHECKSUM;
+        }
+        for (int i = digitsStart; i < line.length(); i++) {
+            if (Character.digit(line.charAt(i), 16) < 0) {
+                return BAD_CHECKSUM;
+            }
+        }
+        return isChecksumValid(line, checksumStart) ? checksumStart : BAD_CHECKSUM;
+    }
+
+    private boolean isChecksumValid(String line, int checksumStart) {
+        long stored = Long.parseLong(line.substring(checksumStart + CHECKSUM_DELIM.length()), 16);
+        return stored == checksumOf(line.substring(0, checksumStart));
+    }
+
+    private long checksumOf(String record) {
+        crc.reset();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private void endField(int fieldIndex, String[] fields, List<String> tags,
+                          List<String> outgoingLinks, List<String> incomingLinks) {
+        if (!isListField(fieldIndex)) {
+            fields[fieldIndex] = buffer.toString();
+            buffer.setLength(0);
+        } else {
+            addItem(listFor(fieldIndex, tags, outgoingLinks, incomingLinks));
+        }
+    }
+
+    private static boolean isListField(int fieldIndex) {
+        return fieldIndex >= TAGS_FIELD && fieldIndex < CODEC_FIELD;
+    }
+
+    private List<String> listFor(int fieldIndex, List<String> tags,
+                                 List<String> outgoingLinks, List<String> incomingLinks) {
+        return switch (fieldIndex) {
+        case TAGS_FIELD -> tags;
+        case OUTGOING_FIELD -> outgoingLinks;
+        default -> incomingLinks;
+        };
+    }
+
+    // Adds the list item collected in the buffer, trimmed, unless it is empty
+    private void addItem(List<String> items) {
+        int start = 0;
+        int end = buffer.length();
+        while (start < end && Character.isWhitespace(buffer.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(buffer.charAt(end - 1))) {
+            end--;
+        }
+        if (start < end) {
+            items.add(buffer.substring(start, end));
+        }
+        buffer.setLength(0);
+    }
+
+    private void appendList(Collection<String> items) {
+        boolean isFirst = true;
+        for (String item : items) {
+            if (item == null) {
+                continue;
+            }
+            int start = 0;
+            int end = item.length();
+            while (start < end && Character.isWhitespace(item.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(item.charAt(end - 1))) {
+                end--;
+            }
+            if (start == end) {
+                continue;
+            }
+            if (!isFirst) {
+                buffer.append(NoteSerializer.LIST_DELIM);
+            }
+            appendEscaped(item, start, end);
+            isFirst = false;
+        }
+    }
+
+    private void appendEscaped(String value) {
+        if (value != null) {
+            appendEscaped(value, 0, value.length());
+        }
+    }
+
+    private void appendEscaped(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '\\', '|', ';' -> buffer.append('\\').append(c);
+            case '\n' -> buffer.append("\\n");
+            case '\r' -> buffer.append("\\r");
+            default -> buffer.append(c);
+            }
+        }
+    }
+
+    private void appendUnescaped(char escaped) {
+        switch (escaped) {
+        case '\\', '|', ';' -> buffer.append(escaped);
+        case 'n' -> buffer.append('\n');
+        case 'r' -> buffer.append('\r');
+        // Not an escape this codec writes, so keep it as it is
+        default -> buffer.append('\\').append(escaped);
+        }
+    }
+}
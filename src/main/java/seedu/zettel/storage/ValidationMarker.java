@@ -0,0 +1,144 @@
+package seedu.zettel.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Records the generation of a repository at which it was last validated, so that a repository
+ * that has not changed since is not scanned again.
+ * <p>
+ * The generation is derived from the size and modification time of the index files and the
+ * modification time of the notes/ and archive/ directories, and of their shard directories when the
+ * repository is sharded. Adding, removing or renaming a body file, or changing the index, moves the
+ * generation on, whether Zettel made the change or not.
+ */
+class ValidationMarker {
+    private static final String GENERATION_PREFIX = "generation ";
+
+    private ValidationMarker() {
+    }
+
+    /**
+     * Checks whether a repository is still at the generation it was last validated at.
+     *
+     * @param repoPath the repository folder
+     * @param layout the layout the repository's body files are arranged in
+     * @return true if the repository was validated and has not changed since
+     */
+    static boolean isCurrent(Path repoPath, BodyLayout layout) {
+        Path markerPath = repoPath.resolve(FileSystemManager.REPO_VALIDATION_MARKER);
+        try {
+            return Files.exists(markerPath)
+                    && Files.readString(markerPath, StandardCharsets.UTF_8).trim()
+                    .equals(GENERATION_PREFIX + generationOf(repoPath, layout));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records that a repository is valid at its current generation.
+     *
+     * @param repoPath the repository folder
+     * @param layout the layout the repository's body files are arranged in
+     */
+    static void record(Path repoPath, BodyLayout layout) {
+        try {
+            record(repoPath, generationOf(repoPath, layout));
+        } catch (IOException e) {
+            System.out.println("Warning: failed to record validation of " + repoPath.getFileName()
+                    + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records that a repository is valid at the given generation, read before it was checked,
+     * so that a change made while it was being checked leaves the marker out of date.
+     *
+     * @param repoPath the repository folder
+     * @param generation the generation the repository was checked at
+     * @throws IOException if the marker cannot be written
+     */
+    static void record(Path repoPath, String generation) throws IOException {
+        Files.writeString(repoPath.resolve(FileSystemManager.REPO_VALIDATION_MARKER),
+                GENERATION_PREFIX + generation + System.lineSeparator(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the current generation of a repository.
+     *
+     * @param repoPath the repository folder
+     * @param layout the layout the repository's body files are arranged in
+     * @return a stamp that changes whenever the index or the set of body files changes
+     */
+    static String generationOf(Path repoPath, BodyLayout layout) throws IOException {
+        StringBuilder generation = new StringBuilder(indexGenerationOf(repoPath));
+        for (String dirName : List.of(FileSystemManager.REPO_NOTES, FileSystemManager.REPO_ARCHIVE)) {
+            Path dir = repoPath.resolve(dirName);
+            appendStamp(generation, dir);
+            if (layout.getScanDepth() > 1) {
+                appendShardStamp(generation, dir, layout.getScanDepth() - 1);
+            }
+        }
+        return generation.toString();
+    }
+
+    /**
+     * Gets the current generation of a repository's index alone.
+     *
+     * @param repoPath the repository folder
+     * @return a stamp that changes whenever the index, its journal or the paged store is written
+     */
+    static String indexGenerationOf(Path repoPath) throws IOException {
+        StringBuilder generation = new StringBuilder();
+        appendStamp(generation, repoPath.resolve(FileSystemManager.REPO_INDEX));
+        appendStamp(generation, repoPath.resolve(FileSystemManager.REPO_BINARY_INDEX));
+        appendStamp(generation, repoPath.resolve(FileSystemManager.REPO_JOURNAL));
+        appendStamp(generation, repoPath.resolve(FileSystemManager.REPO_PAGED_STORE));
+        return generation.toString();
+    }
+
+    // A body file added to or removed from a shard directory only moves that directory's time, so every
+    // shard directory is stamped; their times are folded into one checksum to keep the marker short
+    private static void appendShardStamp(StringBuilder generation, Path dir, int depth) throws IOException {
+        CRC32C checksum = new CRC32C();
+        if (Files.isDirectory(dir)) {
+            List<Path> shardDirs;
+            try (Stream<Path> paths = Files.walk(dir, depth)) {
+                shardDirs = paths.filter(path -> !path.equals(dir) && Files.isDirectory(path))
+                        .sorted()
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for (Path shardDir : shardDirs) {
+                String stamp = dir.relativize(shardDir) + ":" + Files.getLastModifiedTime(shardDir).toMillis() + "\n";
+                checksum.update(stamp.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        generation.append('.').append(Long.toHexString(checksum.getValue()));
+    }
+
+    private static void appendStamp(StringBuilder generation, Path path) throws IOException {
+        if (generation.length() > 0) {
+            generation.append('.');
+        }
+        if (Files.notExists(path)) {
+            generation.append('-');
+            return;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        generation.append(attributes.lastModifiedTime().toMillis());
+        if (!attributes.isDirectory()) {
+            generation.append(':').append(attributes.size());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package seedu.zettel.storage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+import seedu.zettel.Note;
+
+/**
+ * Saves the changes commands make on a background thread, so that the prompt does not wait for the disk.
+ * <p>
+ * Commands hand their change sets to {@link #enqueue} and return at once. Change sets are merged into one
+ * pending change set, which the persister thread saves once no change has come in for the quiet period,
+ * or straight away once it holds {@code maxPendingChanges} changes. {@link #flush()} saves whatever is
+ * pending on the calling thread, e.g. when Zettel exits or before the index is read back from disk.
+ * <p>
+ * The notes are only safe to save while no command is changing them, so every save is made holding the
+ * state lock, which commands hold while they run.
+ */
+class WriteBehindPersister {
+    /** Milliseconds without a new change after which pending changes are saved, when none is configured. */
+    static final long DEFAULT_QUIET_MS = 250;
+
+    /** Number of pending changes at which they are saved without waiting, when none is configured. */
+    static final int DEFAULT_MAX_PENDING_CHANGES = 256;
+
+    private final ReentrantLock stateLock;
+    private final Condition changed;
+    private final BiConsumer<List<Note>, ChangeSet> saver;
+    private final long quietNanos;
+    private final int maxPendingChanges;
+    private final Thread thread;
+
+    // The list the pending changes belong to, and the changes; both null when nothing is pending
+    private List<Note> pendingNotes;
+    private ChangeSet pendingChanges;
+    private long lastChangeNanos;
+
+    private long lastFlushNanos;
+    private long maxFlushNanos;
+    private long flushCount;
+    private boolean isClosed;
+
+    /**
+     * Constructs a persister and starts its thread.
+     *
+     * @param stateLock the lock commands hold while they change notes
+     * @param saver saves a change set of a list of notes
+     * @param quietMs milliseconds without a new change after which pending changes are saved
+     * @param maxPendingChanges number of pending changes at which they are saved without waiting
+     */
+    WriteBehindPersister(ReentrantLock stateLock, BiConsumer<List<Note>, ChangeSet> saver, long quietMs,
+                         int maxPendingChanges) {
+        this.stateLock = stateLock;
+        this.changed = stateLock.newCondition();
+        this.saver = saver;
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, quietMs));
+        this.maxPendingChanges = Math.max(1, maxPendingChanges);
+        this.thread = new Thread(this::run, "write-behind");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Merges a command's changes into the pending changes, to be saved later by the persister thread.
+     * Changes pending for another list of notes are saved first.
+     *
+     * @param notes the list of all notes the changes belong to
+     * @param changes the notes and tags a command changed
+     */
+    void enqueue(List<Note> notes, ChangeSet changes) {
+        stateLock.lock();
+        try {
+            if (pendingNotes != null && pendingNotes != notes) {
+                flushPending();
+            }
+            if (pendingChanges == null) {
+                pendingNotes = notes;
+                pendingChanges = new ChangeSet();
+            }
+            pendingChanges.merge(changes);
+            lastChangeNanos = System.nanoTime();
+            changed.signal();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Saves whatever is pending on the calling thread, waiting for a save in progress to finish first.
+     */
+    void flush() {
+        stateLock.lock();
+        try {
+            flushPending();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Saves whatever is pending and stops the persister thread.
+     */
+    void close() {
+        stateLock.lock();
+        try {
+            flushPending();
+            isClosed = true;
+            changed.signal();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of notes and tags whose changes are waiting to be saved.
+     *
+     * @return the number of pending changes
+     */
+    int getQueueDepth() {
+        stateLock.lock();
+        try {
+            return pendingChanges == null ? 0 : pendingChanges.size();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Gets how long the last save of pending changes took.
+     *
+     * @return the duration of the last save, or zero if nothing was saved yet
+     */
+    Duration getLastFlushLatency() {
+        stateLock.lock();
+        try {
+            return Duration.ofNanos(lastFlushNanos);
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Gets how long the slowest save of pending changes took.
+     *
+     * @return the duration of the slowest save, or zero if nothing was saved yet
+     */
+    Duration getMaxFlushLatency() {
+        stateLock.lock();
+        try {
+            return Duration.ofNanos(maxFlushNanos);
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of times pending changes were saved.
+     *
+     * @return the number of saves
+     */
+    long getFlushCount() {
+        stateLock.lock();
+        try {
+            return flushCount;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    // Awaiting the condition releases the state lock, so commands only wait while a save is being made
+    private void run() {
+        stateLock.lock();
+        try {
+            while (!isClosed) {
+                if (pendingChanges == null) {
+                    changed.await();
+                    continue;
+                }
+                long waitNanos = lastChangeNanos + quietNanos - System.nanoTime();
+                if (waitNanos > 0 && pendingChanges.size() < maxPendingChanges) {
+                    changed.awaitNanos(waitNanos);
+                    continue;
+                }
+                flushPending();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private void flushPending() {
+        if (pendingChanges == null) {
+            return;
+        }
+        List<Note> notes = pendingNotes;
+        ChangeSet changes = pendingChanges;
+        pendingNotes = null;
+        pendingChanges = null;
+        long start = System.nanoTime();
+        saver.accept(notes, changes);
+        lastFlushNanos = System.nanoTime() - start;
+        maxFlushNanos = Math.max(maxFlushNanos, lastFlushNanos);
+        flushCount++;
+    }
+}
@@ -0,0 +1,87 @@
+package seedu.zettel.util;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import seedu.zettel.exceptions.ZettelException;
+
+/**
+ * CLI utility to show long output one screen at a time in the user's pager.
+ * <p>
+ * Priority order for pager selection:
+ *  1) $PAGER
+ *  2) fallback pagers: less, more
+ */
+public final class PagerUtil {
+    private static final long EXIT_WAIT_SECONDS = 1;
+
+    /**
+     * Writes output to a channel, such as a pager's input.
+     */
+    @FunctionalInterface
+    public interface ChannelWriter {
+        /**
+         * Writes the output to the channel.
+         *
+         * @param channel the channel to write to, which must not be closed
+         * @throws ZettelException if the output cannot be produced or written
+         */
+        void writeTo(WritableByteChannel channel) throws ZettelException;
+    }
+
+    /**
+     * Shows output in the user's pager, waiting until the pager is closed.
+     * Nothing is shown when there is no interactive console, since paging would only get in the way.
+     *
+     * @param writer writes the output into the pager's input
+     * @return true if the output was shown in a pager, false if no pager could be started
+     * @throws ZettelException if the output cannot be written while the pager is still reading it
+     * @throws InterruptedException if interrupted while waiting for the pager to close
+     */
+    public static boolean page(ChannelWriter writer) throws ZettelException, InterruptedException {
+        if (System.console() == null) {
+            return false;
+        }
+
+        List<List<String>> pagers = new ArrayList<>();
+        String pager = System.getenv("PAGER");
+        if (pager != null && !pager.isBlank()) {
+            pagers.add(List.of(pager.trim().split("\\s+")));
+        }
+        pagers.add(List.of("less"));
+        pagers.add(List.of("more"));
+
+        for (List<String> command : pagers) {
+            Process process;
+            try {
+                process = new ProcessBuilder(command)
+                        .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+            } catch (IOException e) {
+                // Try the next pager
+                continue;
+            }
+            feed(process, writer);
+            process.waitFor();
+            return true;
+        }
+        return false;
+    }
+
+    private static void feed(Process process, ChannelWriter writer) throws ZettelException, InterruptedException {
+        try (WritableByteChannel channel = Channels.newChannel(process.getOutputStream())) {
+            writer.writeTo(channel);
+        } catch (ZettelException | IOException e) {
+            // A pager that has exited was closed before reaching the end, which is not an error
+            if (!process.waitFor(EXIT_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroy();
+                throw new ZettelException("Failed to write to pager: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package seedu.zettel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class NoteIdMapTest {
+
+    private static Note makeNote(int id) {
+        String hexId = String.format("%08x", id);
+        return new Note(hexId, "Title " + hexId, hexId + ".txt", "", Instant.now(), Instant.now());
+    }
+
+    @Test
+    void testPutGetRemove_matchesHashMapUnderRandomChanges() {
+        NoteIdMap map = new NoteIdMap();
+        Map<Integer, Note> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            // Few distinct keys, including negative ones, so that probe runs collide and wrap around
+            int key = random.nextInt(512) - 256;
+            if (random.nextInt(3) == 0) {
+                assertSame(expected.remove(key), map.remove(key));
+            } else {
+                Note note = makeNote(key);
+                assertSame(expected.put(key, note), map.put(key, note));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -256; key < 256; key++) {
+            assertSame(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void testClear_removesEveryNote() {
+        NoteIdMap map = new NoteIdMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, makeNote(i));
+        }
+
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertNull(map.get(5));
+    }
+}
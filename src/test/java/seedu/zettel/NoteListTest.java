@@ -0,0 +1,160 @@
+package seedu.zettel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import seedu.zettel.exceptions.AmbiguousNoteIdException;
+
+public class NoteListTest {
+
+    private static Note makeNote(String id, String title) {
+        return new Note(id, title, title + ".txt", "", Instant.now(), Instant.now());
+    }
+
+    @Test
+    void testFindById_afterAddAndRemove_findsOnlyNotesInList() {
+        NoteList notes = new NoteList();
+        Note first = makeNote("abcd1234", "First");
+        Note second = makeNote("ffffffff", "Second");
+        notes.add(first);
+        notes.add(second);
+
+        assertSame(first, notes.getById("abcd1234"));
+        assertSame(second, NoteList.findById(notes, "ffffffff").orElseThrow());
+        assertTrue(NoteList.containsFilename(notes, "Second.txt"));
+
+        notes.remove(second);
+
+        assertTrue(NoteList.findById(notes, "ffffffff").isEmpty());
+        assertFalse(NoteList.containsFilename(notes, "Second.txt"));
+        assertSame(first, notes.getById("abcd1234"));
+    }
+
+    @Test
+    void testBulkChanges_keepIndexesInStep() {
+        NoteList notes = new NoteList();
+        List<Note> added = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            added.add(makeNote(String.format("%08x", i * 7919), "Note" + i));
+        }
+        notes.addAll(added);
+
+        notes.removeIf(note -> note.getTitle().endsWith("7"));
+        Iterator<Note> iterator = notes.iterator();
+        iterator.next();
+        iterator.remove();
+        notes.set(0, makeNote("0badcafe", "Replacement"));
+
+        for (Note note : added) {
+            assertEquals(notes.contains(note), notes.getById(note.getId()) == note);
+            assertEquals(notes.contains(note), NoteList.containsFilename(notes, note.getFilename()));
+        }
+        assertEquals("Replacement", notes.getById("0badcafe").getTitle());
+
+        notes.clear();
+        assertNull(notes.getById("0badcafe"));
+        assertFalse(NoteList.containsFilename(notes, "Replacement.txt"));
+        notes.add(makeNote("0badcafe", "Again"));
+        assertEquals("Again", notes.getById("0badcafe").getTitle());
+    }
+
+    @Test
+    void testFindById_idsThatAreNotHex_andDuplicateIds() {
+        NoteList notes = new NoteList(List.of(makeNote("firs0001", "First")));
+        Note duplicate = makeNote("abcd1234", "Duplicate");
+        Note original = makeNote("abcd1234", "Original");
+        notes.add(original);
+        notes.add(duplicate);
+
+        assertEquals("First", notes.getById("firs0001").getTitle());
+        assertSame(original, notes.getById("abcd1234"));
+
+        notes.remove(original);
+
+        assertSame(duplicate, notes.getById("abcd1234"));
+    }
+
+    @Test
+    void testResolveId_uniquePrefix_returnsFullId() throws AmbiguousNoteIdException {
+        NoteList notes = new NoteList(List.of(makeNote("abcd1234", "First"), makeNote("abce5678", "Second"),
+                makeNote("f0000000", "Third"), makeNote("0fffffff", "Fourth")));
+
+        assertEquals("abcd1234", notes.resolveId("abcd"));
+        assertEquals("abce5678", NoteList.resolveId(notes, "abce"));
+        assertEquals("f0000000", notes.resolveId("f"));
+        assertEquals("0fffffff", notes.resolveId("0"));
+        assertEquals("abcd1234", notes.resolveId("abcd1234"));
+    }
+
+    @Test
+    void testResolveId_noMatch_returnsInputUnchanged() throws AmbiguousNoteIdException {
+        NoteList notes = new NoteList(List.of(makeNote("abcd1234", "First")));
+
+        assertEquals("abd", notes.resolveId("abd"));
+        assertEquals("abcd1235", notes.resolveId("abcd1235"));
+        assertEquals("firs0001", notes.resolveId("firs0001"));
+    }
+
+    @Test
+    void testResolveId_ambiguousPrefix_throwsWithCandidates() {
+        NoteList notes = new NoteList(List.of(makeNote("abcd1234", "First"), makeNote("abce5678", "Second"),
+                makeNote("12345678", "Third")));
+
+        AmbiguousNoteIdException exception = assertThrows(AmbiguousNoteIdException.class,
+                () -> notes.resolveId("abc"));
+        assertTrue(exception.getMessage().contains("matches 2 notes: abcd1234, abce5678."));
+    }
+
+    @Test
+    void testResolveId_afterAddAndRemove_followsList() throws AmbiguousNoteIdException {
+        NoteList notes = new NoteList();
+        Note first = makeNote("abcd1234", "First");
+        notes.add(first);
+        notes.add(makeNote("abce5678", "Second"));
+
+        assertThrows(AmbiguousNoteIdException.class, () -> notes.resolveId("ab"));
+
+        notes.remove(first);
+
+        assertEquals("abce5678", notes.resolveId("ab"));
+    }
+
+    @Test
+    void testGetUniquePrefixLength_comparesWithNeighbours() {
+        NoteList notes = new NoteList(List.of(makeNote("abcd1234", "First"), makeNote("abce5678", "Second"),
+                makeNote("12345678", "Third"), makeNote("abcd1299", "Fourth")));
+
+        assertEquals(7, notes.getUniquePrefixLength("abcd1234"));
+        assertEquals(4, notes.getUniquePrefixLength("abce5678"));
+        assertEquals(1, notes.getUniquePrefixLength("12345678"));
+        assertEquals(1, new NoteList(List.of(makeNote("abcd1234", "Only"))).getUniquePrefixLength("abcd1234"));
+    }
+
+    @Test
+    void testResolveId_plainList_scans() throws AmbiguousNoteIdException {
+        List<Note> notes = new ArrayList<>(List.of(makeNote("abcd1234", "First"), makeNote("abce5678", "Second")));
+
+        assertEquals("abcd1234", NoteList.resolveId(notes, "abcd"));
+        assertThrows(AmbiguousNoteIdException.class, () -> NoteList.resolveId(notes, "abc"));
+        assertEquals(4, NoteList.getUniquePrefixLength(notes, "abce5678"));
+    }
+
+    @Test
+    void testFindById_plainList_scans() {
+        List<Note> notes = new ArrayList<>(List.of(makeNote("abcd1234", "First")));
+
+        assertEquals("First", NoteList.findById(notes, "abcd1234").orElseThrow().getTitle());
+        assertTrue(NoteList.containsFilename(notes, "First.txt"));
+    }
+}
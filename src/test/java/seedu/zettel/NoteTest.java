@@ -158,4 +158,33 @@ public class NoteTest {
         Note note2 = new Note("def56789", "t2", "f2", "b2", Instant.now(), Instant.now());
         assertEquals(countBefore + 2, Note.getNumberOfNotes());
     }
+
+    @Test
+    @DisplayName("Test generation moves on modification but not on body load")
+    void testGenerationChangesOnModification() {
+        long initial = note.getGeneration();
+
+        note.loadBody("loaded from disk");
+        assertEquals(initial, note.getGeneration(), "Loading a body should not count as a modification");
+
+        note.setPinned(true);
+        long afterPin = note.getGeneration();
+        assertTrue(afterPin > initial);
+
+        note.addTag("tag");
+        assertTrue(note.getGeneration() > afterPin);
+    }
+
+    @Test
+    @DisplayName("Test body loader supplies the body until a body is set")
+    void testBodyLoader() {
+        long initial = note.getGeneration();
+
+        note.setBodyLoader(() -> "from storage");
+        assertEquals("from storage", note.getBody());
+        assertEquals(initial, note.getGeneration(), "Attaching a loader should not count as a modification");
+
+        note.setBody("edited");
+        assertEquals("edited", note.getBody());
+    }
 }
@@ -0,0 +1,84 @@
+package seedu.zettel.commands;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import seedu.zettel.Note;
+import seedu.zettel.UI;
+import seedu.zettel.exceptions.ZettelException;
+import seedu.zettel.storage.Storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CheckRepoCommandTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    private final PrintStream originalOutputStream = System.out;
+
+    private Storage storage;
+    private UI ui;
+    private ArrayList<Note> notes;
+    private List<String> tags;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(outputStream));
+        storage = new Storage(tempDir.toString());
+        storage.init();
+        ui = new UI();
+        notes = new ArrayList<>();
+        tags = new ArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOutputStream);
+    }
+
+    @Test
+    void execute_reportsFilesAndOrphansAddedOutsideZettel() throws ZettelException, IOException {
+        Note note = new Note("abcd1234", "Title", "Title.txt", "Body", Instant.now(), Instant.now());
+        notes.add(note);
+        storage.createStorageFile(note);
+        storage.save(notes);
+
+        // A file dropped into notes/ by hand is only noticed by a deep check
+        Files.writeString(tempDir.resolve("main").resolve("notes").resolve("stray.txt"), "stray");
+
+        new CheckRepoCommand().execute(notes, tags, ui, storage);
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("stray.txt"), "Orphan file should be reported");
+        assertTrue(output.contains("Checked repository /main: 2 note file(s), 0 archived file(s)."));
+    }
+
+    @Test
+    void execute_recreatesMissingBodyFile() throws ZettelException, IOException {
+        Note note = new Note("abcd1234", "Title", "Title.txt", "Body", Instant.now(), Instant.now());
+        notes.add(note);
+        storage.createStorageFile(note);
+        storage.save(notes);
+
+        Path bodyFile = tempDir.resolve("main").resolve("notes").resolve("Title.txt");
+        Files.delete(bodyFile);
+
+        CheckRepoCommand command = new CheckRepoCommand();
+        command.execute(notes, tags, ui, storage);
+
+        assertTrue(Files.exists(bodyFile), "Missing body file should be recreated");
+        assertTrue(command.getChanges().isEmpty(), "Checking a repo should not report note changes");
+    }
+}
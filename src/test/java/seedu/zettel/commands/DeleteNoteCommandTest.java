@@ -66,6 +66,8 @@ class DeleteNoteCommandTest {
         // Execute delete with force flag (skip confirmation)
         DeleteNoteCommand command = new DeleteNoteCommand("12345678", true);
         command.execute(notes, tags, ui, storage);
+        // The main loop saves the command's changes
+        storage.save(notes, command.getChanges());
 
         // Verify note removed from list
         assertEquals(0, notes.size(), "Note should be removed from ArrayList");
@@ -73,10 +75,9 @@ class DeleteNoteCommandTest {
         // Verify physical file deleted
         assertFalse(Files.exists(noteFile), "Note file should be deleted");
 
-        // Verify metadata removed from index.txt
-        Path indexPath = tempDir.resolve("main").resolve("index.txt");
-        String indexContent = Files.readString(indexPath);
-        assertFalse(indexContent.contains("12345678"), "Note ID should not be in index.txt");
+        // Verify metadata removed from the persisted index (index.txt plus its journal)
+        assertTrue(storage.load().stream().noneMatch(n -> n.getId().equals("12345678")),
+                "Note ID should not be in the persisted index");
     }
 
     @Test
@@ -120,6 +121,8 @@ class DeleteNoteCommandTest {
         // Execute delete
         DeleteNoteCommand command = new DeleteNoteCommand("abcdefgh", true);
         command.execute(notes, tags, ui, storage);
+        // The main loop saves the command's changes
+        storage.save(notes, command.getChanges());
 
         // Verify note removed from list
         assertEquals(0, notes.size(), "Note should be removed even if file is missing");
@@ -0,0 +1,94 @@
+package seedu.zettel.commands;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import seedu.zettel.Note;
+import seedu.zettel.UI;
+import seedu.zettel.exceptions.InvalidNoteIdException;
+import seedu.zettel.exceptions.NoNotesException;
+import seedu.zettel.exceptions.ZettelException;
+import seedu.zettel.storage.Storage;
+
+public class HistoryCommandTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    private final PrintStream originalOutputStream = System.out;
+
+    private ArrayList<Note> notes;
+    private UI ui;
+    private Storage storage;
+    private List<String> tags;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(outputStream));
+        notes = new ArrayList<>();
+        tags = new ArrayList<>();
+        ui = new UI();
+        storage = new Storage(tempDir.toString());
+        storage.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOutputStream);
+    }
+
+    @Test
+    void execute_emptyNotesList_throwsNoNotesException() {
+        HistoryCommand cmd = new HistoryCommand("abcd1234");
+        assertThrows(NoNotesException.class, () -> cmd.execute(notes, tags, ui, storage));
+    }
+
+    @Test
+    void execute_noteNotFound_throwsInvalidNoteIdException() {
+        notes.add(new Note("aaaaaaaa", "Title", "Title.txt", "Body", Instant.now(), Instant.now()));
+        HistoryCommand cmd = new HistoryCommand("deadbeef");
+        ZettelException e = assertThrows(InvalidNoteIdException.class, () -> cmd.execute(notes, tags, ui, storage));
+        assertTrue(e.getMessage().contains("Note with ID 'deadbeef' does not exist."));
+    }
+
+    @Test
+    void execute_editedNote_listsEveryRevision() throws Exception {
+        Note note = new Note("abcd1234", "Title", "Title.txt", "First body", Instant.now(), Instant.now());
+        storage.createStorageFile(note);
+        notes.add(note);
+        Path editPath = storage.checkoutBody(note);
+        Files.writeString(editPath, "Second body");
+        storage.commitBody(note);
+
+        new HistoryCommand("abcd1234").execute(notes, tags, ui, storage);
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("History of note #abcd1234:"));
+        assertTrue(output.contains("1. "));
+        assertTrue(output.contains("2. "));
+        assertEquals(2, storage.getHistory(note).size());
+    }
+
+    @Test
+    void execute_noteWithoutRevisions_saysSo() throws ZettelException {
+        notes.add(new Note("abcd1234", "Title", "Title.txt", "Body", Instant.now(), Instant.now()));
+
+        new HistoryCommand("abcd1234").execute(notes, tags, ui, storage);
+
+        assertTrue(outputStream.toString().contains("No revisions recorded for note #abcd1234."));
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import seedu.zettel.exceptions.NoNotesException;
 import seedu.zettel.exceptions.ZettelException;
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.storage.Storage;
 import seedu.zettel.UI;
 
@@ -150,4 +151,32 @@ public class ListNoteCommandTest {
         assertTrue(idxNew < idxOld,
                 "Newer note should appear before older one (sorted descending by createdAt)");
     }
+
+    @Test
+    void testListWithShortIdsShowsUniquePrefixes() throws ZettelException {
+        Instant now = Instant.now();
+        NoteList noteList = new NoteList();
+        noteList.add(new Note("abcd1234", "First", "first.txt", "Body", now, now));
+        noteList.add(new Note("12345678", "Second", "second.txt", "Body", now.minusSeconds(60), now));
+        Note archived = new Note("abcd9999", "Third", "third.txt", "Body", now.minusSeconds(120), now);
+        archived.setArchived(true);
+        noteList.add(archived);
+
+        new ListNoteCommand(false, false, true).execute(noteList, tags, ui, storage);
+
+        String[] lines = outputStream.toString().split("\n");
+        // The archived note is not listed, but its ID still has to be told apart
+        assertTrue(lines[1].strip().endsWith(" abcd1"), "First ID should be cut to its shortest unique prefix");
+        assertTrue(lines[2].strip().endsWith(" 1"), "Second ID should be cut to its shortest unique prefix");
+    }
+
+    @Test
+    void testListReportsNoChanges() throws ZettelException {
+        notes.add(new Note("abcd1234", "Title", "file.txt", "Body", Instant.now(), Instant.now()));
+
+        ListNoteCommand command = new ListNoteCommand(false, false);
+        command.execute(notes, tags, ui, storage);
+
+        assertTrue(command.getChanges().isEmpty(), "Listing notes should not report any changes");
+    }
 }
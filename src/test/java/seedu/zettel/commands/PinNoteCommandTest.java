@@ -10,9 +10,11 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 import seedu.zettel.Note;
+import seedu.zettel.NoteList;
 import seedu.zettel.storage.Storage;
 import seedu.zettel.UI;
 import seedu.zettel.exceptions.AlreadyPinnedException;
+import seedu.zettel.exceptions.AmbiguousNoteIdException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
 
@@ -52,6 +54,23 @@ public class PinNoteCommandTest {
 
     // ==================== Happy Path Tests ====================
 
+    @Test
+    public void testPinNoteByUniqueIdPrefix() throws Exception {
+        NoteList notes = new NoteList();
+        List<String> tags = new ArrayList<>();
+        notes.add(new Note("abcd1234", "Title 0", "file0.txt", "Body 0", Instant.now(), Instant.now()));
+        notes.add(new Note("abce5678", "Title 1", "file1.txt", "Body 1", Instant.now(), Instant.now()));
+        UI ui = new UI();
+        Storage storage = new Storage("build/testdata/pinnote-test.txt");
+
+        new PinNoteCommand("abce", true).execute(notes, tags, ui, storage);
+
+        assertTrue(notes.get(1).isPinned());
+        assertFalse(notes.get(0).isPinned());
+        assertThrows(AmbiguousNoteIdException.class,
+                () -> new PinNoteCommand("abc", true).execute(notes, tags, ui, storage));
+    }
+
     @Test
     public void testValidPinNoteCommandNoteIsPinned() throws Exception {
         ArrayList<Note> notes = new ArrayList<>();
@@ -141,4 +160,20 @@ public class PinNoteCommandTest {
         // Note should still be unpinned
         assertFalse(target.isPinned(), "Note should still be unpinned after exception");
     }
+
+    @Test
+    public void testPinNoteCommandReportsChangedNote() throws Exception {
+        ArrayList<Note> notes = new ArrayList<>();
+        List<String> tags = new ArrayList<>();
+        notes.add(new Note("abcd1234", "Title", "file.txt", "Body", Instant.now(), Instant.now()));
+
+        UI ui = new UI();
+        Storage storage = new Storage("build/testdata/pinnote-test.txt");
+
+        PinNoteCommand command = new PinNoteCommand("abcd1234", true);
+        command.execute(notes, tags, ui, storage);
+
+        assertTrue(command.getChanges().getChangedNotes().contains(notes.get(0)));
+        assertTrue(command.getChanges().getDeletedNoteIds().isEmpty());
+    }
 }
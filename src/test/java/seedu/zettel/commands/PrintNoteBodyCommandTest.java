@@ -1,7 +1,9 @@
 package seedu.zettel.commands;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -9,6 +11,7 @@ import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +20,7 @@ import org.junit.jupiter.api.io.TempDir;
 
 import seedu.zettel.Note;
 import seedu.zettel.UI;
+import seedu.zettel.exceptions.InvalidInputException;
 import seedu.zettel.exceptions.InvalidNoteIdException;
 import seedu.zettel.exceptions.NoNotesException;
 import seedu.zettel.exceptions.NoteBodyEmptyException;
@@ -85,4 +89,36 @@ public class PrintNoteBodyCommandTest {
         assertTrue(output.contains(" Body of note #abcd1234:"));
         assertTrue(output.contains("Hello World"));
     }
+
+    @Test
+    void execute_byteRange_printsOnlyThoseBytes() throws ZettelException {
+        notes.add(new Note("abcd1234", "Title", "Title.txt", "Hello World", Instant.now(), Instant.now()));
+        new PrintNoteBodyCommand("abcd1234", false, 6, 100).execute(notes, tags, ui, storage);
+
+        String output = outputStream.toString();
+        assertTrue(output.contains(" Body of note #abcd1234:" + System.lineSeparator() + "World"));
+        assertFalse(output.contains("Hello"));
+    }
+
+    @Test
+    void execute_rangeAfterEnd_throwsInvalidInputException() {
+        notes.add(new Note("abcd1234", "Title", "Title.txt", "Hello", Instant.now(), Instant.now()));
+        PrintNoteBodyCommand cmd = new PrintNoteBodyCommand("abcd1234", false, 5, Long.MAX_VALUE);
+        assertThrows(InvalidInputException.class, () -> cmd.execute(notes, tags, ui, storage));
+    }
+
+    @Test
+    void execute_storedNote_streamsBodyFile() throws ZettelException, IOException {
+        Note note = new Note("abcd1234", "Stored", "Stored.txt", "Streamed body", Instant.now(), Instant.now());
+        storage.createStorageFile(note);
+        storage.save(List.of(note));
+        notes.addAll(storage.load());
+        Files.writeString(tempDir.resolve("main").resolve("notes").resolve("Stored.txt"), "Changed on disk");
+
+        new PrintNoteBodyCommand("abcd1234", false, 0, 7).execute(notes, tags, ui, storage);
+
+        // Printed straight from the file, without the body being read into the note
+        assertTrue(outputStream.toString().contains("Changed"));
+        assertFalse(outputStream.toString().contains("Changed on"));
+    }
 }
@@ -0,0 +1,87 @@
+package seedu.zettel.commands;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import seedu.zettel.Note;
+import seedu.zettel.UI;
+import seedu.zettel.exceptions.InvalidNoteIdException;
+import seedu.zettel.exceptions.ZettelException;
+import seedu.zettel.storage.Storage;
+
+public class ShowRevisionCommandTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    private final PrintStream originalOutputStream = System.out;
+
+    private ArrayList<Note> notes;
+    private UI ui;
+    private Storage storage;
+    private List<String> tags;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(outputStream));
+        notes = new ArrayList<>();
+        tags = new ArrayList<>();
+        ui = new UI();
+        storage = new Storage(tempDir.toString());
+        storage.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOutputStream);
+    }
+
+    @Test
+    void execute_noteNotFound_throwsInvalidNoteIdException() {
+        notes.add(new Note("aaaaaaaa", "Title", "Title.txt", "Body", Instant.now(), Instant.now()));
+        ShowRevisionCommand cmd = new ShowRevisionCommand("deadbeef", 1);
+        assertThrows(InvalidNoteIdException.class, () -> cmd.execute(notes, tags, ui, storage));
+    }
+
+    @Test
+    void execute_earlierRevision_showsBodyAsItWas() throws Exception {
+        Note note = new Note("abcd1234", "Title", "Title.txt", "First body", Instant.now(), Instant.now());
+        storage.createStorageFile(note);
+        notes.add(note);
+        Path editPath = storage.checkoutBody(note);
+        Files.writeString(editPath, "Second body");
+        storage.commitBody(note);
+
+        new ShowRevisionCommand("abcd1234", 1).execute(notes, tags, ui, storage);
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("Revision 1 of note #abcd1234:"));
+        assertTrue(output.contains("First body"));
+        assertFalse(output.contains("Second body"));
+    }
+
+    @Test
+    void execute_missingRevision_throwsZettelException() {
+        Note note = new Note("abcd1234", "Title", "Title.txt", "Body", Instant.now(), Instant.now());
+        storage.createStorageFile(note);
+        notes.add(note);
+
+        ZettelException e = assertThrows(ZettelException.class,
+                () -> new ShowRevisionCommand("abcd1234", 5).execute(notes, tags, ui, storage));
+        assertTrue(e.getMessage().contains("has no revision 5"));
+    }
+}
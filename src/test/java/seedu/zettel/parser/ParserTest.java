@@ -6,7 +6,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 import seedu.zettel.commands.ChangeRepoCommand;
+import seedu.zettel.commands.CheckRepoCommand;
 import seedu.zettel.commands.Command;
+import seedu.zettel.commands.CompressArchiveCommand;
 import seedu.zettel.commands.CurrentRepoCommand;
 import seedu.zettel.commands.DeleteNoteCommand;
 import seedu.zettel.commands.DeleteTagFromNoteCommand;
@@ -16,6 +18,7 @@ import seedu.zettel.commands.ExitCommand;
 import seedu.zettel.commands.FindNoteByBodyCommand;
 import seedu.zettel.commands.FindNoteByTitleCommand;
 import seedu.zettel.commands.HelpCommand; // Added import
+import seedu.zettel.commands.HistoryCommand;
 import seedu.zettel.commands.InitCommand;
 import seedu.zettel.commands.LinkBothNotesCommand;
 import seedu.zettel.commands.LinkNotesCommand;
@@ -28,7 +31,9 @@ import seedu.zettel.commands.NewNoteCommand;
 import seedu.zettel.commands.NewTagCommand;
 import seedu.zettel.commands.PinNoteCommand;
 import seedu.zettel.commands.RenameTagCommand;
+import seedu.zettel.commands.RepairIndexCommand;
 import seedu.zettel.commands.PrintNoteBodyCommand;
+import seedu.zettel.commands.ShowRevisionCommand;
 import seedu.zettel.commands.TagNoteCommand;
 import seedu.zettel.commands.UnlinkBothNotesCommand;
 import seedu.zettel.commands.UnlinkNotesCommand;
@@ -61,6 +66,13 @@ class ParserTest {
         assertInstanceOf(ListNoteCommand.class, command);
     }
 
+    @Test
+    void testParseListWithShortIdFlagReturnsListNoteCommand() throws ZettelException {
+        assertInstanceOf(ListNoteCommand.class, Parser.parse("list -s"));
+        assertInstanceOf(ListNoteCommand.class, Parser.parse("list -a -s -p"));
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("list -s -s"));
+    }
+
     @Test
     void testParseListWithInvalidFlagThrowsInvalidFormatException() {
         assertThrows(InvalidFormatException.class, () -> Parser.parse("list -x"));
@@ -123,8 +135,9 @@ class ParserTest {
     }
 
     @Test
-    void testParseDeleteWithTooShortIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("delete abc"));
+    void testParseDeleteWithShortIdReturnsDeleteNoteCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(DeleteNoteCommand.class, Parser.parse("delete abc"));
     }
 
     @Test
@@ -155,8 +168,9 @@ class ParserTest {
     }
 
     @Test
-    void testParsePinWithTooShortIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("pin abc"));
+    void testParsePinWithShortIdReturnsPinNoteCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(PinNoteCommand.class, Parser.parse("pin abc"));
     }
 
     @Test
@@ -238,13 +252,15 @@ class ParserTest {
     }
 
     @Test
-    void testParseLinkWithTooShortFirstIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("link abc ef567890"));
+    void testParseLinkWithShortFirstIdReturnsLinkNotesCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(LinkNotesCommand.class, Parser.parse("link abc ef567890"));
     }
 
     @Test
-    void testParseLinkWithTooShortSecondIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("link abcd1234 ef5"));
+    void testParseLinkWithShortSecondIdReturnsLinkNotesCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(LinkNotesCommand.class, Parser.parse("link abcd1234 ef5"));
     }
 
     @Test
@@ -306,8 +322,9 @@ class ParserTest {
     }
 
     @Test
-    void testParseAddTagWithTooShortIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("add-tag abc urgent"));
+    void testParseAddTagWithShortIdReturnsTagNoteCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(TagNoteCommand.class, Parser.parse("add-tag abc urgent"));
     }
 
     @Test
@@ -347,8 +364,9 @@ class ParserTest {
     }
 
     @Test
-    void testParseEditWithTooShortIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("edit abc"));
+    void testParseEditWithShortIdReturnsEditNoteCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(EditNoteCommand.class, Parser.parse("edit abc"));
     }
 
     @Test
@@ -416,13 +434,15 @@ class ParserTest {
     }
 
     @Test
-    void testParseUnlinkWithTooShortFirstIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("unlink abc ef567890"));
+    void testParseUnlinkWithShortFirstIdReturnsUnlinkNotesCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(UnlinkNotesCommand.class, Parser.parse("unlink abc ef567890"));
     }
 
     @Test
-    void testParseUnlinkWithTooShortSecondIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("unlink abcd1234 ef5"));
+    void testParseUnlinkWithShortSecondIdReturnsUnlinkNotesCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(UnlinkNotesCommand.class, Parser.parse("unlink abcd1234 ef5"));
     }
 
     @Test
@@ -489,13 +509,15 @@ class ParserTest {
     }
 
     @Test
-    void testParseLinkBothWithTooShortFirstIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("link-both abc ef567890"));
+    void testParseLinkBothWithShortFirstIdReturnsLinkBothNotesCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(LinkBothNotesCommand.class, Parser.parse("link-both abc ef567890"));
     }
 
     @Test
-    void testParseLinkBothWithTooShortSecondIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("link-both abcd1234 ef5"));
+    void testParseLinkBothWithShortSecondIdReturnsLinkBothNotesCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(LinkBothNotesCommand.class, Parser.parse("link-both abcd1234 ef5"));
     }
 
     @Test
@@ -562,13 +584,15 @@ class ParserTest {
     }
 
     @Test
-    void testParseUnlinkBothWithTooShortFirstIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("unlink-both abc ef567890"));
+    void testParseUnlinkBothWithShortFirstIdReturnsUnlinkBothNotesCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(UnlinkBothNotesCommand.class, Parser.parse("unlink-both abc ef567890"));
     }
 
     @Test
-    void testParseUnlinkBothWithTooShortSecondIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("unlink-both abcd1234 ef5"));
+    void testParseUnlinkBothWithShortSecondIdReturnsUnlinkBothNotesCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(UnlinkBothNotesCommand.class, Parser.parse("unlink-both abcd1234 ef5"));
     }
 
     @Test
@@ -661,8 +685,9 @@ class ParserTest {
     }
 
     @Test
-    void testParseListTagsSingleNoteWithTooShortIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("list-tags abc123"));
+    void testParseListTagsSingleNoteWithShortIdReturnsListTagsSingleNoteCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(ListTagsSingleNoteCommand.class, Parser.parse("list-tags abc123"));
     }
 
     @Test
@@ -751,8 +776,9 @@ class ParserTest {
     }
 
     @Test
-    void testParseDeleteTagFromNoteWithTooShortIdThrowsInvalidFormatException() {
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("delete-tag abc1234 java"));
+    void testParseDeleteTagFromNoteWithShortIdReturnsDeleteTagFromNoteCommand() throws ZettelException {
+        // A prefix of an ID is resolved to the full ID when the command runs
+        assertInstanceOf(DeleteTagFromNoteCommand.class, Parser.parse("delete-tag abc1234 java"));
     }
 
     @Test
@@ -873,8 +899,8 @@ class ParserTest {
 
     @Test
     void testParseListOutgoingLinksWithInvalidIdThrowsInvalidFormatException() {
-        // Too short should fail
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("list-outgoing-links abc"));
+        // Too long should fail
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("list-outgoing-links abcd12345"));
     }
     //@@author
     @Test
@@ -931,8 +957,26 @@ class ParserTest {
     void testParsePrintBodyWithInvalidIdThrowsInvalidFormatException() {
         // uppercase hex should fail
         assertThrows(InvalidFormatException.class, () -> Parser.parse("print-body ABCD1234"));
-        // too short should fail
-        assertThrows(InvalidFormatException.class, () -> Parser.parse("print-body abc"));
+        // too long should fail
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("print-body abcd12345"));
+    }
+
+    @Test
+    void testParsePrintBodyWithPagerAndRangeReturnsPrintNoteBodyCommand() throws ZettelException {
+        assertInstanceOf(PrintNoteBodyCommand.class, Parser.parse("print-body abcd1234 -p"));
+        assertInstanceOf(PrintNoteBodyCommand.class, Parser.parse("print-body abcd1234 -r 0-100"));
+        assertInstanceOf(PrintNoteBodyCommand.class, Parser.parse("print-body abcd1234 -r 100- -p"));
+        assertInstanceOf(PrintNoteBodyCommand.class, Parser.parse("print-body abcd1234 -p -r -100"));
+    }
+
+    @Test
+    void testParsePrintBodyWithInvalidRangeThrowsInvalidFormatException() {
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("print-body abcd1234 -r"));
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("print-body abcd1234 -r 10-5"));
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("print-body abcd1234 -r -"));
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("print-body abcd1234 -r a-b"));
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("print-body abcd1234 -p -p"));
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("print-body abcd1234 extra"));
     }
 
     // ==================== Print Repo Tests ====================
@@ -1006,4 +1050,65 @@ class ParserTest {
         assertThrows(InvalidFormatException.class, () -> Parser.parse("current-repo arg1 arg2"));
     }
 
+    // CheckRepoCommand tests
+    @Test
+    void testParseCheckRepoReturnsCheckRepoCommand() throws ZettelException {
+        Command command = Parser.parse("check-repo");
+        assertInstanceOf(CheckRepoCommand.class, command);
+    }
+
+    @Test
+    void testParseCheckRepoWithExtraArgumentThrowsInvalidFormatException() {
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("check-repo extra"));
+    }
+
+    // CompressArchiveCommand tests
+    @Test
+    void testParseCompressArchiveReturnsCompressArchiveCommand() throws ZettelException {
+        Command command = Parser.parse("compress-archive");
+        assertInstanceOf(CompressArchiveCommand.class, command);
+    }
+
+    @Test
+    void testParseCompressArchiveWithExtraArgumentThrowsInvalidFormatException() {
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("compress-archive now"));
+    }
+
+    // RepairIndexCommand tests
+    @Test
+    void testParseRepairIndexReturnsRepairIndexCommand() throws ZettelException {
+        Command command = Parser.parse("repair-index");
+        assertInstanceOf(RepairIndexCommand.class, command);
+    }
+
+    @Test
+    void testParseRepairIndexWithExtraArgumentThrowsInvalidFormatException() {
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("repair-index now"));
+    }
+
+    // HistoryCommand and ShowRevisionCommand tests
+    @Test
+    void testParseHistoryReturnsHistoryCommand() throws ZettelException {
+        Command command = Parser.parse("history abcd1234");
+        assertInstanceOf(HistoryCommand.class, command);
+    }
+
+    @Test
+    void testParseHistoryWithoutNoteIdThrowsInvalidFormatException() {
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("history"));
+    }
+
+    @Test
+    void testParseShowRevisionReturnsShowRevisionCommand() throws ZettelException {
+        Command command = Parser.parse("show-revision abcd1234 3");
+        assertInstanceOf(ShowRevisionCommand.class, command);
+    }
+
+    @Test
+    void testParseShowRevisionWithInvalidNumberThrowsInvalidFormatException() {
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("show-revision abcd1234 0"));
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("show-revision abcd1234 -1"));
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("show-revision abcd1234 two"));
+        assertThrows(InvalidFormatException.class, () -> Parser.parse("show-revision abcd1234"));
+    }
 }
@@ -59,11 +59,10 @@ class ValidatorTest {
     }
 
     @Test
-    void validateNoteId_tooShortId_throwsInvalidFormatException() {
-        Exception exception = assertThrows(InvalidFormatException.class, () -> {
-            Validator.validateNoteId("a1b2c3", "test");
-        });
-        assertTrue(exception.getMessage().contains("Note ID must be exactly 8 hexadecimal characters"));
+    void validateNoteId_shortId_returnsPrefix() throws ZettelException {
+        // A prefix is accepted here and resolved to a full ID by the command
+        assertEquals("a1b2c3", Validator.validateNoteId("a1b2c3", "test"));
+        assertEquals("a", Validator.validateNoteId("a", "test"));
     }
 
     @Test
@@ -71,7 +70,7 @@ class ValidatorTest {
         Exception exception = assertThrows(InvalidFormatException.class, () -> {
             Validator.validateNoteId("a1b2c3d4e5", "test");
         });
-        assertTrue(exception.getMessage().contains("Note ID must be exactly 8 hexadecimal characters"));
+        assertTrue(exception.getMessage().contains("Note ID must be 1 to 8 hexadecimal characters"));
     }
 
     @Test
@@ -0,0 +1,146 @@
+package seedu.zettel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ArchivePackTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testAppendAndRead_survivesReopening() throws IOException {
+        ArchivePack pack = new ArchivePack(tempDir, ArchivePack.DEFAULT_SEGMENT_BYTES);
+        pack.append("aaaaaaaa", bytes("first body"));
+        pack.append("bbbbbbbb", bytes("second body"));
+        pack.close();
+
+        assertTrue(ArchivePack.exists(tempDir));
+        ArchivePack reopened = new ArchivePack(tempDir, ArchivePack.DEFAULT_SEGMENT_BYTES);
+        assertArrayEquals(bytes("first body"), reopened.read("aaaaaaaa"));
+        assertArrayEquals(bytes("second body"), reopened.read("bbbbbbbb"));
+        assertEquals(1, reopened.getSegmentCount());
+        reopened.close();
+    }
+
+    @Test
+    void testTransferTo_copiesRangeOfPackedBody() throws IOException {
+        ArchivePack pack = new ArchivePack(tempDir, ArchivePack.DEFAULT_SEGMENT_BYTES);
+        pack.append("aaaaaaaa", bytes("first body"));
+        pack.append("bbbbbbbb", bytes("second body"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long copied = pack.transferTo("bbbbbbbb", 7, Long.MAX_VALUE, Channels.newChannel(out));
+
+        assertEquals(4, copied);
+        assertEquals("body", out.toString(StandardCharsets.UTF_8));
+        assertEquals(11, pack.getLength("bbbbbbbb"));
+        assertEquals(-1, pack.getLength("cccccccc"));
+        pack.close();
+    }
+
+    @Test
+    void testRemove_isRecordedInOffsetTable() throws IOException {
+        ArchivePack pack = new ArchivePack(tempDir, ArchivePack.DEFAULT_SEGMENT_BYTES);
+        pack.append("aaaaaaaa", bytes("body"));
+        pack.remove("aaaaaaaa");
+        pack.close();
+
+        ArchivePack reopened = new ArchivePack(tempDir, ArchivePack.DEFAULT_SEGMENT_BYTES);
+        assertFalse(reopened.contains("aaaaaaaa"));
+        assertThrows(IOException.class, () -> reopened.read("aaaaaaaa"));
+        reopened.close();
+    }
+
+    @Test
+    void testAppend_startsNewSegmentOnceFull() throws IOException {
+        ArchivePack pack = new ArchivePack(tempDir, 10);
+        pack.append("aaaaaaaa", bytes("12345678"));
+        pack.append("bbbbbbbb", bytes("12345678"));
+
+        assertEquals(2, pack.getSegmentCount());
+        assertArrayEquals(bytes("12345678"), pack.read("aaaaaaaa"));
+        assertArrayEquals(bytes("12345678"), pack.read("bbbbbbbb"));
+        pack.close();
+    }
+
+    @Test
+    void testCompact_reclaimsDeadBytesAndKeepsLiveBodies() throws IOException {
+        ArchivePack pack = new ArchivePack(tempDir, 1024);
+        pack.append("aaaaaaaa", bytes("keep me"));
+        pack.append("bbbbbbbb", bytes("drop me, I am longer"));
+        pack.remove("bbbbbbbb");
+        assertTrue(pack.getDeadBytes() > 0);
+
+        pack.compact();
+
+        assertEquals(0, pack.getDeadBytes());
+        assertArrayEquals(bytes("keep me"), pack.read("aaaaaaaa"));
+        pack.close();
+
+        ArchivePack reopened = new ArchivePack(tempDir, 1024);
+        assertEquals(1, reopened.getSegmentCount());
+        assertEquals(0, reopened.getDeadBytes());
+        assertArrayEquals(bytes("keep me"), reopened.read("aaaaaaaa"));
+        assertFalse(reopened.contains("bbbbbbbb"));
+        reopened.close();
+    }
+
+    @Test
+    void testCompact_copiesSpanningSeveralSegments_surviveReopening() throws IOException {
+        // Each segment holds one live and one dead body, and two copies fill a segment
+        ArchivePack pack = new ArchivePack(tempDir, 12);
+        pack.append("aaaaaaaa", bytes("live a"));
+        pack.append("dddddddd", bytes("dead d"));
+        pack.append("bbbbbbbb", bytes("live b"));
+        pack.append("eeeeeeee", bytes("dead e"));
+        pack.append("cccccccc", bytes("live c"));
+        pack.append("ffffffff", bytes("dead f"));
+        pack.remove("dddddddd");
+        pack.remove("eeeeeeee");
+        pack.remove("ffffffff");
+        assertEquals(3, pack.getSegmentCount());
+
+        pack.compact();
+        pack.close();
+
+        ArchivePack reopened = new ArchivePack(tempDir, 12);
+        assertEquals(2, reopened.getSegmentCount());
+        assertArrayEquals(bytes("live a"), reopened.read("aaaaaaaa"));
+        assertArrayEquals(bytes("live b"), reopened.read("bbbbbbbb"));
+        assertArrayEquals(bytes("live c"), reopened.read("cccccccc"));
+        reopened.close();
+    }
+
+    @Test
+    void testOpen_skipsRecordsPointingPastSegmentEnd() throws IOException {
+        ArchivePack pack = new ArchivePack(tempDir, ArchivePack.DEFAULT_SEGMENT_BYTES);
+        pack.append("aaaaaaaa", bytes("body"));
+        pack.close();
+        Files.writeString(tempDir.resolve(ArchivePack.TABLE_FILE), "+ bbbbbbbb 1 0 999\n",
+                StandardOpenOption.APPEND);
+
+        ArchivePack reopened = new ArchivePack(tempDir, ArchivePack.DEFAULT_SEGMENT_BYTES);
+        assertTrue(reopened.contains("aaaaaaaa"));
+        assertFalse(reopened.contains("bbbbbbbb"));
+        reopened.close();
+    }
+}
@@ -0,0 +1,44 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AtomicFileWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWrite_replacesContentsAndRemovesTempFile() throws IOException {
+        Path target = tempDir.resolve("index.txt");
+        Files.writeString(target, "old contents");
+
+        AtomicFileWriter.write(target, out -> out.write("new contents".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("new contents", Files.readString(target));
+        assertFalse(Files.exists(tempDir.resolve("index.txt" + AtomicFileWriter.TEMP_SUFFIX)));
+    }
+
+    @Test
+    void testWrite_writerFails_leavesTargetUntouched() throws IOException {
+        Path target = tempDir.resolve("index.txt");
+        Files.writeString(target, "old contents");
+
+        assertThrows(IOException.class, () -> AtomicFileWriter.write(target, out -> {
+            out.write("partial".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("disk full");
+        }));
+
+        assertEquals("old contents", Files.readString(target));
+        assertFalse(Files.exists(tempDir.resolve("index.txt" + AtomicFileWriter.TEMP_SUFFIX)));
+    }
+}
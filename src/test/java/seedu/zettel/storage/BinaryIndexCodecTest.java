@@ -0,0 +1,90 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import seedu.zettel.Note;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryIndexCodecTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final BinaryIndexCodec codec = new BinaryIndexCodec();
+
+    @Test
+    void testWriteAndRead_roundTripsAllFields() throws IOException {
+        Instant created = Instant.parse("2024-01-15T10:30:00.123Z");
+        Instant modified = Instant.parse("2024-02-01T08:00:00Z");
+        Note first = new Note("0a1b2c3d", "Title | with ;; delimiters", "first.txt", "body",
+                created, modified, true, true, "old-stuff", Arrays.asList("work", "ideas"));
+        first.addOutgoingLink("ffffffff");
+        first.addIncomingLink("00000001");
+        first.setBodyCodec(BodyCodec.DEFLATE);
+        first.setBodyHash("cd".repeat(32));
+        Note second = new Note("abcdef01", "Ünïcödé", "second.txt", "body",
+                created, modified, false, false, null, List.of("ideas"));
+        Path binaryIndex = tempDir.resolve("index.bin");
+
+        try (OutputStream out = Files.newOutputStream(binaryIndex)) {
+            codec.write(List.of(first, second), out);
+        }
+        List<Note> loaded = codec.read(binaryIndex);
+
+        assertEquals(2, loaded.size());
+        Note loadedFirst = loaded.get(0);
+        assertEquals("0a1b2c3d", loadedFirst.getId());
+        assertEquals("Title | with ;; delimiters", loadedFirst.getTitle());
+        assertEquals("first.txt", loadedFirst.getFilename());
+        assertEquals(created, loadedFirst.getCreatedAt());
+        assertEquals(modified, loadedFirst.getModifiedAt());
+        assertTrue(loadedFirst.isPinned());
+        assertTrue(loadedFirst.isArchived());
+        assertEquals("old-stuff", loadedFirst.getArchiveName());
+        assertEquals(Arrays.asList("work", "ideas"), loadedFirst.getTags());
+        assertTrue(loadedFirst.isLinkedTo("ffffffff"));
+        assertTrue(loadedFirst.isLinkedBy("00000001"));
+        assertEquals(BodyCodec.DEFLATE, loadedFirst.getBodyCodec());
+        assertEquals("cd".repeat(32), loadedFirst.getBodyHash());
+
+        Note loadedSecond = loaded.get(1);
+        assertEquals("Ünïcödé", loadedSecond.getTitle());
+        assertFalse(loadedSecond.isPinned());
+        assertNull(loadedSecond.getArchiveName());
+        assertNull(loadedSecond.getBodyCodec());
+        assertNull(loadedSecond.getBodyHash());
+        assertEquals(List.of("ideas"), loadedSecond.getTags());
+    }
+
+    @Test
+    void testRead_wrongMagic_throws() throws IOException {
+        Path binaryIndex = tempDir.resolve("index.bin");
+        Files.writeString(binaryIndex, "12345678 | Not | binary");
+
+        assertThrows(IOException.class, () -> codec.read(binaryIndex));
+    }
+
+    @Test
+    void testCanEncode_rejectsNonHexIds() {
+        Instant now = Instant.now();
+        Note hexNote = new Note("0a1b2c3d", "T", "t.txt", "", now, now, false, false, null, new ArrayList<>());
+        Note textNote = new Note("test0001", "T", "t.txt", "", now, now, false, false, null, new ArrayList<>());
+
+        assertTrue(codec.canEncode(List.of(hexNote)));
+        assertFalse(codec.canEncode(List.of(hexNote, textNote)));
+    }
+}
@@ -0,0 +1,87 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BodyCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testGet_readsOnceThenServesFromCache() throws IOException {
+        Path bodyFile = tempDir.resolve("a.txt");
+        Files.writeString(bodyFile, "first");
+        BodyCache cache = new BodyCache(1024);
+
+        assertEquals("first", cache.get(bodyFile));
+        Files.writeString(bodyFile, "second");
+
+        assertEquals("first", cache.get(bodyFile));
+        assertEquals(5, cache.getResidentBytes());
+    }
+
+    @Test
+    void testInvalidate_nextGetRereadsFile() throws IOException {
+        Path bodyFile = tempDir.resolve("a.txt");
+        Files.writeString(bodyFile, "first");
+        BodyCache cache = new BodyCache(1024);
+        cache.get(bodyFile);
+
+        Files.writeString(bodyFile, "second");
+        cache.invalidate(bodyFile);
+
+        assertEquals("second", cache.get(bodyFile));
+        assertEquals(6, cache.getResidentBytes());
+    }
+
+    @Test
+    void testGet_evictsLeastRecentlyUsedOverBudget() throws IOException {
+        Path a = tempDir.resolve("a.txt");
+        Path b = tempDir.resolve("b.txt");
+        Path c = tempDir.resolve("c.txt");
+        Files.writeString(a, "aaaa");
+        Files.writeString(b, "bbbb");
+        Files.writeString(c, "cccc");
+        BodyCache cache = new BodyCache(8);
+
+        cache.get(a);
+        cache.get(b);
+        cache.get(a); // a is now more recently used than b
+        cache.get(c);
+
+        assertTrue(cache.isCached(a));
+        assertFalse(cache.isCached(b));
+        assertTrue(cache.isCached(c));
+        assertEquals(8, cache.getResidentBytes());
+    }
+
+    @Test
+    void testGet_bodyLargerThanBudget_returnedButNotCached() throws IOException {
+        Path bodyFile = tempDir.resolve("big.txt");
+        Files.writeString(bodyFile, "0123456789");
+        BodyCache cache = new BodyCache(4);
+
+        assertEquals("0123456789", cache.get(bodyFile));
+        assertFalse(cache.isCached(bodyFile));
+        assertEquals(0, cache.getResidentBytes());
+    }
+
+    @Test
+    void testGet_missingFile_throwsAndCachesNothing() {
+        BodyCache cache = new BodyCache(1024);
+        Path missing = tempDir.resolve("missing.txt");
+
+        assertThrows(IOException.class, () -> cache.get(missing));
+        assertFalse(cache.isCached(missing));
+    }
+}
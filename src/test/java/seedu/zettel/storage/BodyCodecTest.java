@@ -0,0 +1,80 @@
+package seedu.zettel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BodyCodecTest {
+
+    private static final String SAMPLE = "Meeting notes: discussed the quarterly roadmap and the release plan.\n";
+
+    @TempDir
+    private Path tempDir;
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testCompress_roundTripsWithTrainedDictionary() throws IOException {
+        BodyCodec codec = new BodyCodec(tempDir.resolve("dictionaries"));
+        assertFalse(codec.hasDictionary());
+        assertTrue(codec.train(List.of(bytes(SAMPLE), bytes(SAMPLE + SAMPLE))));
+        assertTrue(codec.hasDictionary());
+
+        byte[] body = bytes(SAMPLE + "Action items: update the roadmap.\n");
+        byte[] compressed = codec.compress(body);
+        assertArrayEquals(body, codec.decode(compressed, true));
+
+        // A fresh codec finds the dictionary on disk, even for a body whose flag was never saved
+        assertArrayEquals(body, new BodyCodec(tempDir.resolve("dictionaries")).decode(compressed, false));
+    }
+
+    @Test
+    void testDecode_passesPlainBodiesThrough() throws IOException {
+        BodyCodec codec = new BodyCodec(tempDir.resolve("dictionaries"));
+        codec.train(List.of(bytes(SAMPLE), bytes(SAMPLE)));
+
+        assertArrayEquals(bytes("plain body"), codec.decode(bytes("plain body"), false));
+        assertArrayEquals(bytes("plain body"), codec.decode(bytes("plain body"), true));
+        assertArrayEquals(new byte[0], codec.decode(new byte[0], true));
+    }
+
+    @Test
+    void testDecode_missingDictionary_throws() throws IOException {
+        BodyCodec trained = new BodyCodec(tempDir.resolve("trained"));
+        trained.train(List.of(bytes(SAMPLE), bytes(SAMPLE)));
+        byte[] compressed = trained.compress(bytes(SAMPLE));
+
+        BodyCodec other = new BodyCodec(tempDir.resolve("other"));
+        assertThrows(IOException.class, () -> other.decode(compressed, true));
+    }
+
+    @Test
+    void testDeleteOldDictionaries_keepsCurrentOne() throws IOException {
+        Path dictionaryDir = tempDir.resolve("dictionaries");
+        BodyCodec codec = new BodyCodec(dictionaryDir);
+        codec.train(List.of(bytes("first first first first")));
+        codec.train(List.of(bytes(SAMPLE), bytes(SAMPLE)));
+        byte[] compressed = codec.compress(bytes(SAMPLE));
+
+        codec.deleteOldDictionaries();
+
+        try (Stream<Path> dictionaries = Files.list(dictionaryDir)) {
+            assertEquals(1, dictionaries.count());
+        }
+        assertArrayEquals(bytes(SAMPLE), new BodyCodec(dictionaryDir).decode(compressed, true));
+    }
+}
@@ -0,0 +1,31 @@
+package seedu.zettel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class BodyLayoutTest {
+
+    @Test
+    void testGetBodyFile_flat_usesFilename() {
+        assertEquals("Title.txt", BodyLayout.FLAT.getBodyFile("abcd1234", "Title.txt"));
+    }
+
+    @Test
+    void testGetBodyFile_sharded_fansOutByIdPrefix() {
+        assertEquals("ab/cd/abcd1234.txt", BodyLayout.SHARDED.getBodyFile("abcd1234", "Title.txt"));
+    }
+
+    @Test
+    void testGetBodyFile_shardedWithUnsafeId_fallsBackToFilename() {
+        assertEquals("Title.txt", BodyLayout.SHARDED.getBodyFile("abc", "Title.txt"));
+        assertEquals("Title.txt", BodyLayout.SHARDED.getBodyFile("ab/../cd", "Title.txt"));
+        assertEquals("Title.txt", BodyLayout.SHARDED.getBodyFile("ABCD1234", "Title.txt"));
+    }
+
+    @Test
+    void testFromSetting_unknownValue_defaultsToFlat() {
+        assertEquals(BodyLayout.SHARDED, BodyLayout.fromSetting("SHARDED"));
+        assertEquals(BodyLayout.FLAT, BodyLayout.fromSetting("nested"));
+    }
+}
@@ -0,0 +1,82 @@
+package seedu.zettel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class BodyManifestTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private Path writeBody(String name, String body) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, body, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static void touch(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+    }
+
+    @Test
+    void testIsUnchanged_unrecordedFileCountsAsChangedOnce() throws IOException {
+        BodyManifest manifest = BodyManifest.load(tempDir.resolve("bodies.manifest"));
+        Path file = writeBody("a.txt", "body");
+
+        assertFalse(manifest.isUnchanged("notes/a.txt", file));
+        assertTrue(manifest.isUnchanged("notes/a.txt", file));
+        assertEquals(1, manifest.size());
+    }
+
+    @Test
+    void testIsUnchanged_touchedFileWithSameContentIsUnchanged() throws IOException {
+        BodyManifest manifest = BodyManifest.load(tempDir.resolve("bodies.manifest"));
+        Path file = writeBody("a.txt", "body");
+        manifest.record("notes/a.txt", file, "body".getBytes(StandardCharsets.UTF_8));
+
+        touch(file);
+        assertTrue(manifest.isUnchanged("notes/a.txt", file));
+
+        Files.writeString(file, "edited body", StandardCharsets.UTF_8);
+        touch(file);
+        assertFalse(manifest.isUnchanged("notes/a.txt", file));
+        assertTrue(manifest.isUnchanged("notes/a.txt", file));
+    }
+
+    @Test
+    void testIsUnchanged_missingFileIsForgotten() throws IOException {
+        BodyManifest manifest = BodyManifest.load(tempDir.resolve("bodies.manifest"));
+        Path file = writeBody("a.txt", "body");
+        manifest.record("notes/a.txt", file, "body".getBytes(StandardCharsets.UTF_8));
+
+        Files.delete(file);
+        assertFalse(manifest.isUnchanged("notes/a.txt", file));
+        assertEquals(0, manifest.size());
+    }
+
+    @Test
+    void testSave_entriesSurviveReloadAndMoves() throws IOException {
+        Path manifestPath = tempDir.resolve("bodies.manifest");
+        BodyManifest manifest = BodyManifest.load(manifestPath);
+        Path file = writeBody("a.txt", "body");
+        manifest.record("notes/a.txt", file, "body".getBytes(StandardCharsets.UTF_8));
+        manifest.move("notes/a.txt", "archive/a.txt");
+        manifest.save();
+
+        BodyManifest reloaded = BodyManifest.load(manifestPath);
+        assertEquals(1, reloaded.size());
+        assertTrue(reloaded.isUnchanged("archive/a.txt", file));
+        touch(file);
+        assertTrue(reloaded.isUnchanged("archive/a.txt", file));
+    }
+}
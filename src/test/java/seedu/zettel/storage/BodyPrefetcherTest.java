@@ -0,0 +1,79 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BodyPrefetcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<Path> writeBodies(int count) throws IOException {
+        List<Path> bodyFiles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path bodyFile = tempDir.resolve("note" + i + ".txt");
+            Files.writeString(bodyFile, "body " + i);
+            bodyFiles.add(bodyFile);
+        }
+        return bodyFiles;
+    }
+
+    private boolean waitUntilCached(BodyCache cache, List<Path> bodyFiles) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (bodyFiles.stream().allMatch(cache::isCached)) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    @Test
+    void testPrefetch_readsAllBodiesInBackground() throws IOException, InterruptedException {
+        List<Path> bodyFiles = writeBodies(20);
+        BodyCache cache = new BodyCache(1024 * 1024);
+        BodyPrefetcher prefetcher = new BodyPrefetcher(cache, 4);
+
+        prefetcher.prefetch(bodyFiles);
+
+        assertTrue(waitUntilCached(cache, bodyFiles));
+        assertEquals("body 7", cache.get(bodyFiles.get(7)));
+    }
+
+    @Test
+    void testPrefetch_disabled_readsNothing() throws IOException, InterruptedException {
+        List<Path> bodyFiles = writeBodies(3);
+        BodyCache cache = new BodyCache(1024 * 1024);
+        BodyPrefetcher prefetcher = new BodyPrefetcher(cache, 0);
+
+        prefetcher.prefetch(bodyFiles);
+        Thread.sleep(50);
+
+        assertEquals(0, cache.getResidentBytes());
+    }
+
+    @Test
+    void testPrefetch_missingFile_skippedWithoutAffectingOthers() throws IOException, InterruptedException {
+        List<Path> bodyFiles = writeBodies(3);
+        List<Path> withMissing = new ArrayList<>(bodyFiles);
+        withMissing.add(1, tempDir.resolve("missing.txt"));
+        BodyCache cache = new BodyCache(1024 * 1024);
+        BodyPrefetcher prefetcher = new BodyPrefetcher(cache, 2);
+
+        prefetcher.prefetch(withMissing);
+
+        assertTrue(waitUntilCached(cache, bodyFiles));
+        assertFalse(cache.isCached(tempDir.resolve("missing.txt")));
+    }
+}
@@ -0,0 +1,61 @@
+package seedu.zettel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BodyWatcherTest {
+    private static final long TIMEOUT_MS = 10_000;
+
+    @TempDir
+    private Path tempDir;
+
+    private static Set<Path> awaitChanges(BodyWatcher watcher, int expectedCount) throws InterruptedException {
+        Set<Path> changed = new HashSet<>();
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (changed.size() < expectedCount && System.currentTimeMillis() < deadline) {
+            changed.addAll(watcher.takeChangedFiles());
+            Thread.sleep(20);
+        }
+        return changed;
+    }
+
+    @Test
+    void testTakeChangedFiles_reportsEachChangedBodyFileOnce() throws IOException, InterruptedException {
+        Path notesDir = Files.createDirectories(tempDir.resolve("notes"));
+        Path archiveDir = Files.createDirectories(tempDir.resolve("archive"));
+        try (BodyWatcher watcher = BodyWatcher.start(List.of(notesDir, archiveDir))) {
+            Path note = notesDir.resolve("a.txt");
+            Files.writeString(note, "first", StandardCharsets.UTF_8);
+            Files.writeString(note, "second", StandardCharsets.UTF_8);
+            Files.writeString(notesDir.resolve("ignored.tmp"), "x", StandardCharsets.UTF_8);
+            Path archived = archiveDir.resolve("b.txt");
+            Files.writeString(archived, "archived", StandardCharsets.UTF_8);
+
+            Set<Path> changed = awaitChanges(watcher, 2);
+            assertEquals(Set.of(note, archived), changed);
+        }
+    }
+
+    @Test
+    void testTakeChangedFiles_watchesNewShardFolders() throws IOException, InterruptedException {
+        Path notesDir = Files.createDirectories(tempDir.resolve("notes"));
+        try (BodyWatcher watcher = BodyWatcher.start(List.of(notesDir))) {
+            Path shard = Files.createDirectories(notesDir.resolve("ab"));
+            Path note = shard.resolve("abcd1234.txt");
+            Files.writeString(note, "sharded", StandardCharsets.UTF_8);
+
+            assertTrue(awaitChanges(watcher, 1).contains(note));
+        }
+    }
+}
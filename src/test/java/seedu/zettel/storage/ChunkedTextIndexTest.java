@@ -0,0 +1,75 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import seedu.zettel.Note;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChunkedTextIndexTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private static List<Note> makeNotes(int count) {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Multi-byte characters make sure chunks never split a character
+            notes.add(new Note(String.format("%08x", i), "Titel ü中 " + i, "note" + i + ".txt", "",
+                    now, now, i % 3 == 0, false, null, List.of("tag" + (i % 7))));
+        }
+        return notes;
+    }
+
+    @Test
+    void testWriteThenRead_manySmallChunks_keepsEveryNoteInOrder() throws IOException {
+        List<Note> notes = makeNotes(10_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChunkedTextIndex.write(notes, out);
+
+        // Same lines as formatting one note after another
+        TextIndexCodec codec = new TextIndexCodec();
+        StringBuilder expected = new StringBuilder();
+        for (Note note : notes) {
+            expected.append(codec.format(note)).append(System.lineSeparator());
+        }
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+
+        Path indexPath = tempDir.resolve("index.txt");
+        Files.write(indexPath, out.toByteArray());
+        List<Note> loaded = ChunkedTextIndex.read(indexPath, 37, 1, new AtomicInteger());
+        assertEquals(notes.size(), loaded.size());
+        for (int i = 0; i < notes.size(); i++) {
+            assertEquals(notes.get(i).getId(), loaded.get(i).getId());
+            assertEquals(notes.get(i).getTitle(), loaded.get(i).getTitle());
+            assertEquals(notes.get(i).getTags(), loaded.get(i).getTags());
+        }
+    }
+
+    @Test
+    void testRead_blankAndMalformedLinesAndNoFinalNewline_areSkipped() throws IOException {
+        TextIndexCodec codec = new TextIndexCodec();
+        List<Note> notes = makeNotes(3);
+        Path indexPath = tempDir.resolve("index.txt");
+        Files.writeString(indexPath, codec.format(notes.get(0)) + "\r\n\nnot an index line\n"
+                + codec.format(notes.get(1)) + "\n" + codec.format(notes.get(2)), StandardCharsets.UTF_8);
+
+        AtomicInteger damagedCount = new AtomicInteger();
+        List<Note> loaded = ChunkedTextIndex.read(indexPath, 4, 1, damagedCount);
+        assertEquals(3, loaded.size());
+        assertEquals(1, damagedCount.get());
+        assertEquals(notes.get(0).getTitle(), loaded.get(0).getTitle());
+        assertEquals(notes.get(2).getId(), loaded.get(2).getId());
+    }
+}
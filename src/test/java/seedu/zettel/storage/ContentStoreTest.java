@@ -0,0 +1,83 @@
+package seedu.zettel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import seedu.zettel.Note;
+
+public class ContentStoreTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testPut_identicalBodiesStoredOnce() throws IOException {
+        ContentStore store = new ContentStore(tempDir.resolve("objects"));
+
+        String first = store.put(bytes("template body"));
+        String second = store.put(bytes("template body"));
+        String other = store.put(bytes("other body"));
+
+        assertEquals(first, second);
+        assertEquals(64, first.length());
+        assertEquals(2, store.getReferenceCount(first));
+        assertEquals(2, store.getObjectCount());
+        assertArrayEquals(bytes("template body"), store.read(first));
+        assertTrue(Files.exists(tempDir.resolve("objects").resolve(first.substring(0, 2)).resolve(first)));
+        assertFalse(first.equals(other));
+    }
+
+    @Test
+    void testRelease_deletesObjectWithLastReference() throws IOException {
+        ContentStore store = new ContentStore(tempDir.resolve("objects"));
+        String hash = store.put(bytes("shared"));
+        store.put(bytes("shared"));
+        Path objectPath = store.getObjectPath(hash);
+
+        store.release(hash);
+        assertTrue(Files.exists(objectPath));
+        store.release(hash);
+        assertFalse(Files.exists(objectPath));
+        assertFalse(Files.exists(objectPath.getParent()));
+    }
+
+    @Test
+    void testRecountAndDeleteUnreferenced_keepOnlyObjectsNotesReferTo() throws IOException {
+        ContentStore store = new ContentStore(tempDir.resolve("objects"));
+        String kept = store.put(bytes("kept"));
+        String orphan = store.put(bytes("orphan"));
+        Note note = new Note("aaaa1111", "Kept", "Kept.txt", "", Instant.now(), Instant.now(),
+                false, false, null, List.of());
+        note.setBodyHash(kept);
+
+        store.recount(List.of(note));
+
+        assertEquals(1, store.deleteUnreferenced());
+        assertTrue(Files.exists(store.getObjectPath(kept)));
+        assertFalse(Files.exists(store.getObjectPath(orphan)));
+    }
+
+    @Test
+    void testGetObjectPath_malformedHash_staysInsideStore() {
+        Path objectsDir = tempDir.resolve("objects");
+        ContentStore store = new ContentStore(objectsDir);
+
+        assertEquals(objectsDir, store.getObjectPath("../../etc/passwd").getParent());
+    }
+}
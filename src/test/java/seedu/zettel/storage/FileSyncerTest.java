@@ -0,0 +1,67 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileSyncerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWritten_always_forcesImmediately() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("index.journal"), "+ record");
+        FileSyncer syncer = new FileSyncer(Durability.ALWAYS, FileSyncer.DEFAULT_INTERVAL_MS);
+
+        syncer.written(file);
+
+        assertEquals(0, syncer.getDirtyFileCount());
+    }
+
+    @Test
+    void testWritten_alwaysInBatchMode_groupsUntilSyncAll() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("index.journal"), "+ record");
+        FileSyncer syncer = new FileSyncer(Durability.ALWAYS, FileSyncer.DEFAULT_INTERVAL_MS);
+        syncer.setBatchMode(true);
+
+        syncer.written(file);
+        syncer.written(file);
+        assertEquals(1, syncer.getDirtyFileCount());
+
+        syncer.syncAll();
+        assertEquals(0, syncer.getDirtyFileCount());
+    }
+
+    @Test
+    void testWritten_onExit_keepsFilesDirtyUntilSyncAll() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("index.journal"), "+ record");
+        FileSyncer syncer = new FileSyncer(Durability.ON_EXIT, FileSyncer.DEFAULT_INTERVAL_MS);
+
+        syncer.written(file);
+        assertEquals(1, syncer.getDirtyFileCount());
+
+        Files.delete(file);
+        syncer.syncAll();
+        assertEquals(0, syncer.getDirtyFileCount(), "A file removed before the sync should be skipped");
+    }
+
+    @Test
+    void testWritten_interval_syncedInBackground() throws IOException, InterruptedException {
+        Path file = Files.writeString(tempDir.resolve("index.journal"), "+ record");
+        FileSyncer syncer = new FileSyncer(Durability.INTERVAL, 10);
+
+        syncer.written(file);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (syncer.getDirtyFileCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, syncer.getDirtyFileCount());
+    }
+}
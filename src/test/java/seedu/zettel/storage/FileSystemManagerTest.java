@@ -93,6 +93,59 @@ public class FileSystemManagerTest {
         assertTrue(Files.exists(body));
     }
 
+    @Test
+    void testValidateRepoStructureReturnsManifestOfBodyFiles() throws IOException, ZettelException {
+        fs.createRootFolder();
+        fs.createConfigFile("main");
+        fs.createRepoStructure("main");
+        Files.writeString(tempDir.resolve("main").resolve("archive").resolve("old.txt"), "old");
+        Files.writeString(tempDir.resolve("main").resolve("notes").resolve("orphan.txt"), "orphan");
+
+        RepoManifest manifest = fs.validateRepoStructure("main", Map.of("new.txt", false, "old.txt", true));
+
+        assertTrue(manifest.contains("new.txt", false), "Created body file should be in the manifest");
+        assertTrue(manifest.contains("orphan.txt", false), "Orphans are still present on disk");
+        assertTrue(manifest.contains("old.txt", true));
+        assertFalse(manifest.contains("old.txt", false));
+    }
+
+    @Test
+    void testValidateRepoStructure_shardedLayout_createsAndScansShardedBodyFiles()
+            throws IOException, ZettelException {
+        fs.createRootFolder();
+        fs.createConfigFile("main");
+        fs.createRepoStructure("main");
+        Path notesDir = tempDir.resolve("main").resolve("notes");
+
+        RepoManifest manifest = fs.validateRepoStructure("main",
+                Map.of("ab/cd/abcd1234.txt", false), BodyLayout.SHARDED);
+
+        assertTrue(Files.exists(notesDir.resolve("ab/cd/abcd1234.txt")));
+        assertTrue(manifest.contains("ab/cd/abcd1234.txt", false));
+    }
+
+    @Test
+    void testRelocateBodyFile_canBeRepeatedAndKeepsMovedBody() throws IOException, ZettelException {
+        Path notesDir = Files.createDirectories(tempDir.resolve("notes"));
+        Files.writeString(notesDir.resolve("Title.txt"), "Body");
+
+        fs.relocateBodyFile(notesDir, "Title.txt", "ab/cd/abcd1234.txt");
+        fs.relocateBodyFile(notesDir, "Title.txt", "ab/cd/abcd1234.txt");
+        assertEquals("Body", Files.readString(notesDir.resolve("ab/cd/abcd1234.txt")));
+        assertFalse(Files.exists(notesDir.resolve("Title.txt")));
+
+        // An empty file left in the old place must not replace the moved body
+        Files.createFile(notesDir.resolve("Title.txt"));
+        fs.relocateBodyFile(notesDir, "Title.txt", "ab/cd/abcd1234.txt");
+        assertEquals("Body", Files.readString(notesDir.resolve("ab/cd/abcd1234.txt")));
+        assertFalse(Files.exists(notesDir.resolve("Title.txt")));
+
+        fs.relocateBodyFile(notesDir, "ab/cd/abcd1234.txt", "Title.txt");
+        fs.removeEmptyShardDirectories(notesDir);
+        assertEquals("Body", Files.readString(notesDir.resolve("Title.txt")));
+        assertFalse(Files.exists(notesDir.resolve("ab")));
+    }
+
     @Test
     void testGetPathsReturnCorrectPaths() {
         // fs was constructed with root tempDir; just assert path getters
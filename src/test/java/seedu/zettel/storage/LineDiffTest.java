@@ -0,0 +1,84 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LineDiffTest {
+
+    private static int countEdits(List<LineDiff.Run> runs) {
+        int edits = 0;
+        for (LineDiff.Run run : runs) {
+            if (run.kind != LineDiff.COPY) {
+                edits += run.count;
+            }
+        }
+        return edits;
+    }
+
+    @Test
+    void testDiff_oneChangedLine_isOneDeleteAndOneInsert() {
+        List<String> oldLines = LineDiff.toLines("a\nb\nc\nd\n");
+        List<String> newLines = LineDiff.toLines("a\nb\nX\nd\n");
+
+        List<LineDiff.Run> runs = LineDiff.diff(oldLines, newLines, 100);
+
+        assertEquals(2, countEdits(runs));
+        assertEquals(List.of("X"), runs.stream().filter(run -> run.kind == LineDiff.INSERT)
+                .findFirst().orElseThrow().lines);
+        assertEquals(newLines, LineDiff.apply(oldLines, runs));
+    }
+
+    @Test
+    void testDiff_classicExample_findsShortestEditScript() {
+        // The example from Myers' paper: ABCABBA to CBABAC takes five edits
+        List<String> oldLines = List.of("A", "B", "C", "A", "B", "B", "A");
+        List<String> newLines = List.of("C", "B", "A", "B", "A", "C");
+
+        List<LineDiff.Run> runs = LineDiff.diff(oldLines, newLines, 100);
+
+        assertEquals(5, countEdits(runs));
+        assertEquals(newLines, LineDiff.apply(oldLines, runs));
+    }
+
+    @Test
+    void testDiff_randomEdits_applyGivesNewVersion() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> oldLines = new ArrayList<>();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                oldLines.add("line " + random.nextInt(8));
+            }
+            List<String> newLines = new ArrayList<>(oldLines);
+            for (int i = random.nextInt(10); i > 0; i--) {
+                if (!newLines.isEmpty() && random.nextBoolean()) {
+                    newLines.remove(random.nextInt(newLines.size()));
+                } else {
+                    newLines.add(random.nextInt(newLines.size() + 1), "line " + random.nextInt(8));
+                }
+            }
+
+            assertEquals(newLines, LineDiff.apply(oldLines, LineDiff.diff(oldLines, newLines, 1000)));
+        }
+    }
+
+    @Test
+    void testDiff_moreEditsThanAllowed_returnsNull() {
+        List<String> oldLines = List.of("a", "b", "c", "d");
+        List<String> newLines = List.of("w", "x", "y", "z");
+
+        assertNull(LineDiff.diff(oldLines, newLines, 7));
+        assertEquals(newLines, LineDiff.apply(oldLines, LineDiff.diff(oldLines, newLines, 8)));
+    }
+
+    @Test
+    void testToLines_thenToText_keepsTrailingLineFeed() {
+        assertEquals("a\n\nb\n", LineDiff.toText(LineDiff.toLines("a\n\nb\n")));
+        assertEquals("", LineDiff.toText(LineDiff.toLines("")));
+    }
+}
@@ -0,0 +1,60 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import seedu.zettel.Note;
+import seedu.zettel.exceptions.ZettelException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NoteHistoryTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private final RepoSnapshot repo = new RepoSnapshot("main", Path.of("notes"), Path.of("archive"),
+            BodyLayout.FLAT, null);
+
+    private NoteHistory makeHistory() {
+        return new NoteHistory(new FileSystemManager(tempDir.toString()),
+                new FileSyncer(Durability.ON_EXIT, FileSyncer.DEFAULT_INTERVAL_MS));
+    }
+
+    @Test
+    void testRecordEdit_unchangedBody_createsNoLog() throws ZettelException {
+        NoteHistory history = makeHistory();
+        Note note = new Note("abcd1234", "Title", "Title.txt", "Body", Instant.now(), Instant.now());
+
+        history.checkOut(note);
+        history.recordEdit(repo, note, "Body");
+
+        assertTrue(history.list(repo, note).isEmpty());
+        assertFalse(Files.exists(tempDir.resolve("main/history/abcd1234.log")));
+    }
+
+    @Test
+    void testRecordEdit_firstChange_recordsCheckedOutBodyFirst() throws ZettelException {
+        NoteHistory history = makeHistory();
+        Note note = new Note("abcd1234", "Title", "Title.txt", "First", Instant.now(), Instant.now());
+
+        history.checkOut(note);
+        history.recordEdit(repo, note, "Second");
+        history.checkOut(note);
+        history.recordEdit(repo, note, "Third");
+
+        assertEquals(3, history.list(repo, note).size());
+        assertEquals("First", history.read(repo, note, 1));
+        assertEquals("Third", history.read(repo, note, 3));
+        assertThrows(ZettelException.class, () -> history.read(repo, note, 4));
+
+        history.delete(repo, note);
+        assertTrue(history.list(repo, note).isEmpty());
+    }
+}
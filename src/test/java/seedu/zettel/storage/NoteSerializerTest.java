@@ -191,6 +191,61 @@ class NoteSerializerTest {
         assertEquals("Title", loaded.get(0).getTitle());
     }
 
+    @Test
+    void testLoadNotes_bodiesReadOnFirstAccess() throws IOException {
+        String indexLine = "test0001 | Title | lazy.txt | 2024-01-15T10:30:00Z | " +
+                "2024-01-15T10:30:00Z | 0 | 0 |  |  |  | ";
+        Files.writeString(indexPath, indexLine);
+        Files.writeString(notesDir.resolve("lazy.txt"), "before load");
+
+        ArrayList<Note> loaded = serializer.loadNotes(indexPath, notesDir, archiveDir);
+        Files.writeString(notesDir.resolve("lazy.txt"), "after load");
+
+        assertEquals("after load", loaded.get(0).getBody());
+    }
+
+    @Test
+    void testLoadNotes_archivedAfterLoad_bodyReadFromArchive() throws IOException {
+        String indexLine = "test0001 | Title | moved.txt | 2024-01-15T10:30:00Z | " +
+                "2024-01-15T10:30:00Z | 0 | 0 |  |  |  | ";
+        Files.writeString(indexPath, indexLine);
+        Files.writeString(archiveDir.resolve("moved.txt"), "archived body");
+
+        ArrayList<Note> loaded = serializer.loadNotes(indexPath, notesDir, archiveDir);
+        loaded.get(0).setArchived(true);
+
+        assertEquals("archived body", loaded.get(0).getBody());
+    }
+
+    @Test
+    void testSaveNotes_binaryFormat_replacesTextIndexAndLoadsBack() throws IOException {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        Note note = new Note("0a1b2c3d", "Binary", "binary.txt", "", now, now,
+                false, false, null, List.of("tag"));
+        serializer.saveNotes(List.of(note), indexPath);
+
+        serializer.saveNotes(List.of(note), indexPath, IndexFormat.BINARY);
+
+        assertFalse(Files.exists(indexPath));
+        assertEquals(IndexFormat.BINARY, serializer.getStoredFormat(indexPath));
+        ArrayList<Note> loaded = serializer.loadNotes(indexPath, notesDir, archiveDir);
+        assertEquals(1, loaded.size());
+        assertEquals("Binary", loaded.get(0).getTitle());
+        assertEquals(now, loaded.get(0).getCreatedAt());
+    }
+
+    @Test
+    void testSaveNotes_binaryFormatWithNonHexId_fallsBackToText() throws IOException {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        Note note = new Note("test0001", "Text", "text.txt", "", now, now,
+                false, false, null, new ArrayList<>());
+
+        serializer.saveNotes(List.of(note), indexPath, IndexFormat.BINARY);
+
+        assertTrue(Files.exists(indexPath));
+        assertEquals(IndexFormat.TEXT, serializer.getStoredFormat(indexPath));
+    }
+
     @Test
     void testLoadNotes_missingIndexFile() {
         Path nonExistent = tempDir.resolve("nonexistent.txt");
@@ -355,5 +410,44 @@ class NoteSerializerTest {
         assertTrue(loadedC.getIncomingLinks().contains("aaa00001"));
         assertTrue(loadedC.getIncomingLinks().contains("bbb00002"));
     }
-}
 
+    @Test
+    void testLoadNotes_replaysJournalOverIndex() throws IOException {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        Note kept = new Note("aaaa0001", "Kept", "kept.txt", "", now, now,
+                false, false, null, new ArrayList<>());
+        Note removed = new Note("aaaa0002", "Removed", "removed.txt", "", now, now,
+                false, false, null, new ArrayList<>());
+        serializer.saveNotes(Arrays.asList(kept, removed), indexPath);
+
+        Note pinned = new Note("aaaa0001", "Kept", "kept.txt", "", now, now,
+                true, false, null, new ArrayList<>());
+        Note added = new Note("aaaa0003", "Added", "added.txt", "", now, now,
+                false, false, null, new ArrayList<>());
+        serializer.appendJournal(Arrays.asList(
+                serializer.toPutRecord(serializer.toIndexFormat(pinned)),
+                serializer.toDeleteRecord("aaaa0002"),
+                serializer.toPutRecord(serializer.toIndexFormat(added))), indexPath);
+
+        ArrayList<Note> loaded = serializer.loadNotes(indexPath, notesDir, archiveDir);
+
+        assertEquals(2, loaded.size());
+        assertEquals("aaaa0001", loaded.get(0).getId());
+        assertTrue(loaded.get(0).isPinned());
+        assertEquals("aaaa0003", loaded.get(1).getId());
+    }
+
+    @Test
+    void testSaveNotes_compactsJournal() throws IOException {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        Note note = new Note("aaaa0001", "Note", "note.txt", "", now, now,
+                false, false, null, new ArrayList<>());
+        serializer.appendJournal(List.of(serializer.toDeleteRecord("aaaa0009")), indexPath);
+        assertTrue(Files.exists(serializer.getJournalPath(indexPath)));
+
+        serializer.saveNotes(List.of(note), indexPath);
+
+        assertFalse(Files.exists(serializer.getJournalPath(indexPath)));
+        assertEquals(1, serializer.loadNotes(indexPath, notesDir, archiveDir).size());
+    }
+}
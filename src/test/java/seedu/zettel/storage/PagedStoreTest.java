@@ -0,0 +1,145 @@
+package seedu.zettel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PagedStoreTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String key(int i) {
+        return String.format("k/%06d", i);
+    }
+
+    @Test
+    void testPutAndScan_manyKeysSplitPagesAndStayOrdered() throws IOException {
+        try (PagedStore store = PagedStore.open(tempDir.resolve("notes.db"), 16)) {
+            for (int i = 2999; i >= 0; i--) {
+                store.put(key(i), bytes("value " + i));
+            }
+            store.put("other", bytes("not scanned"));
+            store.commit();
+
+            assertTrue(store.getPageCount() > 10);
+            assertEquals("value 1234", new String(store.get(key(1234)), StandardCharsets.UTF_8));
+            List<String> keys = new ArrayList<>();
+            store.scan("k/", (key, value) -> keys.add(key));
+            assertEquals(3000, keys.size());
+            assertEquals(key(0), keys.get(0));
+            assertEquals(key(2999), keys.get(2999));
+            List<String> prefixed = new ArrayList<>();
+            store.scan("k/00012", (key, value) -> prefixed.add(key));
+            assertEquals(10, prefixed.size());
+        }
+    }
+
+    @Test
+    void testCommit_changesSurviveReopeningAndUncommittedOnesDoNot() throws IOException {
+        Path file = tempDir.resolve("notes.db");
+        byte[] large = new byte[3 * PagedStore.PAGE_SIZE + 17];
+        Arrays.fill(large, (byte) 'x');
+        try (PagedStore store = PagedStore.open(file, PagedStore.DEFAULT_CACHE_PAGES)) {
+            for (int i = 0; i < 500; i++) {
+                store.put(key(i), bytes("value " + i));
+            }
+            store.put("large", large);
+            store.commit();
+            store.delete(key(7));
+            store.put(key(8), bytes("changed"));
+            store.commit();
+            store.put("uncommitted", bytes("lost"));
+            store.delete(key(9));
+        }
+
+        try (PagedStore store = PagedStore.open(file, PagedStore.DEFAULT_CACHE_PAGES)) {
+            assertArrayEquals(large, store.get("large"));
+            assertNull(store.get(key(7)));
+            assertEquals("changed", new String(store.get(key(8)), StandardCharsets.UTF_8));
+            assertEquals("value 9", new String(store.get(key(9)), StandardCharsets.UTF_8));
+            assertNull(store.get("uncommitted"));
+        }
+    }
+
+    @Test
+    void testRollbackAndDelete_pagesAreReusedAndEmptyTreeStaysUsable() throws IOException {
+        try (PagedStore store = PagedStore.open(tempDir.resolve("notes.db"), 8)) {
+            for (int i = 0; i < 1000; i++) {
+                store.put(key(i), bytes("value " + i));
+            }
+            store.commit();
+            long fullPageCount = store.getPageCount();
+            store.put(key(1), bytes("rolled back"));
+            store.rollback();
+            assertEquals("value 1", new String(store.get(key(1)), StandardCharsets.UTF_8));
+
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(store.delete(key(i)));
+            }
+            assertFalse(store.delete(key(0)));
+            store.commit();
+            // The emptied tree's pages are all at the end of the file, so they are cut off
+            assertEquals(2, store.getPageCount());
+            assertEquals(0, store.getFreePageCount());
+            for (int i = 0; i < 1000; i++) {
+                store.put(key(i), bytes("again " + i));
+            }
+            store.commit();
+            assertTrue(store.getPageCount() <= fullPageCount + 2);
+            assertEquals("again 999", new String(store.get(key(999)), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testCommit_manySmallCommits_fileStaysBounded() throws IOException {
+        Path file = tempDir.resolve("notes.db");
+        byte[] value = new byte[100];
+        try (PagedStore store = PagedStore.open(file, PagedStore.DEFAULT_CACHE_PAGES)) {
+            for (int i = 0; i < 500; i++) {
+                store.put(key(i), value);
+            }
+            store.commit();
+            long initialPageCount = store.getPageCount();
+
+            for (int round = 0; round < 3000; round++) {
+                value[0] = (byte) round;
+                store.put(key(round % 500), value);
+                if (round % 7 == 0) {
+                    store.delete(key((round * 31) % 500));
+                    store.put(key((round * 31) % 500), value);
+                }
+                store.commit();
+            }
+
+            // Each commit copies one path of the tree; the pages it frees are reused by later commits
+            assertTrue(store.getPageCount() <= 2 * initialPageCount,
+                    "page count grew from " + initialPageCount + " to " + store.getPageCount());
+            assertTrue(store.getFreePageCount() <= initialPageCount);
+        }
+
+        try (PagedStore store = PagedStore.open(file, PagedStore.DEFAULT_CACHE_PAGES)) {
+            assertEquals(store.getPageCount() * PagedStore.PAGE_SIZE, Files.size(file));
+            List<String> keys = new ArrayList<>();
+            store.scan("k/", (key, stored) -> keys.add(key));
+            assertEquals(500, keys.size());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package seedu.zettel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import seedu.zettel.Note;
+
+public class RepoCacheTest {
+
+    private static RepoSnapshot snapshotOf(String repoName, int noteCount) {
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < noteCount; i++) {
+            notes.add(new Note(String.format("%08x", i), "Title" + i, "Title" + i + ".txt", "",
+                    Instant.now(), Instant.now(), false, false, null, List.of()));
+        }
+        RepoSnapshot snapshot = new RepoSnapshot(repoName, Path.of(repoName, "notes"), Path.of(repoName, "archive"),
+                BodyLayout.FLAT, null);
+        snapshot.keep(notes);
+        return snapshot;
+    }
+
+    @Test
+    void testPut_evictsLeastRecentlyUsedOverBudget() {
+        RepoSnapshot first = snapshotOf("first", 10);
+        RepoCache cache = new RepoCache(first.getEstimatedBytes() * 2);
+        RepoSnapshot second = snapshotOf("second", 10);
+        RepoSnapshot third = snapshotOf("third", 10);
+
+        assertTrue(cache.put(first).isEmpty());
+        assertTrue(cache.put(second).isEmpty());
+        List<RepoSnapshot> evicted = cache.put(third);
+
+        assertEquals(List.of(first), evicted);
+        assertEquals(second.getEstimatedBytes() + third.getEstimatedBytes(), cache.getResidentBytes());
+        assertNull(cache.take("first"));
+    }
+
+    @Test
+    void testPut_repositoryLargerThanBudgetIsNotKept() {
+        RepoCache cache = new RepoCache(1);
+        RepoSnapshot snapshot = snapshotOf("large", 5);
+
+        assertEquals(List.of(snapshot), cache.put(snapshot));
+        assertEquals(0, cache.getResidentBytes());
+        assertNull(cache.take("large"));
+    }
+
+    @Test
+    void testTake_removesKeptRepository() {
+        RepoCache cache = new RepoCache(RepoCache.DEFAULT_BUDGET_BYTES);
+        RepoSnapshot snapshot = snapshotOf("kept", 3);
+        cache.put(snapshot);
+
+        assertSame(snapshot, cache.take("kept"));
+        assertNull(cache.take("kept"));
+        assertEquals(0, cache.getResidentBytes());
+    }
+}
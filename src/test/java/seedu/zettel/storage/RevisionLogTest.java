@@ -0,0 +1,92 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevisionLogTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private RevisionLog makeLog() {
+        return new RevisionLog(tempDir.resolve("history"),
+                new FileSyncer(Durability.ON_EXIT, FileSyncer.DEFAULT_INTERVAL_MS));
+    }
+
+    private static String makeBody(int version) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            body.append(i == version % 50 ? "edited in version " + version : "unchanged line " + i).append('\n');
+        }
+        return body.toString();
+    }
+
+    @Test
+    void testAppend_manyVersions_storesDeltasBetweenPeriodicKeyframes() throws IOException {
+        RevisionLog log = makeLog();
+        for (int version = 1; version <= 40; version++) {
+            assertTrue(log.append("abcd1234", makeBody(version), Instant.ofEpochMilli(version)));
+        }
+
+        List<Revision> revisions = log.list("abcd1234");
+        assertEquals(40, revisions.size());
+        for (Revision revision : revisions) {
+            assertEquals((revision.getNumber() - 1) % RevisionLog.KEYFRAME_INTERVAL == 0, revision.isKeyframe());
+            assertEquals(51, revision.getLineCount());
+            assertEquals(Instant.ofEpochMilli(revision.getNumber()), revision.getRecordedAt());
+        }
+        for (int version = 1; version <= 40; version++) {
+            assertEquals(makeBody(version), log.read("abcd1234", version));
+        }
+        assertNull(log.read("abcd1234", 41));
+        assertNull(log.read("abcd1234", 0));
+    }
+
+    @Test
+    void testAppend_unchangedBody_isNotRecordedAgain() throws IOException {
+        RevisionLog log = makeLog();
+
+        assertTrue(log.append("abcd1234", "same", Instant.now()));
+        assertFalse(log.append("abcd1234", "same", Instant.now()));
+        assertEquals(1, log.list("abcd1234").size());
+    }
+
+    @Test
+    void testAppend_afterTruncatedRecord_replacesIt() throws IOException {
+        RevisionLog log = makeLog();
+        log.append("abcd1234", makeBody(1), Instant.now());
+        log.append("abcd1234", makeBody(2), Instant.now());
+        Path logPath = log.getLogPath("abcd1234");
+        byte[] bytes = Files.readAllBytes(logPath);
+        Files.write(logPath, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertEquals(1, log.list("abcd1234").size());
+        log.append("abcd1234", makeBody(3), Instant.now());
+
+        assertEquals(2, log.list("abcd1234").size());
+        assertEquals(makeBody(3), log.read("abcd1234", 2));
+    }
+
+    @Test
+    void testDelete_removesEveryRevision() throws IOException {
+        RevisionLog log = makeLog();
+        log.append("abcd1234", "body", Instant.now());
+
+        log.delete("abcd1234");
+
+        assertFalse(log.hasHistory("abcd1234"));
+        assertTrue(log.list("abcd1234").isEmpty());
+    }
+}
@@ -3,6 +3,10 @@ package seedu.zettel.storage;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -12,8 +16,12 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -141,6 +149,727 @@ public class StorageTest {
         assertEquals("Body2", loadedNotes.get(1).getBody());
     }
 
+    @Test
+    void testSaveAfterLoad_appendsToJournalInsteadOfRewritingIndex() throws IOException {
+        storage.init();
+        Note note = new Note("88888889", "Title1", "Title1.txt", "Body1",
+                Instant.now(), Instant.now(), false, false, null, new ArrayList<>());
+        storage.createStorageFile(note);
+        storage.save(List.of(note));
+
+        ArrayList<Note> notes = storage.load();
+        Path indexPath = tempDir.resolve("main").resolve("index.txt");
+        Path journalPath = tempDir.resolve("main").resolve("index.journal");
+        String indexBefore = Files.readString(indexPath);
+
+        notes.get(0).setPinned(true);
+        storage.save(notes);
+
+        assertEquals(indexBefore, Files.readString(indexPath), "index.txt should not be rewritten");
+        assertEquals(1, Files.readAllLines(journalPath).size(), "Only the pinned note should be journaled");
+        assertTrue(storage.load().get(0).isPinned());
+
+        storage.save(storage.load());
+        assertEquals(1, Files.readAllLines(journalPath).size(), "Unchanged notes should not be journaled");
+    }
+
+    @Test
+    void testSaveWithChangeSet_writesOnlyChangedNotesAndSkipsEmptySets() throws IOException {
+        storage.init();
+        Note note1 = new Note("88888889", "Title1", "Title1.txt", "Body1",
+                Instant.now(), Instant.now(), false, false, null, new ArrayList<>());
+        Note note2 = new Note("99999999", "Title2", "Title2.txt", "Body2",
+                Instant.now(), Instant.now(), false, false, null, new ArrayList<>());
+        storage.save(List.of(note1, note2));
+        ArrayList<Note> notes = storage.load();
+        Path journalPath = tempDir.resolve("main").resolve("index.journal");
+
+        storage.save(notes, new ChangeSet());
+        assertFalse(Files.exists(journalPath), "An empty change set should not write anything");
+
+        notes.get(1).setPinned(true);
+        ChangeSet changes = new ChangeSet();
+        changes.addChangedNote(notes.get(1));
+        storage.save(notes, changes);
+
+        List<String> records = Files.readAllLines(journalPath);
+        assertEquals(1, records.size());
+        assertTrue(records.get(0).contains("99999999"));
+        assertTrue(storage.load().get(1).isPinned());
+    }
+
+    @Test
+    void testSaveLater_withWriteBehind_savesOnFlush() throws IOException {
+        Files.writeString(tempDir.resolve(".zettelSettings"), "write-behind-quiet-ms=3600000");
+        storage = new Storage(tempDir.toString());
+        storage.init();
+        ArrayList<Note> notes = storage.load();
+        storage.startWriteBehind();
+        Note note = new Note("88888889", "Title1", "Title1.txt", "Body1",
+                Instant.now(), Instant.now(), false, false, null, new ArrayList<>());
+        storage.createStorageFile(note);
+        notes.add(note);
+        ChangeSet changes = new ChangeSet();
+        changes.addChangedNote(note);
+
+        storage.saveLater(notes, changes);
+        assertEquals(1, storage.getPendingSaveCount());
+        assertTrue(new Storage(tempDir.toString()).load().isEmpty(), "Nothing should be saved before the flush");
+
+        storage.flush();
+        assertEquals(0, storage.getPendingSaveCount());
+        assertEquals(1, new Storage(tempDir.toString()).load().size());
+    }
+
+    @Test
+    void testSaveLater_withWriteBehind_reportsSaveLatency() throws IOException, ZettelException {
+        Files.writeString(tempDir.resolve(".zettelSettings"), "write-behind-quiet-ms=3600000");
+        storage = new Storage(tempDir.toString());
+        storage.init();
+        ArrayList<Note> notes = storage.load();
+        storage.startWriteBehind();
+        assertEquals(Duration.ZERO, storage.getLastSaveLatency());
+        Note note = new Note("88888889", "Title1", "Title1.txt", "Body1",
+                Instant.now(), Instant.now(), false, false, null, new ArrayList<>());
+        storage.createStorageFile(note);
+        notes.add(note);
+        ChangeSet changes = new ChangeSet();
+        changes.addChangedNote(note);
+
+        storage.saveLater(notes, changes);
+        storage.verifyIndex();
+        assertTrue(storage.getLastSaveLatency().compareTo(Duration.ZERO) > 0);
+        assertEquals(storage.getLastSaveLatency(), storage.getMaxSaveLatency());
+        storage.flush();
+    }
+
+    @Test
+    void testReleaseStateLock_letsOtherThreadsTakeItUntilReacquired() throws InterruptedException {
+        assertEquals(0, storage.releaseStateLock());
+        storage.getStateLock().lock();
+        storage.getStateLock().lock();
+
+        int holdCount = storage.releaseStateLock();
+        assertEquals(2, holdCount);
+        boolean[] isTaken = new boolean[1];
+        Thread other = new Thread(() -> {
+            isTaken[0] = storage.getStateLock().tryLock();
+            if (isTaken[0]) {
+                storage.getStateLock().unlock();
+            }
+        });
+        other.start();
+        other.join();
+        assertTrue(isTaken[0], "Another thread should take the lock while it is released");
+
+        storage.reacquireStateLock(holdCount);
+        storage.getStateLock().unlock();
+        storage.getStateLock().unlock();
+        assertEquals(0, storage.releaseStateLock());
+    }
+
+    @Test
+    void testSaveLater_afterFlush_savesAtOnce() throws IOException {
+        Files.writeString(tempDir.resolve(".zettelSettings"), "write-behind-quiet-ms=3600000");
+        storage = new Storage(tempDir.toString());
+        storage.init();
+        ArrayList<Note> notes = storage.load();
+        storage.startWriteBehind();
+        storage.flush();
+        Note note = new Note("88888889", "Title1", "Title1.txt", "Body1",
+                Instant.now(), Instant.now(), false, false, null, new ArrayList<>());
+        storage.createStorageFile(note);
+        notes.add(note);
+        ChangeSet changes = new ChangeSet();
+        changes.addChangedNote(note);
+
+        storage.saveLater(notes, changes);
+        assertEquals(0, storage.getPendingSaveCount());
+        assertEquals(1, new Storage(tempDir.toString()).load().size());
+    }
+
+    @Test
+    void testLoad_indexFormatSetting_migratesBetweenTextAndBinary() throws IOException {
+        storage.init();
+        Note note = new Note("88888889", "Title1", "Title1.txt", "Body1",
+                Instant.now(), Instant.now(), false, false, null, List.of("tag"));
+        storage.createStorageFile(note);
+        storage.save(List.of(note));
+        Path repoPath = tempDir.resolve("main");
+        Path settingsPath = repoPath.resolve(".repoSettings");
+
+        Files.writeString(settingsPath, "index-format=binary");
+        storage.load();
+        assertTrue(Files.exists(repoPath.resolve("index.bin")));
+        assertFalse(Files.exists(repoPath.resolve("index.txt")));
+
+        ArrayList<Note> fromBinary = storage.load();
+        assertEquals(1, fromBinary.size());
+        assertEquals("Title1", fromBinary.get(0).getTitle());
+        assertEquals(List.of("tag"), fromBinary.get(0).getTags());
+        assertEquals("Body1", fromBinary.get(0).getBody());
+
+        Files.writeString(settingsPath, "index-format=text");
+        storage.load();
+        assertTrue(Files.exists(repoPath.resolve("index.txt")));
+        assertFalse(Files.exists(repoPath.resolve("index.bin")));
+        assertEquals("Title1", storage.load().get(0).getTitle());
+    }
+
+    @Test
+    void testLoad_bodyLayoutSetting_migratesBetweenFlatAndSharded() throws IOException, ZettelException {
+        storage.init();
+        Note active = new Note("abcd1234", "Active", "Active.txt", "Body1",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        Note archived = new Note("ef015678", "Old", "Old.txt", "Body2",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(active);
+        storage.createStorageFile(archived);
+        storage.moveNoteBetweenDirectories(archived, true);
+        archived.setArchived(true);
+        storage.save(List.of(active, archived));
+        Path repoPath = tempDir.resolve("main");
+
+        Files.writeString(repoPath.resolve(".repoSettings"), "body-layout=sharded");
+        ArrayList<Note> sharded = storage.load();
+        assertEquals(BodyLayout.SHARDED, storage.getBodyLayout());
+        assertTrue(Files.exists(repoPath.resolve("notes/ab/cd/abcd1234.txt")));
+        assertTrue(Files.exists(repoPath.resolve("archive/ef/01/ef015678.txt")));
+        assertFalse(Files.exists(repoPath.resolve("notes/Active.txt")));
+        assertEquals("Body1", sharded.get(0).getBody());
+        assertEquals("Body2", sharded.get(1).getBody());
+        assertEquals(repoPath.resolve("notes/ab/cd/abcd1234.txt"), storage.getNotePath(active));
+
+        Note created = new Note("12345678", "New", "New.txt", "Body3",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(created);
+        assertEquals("Body3", Files.readString(repoPath.resolve("notes/12/34/12345678.txt")));
+        storage.save(List.of(sharded.get(0), sharded.get(1), created));
+
+        Files.writeString(repoPath.resolve(".repoSettings"), "body-layout=flat");
+        ArrayList<Note> flat = storage.load();
+        assertEquals(BodyLayout.FLAT, storage.getBodyLayout());
+        assertEquals("Body3", Files.readString(repoPath.resolve("notes/New.txt")));
+        assertEquals("Body2", Files.readString(repoPath.resolve("archive/Old.txt")));
+        assertFalse(Files.exists(repoPath.resolve("notes/ab")));
+        assertFalse(Files.exists(repoPath.resolve(".bodyLayout")));
+        assertEquals("Body1", flat.get(0).getBody());
+    }
+
+    @Test
+    void testRepairIndex_keepsIntactRecordsAndRebuildsDamagedOnes() throws IOException, ZettelException {
+        storage.init();
+        List<Note> saved = new ArrayList<>();
+        for (String title : List.of("First", "Second", "Third")) {
+            Note note = new Note(title.toLowerCase().substring(0, 4) + "0001", title, title + ".txt", title + " body",
+                    Instant.now(), Instant.now(), title.equals("Second"), false, null, List.of());
+            storage.createStorageFile(note);
+            saved.add(note);
+        }
+        storage.save(saved);
+        Path repoPath = tempDir.resolve("main");
+        Path indexPath = repoPath.resolve("index.txt");
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(indexPath)) {
+            // Damages the timestamp of the second record only, so its checksum no longer matches
+            lines.add(line.startsWith("seco0001") ? line.replaceFirst("T", "t") : line);
+        }
+        Files.write(indexPath, lines);
+        Files.writeString(repoPath.resolve("notes").resolve("Stray_Note.txt"), "Stray body");
+
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        ArrayList<Note> notes;
+        int rebuiltCount;
+        try {
+            Storage repairing = new Storage(tempDir.toString());
+            notes = repairing.load();
+            assertEquals(1, repairing.verifyIndex());
+            rebuiltCount = repairing.repairIndex(notes);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertTrue(outContent.toString().contains("skipped 1 damaged index record(s) of /main"));
+        assertEquals(2, rebuiltCount);
+        assertTrue(Files.exists(repoPath.resolve("index.txt.bak")));
+        Storage reloading = new Storage(tempDir.toString());
+        ArrayList<Note> repaired = reloading.load();
+        assertEquals(0, reloading.verifyIndex());
+        assertEquals(4, repaired.size());
+        Note second = repaired.stream().filter(note -> note.getId().equals("seco0001")).findFirst().orElseThrow();
+        assertEquals("Second", second.getTitle());
+        assertTrue(second.isPinned());
+        assertEquals("Second body", second.getBody());
+        Note stray = repaired.stream().filter(note -> note.getFilename().equals("Stray_Note.txt"))
+                .findFirst().orElseThrow();
+        assertEquals("Stray Note", stray.getTitle());
+        assertEquals("Stray body", stray.getBody());
+    }
+
+    @Test
+    void testCommitBody_recordsEachChangedBodyAsRevision() throws IOException, ZettelException {
+        storage.init();
+        String firstBody = "An opening line long enough that storing changes beats storing the body again\n";
+        Note note = new Note("abcd1234", "Edited", "Edited.txt", firstBody, Instant.now(), Instant.now());
+        storage.createStorageFile(note);
+        storage.save(List.of(note));
+        ArrayList<Note> notes = storage.load();
+        Note loaded = notes.get(0);
+
+        for (int i = 3; i <= 20; i++) {
+            Path editPath = storage.checkoutBody(loaded);
+            Files.writeString(editPath, Files.readString(editPath) + "line " + i + "\n");
+            storage.commitBody(loaded);
+        }
+        storage.checkoutBody(loaded);
+        storage.commitBody(loaded);
+
+        List<Revision> history = storage.getHistory(loaded);
+        assertEquals(19, history.size());
+        assertTrue(history.get(0).isKeyframe());
+        assertFalse(history.get(1).isKeyframe());
+        assertEquals(firstBody + "line 3\n", storage.readRevision(loaded, 2));
+        assertEquals(Files.readString(storage.getNotePath(loaded)), storage.readRevision(loaded, 19));
+        assertThrows(ZettelException.class, () -> storage.readRevision(loaded, 20));
+
+        storage.deleteStorageFile(loaded);
+        assertTrue(storage.getHistory(loaded).isEmpty());
+    }
+
+    @Test
+    void testCommitBody_historyStartsAtFirstChange() throws IOException, ZettelException {
+        storage.init();
+        Note note = new Note("abcd1234", "Edited", "Edited.txt", "First body", Instant.now(), Instant.now());
+        storage.createStorageFile(note);
+        Path logPath = tempDir.resolve("main/history/abcd1234.log");
+        assertFalse(Files.exists(logPath), "Creating a note should not create its revision log");
+
+        storage.checkoutBody(note);
+        storage.commitBody(note);
+        assertFalse(Files.exists(logPath), "An unchanged edit should not create the revision log");
+
+        Path editPath = storage.checkoutBody(note);
+        Files.writeString(editPath, "Second body");
+        storage.commitBody(note);
+        assertEquals(2, storage.getHistory(note).size());
+        assertEquals("First body", storage.readRevision(note, 1));
+        assertEquals("Second body", storage.readRevision(note, 2));
+    }
+
+    @Test
+    void testArchiveStorageSetting_packsArchivedBodiesAndUnpacksThem() throws IOException, ZettelException {
+        storage.init();
+        Note kept = new Note("aaaa1111", "Kept", "Kept.txt", "Kept body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        Note old = new Note("bbbb2222", "Old", "Old.txt", "Old body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(kept);
+        storage.createStorageFile(old);
+        storage.moveNoteBetweenDirectories(old, true);
+        old.setArchived(true);
+        storage.save(List.of(kept, old));
+        Path repoPath = tempDir.resolve("main");
+
+        // Existing archive files are packed when the setting is turned on
+        Files.writeString(repoPath.resolve(".repoSettings"), "archive-storage=packed");
+        ArrayList<Note> packed = storage.load();
+        assertFalse(Files.exists(repoPath.resolve("archive/Old.txt")));
+        assertTrue(Files.exists(repoPath.resolve("archive/pack.index")));
+        assertEquals("Old body", packed.get(1).getBody());
+
+        // Archiving appends to the pack, unarchiving writes the body back to notes/
+        storage.moveNoteBetweenDirectories(packed.get(0), true);
+        packed.get(0).setArchived(true);
+        assertFalse(Files.exists(repoPath.resolve("notes/Kept.txt")));
+        assertFalse(Files.exists(repoPath.resolve("archive/Kept.txt")));
+        assertEquals("Kept body", packed.get(0).getBody());
+        storage.moveNoteBetweenDirectories(packed.get(0), false);
+        packed.get(0).setArchived(false);
+        assertEquals("Kept body", Files.readString(repoPath.resolve("notes/Kept.txt")));
+        storage.save(packed);
+
+        // Turning the setting off unpacks every body and removes the pack
+        Files.writeString(repoPath.resolve(".repoSettings"), "archive-storage=files");
+        ArrayList<Note> unpacked = storage.load();
+        assertEquals("Old body", Files.readString(repoPath.resolve("archive/Old.txt")));
+        assertFalse(Files.exists(repoPath.resolve("archive/pack.index")));
+        assertEquals("Old body", unpacked.get(1).getBody());
+    }
+
+    @Test
+    void testReload_keepsNotesAndRereadsOnlyChangedBodies() throws IOException {
+        storage.init();
+        Note first = new Note("aaaa1111", "First", "First.txt", "first body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        Note second = new Note("bbbb2222", "Second", "Second.txt", "second body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(first);
+        storage.createStorageFile(second);
+        storage.save(List.of(first, second));
+
+        ArrayList<Note> notes = storage.load();
+        assertEquals("first body", notes.get(0).getBody());
+        assertEquals("second body", notes.get(1).getBody());
+        Files.writeString(tempDir.resolve("main/notes/First.txt"), "first body, edited", StandardCharsets.UTF_8);
+
+        ArrayList<Note> reloaded = storage.reload(notes);
+        assertSame(notes.get(0), reloaded.get(0));
+        assertSame(notes.get(1), reloaded.get(1));
+        assertEquals("first body, edited", reloaded.get(0).getBody());
+        assertEquals("second body", reloaded.get(1).getBody());
+        assertTrue(Files.exists(tempDir.resolve("main/bodies.manifest")));
+    }
+
+    @Test
+    void testReload_indexWrittenElsewhereLoadsAgain() {
+        storage.init();
+        Note first = new Note("aaaa1111", "First", "First.txt", "first body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(first);
+        storage.save(List.of(first));
+        ArrayList<Note> notes = storage.load();
+
+        Storage other = new Storage(tempDir.toString());
+        other.init();
+        ArrayList<Note> otherNotes = other.load();
+        Note second = new Note("bbbb2222", "Second", "Second.txt", "second body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        other.createStorageFile(second);
+        otherNotes.add(second);
+        other.save(otherNotes);
+
+        ArrayList<Note> reloaded = storage.reload(notes);
+        assertEquals(2, reloaded.size());
+        assertNotSame(notes.get(0), reloaded.get(0));
+    }
+
+    @Test
+    void testApplyExternalChanges_refreshesOnlyNotesChangedOutside()
+            throws IOException, InterruptedException, ZettelException {
+        storage.init();
+        Note first = new Note("aaaa1111", "First", "First.txt", "first body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        Note second = new Note("bbbb2222", "Second", "Second.txt", "second body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(first);
+        storage.createStorageFile(second);
+        storage.save(List.of(first, second));
+        ArrayList<Note> notes = storage.load();
+        storage.startWatching();
+        assertEquals("first body", notes.get(0).getBody());
+
+        Path firstFile = tempDir.resolve("main/notes/First.txt");
+        Files.writeString(firstFile, "first body, synced", StandardCharsets.UTF_8);
+        List<Note> refreshed = List.of();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (refreshed.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            refreshed = storage.applyExternalChanges(notes);
+        }
+
+        assertEquals(1, refreshed.size());
+        assertSame(notes.get(0), refreshed.get(0));
+        assertEquals("first body, synced", notes.get(0).getBody());
+        assertEquals(Files.getLastModifiedTime(firstFile).toInstant(), notes.get(0).getModifiedAt());
+        assertEquals("first body, synced", storage.load().get(0).getBody());
+        assertEquals(2, storage.getHistory(first).size());
+        assertEquals("first body", storage.readRevision(first, 1));
+        assertTrue(storage.getHistory(second).isEmpty());
+    }
+
+    @Test
+    void testSwitchRepo_switchingBackKeepsNotesUnlessIndexChanged() throws IOException, ZettelException {
+        storage.init();
+        storage.createRepo("other");
+        Note first = new Note("aaaa1111", "First", "First.txt", "first body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(first);
+        storage.save(List.of(first));
+        ArrayList<Note> mainNotes = storage.load();
+
+        ArrayList<Note> otherNotes = storage.switchRepo("other", mainNotes);
+        assertEquals("other", storage.readCurrRepo());
+        assertTrue(otherNotes.isEmpty());
+
+        ArrayList<Note> backNotes = storage.switchRepo("main", otherNotes);
+        assertSame(mainNotes.get(0), backNotes.get(0));
+        assertEquals("first body", backNotes.get(0).getBody());
+
+        // Saves still go through the kept repository's journal
+        backNotes.get(0).setTitle("Renamed");
+        storage.save(backNotes);
+        assertEquals("Renamed", storage.load().get(0).getTitle());
+
+        // An index written while the repository was not current is loaded again
+        backNotes = storage.load();
+        storage.switchRepo("other", backNotes);
+        Files.writeString(tempDir.resolve("main/index.journal"), "", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(tempDir.resolve("main/index.journal"),
+                FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        ArrayList<Note> reloaded = storage.switchRepo("main", List.of());
+        assertNotSame(backNotes.get(0), reloaded.get(0));
+        assertEquals("Renamed", reloaded.get(0).getTitle());
+    }
+
+    @Test
+    void testCompressArchive_compressesArchivedBodiesAndArchivingKeepsCompressing()
+            throws IOException, ZettelException {
+        storage.init();
+        String body = "Weekly review: the roadmap, the release plan and the open questions.\n";
+        Note first = new Note("aaaa1111", "First", "First.txt", body + "first",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        Note second = new Note("bbbb2222", "Second", "Second.txt", body + "second",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(first);
+        storage.createStorageFile(second);
+        storage.moveNoteBetweenDirectories(first, true);
+        first.setArchived(true);
+        storage.save(List.of(first, second));
+        Path repoPath = tempDir.resolve("main");
+
+        ArrayList<Note> notes = storage.load();
+        assertEquals(1, storage.compressArchive(notes));
+        assertEquals("deflate", notes.get(0).getBodyCodec());
+        assertFalse(Files.readString(repoPath.resolve("archive/First.txt"), StandardCharsets.ISO_8859_1)
+                .contains("Weekly review"));
+        assertEquals(body + "first", notes.get(0).getBody());
+
+        // The flag survives reloading, and notes archived later are compressed too
+        notes = storage.load();
+        assertEquals(body + "first", notes.get(0).getBody());
+        storage.moveNoteBetweenDirectories(notes.get(1), true);
+        notes.get(1).setArchived(true);
+        assertEquals("deflate", notes.get(1).getBodyCodec());
+        assertEquals(body + "second", notes.get(1).getBody());
+
+        // Unarchiving writes the plain body back to notes/
+        storage.moveNoteBetweenDirectories(notes.get(0), false);
+        notes.get(0).setArchived(false);
+        assertNull(notes.get(0).getBodyCodec());
+        assertEquals(body + "first", Files.readString(repoPath.resolve("notes/First.txt")));
+    }
+
+    @Test
+    void testBodyStoreSetting_deduplicatesBodiesAndMovesThemBack() throws IOException, ZettelException {
+        storage.init();
+        Note first = new Note("aaaa1111", "First", "First.txt", "Template body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        Note second = new Note("bbbb2222", "Second", "Second.txt", "Template body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(first);
+        storage.createStorageFile(second);
+        storage.save(List.of(first, second));
+        Path repoPath = tempDir.resolve("main");
+
+        // Turning the setting on stores both bodies as one object
+        Files.writeString(repoPath.resolve(".repoSettings"), "body-store=content");
+        ArrayList<Note> notes = storage.load();
+        String hash = notes.get(0).getBodyHash();
+        assertNotNull(hash);
+        assertEquals(hash, notes.get(1).getBodyHash());
+        assertFalse(Files.exists(repoPath.resolve("notes/First.txt")));
+        assertEquals("Template body", Files.readString(repoPath.resolve("objects").resolve(hash.substring(0, 2))
+                .resolve(hash)));
+        assertEquals("Template body", storage.load().get(1).getBody());
+
+        // An unchanged edit is detected by hash; a changed one stores a new object
+        notes = storage.load();
+        Path editPath = storage.checkoutBody(notes.get(0));
+        assertFalse(storage.commitBody(notes.get(0)));
+        assertFalse(Files.exists(editPath));
+        storage.checkoutBody(notes.get(0));
+        Files.writeString(editPath, "Edited body");
+        assertTrue(storage.commitBody(notes.get(0)));
+        storage.save(notes);
+        notes = storage.load();
+        assertEquals("Edited body", notes.get(0).getBody());
+        assertEquals(hash, notes.get(1).getBodyHash());
+
+        // Deleting a note keeps a body other notes still share
+        storage.deleteStorageFile(notes.get(0));
+        notes.remove(0);
+        storage.save(notes);
+        assertEquals("Template body", storage.load().get(0).getBody());
+
+        // Turning the setting off writes every body back to its own file and empties the store
+        Files.writeString(repoPath.resolve(".repoSettings"), "body-store=files");
+        notes = storage.load();
+        assertNull(notes.get(0).getBodyHash());
+        assertEquals("Template body", Files.readString(repoPath.resolve("notes/Second.txt")));
+        assertFalse(Files.exists(repoPath.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash)));
+    }
+
+    @Test
+    void testLoad_damagedIndexRecord_keepsContentStoreObjects() throws IOException {
+        storage.init();
+        Note first = new Note("aaaa1111", "First", "First.txt", "First body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        Note second = new Note("bbbb2222", "Second", "Second.txt", "Second body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(first);
+        storage.createStorageFile(second);
+        storage.save(List.of(first, second));
+        Path repoPath = tempDir.resolve("main");
+        Files.writeString(repoPath.resolve(".repoSettings"), "body-store=content");
+        String hash = storage.load().get(1).getBodyHash();
+        Path objectPath = repoPath.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash);
+        assertTrue(Files.exists(objectPath));
+
+        // The second note's records no longer match their checksums, so they are skipped when loading
+        for (Path path : List.of(repoPath.resolve("index.txt"), repoPath.resolve("index.journal"))) {
+            Files.writeString(path, Files.readString(path).replace("Second", "Secxnd"));
+        }
+        assertEquals(1, new Storage(tempDir.toString()).load().size());
+
+        assertTrue(Files.exists(objectPath), "The body of a skipped record should not be deleted");
+    }
+
+    @Test
+    void testStorageEngineSetting_movesNotesIntoPagedStoreAndBack() throws IOException, ZettelException {
+        storage.init();
+        Note first = new Note("aaaa1111", "First", "First.txt", "First body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        Note second = new Note("bbbb2222", "Second", "Second.txt", "Second body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        storage.createStorageFile(first);
+        storage.createStorageFile(second);
+        storage.save(List.of(first, second));
+        Path repoPath = tempDir.resolve("main");
+
+        // Turning the setting on moves every note into notes.db and removes the index and body files
+        Files.writeString(repoPath.resolve(".repoSettings"), "storage-engine=paged");
+        ArrayList<Note> notes = storage.load();
+        assertEquals(2, notes.size());
+        assertEquals("First", notes.get(0).getTitle());
+        assertEquals("Second body", notes.get(1).getBody());
+        assertTrue(Files.exists(repoPath.resolve("notes.db")));
+        assertFalse(Files.exists(repoPath.resolve("index.txt")));
+        assertFalse(Files.exists(repoPath.resolve("notes/First.txt")));
+
+        // New, edited and deleted bodies are kept in the store
+        Note third = new Note("cccc3333", "Third", "Third.txt", "Third body",
+                Instant.now(), Instant.now(), false, false, null, List.of());
+        notes.add(third);
+        storage.createStorageFile(third);
+        storage.save(notes);
+        Path editPath = storage.checkoutBody(notes.get(0));
+        assertFalse(storage.commitBody(notes.get(0)));
+        storage.checkoutBody(notes.get(0));
+        Files.writeString(editPath, "Edited body");
+        assertTrue(storage.commitBody(notes.get(0)));
+        assertFalse(Files.exists(editPath));
+        storage.deleteStorageFile(notes.get(1));
+        notes.remove(1);
+        storage.save(notes);
+
+        Storage reopened = new Storage(tempDir.toString());
+        reopened.init();
+        notes = reopened.load();
+        assertEquals(2, notes.size());
+        assertEquals("Edited body", notes.get(0).getBody());
+        assertEquals("Third body", notes.get(1).getBody());
+
+        // Turning the setting off writes the index and body files back and deletes notes.db
+        Files.writeString(repoPath.resolve(".repoSettings"), "storage-engine=files");
+        notes = reopened.load();
+        assertEquals(2, notes.size());
+        assertFalse(Files.exists(repoPath.resolve("notes.db")));
+        assertEquals("Edited body", Files.readString(repoPath.resolve("notes/First.txt")));
+        assertEquals("Third body", notes.get(1).getBody());
+    }
+
+    @Test
+    void testInit_mergesTagSummariesWithoutReadingIndexes() throws IOException, ZettelException {
+        storage.init();
+        storage.createRepo("other");
+        Files.writeString(tempDir.resolve("other").resolve("tags.summary"), "fromSummary | 2\n");
+
+        new Storage(tempDir.toString()).init();
+
+        List<String> tags = Files.readAllLines(tempDir.resolve("tags.txt"));
+        assertTrue(tags.contains("fromSummary"));
+    }
+
+    @Test
+    void testSaveWithChangedTag_updatesTagSummary() throws IOException {
+        storage.init();
+        Note note = new Note("88888889", "Title1", "Title1.txt", "Body1",
+                Instant.now(), Instant.now(), false, false, null, new ArrayList<>());
+        storage.save(List.of(note));
+        ArrayList<Note> notes = storage.load();
+        Path summaryPath = tempDir.resolve("main").resolve("tags.summary");
+        assertEquals("", Files.readString(summaryPath));
+
+        notes.get(0).addTag("work");
+        ChangeSet changes = new ChangeSet();
+        changes.addChangedNote(notes.get(0));
+        changes.addChangedTag("work");
+        storage.save(notes, changes);
+
+        assertEquals(List.of("work | 1"), Files.readAllLines(summaryPath));
+    }
+
+    @Test
+    void testInit_nonCurrentRepoValidatedOnlyWhenSwitchedTo() throws IOException, ZettelException {
+        storage.init();
+        storage.createRepo("other");
+        Path otherNotes = tempDir.resolve("other").resolve("notes");
+        Files.delete(otherNotes);
+
+        Storage restarted = new Storage(tempDir.toString());
+        restarted.init();
+        restarted.load();
+        assertFalse(Files.exists(otherNotes), "A repo that is not opened should not be validated");
+
+        restarted.changeRepo("other");
+        restarted.load();
+        assertTrue(Files.exists(otherNotes));
+        assertTrue(Files.exists(tempDir.resolve("other").resolve(".validated")));
+    }
+
+    @Test
+    void testFlush_fileAddedOutsideDuringSession_validatedOnNextLoad() throws IOException {
+        storage.init();
+        storage.load();
+        Note note = new Note("88888888", "Title", "Title.txt", "Body", Instant.now(), Instant.now(), false, false,
+                null, new ArrayList<>());
+        storage.createStorageFile(note);
+        storage.save(List.of(note));
+        Files.writeString(tempDir.resolve("main").resolve("notes").resolve("stray.txt"), "dropped in by hand");
+        storage.flush();
+
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        try {
+            Storage restarted = new Storage(tempDir.toString());
+            restarted.init();
+            restarted.load();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertTrue(outContent.toString().contains("stray.txt"));
+    }
+
+    @Test
+    void testFlush_onlyZettelChangedRepo_recordsValidation() {
+        storage.init();
+        storage.load();
+        Path repoPath = tempDir.resolve("main");
+        Note note = new Note("88888888", "Title", "Title.txt", "Body", Instant.now(), Instant.now(), false, false,
+                null, new ArrayList<>());
+        storage.createStorageFile(note);
+        storage.save(List.of(note));
+
+        storage.flush();
+
+        assertTrue(ValidationMarker.isCurrent(repoPath, BodyLayout.FLAT));
+    }
+
     @Test
     void testChangeRepo() throws ZettelException {
         // should switch repo and update config
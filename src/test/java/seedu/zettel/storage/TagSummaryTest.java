@@ -0,0 +1,52 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import seedu.zettel.Note;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TagSummaryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCount_countsNotesPerTag() {
+        Instant now = Instant.now();
+        Note first = new Note("11111111", "A", "a.txt", "", now, now, false, false, null,
+                Arrays.asList("work", "ideas"));
+        Note second = new Note("22222222", "B", "b.txt", "", now, now, false, false, null,
+                List.of("work"));
+
+        Map<String, Integer> counts = TagSummary.count(List.of(first, second));
+
+        assertEquals(Map.of("work", 2, "ideas", 1), counts);
+    }
+
+    @Test
+    void testWriteThenRead_roundTrips() throws IOException {
+        Path summaryPath = tempDir.resolve("tags.summary");
+        Map<String, Integer> counts = Map.of("work", 2, "two words", 1);
+
+        TagSummary.write(counts, summaryPath);
+
+        assertEquals(counts, TagSummary.read(summaryPath));
+    }
+
+    @Test
+    void testRead_skipsMalformedLines() throws IOException {
+        Path summaryPath = tempDir.resolve("tags.summary");
+        Files.writeString(summaryPath, "work | 3\nbroken line\nideas | many\nempty | 0\n");
+
+        assertEquals(Map.of("work", 3), TagSummary.read(summaryPath));
+    }
+}
@@ -0,0 +1,164 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.Test;
+import seedu.zettel.Note;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextIndexCodecTest {
+
+    private final TextIndexCodec codec = new TextIndexCodec();
+
+    @Test
+    void testFormat_plainNote_matchesIndexLayout() {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        Note note = new Note("12345678", "My Title", "my.txt", "", now, now,
+                true, false, null, Arrays.asList("a", "b"));
+
+        assertEquals("12345678 | My Title | my.txt | 2024-01-15T10:30:00Z | 2024-01-15T10:30:00Z"
+                + " | 1 | 0 |  | a;;b |  |  | #9fbbc8a5", codec.format(note));
+    }
+
+    @Test
+    void testParse_damagedRecord_failsChecksumAndIsCounted() {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        String line = codec.format(new Note("12345678", "My Title", "my.txt", "", now, now,
+                false, false, null, List.of("tag")));
+        String damaged = line.replace("My Title", "My Tltle");
+
+        assertTrue(codec.isIntact("legacy line without a checksum"));
+        assertTrue(codec.isIntact(line));
+        assertFalse(codec.isIntact(damaged));
+        assertNull(codec.parse(damaged));
+        assertNull(codec.parse("12345678 | Title | file.txt"));
+        assertEquals(2, codec.getDamagedCount());
+        assertNotNull(codec.parse(line));
+        codec.resetDamagedCount();
+        assertEquals(0, codec.getDamagedCount());
+    }
+
+    @Test
+    void testParse_recordCutShort_isCountedAsDamaged() {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        String line = codec.format(new Note("12345678", "My Title", "my.txt", "", now, now,
+                false, false, null, List.of("tag")));
+        String cutInChecksum = line.substring(0, line.length() - 4);
+        String cutBeforeChecksum = line.substring(0, line.lastIndexOf(" | #"));
+
+        // Without a checksummed line read before it, only a record cut inside its checksum is recognised
+        assertFalse(new TextIndexCodec().isIntact(cutInChecksum));
+        assertTrue(new TextIndexCodec().isIntact(cutBeforeChecksum));
+
+        assertNull(codec.parse(cutInChecksum));
+        assertNotNull(codec.parse(line));
+        assertNull(codec.parse(cutBeforeChecksum));
+        assertEquals(2, codec.getDamagedCount());
+    }
+
+    @Test
+    void testParse_unknownBodyCodec_returnsNull() {
+        assertNull(codec.parse("12345678 | Title | file.txt | 2024-01-15T10:30:00Z | "
+                + "2024-01-15T10:30:00Z | 0 | 0 |  |  |  |  | zstd"));
+        assertEquals(1, codec.getDamagedCount());
+    }
+
+    @Test
+    void testFormatThenParse_delimitersInFields_roundTripLosslessly() {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        Note note = new Note("12345678", "A | B ;; C \\ D\nE", "odd|name.txt", "", now, now,
+                false, true, "arch | ive", Arrays.asList("x;;y", "back\\slash", "pipe | tag"));
+        note.addOutgoingLink("abcdef01");
+        note.addIncomingLink("abcdef02");
+
+        String line = codec.format(note);
+        Note parsed = codec.parse(line);
+
+        assertNotNull(parsed);
+        assertFalse(line.contains("\n"));
+        assertEquals("A | B ;; C \\ D\nE", parsed.getTitle());
+        assertEquals("odd|name.txt", parsed.getFilename());
+        assertEquals("arch | ive", parsed.getArchiveName());
+        assertEquals(Arrays.asList("x;;y", "back\\slash", "pipe | tag"), parsed.getTags());
+        assertTrue(parsed.isLinkedTo("abcdef01"));
+        assertTrue(parsed.isLinkedBy("abcdef02"));
+        assertTrue(parsed.isArchived());
+    }
+
+    @Test
+    void testParse_unescapedLegacyLine_parsesAsBefore() {
+        Note parsed = codec.parse("test0001 | Title | file.txt | 2024-01-15T10:30:00Z | "
+                + "2024-01-15T10:30:00Z | 0 | 1 | old |  tag1 ;; tag2  | aaaaaaaa;;bbbbbbbb | ");
+
+        assertNotNull(parsed);
+        assertEquals("test0001", parsed.getId());
+        assertEquals("old", parsed.getArchiveName());
+        assertEquals(List.of("tag1", "tag2"), parsed.getTags());
+        assertEquals(2, parsed.getOutgoingLinks().size());
+        assertTrue(parsed.getIncomingLinks().isEmpty());
+    }
+
+    @Test
+    void testFormatThenParse_bodyCodec_isTwelfthFieldOnlyWhenSet() {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        Note note = new Note("12345678", "Title", "file.txt", "", now, now,
+                false, true, "archive", List.of("tag"));
+        note.addIncomingLink("abcdef02");
+        note.setBodyCodec("deflate");
+
+        String line = codec.format(note);
+        Note parsed = codec.parse(line);
+
+        assertTrue(line.matches(".* \\| abcdef02 \\| deflate \\| #[0-9a-f]{8}"));
+        assertNotNull(parsed);
+        assertEquals("deflate", parsed.getBodyCodec());
+        assertEquals(1, parsed.getIncomingLinks().size());
+        assertTrue(parsed.isLinkedBy("abcdef02"));
+        assertNull(codec.parse(codec.format(new Note("12345678", "Title", "file.txt", "", now, now,
+                false, false, null, List.of()))).getBodyCodec());
+    }
+
+    @Test
+    void testFormatThenParse_bodyHashWithoutCodec_leavesCodecFieldEmpty() {
+        Instant now = Instant.parse("2024-01-15T10:30:00Z");
+        Note note = new Note("12345678", "Title", "file.txt", "", now, now, false, false, null, List.of());
+        String hash = "ab".repeat(32);
+        note.setBodyHash(hash);
+
+        String line = codec.format(note);
+        Note parsed = codec.parse(line);
+
+        assertTrue(line.matches(".* \\|  \\| " + hash + " \\| #[0-9a-f]{8}"));
+        assertNotNull(parsed);
+        assertNull(parsed.getBodyCodec());
+        assertEquals(hash, parsed.getBodyHash());
+    }
+
+    @Test
+    void testParse_unknownEscape_keptLiterally() {
+        Note parsed = codec.parse("12345678 | C:\\temp | file.txt | 2024-01-15T10:30:00Z | "
+                + "2024-01-15T10:30:00Z | 0 | 0 |  |  |  | ");
+
+        assertNotNull(parsed);
+        assertEquals("C:\\temp", parsed.getTitle());
+    }
+
+    @Test
+    void testParse_tooFewFields_returnsNull() {
+        assertNull(codec.parse("12345678 | Title | file.txt"));
+        assertNull(codec.parse("   "));
+    }
+
+    @Test
+    void testParse_badTimestamp_returnsNull() {
+        assertNull(codec.parse("12345678 | Title | file.txt | yesterday | "
+                + "2024-01-15T10:30:00Z | 0 | 0 |  |  |  | "));
+    }
+}
@@ -0,0 +1,80 @@
+package seedu.zettel.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationMarkerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path repoPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repoPath = tempDir.resolve("repo");
+        Files.createDirectories(repoPath.resolve("notes"));
+        Files.createDirectories(repoPath.resolve("archive"));
+        Files.writeString(repoPath.resolve("index.txt"), "");
+    }
+
+    @Test
+    void testIsCurrent_neverValidated_false() {
+        assertFalse(ValidationMarker.isCurrent(repoPath, BodyLayout.FLAT));
+    }
+
+    @Test
+    void testIsCurrent_unchangedSinceRecorded_true() {
+        ValidationMarker.record(repoPath, BodyLayout.FLAT);
+
+        assertTrue(ValidationMarker.isCurrent(repoPath, BodyLayout.FLAT));
+    }
+
+    @Test
+    void testIsCurrent_bodyFileAdded_false() throws IOException {
+        Path notesDir = repoPath.resolve("notes");
+        ValidationMarker.record(repoPath, BodyLayout.FLAT);
+
+        Files.writeString(notesDir.resolve("new.txt"), "dropped in by hand");
+        // Directory timestamps can be coarse, so make sure the change is visible
+        Files.setLastModifiedTime(notesDir, FileTime.fromMillis(
+                Files.getLastModifiedTime(notesDir).toMillis() + 1000));
+
+        assertFalse(ValidationMarker.isCurrent(repoPath, BodyLayout.FLAT));
+    }
+
+    @Test
+    void testIsCurrent_bodyFileAddedToShardDirectory_false() throws IOException {
+        Path shardDir = repoPath.resolve("notes").resolve("ab").resolve("cd");
+        Files.createDirectories(shardDir);
+        ValidationMarker.record(repoPath, BodyLayout.SHARDED);
+        Path notesDir = repoPath.resolve("notes");
+        long notesDirTime = Files.getLastModifiedTime(notesDir).toMillis();
+
+        Files.writeString(shardDir.resolve("abcd1234.txt"), "dropped in by hand");
+        Files.setLastModifiedTime(shardDir, FileTime.fromMillis(
+                Files.getLastModifiedTime(shardDir).toMillis() + 1000));
+        // Only the shard directory changed, not notes/ itself
+        Files.setLastModifiedTime(notesDir, FileTime.fromMillis(notesDirTime));
+
+        assertFalse(ValidationMarker.isCurrent(repoPath, BodyLayout.SHARDED));
+    }
+
+    @Test
+    void testIsCurrent_indexChanged_false() throws IOException {
+        ValidationMarker.record(repoPath, BodyLayout.FLAT);
+
+        Files.writeString(repoPath.resolve("index.txt"), "changed");
+
+        assertFalse(ValidationMarker.isCurrent(repoPath, BodyLayout.FLAT));
+    }
+}
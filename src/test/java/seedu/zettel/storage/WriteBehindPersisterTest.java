@@ -0,0 +1,103 @@
+package seedu.zettel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import seedu.zettel.Note;
+
+public class WriteBehindPersisterTest {
+
+    private static Note makeNote(String id) {
+        return new Note(id, "Title " + id, id + ".txt", "", Instant.now(), Instant.now(),
+                false, false, null, List.of());
+    }
+
+    private static ChangeSet changed(Note note) {
+        ChangeSet changes = new ChangeSet();
+        changes.addChangedNote(note);
+        return changes;
+    }
+
+    @Test
+    void testEnqueue_changesWithinQuietPeriodAreSavedTogether() throws InterruptedException {
+        List<ChangeSet> saved = new CopyOnWriteArrayList<>();
+        CountDownLatch savedLatch = new CountDownLatch(1);
+        WriteBehindPersister persister = new WriteBehindPersister(new ReentrantLock(), (notes, changes) -> {
+            saved.add(changes);
+            savedLatch.countDown();
+        }, 200, 100);
+        assertEquals(Duration.ZERO, persister.getLastFlushLatency());
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Note note = makeNote("0000000" + i);
+            notes.add(note);
+            persister.enqueue(notes, changed(note));
+        }
+
+        assertEquals(5, persister.getQueueDepth());
+        assertTrue(savedLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, saved.size());
+        assertEquals(5, saved.get(0).getChangedNotes().size());
+        assertEquals(0, persister.getQueueDepth());
+        assertEquals(1, persister.getFlushCount());
+        assertTrue(persister.getLastFlushLatency().compareTo(Duration.ZERO) > 0);
+        assertEquals(persister.getLastFlushLatency(), persister.getMaxFlushLatency());
+        persister.close();
+    }
+
+    @Test
+    void testEnqueue_manyPendingChangesAreSavedWithoutWaitingForQuiet() throws InterruptedException {
+        CountDownLatch savedLatch = new CountDownLatch(1);
+        WriteBehindPersister persister = new WriteBehindPersister(new ReentrantLock(),
+                (notes, changes) -> savedLatch.countDown(), TimeUnit.HOURS.toMillis(1), 3);
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            persister.enqueue(notes, changed(makeNote("0000000" + i)));
+        }
+
+        assertTrue(savedLatch.await(5, TimeUnit.SECONDS));
+        persister.close();
+    }
+
+    @Test
+    void testFlush_savesPendingChangesOnCallerWithLaterChangeWinning() {
+        List<ChangeSet> saved = new ArrayList<>();
+        List<Thread> savingThreads = new ArrayList<>();
+        WriteBehindPersister persister = new WriteBehindPersister(new ReentrantLock(), (notes, changes) -> {
+            saved.add(changes);
+            savingThreads.add(Thread.currentThread());
+        }, TimeUnit.HOURS.toMillis(1), 100);
+        List<Note> notes = new ArrayList<>();
+        Note deleted = makeNote("aaaaaaaa");
+        Note recreated = makeNote("bbbbbbbb");
+        ChangeSet deletion = new ChangeSet();
+        deletion.addDeletedNote(deleted);
+        deletion.addDeletedNote(recreated);
+        persister.enqueue(notes, changed(deleted));
+        persister.enqueue(notes, deletion);
+        persister.enqueue(notes, changed(recreated));
+
+        persister.flush();
+
+        assertEquals(1, saved.size());
+        assertSame(Thread.currentThread(), savingThreads.get(0));
+        assertEquals(List.of("aaaaaaaa"), new ArrayList<>(saved.get(0).getDeletedNoteIds()));
+        assertTrue(saved.get(0).getChangedNotes().contains(recreated));
+        assertFalse(saved.get(0).getChangedNotes().contains(deleted));
+        assertEquals(0, persister.getQueueDepth());
+        persister.close();
+    }
+}